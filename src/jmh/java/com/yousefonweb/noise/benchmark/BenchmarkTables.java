@@ -0,0 +1,43 @@
+package com.yousefonweb.noise.benchmark;
+
+import com.yousefonweb.noise.PermutationTable;
+
+import java.util.Random;
+
+/**
+ * Permutation tables selectable through a {@code @Param("table")} value.
+ * Randomized tables use a fixed seed so every run measures the same permutation.
+ */
+final class BenchmarkTables {
+
+    static final long SEED = 0x5EEDL;
+
+    private BenchmarkTables() {
+    }
+
+    /**
+     * @param name "default" for the built-in table, or "randomN" for a shuffled table of period N.
+     */
+    static PermutationTable create(String name) {
+        if (name.equals("default")) {
+            return new PermutationTable();
+        }
+        if (name.startsWith("random")) {
+            int period = Integer.parseInt(name.substring("random".length()));
+            PermutationTable table = new PermutationTable();
+            table.randomize(period, new Random(SEED));
+            return table;
+        }
+        throw new IllegalArgumentException("Unknown table: " + name);
+    }
+
+    /** Fixed pseudo-random sample coordinates in [-range, range). */
+    static double[] coordinates(int count, double range, long seed) {
+        Random random = new Random(seed);
+        double[] c = new double[count];
+        for (int i = 0; i < count; i++) {
+            c[i] = (random.nextDouble() * 2.0 - 1.0) * range;
+        }
+        return c;
+    }
+}
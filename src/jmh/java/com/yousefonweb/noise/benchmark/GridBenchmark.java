@@ -0,0 +1,85 @@
+package com.yousefonweb.noise.benchmark;
+
+import com.yousefonweb.noise.PermutationTable;
+import com.yousefonweb.noise.PerlinNoise;
+import com.yousefonweb.noise.SimplexNoise;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bulk fillGrid2D/fillGrid3D cost per sample (ns/op, one op = one sample).
+ * Forks with jdk.incubator.vector enabled; append -Dcom.yousefonweb.noise.simd=false
+ * through -jvmArgsAppend to measure the scalar kernels.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class GridBenchmark {
+
+    static final int SIDE_2D = 256;
+    static final int SIDE_3D = 32;
+    static final double STEP = 1.0 / 32;
+
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8" })
+    public int octaves;
+
+    @Param({ "default", "random256", "random64" })
+    public String table;
+
+    private PermutationTable permTable;
+    private double[] grid2D;
+    private double[] grid3D;
+
+    @Setup
+    public void setup() {
+        permTable = BenchmarkTables.create(table);
+        grid2D = new double[SIDE_2D * SIDE_2D];
+        grid3D = new double[SIDE_3D * SIDE_3D * SIDE_3D];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIDE_2D * SIDE_2D)
+    public double[] perlinGrid2D() {
+        PerlinNoise.fillGrid2D(grid2D, 0.0, 0.0, STEP, STEP, SIDE_2D, SIDE_2D, octaves, 0.5, 2.0, 0, permTable);
+        return grid2D;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIDE_3D * SIDE_3D * SIDE_3D)
+    public double[] perlinGrid3D() {
+        PerlinNoise.fillGrid3D(grid3D, 0.0, 0.0, 0.0, STEP, STEP, STEP, SIDE_3D, SIDE_3D, SIDE_3D,
+                octaves, 0.5, 2.0, 0, permTable);
+        return grid3D;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIDE_2D * SIDE_2D)
+    public double[] simplexGrid2D() {
+        SimplexNoise.fillGrid2D(grid2D, 0.0, 0.0, STEP, STEP, SIDE_2D, SIDE_2D, octaves, 0.5, 2.0, permTable);
+        return grid2D;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIDE_3D * SIDE_3D * SIDE_3D)
+    public double[] simplexGrid3D() {
+        SimplexNoise.fillGrid3D(grid3D, 0.0, 0.0, 0.0, STEP, STEP, STEP, SIDE_3D, SIDE_3D, SIDE_3D,
+                octaves, 0.5, 2.0, permTable);
+        return grid3D;
+    }
+}
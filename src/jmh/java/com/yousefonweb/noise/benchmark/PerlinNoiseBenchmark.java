@@ -0,0 +1,85 @@
+package com.yousefonweb.noise.benchmark;
+
+import com.yousefonweb.noise.PermutationTable;
+import com.yousefonweb.noise.PerlinNoise;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scalar Perlin noise cost per sample (ns/op, one op = one sample).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PerlinNoiseBenchmark {
+
+    static final int SAMPLES = 1024;
+
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8" })
+    public int octaves;
+
+    @Param({ "default", "random256", "random64" })
+    public String table;
+
+    private PermutationTable permTable;
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+
+    @Setup
+    public void setup() {
+        permTable = BenchmarkTables.create(table);
+        xs = BenchmarkTables.coordinates(SAMPLES, 256.0, 1);
+        ys = BenchmarkTables.coordinates(SAMPLES, 256.0, 2);
+        zs = BenchmarkTables.coordinates(SAMPLES, 256.0, 3);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void pnoise1(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(PerlinNoise.pnoise1(xs[i], octaves, 0.5, 2.0, 0, permTable));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void pnoise2(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(PerlinNoise.pnoise2(xs[i], ys[i], octaves, 0.5, 2.0, 0, permTable));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void pnoise3(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(PerlinNoise.pnoise3(xs[i], ys[i], zs[i], octaves, 0.5, 2.0, 0, permTable, 0, 0, 0));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void pnoise3Tileable(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(PerlinNoise.pnoise3(xs[i], ys[i], zs[i], octaves, 0.5, 2.0, 0, permTable, 64, 64, 64));
+        }
+    }
+}
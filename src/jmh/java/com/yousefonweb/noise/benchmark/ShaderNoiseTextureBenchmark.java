@@ -0,0 +1,73 @@
+package com.yousefonweb.noise.benchmark;
+
+import com.yousefonweb.noise.shader.ShaderNoiseTexture;
+import com.yousefonweb.noise.shader.ShaderNoiseTextureCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to bake a ShaderNoiseTexture (ms per texture), and to load it from a ShaderNoiseTextureCache
+ * file instead (mapping plus checksum, which pages the whole file in). No GL context is needed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShaderNoiseTextureBenchmark {
+
+    @Param({ "32", "64", "128" })
+    public int width;
+
+    @Param({ "4" })
+    public int freq;
+
+    private Path cacheDirectory;
+    private ShaderNoiseTextureCache cache;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        cacheDirectory = Files.createTempDirectory("noise-texture-cache");
+        cache = new ShaderNoiseTextureCache(cacheDirectory);
+        cache.store(new ShaderNoiseTexture(freq, width));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public ShaderNoiseTexture construct() {
+        return new ShaderNoiseTexture(freq, width);
+    }
+
+    @Benchmark
+    public ShaderNoiseTexture loadCached() throws IOException {
+        return cache.load(freq, width);
+    }
+}
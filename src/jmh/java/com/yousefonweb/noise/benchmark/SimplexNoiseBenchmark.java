@@ -0,0 +1,95 @@
+package com.yousefonweb.noise.benchmark;
+
+import com.yousefonweb.noise.PermutationTable;
+import com.yousefonweb.noise.SimplexNoise;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Scalar simplex noise cost per sample (ns/op, one op = one sample).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimplexNoiseBenchmark {
+
+    static final int SAMPLES = 1024;
+    static final double SLICE_STEP = 1.0 / 16;
+
+    @Param({ "1", "2", "3", "4", "5", "6", "7", "8" })
+    public int octaves;
+
+    @Param({ "default", "random256", "random64" })
+    public String table;
+
+    private PermutationTable permTable;
+    private double[] xs;
+    private double[] ys;
+    private double[] zs;
+    private double[] ws;
+    private double time;
+
+    @Setup
+    public void setup() {
+        permTable = BenchmarkTables.create(table);
+        xs = BenchmarkTables.coordinates(SAMPLES, 256.0, 1);
+        ys = BenchmarkTables.coordinates(SAMPLES, 256.0, 2);
+        zs = BenchmarkTables.coordinates(SAMPLES, 256.0, 3);
+        ws = BenchmarkTables.coordinates(SAMPLES, 256.0, 4);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void snoise2(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(SimplexNoise.snoise2(xs[i], ys[i], octaves, 0.5, 2.0, permTable));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void snoise3(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(SimplexNoise.snoise3(xs[i], ys[i], zs[i], octaves, 0.5, 2.0, permTable));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void snoise4(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(SimplexNoise.snoise4(xs[i], ys[i], zs[i], ws[i], octaves, 0.5, 2.0, permTable));
+        }
+    }
+
+    /**
+     * snoise4 over one 32x32 z-slice of a 3D field animated through w, sampled in row order:
+     * the coherent counterpart of {@link #snoise4}, whose random points defeat branch prediction.
+     */
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public void snoise4Slice(Blackhole bh) {
+        for (int i = 0; i < SAMPLES; i++) {
+            bh.consume(SimplexNoise.snoise4((i & 31) * SLICE_STEP, (i >> 5) * SLICE_STEP, 0.5, time, octaves, 0.5, 2.0,
+                    permTable));
+        }
+        time += SLICE_STEP;
+    }
+}
@@ -0,0 +1,74 @@
+package com.yousefonweb.noise.benchmark;
+
+import com.yousefonweb.noise.PerlinNoise;
+import com.yousefonweb.noise.PermutationTable;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time to fill one z-slice of a ShaderNoiseTexture-shaped grid with tileable two-channel 3D
+ * Perlin noise (us/op, one op = width x width texels): pnoise3Channels per texel (per-sample
+ * wrapping) against one fillGrid3DChannels call for the slice (the row engine with wrap tables).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TileableBenchmark {
+
+    @Param({ "64", "128" })
+    public int width;
+
+    @Param({ "4" })
+    public int freq;
+
+    @Param({ "1", "3" })
+    public int octaves;
+
+    private final PermutationTable permTable = new PermutationTable();
+    private int[] bases;
+    private PermutationTable[] tables;
+    private double scale;
+    private double[] slice;
+
+    @Setup
+    public void setup() {
+        bases = new int[] { 0, freq + 1 };
+        tables = new PermutationTable[] { permTable, permTable };
+        scale = (double) freq / width;
+        slice = new double[width * width * 2];
+    }
+
+    @Benchmark
+    public double[] perSample() {
+        double z = 5 * scale;
+        for (int y = 0; y < width; y++) {
+            for (int x = 0; x < width; x++) {
+                PerlinNoise.pnoise3Channels(x * scale, y * scale, z, octaves, 0.5, 2.0, bases, tables, freq, freq,
+                        freq, slice, (y * width + x) * 2);
+            }
+        }
+        return slice;
+    }
+
+    @Benchmark
+    public double[] rows() {
+        PerlinNoise.fillGrid3DChannels(slice, 2, 0.0, 0.0, 5 * scale, scale, scale, scale, width, width, 1, octaves,
+                0.5, 2.0, bases, tables, freq, freq, freq);
+        return slice;
+    }
+}
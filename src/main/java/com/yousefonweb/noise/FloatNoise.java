@@ -0,0 +1,551 @@
+package com.yousefonweb.noise;
+
+import static com.yousefonweb.noise.NoiseConstants.GRAD3;
+import static com.yousefonweb.noise.NoiseConstants.dot;
+import static com.yousefonweb.noise.NoiseConstants.fade;
+import static com.yousefonweb.noise.NoiseConstants.lerp;
+
+import java.util.Arrays;
+
+/**
+ * Single-precision Perlin and simplex noise.
+ *
+ * These are the algorithms of {@link PerlinNoise} ({@code pnoise1/2/3}, non-tiling) and
+ * {@link SimplexNoise} ({@code snoise2/3}) carried out entirely in {@code float}: coordinates,
+ * octave frequency and amplitude, fade, lerp and the gradient dot products. They are meant for
+ * heightmaps and textures that are stored as {@code float} or narrower anyway, where the bulk
+ * methods move half the bytes of the double path and skip the narrowing on store.
+ *
+ * <p>Error against the double functions evaluated at the same (float) coordinates and
+ * parameters, measured over |coordinates| ≤ 256 and 1 to 8 octaves with the default
+ * persistence and lacunarity:
+ * <ul>
+ * <li>Perlin ({@code pnoise1/2/3}): below 2e-6 absolute. Scaling by a power-of-two
+ * lacunarity is exact in float, so the error does not grow with the coordinates.</li>
+ * <li>Simplex ({@code snoise2}): below 6e-7 × max(1, |x|, |y|). The skew and unskew steps
+ * round at the magnitude of the coordinates before the in-cell offset is formed.</li>
+ * <li>Simplex ({@code snoise3}): the same order as {@code snoise2} in most places, but up to
+ * about 2e-3 next to simplex boundaries. Its 0.6 kernel radius makes the function slightly
+ * discontinuous there, and float and double may pick different simplices for a point that
+ * lies within rounding distance of one.</li>
+ * </ul>
+ * Use the double functions when that matters, or keep coordinates small by offsetting large
+ * worlds per region.
+ *
+ * <p>The bulk {@code fill} methods compute sample coordinates as {@code originX + ix * stepX}
+ * in float and are bit-identical to the scalar functions of this class at those coordinates.
+ * Unlike the double {@code fillGrid} float variants, which compute in double and narrow on
+ * store, they are not bit-identical to the double path; the bounds above apply.
+ */
+public final class FloatNoise {
+
+    private static final PermutationTable DEFAULT_PERMUTATION_TABLE = new PermutationTable();
+    private static final float DEFAULT_PERSISTENCE = 0.5f;
+    private static final float DEFAULT_LACUNARITY = 2.0f;
+
+    static final float F2 = (float) NoiseConstants.F2;
+    static final float G2 = (float) NoiseConstants.G2;
+    static final float F3 = (float) NoiseConstants.F3;
+    static final float G3 = (float) NoiseConstants.G3;
+
+    private FloatNoise() {
+    }
+
+    // (int) Math.floor(v) for |v| < 2^31, without the round trip through double.
+    static int floor(float v) {
+        int i = (int) v;
+        return v < i ? i - 1 : i;
+    }
+
+    // --- Perlin ---
+
+    private static float perlin(float x, int base, PermutationTable permTable) {
+        int cx = floor(x);
+        int X = PerlinNoise.latticeIndex(cx, base, permTable.getPeriod());
+        x -= cx;
+        float u = fade(x);
+        return lerp(u, GRAD3[permTable.getPermMod12(X)][0] * x,
+                GRAD3[permTable.getPermMod12(X + 1)][0] * (x - 1));
+    }
+
+    private static float perlin(float x, float y, int base, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        int cx = floor(x);
+        int cy = floor(y);
+        int X = PerlinNoise.latticeIndex(cx, base, period);
+        int Y = PerlinNoise.latticeIndex(cy, base, period);
+        x -= cx;
+        y -= cy;
+        float u = fade(x);
+        float v = fade(y);
+
+        int A = permTable.getPerm(X) + Y;
+        int B = permTable.getPerm(X + 1) + Y;
+
+        return lerp(v, lerp(u, dot(GRAD3[permTable.getPermMod12(A)], x, y),
+                dot(GRAD3[permTable.getPermMod12(B)], x - 1, y)),
+                lerp(u, dot(GRAD3[permTable.getPermMod12(A + 1)], x, y - 1),
+                        dot(GRAD3[permTable.getPermMod12(B + 1)], x - 1, y - 1)));
+    }
+
+    private static float perlin(float x, float y, float z, int base, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        int cx = floor(x);
+        int cy = floor(y);
+        int cz = floor(z);
+        int X = PerlinNoise.latticeIndex(cx, base, period);
+        int Y = PerlinNoise.latticeIndex(cy, base, period);
+        int Z = PerlinNoise.latticeIndex(cz, base, period);
+        x -= cx;
+        y -= cy;
+        z -= cz;
+        float u = fade(x);
+        float v = fade(y);
+        float w = fade(z);
+
+        int A = permTable.getPerm(X) + Y;
+        int AA = permTable.getPerm(A) + Z;
+        int AB = permTable.getPerm(A + 1) + Z;
+        int B = permTable.getPerm(X + 1) + Y;
+        int BA = permTable.getPerm(B) + Z;
+        int BB = permTable.getPerm(B + 1) + Z;
+
+        return lerp(w, lerp(v, lerp(u, dot(GRAD3[permTable.getPermMod12(AA)], x, y, z),
+                dot(GRAD3[permTable.getPermMod12(BA)], x - 1, y, z)),
+                lerp(u, dot(GRAD3[permTable.getPermMod12(AB)], x, y - 1, z),
+                        dot(GRAD3[permTable.getPermMod12(BB)], x - 1, y - 1, z))),
+                lerp(v, lerp(u, dot(GRAD3[permTable.getPermMod12(AA + 1)], x, y, z - 1),
+                        dot(GRAD3[permTable.getPermMod12(BA + 1)], x - 1, y, z - 1)),
+                        lerp(u, dot(GRAD3[permTable.getPermMod12(AB + 1)], x, y - 1, z - 1),
+                                dot(GRAD3[permTable.getPermMod12(BB + 1)], x - 1, y - 1, z - 1))));
+    }
+
+    public static float pnoise1(float x, int octaves, float persistence, float lacunarity, int base,
+            PermutationTable permTable) {
+        float total = 0;
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
+
+        for (int i = 0; i < octaves; i++) {
+            total += perlin(x * frequency, 0, shifted) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static float pnoise1(float x, int octaves) {
+        return pnoise1(x, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, 0, DEFAULT_PERMUTATION_TABLE);
+    }
+
+    public static float pnoise2(float x, float y, int octaves, float persistence, float lacunarity, int base,
+            PermutationTable permTable) {
+        float total = 0;
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
+
+        for (int i = 0; i < octaves; i++) {
+            total += perlin(x * frequency, y * frequency, 0, shifted) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static float pnoise2(float x, float y, int octaves) {
+        return pnoise2(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, 0, DEFAULT_PERMUTATION_TABLE);
+    }
+
+    public static float pnoise3(float x, float y, float z, int octaves, float persistence, float lacunarity,
+            int base, PermutationTable permTable) {
+        float total = 0;
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
+
+        for (int i = 0; i < octaves; i++) {
+            total += perlin(x * frequency, y * frequency, z * frequency, 0, shifted) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static float pnoise3(float x, float y, float z, int octaves) {
+        return pnoise3(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, 0, DEFAULT_PERMUTATION_TABLE);
+    }
+
+    // --- Simplex ---
+
+    private static float simplex(float x, float y, PermutationTable permTable) {
+        float n = 0.0f;
+        float s = (x + y) * F2;
+        int i = floor(x + s);
+        int j = floor(y + s);
+        float t = (i + j) * G2;
+        float x0 = x - (i - t);
+        float y0 = y - (j - t);
+
+        int i1, j1;
+        if (x0 > y0) {
+            i1 = 1; j1 = 0;
+        } else {
+            i1 = 0; j1 = 1;
+        }
+
+        float x1 = x0 - i1 + G2;
+        float y1 = y0 - j1 + G2;
+        float x2 = x0 - 1.0f + 2.0f * G2;
+        float y2 = y0 - 1.0f + 2.0f * G2;
+
+        int ii = i % permTable.getPeriod(); if (ii < 0) ii += permTable.getPeriod();
+        int jj = j % permTable.getPeriod(); if (jj < 0) jj += permTable.getPeriod();
+
+        int gi0 = permTable.getPermMod12(ii + permTable.getPerm(jj));
+        int gi1 = permTable.getPermMod12(ii + i1 + permTable.getPerm(jj + j1));
+        int gi2 = permTable.getPermMod12(ii + 1 + permTable.getPerm(jj + 1));
+
+        float t0 = 0.5f - x0 * x0 - y0 * y0;
+        if (t0 > 0) {
+            t0 *= t0;
+            n += t0 * t0 * dot(GRAD3[gi0], x0, y0);
+        }
+        float t1 = 0.5f - x1 * x1 - y1 * y1;
+        if (t1 > 0) {
+            t1 *= t1;
+            n += t1 * t1 * dot(GRAD3[gi1], x1, y1);
+        }
+        float t2 = 0.5f - x2 * x2 - y2 * y2;
+        if (t2 > 0) {
+            t2 *= t2;
+            n += t2 * t2 * dot(GRAD3[gi2], x2, y2);
+        }
+        return 70.0f * n;
+    }
+
+    private static float simplex(float x, float y, float z, PermutationTable permTable) {
+        float n = 0.0f;
+        float s = (x + y + z) * F3;
+        int i = floor(x + s);
+        int j = floor(y + s);
+        int k = floor(z + s);
+        float t = (i + j + k) * G3;
+        float x0 = x - (i - t);
+        float y0 = y - (j - t);
+        float z0 = z - (k - t);
+
+        int i1, j1, k1;
+        int i2, j2, k2;
+        if (x0 >= y0) {
+            if (y0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+            else if (x0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1; }
+            else { i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1; }
+        } else { // x0 < y0
+            if (y0 < z0) { i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1; }
+            else if (x0 < z0) { i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1; }
+            else { i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+        }
+
+        float x1 = x0 - i1 + G3;
+        float y1 = y0 - j1 + G3;
+        float z1 = z0 - k1 + G3;
+        float x2 = x0 - i2 + 2.0f * G3;
+        float y2 = y0 - j2 + 2.0f * G3;
+        float z2 = z0 - k2 + 2.0f * G3;
+        float x3 = x0 - 1.0f + 3.0f * G3;
+        float y3 = y0 - 1.0f + 3.0f * G3;
+        float z3 = z0 - 1.0f + 3.0f * G3;
+
+        int ii = i % permTable.getPeriod(); if (ii < 0) ii += permTable.getPeriod();
+        int jj = j % permTable.getPeriod(); if (jj < 0) jj += permTable.getPeriod();
+        int kk = k % permTable.getPeriod(); if (kk < 0) kk += permTable.getPeriod();
+
+        int gi0 = permTable.getPermMod12(ii + permTable.getPerm(jj + permTable.getPerm(kk)));
+        int gi1 = permTable.getPermMod12(ii + i1 + permTable.getPerm(jj + j1 + permTable.getPerm(kk + k1)));
+        int gi2 = permTable.getPermMod12(ii + i2 + permTable.getPerm(jj + j2 + permTable.getPerm(kk + k2)));
+        int gi3 = permTable.getPermMod12(ii + 1 + permTable.getPerm(jj + 1 + permTable.getPerm(kk + 1)));
+
+        float t0 = 0.6f - x0 * x0 - y0 * y0 - z0 * z0;
+        if (t0 > 0) {
+            t0 *= t0;
+            n += t0 * t0 * dot(GRAD3[gi0], x0, y0, z0);
+        }
+        float t1 = 0.6f - x1 * x1 - y1 * y1 - z1 * z1;
+        if (t1 > 0) {
+            t1 *= t1;
+            n += t1 * t1 * dot(GRAD3[gi1], x1, y1, z1);
+        }
+        float t2 = 0.6f - x2 * x2 - y2 * y2 - z2 * z2;
+        if (t2 > 0) {
+            t2 *= t2;
+            n += t2 * t2 * dot(GRAD3[gi2], x2, y2, z2);
+        }
+        float t3 = 0.6f - x3 * x3 - y3 * y3 - z3 * z3;
+        if (t3 > 0) {
+            t3 *= t3;
+            n += t3 * t3 * dot(GRAD3[gi3], x3, y3, z3);
+        }
+        return 32.0f * n;
+    }
+
+    public static float snoise2(float x, float y, int octaves, float persistence, float lacunarity,
+            PermutationTable permTable) {
+        float total = 0;
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += simplex(x * frequency, y * frequency, permTable) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static float snoise2(float x, float y, int octaves) {
+        return snoise2(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, DEFAULT_PERMUTATION_TABLE);
+    }
+
+    public static float snoise3(float x, float y, float z, int octaves, float persistence, float lacunarity,
+            PermutationTable permTable) {
+        float total = 0;
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += simplex(x * frequency, y * frequency, z * frequency, permTable) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static float snoise3(float x, float y, float z, int octaves) {
+        return snoise3(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, DEFAULT_PERMUTATION_TABLE);
+    }
+
+    // Bulk grid evaluation.
+    // Same layout and structure as the fillGrid methods of PerlinNoise and SimplexNoise, with
+    // sample coordinates computed in float. With jdk.incubator.vector enabled, rows go through
+    // FloatVectorKernels instead (see SimdSupport).
+
+    /**
+     * Fills {@code out} with 2D Perlin fBm sampled on a regular grid, row-major
+     * ({@code out[iy * width + ix]}). Each value equals
+     * {@code pnoise2(originX + ix * stepX, originY + iy * stepY, octaves, persistence, lacunarity, base, permTable)}.
+     *
+     * @param out Destination array, at least {@code width * height} long.
+     */
+    public static void fillPerlin2D(float[] out, float originX, float originY, float stepX, float stepY,
+            int width, int height, int octaves, float persistence, float lacunarity, int base,
+            PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        for (int iy = 0; iy < height; iy++) {
+            perlinRow2D(out, iy * width, originX, stepX, 0, width, originY + iy * stepY,
+                    octaves, persistence, lacunarity, base, permTable);
+        }
+    }
+
+    /**
+     * Fills {@code out} with 3D Perlin fBm sampled on a regular grid
+     * ({@code out[(iz * height + iy) * width + ix]}). Each value equals
+     * {@code pnoise3(originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ,
+     * octaves, persistence, lacunarity, base, permTable)}.
+     *
+     * @param out Destination array, at least {@code width * height * depth} long.
+     */
+    public static void fillPerlin3D(float[] out, float originX, float originY, float originZ,
+            float stepX, float stepY, float stepZ, int width, int height, int depth,
+            int octaves, float persistence, float lacunarity, int base, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        for (int iz = 0; iz < depth; iz++) {
+            float z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                perlinRow3D(out, (iz * height + iy) * width, originX, stepX, 0, width, originY + iy * stepY, z,
+                        octaves, persistence, lacunarity, base, permTable);
+            }
+        }
+    }
+
+    /**
+     * Fills {@code out} with 2D simplex fBm sampled on a regular grid, row-major
+     * ({@code out[iy * width + ix]}). Each value equals
+     * {@code snoise2(originX + ix * stepX, originY + iy * stepY, octaves, persistence, lacunarity, permTable)}.
+     *
+     * @param out Destination array, at least {@code width * height} long.
+     */
+    public static void fillSimplex2D(float[] out, float originX, float originY, float stepX, float stepY,
+            int width, int height, int octaves, float persistence, float lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        for (int iy = 0; iy < height; iy++) {
+            simplexRow2D(out, iy * width, originX, stepX, 0, width, originY + iy * stepY,
+                    octaves, persistence, lacunarity, permTable);
+        }
+    }
+
+    /**
+     * Fills {@code out} with 3D simplex fBm sampled on a regular grid
+     * ({@code out[(iz * height + iy) * width + ix]}). Each value equals
+     * {@code snoise3(originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ,
+     * octaves, persistence, lacunarity, permTable)}.
+     *
+     * @param out Destination array, at least {@code width * height * depth} long.
+     */
+    public static void fillSimplex3D(float[] out, float originX, float originY, float originZ,
+            float stepX, float stepY, float stepZ, int width, int height, int depth,
+            int octaves, float persistence, float lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        for (int iz = 0; iz < depth; iz++) {
+            float z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                simplexRow3D(out, (iz * height + iy) * width, originX, stepX, 0, width, originY + iy * stepY, z,
+                        octaves, persistence, lacunarity, permTable);
+            }
+        }
+    }
+
+    // fBm over 'count' samples of one row starting at column ix0, written to dst[offset..].
+    static void perlinRow2D(float[] dst, int offset, float originX, float stepX, int ix0, int count, float y,
+            int octaves, float persistence, float lacunarity, int base, PermutationTable permTable) {
+        Arrays.fill(dst, offset, offset + count, 0.0f);
+        PermutationTable shifted = permTable.shifted(base);
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            if (SimdSupport.ENABLED) {
+                FloatVectorKernels.addPerlinRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, amplitude,
+                        0, shifted);
+            } else {
+                addPerlinRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, amplitude, 0, shifted);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    static void perlinRow3D(float[] dst, int offset, float originX, float stepX, int ix0, int count, float y,
+            float z, int octaves, float persistence, float lacunarity, int base, PermutationTable permTable) {
+        Arrays.fill(dst, offset, offset + count, 0.0f);
+        PermutationTable shifted = permTable.shifted(base);
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            if (SimdSupport.ENABLED) {
+                FloatVectorKernels.addPerlinRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency,
+                        amplitude, 0, shifted);
+            } else {
+                addPerlinRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, amplitude, 0, shifted);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    static void simplexRow2D(float[] dst, int offset, float originX, float stepX, int ix0, int count, float y,
+            int octaves, float persistence, float lacunarity, PermutationTable permTable) {
+        Arrays.fill(dst, offset, offset + count, 0.0f);
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            if (SimdSupport.ENABLED) {
+                FloatVectorKernels.addSimplexRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, amplitude,
+                        permTable);
+            } else {
+                addSimplexRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, amplitude, permTable);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    static void simplexRow3D(float[] dst, int offset, float originX, float stepX, int ix0, int count, float y,
+            float z, int octaves, float persistence, float lacunarity, PermutationTable permTable) {
+        Arrays.fill(dst, offset, offset + count, 0.0f);
+        float frequency = 1;
+        float amplitude = 1;
+        float maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            if (SimdSupport.ENABLED) {
+                FloatVectorKernels.addSimplexRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency,
+                        amplitude, permTable);
+            } else {
+                addSimplexRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, amplitude, permTable);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    // One octave of perlin(x, y, base, permTable) along a row, scaled by amplitude and added to dst.
+    static void addPerlinRow2D(float[] dst, int offset, float originX, float stepX, int ix0, int count,
+            float y, float frequency, float amplitude, int base, PermutationTable permTable) {
+        for (int n = 0; n < count; n++) {
+            float x = (originX + (ix0 + n) * stepX) * frequency;
+            dst[offset + n] += perlin(x, y * frequency, base, permTable) * amplitude;
+        }
+    }
+
+    static void addPerlinRow3D(float[] dst, int offset, float originX, float stepX, int ix0, int count,
+            float y, float z, float frequency, float amplitude, int base, PermutationTable permTable) {
+        float fy = y * frequency;
+        float fz = z * frequency;
+        for (int n = 0; n < count; n++) {
+            float x = (originX + (ix0 + n) * stepX) * frequency;
+            dst[offset + n] += perlin(x, fy, fz, base, permTable) * amplitude;
+        }
+    }
+
+    static void addSimplexRow2D(float[] dst, int offset, float originX, float stepX, int ix0, int count,
+            float y, float frequency, float amplitude, PermutationTable permTable) {
+        float fy = y * frequency;
+        for (int n = 0; n < count; n++) {
+            float x = (originX + (ix0 + n) * stepX) * frequency;
+            dst[offset + n] += simplex(x, fy, permTable) * amplitude;
+        }
+    }
+
+    static void addSimplexRow3D(float[] dst, int offset, float originX, float stepX, int ix0, int count,
+            float y, float z, float frequency, float amplitude, PermutationTable permTable) {
+        float fy = y * frequency;
+        float fz = z * frequency;
+        for (int n = 0; n < count; n++) {
+            float x = (originX + (ix0 + n) * stepX) * frequency;
+            dst[offset + n] += simplex(x, fy, fz, permTable) * amplitude;
+        }
+    }
+}
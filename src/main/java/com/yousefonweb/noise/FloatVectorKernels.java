@@ -0,0 +1,531 @@
+package com.yousefonweb.noise;
+
+import static com.yousefonweb.noise.FloatNoise.F2;
+import static com.yousefonweb.noise.FloatNoise.F3;
+import static com.yousefonweb.noise.FloatNoise.G2;
+import static com.yousefonweb.noise.FloatNoise.G3;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3;
+import static com.yousefonweb.noise.VectorKernels.gatherRow;
+import static com.yousefonweb.noise.VectorKernels.addRows;
+import static com.yousefonweb.noise.VectorKernels.simplexHash3D;
+import static com.yousefonweb.noise.VectorKernels.wrapRow;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Single-precision counterpart of {@link VectorKernels} for the {@link FloatNoise} bulk methods.
+ *
+ * The passes are the float versions of the double ones and keep the same constraints: each
+ * is a single short loop with the vector operations written out in place, and every lane
+ * repeats the scalar float operations exactly, so results are bit-identical to the scalar
+ * {@link FloatNoise} kernels. The int hashing passes are shared with {@link VectorKernels}.
+ *
+ * Only reachable through {@link SimdSupport#ENABLED}.
+ */
+final class FloatVectorKernels {
+
+    // The int species of VectorKernels and a float species of the same shape, rather than the
+    // preferred float species with twice the lanes. With two int species in use, the JDK's
+    // shared gather and conversion code sees both vector classes and C2 falls back to boxing
+    // in both kernels, so float rows get the lane count of double rows and gain from the
+    // halved memory traffic and cheaper arithmetic instead.
+    private static final VectorSpecies<Integer> FIS = VectorKernels.intSpecies();
+    private static final VectorSpecies<Float> FS = FIS.withLanes(float.class);
+
+    // Beyond this magnitude the lane-wise floor no longer matches FloatNoise.floor.
+    private static final float COORD_LIMIT = 0x1p28f;
+    // Column indices up to here convert to float exactly, so lane + ix0 matches (float) (ix0 + n).
+    private static final int MAX_EXACT_COLUMN = 1 << 24;
+    private static final int MAX_EXACT_DIVISOR = 1 << 20;
+
+    private static final float[] GRAD3_X = column(GRAD3, 0);
+    private static final float[] GRAD3_Y = column(GRAD3, 1);
+    private static final float[] GRAD3_Z = column(GRAD3, 2);
+
+    private static final float[] LANE_INDEX = new float[FS.length()];
+    static {
+        for (int i = 0; i < LANE_INDEX.length; i++) {
+            LANE_INDEX[i] = i;
+        }
+    }
+
+    // Row-sized buffers passed between the passes of one kernel call.
+    private static final class Scratch {
+        float[] fx = new float[0], fy = new float[0], fz = new float[0], u = new float[0];
+        float[] cx = new float[0], cy = new float[0], cz = new float[0];
+        float[] acc = new float[0], acc2 = new float[0];
+        int[] ix = new int[0], iy = new int[0], iz = new int[0], code = new int[0], tmp = new int[0];
+        int[][] hash = new int[8][0];
+
+        Scratch ensure(int length) {
+            if (fx.length < length) {
+                fx = new float[length];
+                fy = new float[length];
+                fz = new float[length];
+                u = new float[length];
+                cx = new float[length];
+                cy = new float[length];
+                cz = new float[length];
+                acc = new float[length];
+                acc2 = new float[length];
+                ix = new int[length];
+                iy = new int[length];
+                iz = new int[length];
+                code = new int[length];
+                tmp = new int[length];
+                for (int i = 0; i < hash.length; i++) {
+                    hash[i] = new int[length];
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private FloatVectorKernels() {
+    }
+
+    static boolean isUsable() {
+        return FS.length() >= 2 && FIS.length() == FS.length();
+    }
+
+    private static float[] column(int[][] grads, int component) {
+        float[] c = new float[grads.length];
+        for (int i = 0; i < grads.length; i++) {
+            c[i] = grads[i][component];
+        }
+        return c;
+    }
+
+    // --- Perlin ---
+
+    static void addPerlinRow2D(float[] dst, int offset, float originX, float stepX, int ix0, int count,
+            float y, float frequency, float amplitude, int base, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        float fy = y * frequency;
+        int upper = FS.loopBound(count);
+        if (upper == 0 || !rowInRange(originX, stepX, ix0, upper, frequency) || !(Math.abs(fy) < COORD_LIMIT)
+                || (base != 0 && period > MAX_EXACT_DIVISOR)) {
+            FloatNoise.addPerlinRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, amplitude, base,
+                    permTable);
+            return;
+        }
+        int[] perm = permTable.permArray();
+        int[] grad = permTable.permMod12Array();
+        int cy = FloatNoise.floor(fy);
+        int Y = PerlinNoise.latticeIndex(cy, base, period);
+        fy -= cy;
+        Scratch s = SCRATCH.get().ensure(upper);
+        int[][] h = s.hash;
+
+        perlinLattice(s, upper, originX, stepX, ix0, frequency, base, period);
+        fadeRow(s.fx, s.u, upper);
+        gatherRow(perm, s.ix, 0, Y, s.iy, upper);
+        gatherRow(perm, s.ix, 1, Y, s.iz, upper);
+        gatherRow(grad, s.iy, 0, 0, h[0], upper);
+        gatherRow(grad, s.iz, 0, 0, h[1], upper);
+        gatherRow(grad, s.iy, 1, 0, h[2], upper);
+        gatherRow(grad, s.iz, 1, 0, h[3], upper);
+        perlinEdge2D(s, h[0], h[1], fy, s.acc, upper);
+        perlinEdge2D(s, h[2], h[3], fy - 1, s.acc2, upper);
+        lerpAccumulate(s.acc, s.acc2, NoiseConstants.fade(fy), dst, offset, upper, amplitude);
+
+        if (upper < count) {
+            FloatNoise.addPerlinRow2D(dst, offset + upper, originX, stepX, ix0 + upper, count - upper, y, frequency,
+                    amplitude, base, permTable);
+        }
+    }
+
+    static void addPerlinRow3D(float[] dst, int offset, float originX, float stepX, int ix0, int count,
+            float y, float z, float frequency, float amplitude, int base, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        float fy = y * frequency;
+        float fz = z * frequency;
+        int upper = FS.loopBound(count);
+        if (upper == 0 || !rowInRange(originX, stepX, ix0, upper, frequency) || !(Math.abs(fy) < COORD_LIMIT)
+                || !(Math.abs(fz) < COORD_LIMIT) || (base != 0 && period > MAX_EXACT_DIVISOR)) {
+            FloatNoise.addPerlinRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, amplitude, base,
+                    permTable);
+            return;
+        }
+        int[] perm = permTable.permArray();
+        int[] grad = permTable.permMod12Array();
+        int cy = FloatNoise.floor(fy);
+        int cz = FloatNoise.floor(fz);
+        int Y = PerlinNoise.latticeIndex(cy, base, period);
+        int Z = PerlinNoise.latticeIndex(cz, base, period);
+        fy -= cy;
+        fz -= cz;
+        Scratch s = SCRATCH.get().ensure(upper);
+        int[][] h = s.hash;
+
+        perlinLattice(s, upper, originX, stepX, ix0, frequency, base, period);
+        fadeRow(s.fx, s.u, upper);
+        // Same corner layout as VectorKernels.addPerlinRow3D.
+        gatherRow(perm, s.ix, 0, Y, s.iy, upper);
+        gatherRow(perm, s.ix, 1, Y, s.iz, upper);
+        gatherRow(perm, s.iy, 0, Z, h[4], upper);
+        gatherRow(perm, s.iz, 0, Z, h[5], upper);
+        gatherRow(perm, s.iy, 1, Z, h[6], upper);
+        gatherRow(perm, s.iz, 1, Z, h[7], upper);
+        for (int c = 0; c < 4; c++) {
+            gatherRow(grad, h[4 + c], 0, 0, h[c], upper);
+            gatherRow(grad, h[4 + c], 1, 0, h[4 + c], upper);
+        }
+        float v = NoiseConstants.fade(fy);
+        perlinEdge3D(s, h[0], h[1], fy, fz, s.acc, upper);
+        perlinEdge3D(s, h[2], h[3], fy - 1, fz, s.acc2, upper);
+        lerpRow(s.acc, s.acc2, v, s.acc, upper);
+        perlinEdge3D(s, h[4], h[5], fy, fz - 1, s.acc2, upper);
+        perlinEdge3D(s, h[6], h[7], fy - 1, fz - 1, s.cx, upper);
+        lerpRow(s.acc2, s.cx, v, s.acc2, upper);
+        lerpAccumulate(s.acc, s.acc2, NoiseConstants.fade(fz), dst, offset, upper, amplitude);
+
+        if (upper < count) {
+            FloatNoise.addPerlinRow3D(dst, offset + upper, originX, stepX, ix0 + upper, count - upper, y, z,
+                    frequency, amplitude, base, permTable);
+        }
+    }
+
+    // --- Simplex ---
+
+    static void addSimplexRow2D(float[] dst, int offset, float originX, float stepX, int ix0, int count,
+            float y, float frequency, float amplitude, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        float fy = y * frequency;
+        int upper = FS.loopBound(count);
+        if (upper == 0 || !rowInRange(originX, stepX, ix0, upper, frequency) || !(Math.abs(fy) < COORD_LIMIT)
+                || period > MAX_EXACT_DIVISOR) {
+            FloatNoise.addSimplexRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, amplitude, permTable);
+            return;
+        }
+        int[] perm = permTable.permArray();
+        int[] grad = permTable.permMod12Array();
+        Scratch s = SCRATCH.get().ensure(upper);
+        int[][] h = s.hash;
+
+        simplexSkew2D(s, upper, originX, stepX, ix0, frequency, fy);
+        wrapRow(s.ix, period, upper);
+        wrapRow(s.iy, period, upper);
+        gatherRow(perm, s.iy, 0, 0, s.tmp, upper);
+        addRows(s.ix, s.tmp, 0, h[0], upper);
+        gatherRow(grad, h[0], 0, 0, h[0], upper);
+        simplexMiddleHash2D(perm, grad, s, h[1], upper);
+        gatherRow(perm, s.iy, 1, 0, s.tmp, upper);
+        addRows(s.ix, s.tmp, 1, h[2], upper);
+        gatherRow(grad, h[2], 0, 0, h[2], upper);
+
+        Arrays.fill(s.acc, 0, upper, 0.0f);
+        simplexCorner2D(s.fx, s.fy, h[0], s.acc, upper);
+        simplexMiddleOffset2D(s, upper);
+        simplexCorner2D(s.cx, s.cy, h[1], s.acc, upper);
+        shiftRow(s.fx, 2.0f * G2, s.cx, upper);
+        shiftRow(s.fy, 2.0f * G2, s.cy, upper);
+        simplexCorner2D(s.cx, s.cy, h[2], s.acc, upper);
+        scaleAccumulate(s.acc, 70.0f, dst, offset, upper, amplitude);
+
+        if (upper < count) {
+            FloatNoise.addSimplexRow2D(dst, offset + upper, originX, stepX, ix0 + upper, count - upper, y, frequency,
+                    amplitude, permTable);
+        }
+    }
+
+    static void addSimplexRow3D(float[] dst, int offset, float originX, float stepX, int ix0, int count,
+            float y, float z, float frequency, float amplitude, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        float fy = y * frequency;
+        float fz = z * frequency;
+        int upper = FS.loopBound(count);
+        if (upper == 0 || !rowInRange(originX, stepX, ix0, upper, frequency) || !(Math.abs(fy) < COORD_LIMIT)
+                || !(Math.abs(fz) < COORD_LIMIT) || period > MAX_EXACT_DIVISOR) {
+            FloatNoise.addSimplexRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, amplitude,
+                    permTable);
+            return;
+        }
+        int[] perm = permTable.permArray();
+        int[] grad = permTable.permMod12Array();
+        Scratch s = SCRATCH.get().ensure(upper);
+        int[][] h = s.hash;
+
+        simplexSkew3D(s, upper, originX, stepX, ix0, frequency, fy, fz);
+        simplexUnskew3D(s, upper, originX, stepX, ix0, frequency, fy, fz);
+        simplexOrder3D(s, upper);
+        wrapRow(s.ix, period, upper);
+        wrapRow(s.iy, period, upper);
+        wrapRow(s.iz, period, upper);
+        simplexHash3D(perm, grad, s.code, s.ix, s.iy, s.iz, -1, 0, h[0], upper);
+        simplexHash3D(perm, grad, s.code, s.ix, s.iy, s.iz, 3, 0, h[1], upper);
+        simplexHash3D(perm, grad, s.code, s.ix, s.iy, s.iz, 0, 0, h[2], upper);
+        simplexHash3D(perm, grad, s.code, s.ix, s.iy, s.iz, -1, 1, h[3], upper);
+
+        Arrays.fill(s.acc, 0, upper, 0.0f);
+        simplexCorner3D(s.fx, s.fy, s.fz, h[0], s.acc, upper);
+        simplexOffset3D(s, 3, G3, upper);
+        simplexCorner3D(s.cx, s.cy, s.cz, h[1], s.acc, upper);
+        simplexOffset3D(s, 0, 2.0f * G3, upper);
+        simplexCorner3D(s.cx, s.cy, s.cz, h[2], s.acc, upper);
+        shiftRow(s.fx, 3.0f * G3, s.cx, upper);
+        shiftRow(s.fy, 3.0f * G3, s.cy, upper);
+        shiftRow(s.fz, 3.0f * G3, s.cz, upper);
+        simplexCorner3D(s.cx, s.cy, s.cz, h[3], s.acc, upper);
+        scaleAccumulate(s.acc, 32.0f, dst, offset, upper, amplitude);
+
+        if (upper < count) {
+            FloatNoise.addSimplexRow3D(dst, offset + upper, originX, stepX, ix0 + upper, count - upper, y, z,
+                    frequency, amplitude, permTable);
+        }
+    }
+
+    // --- Geometry passes ---
+
+    // s.ix = latticeIndex(floor(x), base, period), s.fx = x - floor(x)
+    private static void perlinLattice(Scratch s, int upper, float originX, float stepX, int ix0,
+            float frequency, int base, int period) {
+        FloatVector lanes = FloatVector.fromArray(FS, LANE_INDEX, 0);
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x = lanes.add(ix0 + n).mul(stepX).add(originX).mul(frequency);
+            IntVector t = (IntVector) x.convertShape(VectorOperators.F2I, FIS, 0);
+            IntVector cell = t.sub(1, x.compare(VectorOperators.LT,
+                    (FloatVector) t.convertShape(VectorOperators.I2F, FS, 0)).cast(FIS));
+            x.sub((FloatVector) cell.convertShape(VectorOperators.I2F, FS, 0)).intoArray(s.fx, n);
+            cell.and(period - 1).add(base).intoArray(s.ix, n);
+        }
+        if (base != 0) {
+            wrapRow(s.ix, period, upper);
+        }
+    }
+
+    // s.fx/s.fy = x0/y0 and s.ix/s.iy = the unwrapped cell i/j
+    private static void simplexSkew2D(Scratch s, int upper, float originX, float stepX, int ix0,
+            float frequency, float fy) {
+        FloatVector lanes = FloatVector.fromArray(FS, LANE_INDEX, 0);
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x = lanes.add(ix0 + n).mul(stepX).add(originX).mul(frequency);
+            FloatVector sk = x.add(fy).mul(F2);
+            FloatVector xs = x.add(sk);
+            FloatVector ys = sk.add(fy);
+            IntVector ti = (IntVector) xs.convertShape(VectorOperators.F2I, FIS, 0);
+            IntVector tj = (IntVector) ys.convertShape(VectorOperators.F2I, FIS, 0);
+            IntVector i = ti.sub(1, xs.compare(VectorOperators.LT,
+                    (FloatVector) ti.convertShape(VectorOperators.I2F, FS, 0)).cast(FIS));
+            IntVector j = tj.sub(1, ys.compare(VectorOperators.LT,
+                    (FloatVector) tj.convertShape(VectorOperators.I2F, FS, 0)).cast(FIS));
+            FloatVector t = ((FloatVector) i.add(j).convertShape(VectorOperators.I2F, FS, 0)).mul(G2);
+            x.sub(((FloatVector) i.convertShape(VectorOperators.I2F, FS, 0)).sub(t)).intoArray(s.fx, n);
+            FloatVector.broadcast(FS, fy).sub(((FloatVector) j.convertShape(VectorOperators.I2F, FS, 0)).sub(t))
+                    .intoArray(s.fy, n);
+            i.intoArray(s.ix, n);
+            j.intoArray(s.iy, n);
+        }
+    }
+
+    // s.ix/s.iy/s.iz = the unwrapped cell i/j/k
+    private static void simplexSkew3D(Scratch s, int upper, float originX, float stepX, int ix0,
+            float frequency, float fy, float fz) {
+        FloatVector lanes = FloatVector.fromArray(FS, LANE_INDEX, 0);
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x = lanes.add(ix0 + n).mul(stepX).add(originX).mul(frequency);
+            FloatVector sk = x.add(fy).add(fz).mul(F3);
+            FloatVector xs = x.add(sk);
+            FloatVector ys = sk.add(fy);
+            FloatVector zs = sk.add(fz);
+            IntVector ti = (IntVector) xs.convertShape(VectorOperators.F2I, FIS, 0);
+            IntVector tj = (IntVector) ys.convertShape(VectorOperators.F2I, FIS, 0);
+            IntVector tk = (IntVector) zs.convertShape(VectorOperators.F2I, FIS, 0);
+            ti.sub(1, xs.compare(VectorOperators.LT, (FloatVector) ti.convertShape(VectorOperators.I2F, FS, 0))
+                    .cast(FIS)).intoArray(s.ix, n);
+            tj.sub(1, ys.compare(VectorOperators.LT, (FloatVector) tj.convertShape(VectorOperators.I2F, FS, 0))
+                    .cast(FIS)).intoArray(s.iy, n);
+            tk.sub(1, zs.compare(VectorOperators.LT, (FloatVector) tk.convertShape(VectorOperators.I2F, FS, 0))
+                    .cast(FIS)).intoArray(s.iz, n);
+        }
+    }
+
+    // s.fx/s.fy/s.fz = x0/y0/z0 from the cells found by simplexSkew3D
+    private static void simplexUnskew3D(Scratch s, int upper, float originX, float stepX, int ix0,
+            float frequency, float fy, float fz) {
+        FloatVector lanes = FloatVector.fromArray(FS, LANE_INDEX, 0);
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x = lanes.add(ix0 + n).mul(stepX).add(originX).mul(frequency);
+            IntVector i = IntVector.fromArray(FIS, s.ix, n);
+            IntVector j = IntVector.fromArray(FIS, s.iy, n);
+            IntVector k = IntVector.fromArray(FIS, s.iz, n);
+            FloatVector t = ((FloatVector) i.add(j).add(k).convertShape(VectorOperators.I2F, FS, 0)).mul(G3);
+            x.sub(((FloatVector) i.convertShape(VectorOperators.I2F, FS, 0)).sub(t)).intoArray(s.fx, n);
+            FloatVector.broadcast(FS, fy).sub(((FloatVector) j.convertShape(VectorOperators.I2F, FS, 0)).sub(t))
+                    .intoArray(s.fy, n);
+            FloatVector.broadcast(FS, fz).sub(((FloatVector) k.convertShape(VectorOperators.I2F, FS, 0)).sub(t))
+                    .intoArray(s.fz, n);
+        }
+    }
+
+    // s.code = corner offset bits i1 j1 k1 i2 j2 k2, as in VectorKernels.simplexOrder3D
+    private static void simplexOrder3D(Scratch s, int upper) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x0 = FloatVector.fromArray(FS, s.fx, n);
+            FloatVector y0 = FloatVector.fromArray(FS, s.fy, n);
+            FloatVector z0 = FloatVector.fromArray(FS, s.fz, n);
+            VectorMask<Integer> xy = x0.compare(VectorOperators.GE, y0).cast(FIS);
+            VectorMask<Integer> yz = y0.compare(VectorOperators.GE, z0).cast(FIS);
+            VectorMask<Integer> xz = x0.compare(VectorOperators.GE, z0).cast(FIS);
+            IntVector.zero(FIS)
+                    .add(32, xy.and(xz))
+                    .add(16, xy.not().and(yz))
+                    .add(8, xy.and(xz.not()).or(xy.not().and(yz.not())))
+                    .add(4, xy.or(xz))
+                    .add(2, xy.not().or(yz))
+                    .add(1, xy.and(yz.not()).or(xy.not().and(xz.not())))
+                    .intoArray(s.code, n);
+        }
+    }
+
+    // out = grad[ii + i1 + perm[jj + j1]], with (i1, j1) = (1, 0) where x0 > y0 and (0, 1) elsewhere
+    private static void simplexMiddleHash2D(int[] perm, int[] grad, Scratch s, int[] out, int upper) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            VectorMask<Integer> lower = FloatVector.fromArray(FS, s.fx, n)
+                    .compare(VectorOperators.GT, FloatVector.fromArray(FS, s.fy, n)).cast(FIS);
+            IntVector.fromArray(FIS, s.iy, n).add(1, lower.not()).intoArray(out, n);
+            IntVector.fromArray(FIS, s.ix, n).add(1, lower).add(IntVector.fromArray(FIS, perm, 0, out, n))
+                    .intoArray(out, n);
+            IntVector.fromArray(FIS, grad, 0, out, n).intoArray(out, n);
+        }
+    }
+
+    // --- Blending passes ---
+    // Each computes the same quantity as its namesake in VectorKernels.
+
+    private static void fadeRow(float[] t, float[] u, int upper) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector v = FloatVector.fromArray(FS, t, n);
+            v.mul(v).mul(v).mul(v.mul(v.mul(6.0f).sub(15.0f)).add(10.0f)).intoArray(u, n);
+        }
+    }
+
+    private static void perlinEdge2D(Scratch s, int[] gradA, int[] gradB, float y, float[] out, int upper) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x = FloatVector.fromArray(FS, s.fx, n);
+            FloatVector a = FloatVector.fromArray(FS, GRAD3_X, 0, gradA, n).mul(x)
+                    .add(FloatVector.fromArray(FS, GRAD3_Y, 0, gradA, n).mul(y));
+            FloatVector b = FloatVector.fromArray(FS, GRAD3_X, 0, gradB, n).mul(x.sub(1.0f))
+                    .add(FloatVector.fromArray(FS, GRAD3_Y, 0, gradB, n).mul(y));
+            a.add(FloatVector.fromArray(FS, s.u, n).mul(b.sub(a))).intoArray(out, n);
+        }
+    }
+
+    private static void perlinEdge3D(Scratch s, int[] gradA, int[] gradB, float y, float z, float[] out,
+            int upper) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x = FloatVector.fromArray(FS, s.fx, n);
+            FloatVector a = FloatVector.fromArray(FS, GRAD3_X, 0, gradA, n).mul(x)
+                    .add(FloatVector.fromArray(FS, GRAD3_Y, 0, gradA, n).mul(y))
+                    .add(FloatVector.fromArray(FS, GRAD3_Z, 0, gradA, n).mul(z));
+            FloatVector b = FloatVector.fromArray(FS, GRAD3_X, 0, gradB, n).mul(x.sub(1.0f))
+                    .add(FloatVector.fromArray(FS, GRAD3_Y, 0, gradB, n).mul(y))
+                    .add(FloatVector.fromArray(FS, GRAD3_Z, 0, gradB, n).mul(z));
+            a.add(FloatVector.fromArray(FS, s.u, n).mul(b.sub(a))).intoArray(out, n);
+        }
+    }
+
+    private static void lerpRow(float[] a, float[] b, float t, float[] out, int upper) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector va = FloatVector.fromArray(FS, a, n);
+            va.add(FloatVector.fromArray(FS, b, n).sub(va).mul(t)).intoArray(out, n);
+        }
+    }
+
+    private static void lerpAccumulate(float[] a, float[] b, float t, float[] dst, int offset, int upper,
+            float amplitude) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector va = FloatVector.fromArray(FS, a, n);
+            FloatVector value = va.add(FloatVector.fromArray(FS, b, n).sub(va).mul(t));
+            FloatVector.fromArray(FS, dst, offset + n).add(value.mul(amplitude)).intoArray(dst, offset + n);
+        }
+    }
+
+    private static void scaleAccumulate(float[] acc, float scale, float[] dst, int offset, int upper,
+            float amplitude) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector value = FloatVector.fromArray(FS, acc, n).mul(scale);
+            FloatVector.fromArray(FS, dst, offset + n).add(value.mul(amplitude)).intoArray(dst, offset + n);
+        }
+    }
+
+    private static void shiftRow(float[] a, float g, float[] out, int upper) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector.fromArray(FS, a, n).sub(1.0f).add(g).intoArray(out, n);
+        }
+    }
+
+    private static void simplexMiddleOffset2D(Scratch s, int upper) {
+        FloatVector one = FloatVector.broadcast(FS, 1.0f);
+        FloatVector zero = FloatVector.zero(FS);
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x0 = FloatVector.fromArray(FS, s.fx, n);
+            FloatVector y0 = FloatVector.fromArray(FS, s.fy, n);
+            VectorMask<Float> lower = x0.compare(VectorOperators.GT, y0);
+            x0.sub(zero.blend(one, lower)).add(G2).intoArray(s.cx, n);
+            y0.sub(one.blend(zero, lower)).add(G2).intoArray(s.cy, n);
+        }
+    }
+
+    private static void simplexOffset3D(Scratch s, int shift, float g, int upper) {
+        for (int n = 0; n < upper; n += FS.length()) {
+            IntVector code = IntVector.fromArray(FIS, s.code, n);
+            FloatVector di = (FloatVector) code.lanewise(VectorOperators.LSHR, shift + 2).and(1)
+                    .convertShape(VectorOperators.I2F, FS, 0);
+            FloatVector dj = (FloatVector) code.lanewise(VectorOperators.LSHR, shift + 1).and(1)
+                    .convertShape(VectorOperators.I2F, FS, 0);
+            FloatVector dk = (FloatVector) code.lanewise(VectorOperators.LSHR, shift).and(1)
+                    .convertShape(VectorOperators.I2F, FS, 0);
+            FloatVector.fromArray(FS, s.fx, n).sub(di).add(g).intoArray(s.cx, n);
+            FloatVector.fromArray(FS, s.fy, n).sub(dj).add(g).intoArray(s.cy, n);
+            FloatVector.fromArray(FS, s.fz, n).sub(dk).add(g).intoArray(s.cz, n);
+        }
+    }
+
+    private static void simplexCorner2D(float[] xs, float[] ys, int[] grad, float[] acc, int upper) {
+        FloatVector half = FloatVector.broadcast(FS, 0.5f);
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x = FloatVector.fromArray(FS, xs, n);
+            FloatVector y = FloatVector.fromArray(FS, ys, n);
+            FloatVector t = half.sub(x.mul(x)).sub(y.mul(y));
+            FloatVector dot = FloatVector.fromArray(FS, GRAD3_X, 0, grad, n).mul(x)
+                    .add(FloatVector.fromArray(FS, GRAD3_Y, 0, grad, n).mul(y));
+            FloatVector t2 = t.mul(t);
+            FloatVector.fromArray(FS, acc, n).add(t2.mul(t2).mul(dot), t.compare(VectorOperators.GT, 0.0f))
+                    .intoArray(acc, n);
+        }
+    }
+
+    private static void simplexCorner3D(float[] xs, float[] ys, float[] zs, int[] grad, float[] acc, int upper) {
+        FloatVector limit = FloatVector.broadcast(FS, 0.6f);
+        for (int n = 0; n < upper; n += FS.length()) {
+            FloatVector x = FloatVector.fromArray(FS, xs, n);
+            FloatVector y = FloatVector.fromArray(FS, ys, n);
+            FloatVector z = FloatVector.fromArray(FS, zs, n);
+            FloatVector t = limit.sub(x.mul(x)).sub(y.mul(y)).sub(z.mul(z));
+            FloatVector dot = FloatVector.fromArray(FS, GRAD3_X, 0, grad, n).mul(x)
+                    .add(FloatVector.fromArray(FS, GRAD3_Y, 0, grad, n).mul(y))
+                    .add(FloatVector.fromArray(FS, GRAD3_Z, 0, grad, n).mul(z));
+            FloatVector t2 = t.mul(t);
+            FloatVector.fromArray(FS, acc, n).add(t2.mul(t2).mul(dot), t.compare(VectorOperators.GT, 0.0f))
+                    .intoArray(acc, n);
+        }
+    }
+
+    private static boolean rowInRange(float originX, float stepX, int ix0, int count, float frequency) {
+        if (ix0 < 0 || ix0 + count > MAX_EXACT_COLUMN) {
+            return false;
+        }
+        float first = (originX + ix0 * stepX) * frequency;
+        float last = (originX + (ix0 + count - 1) * stepX) * frequency;
+        return Math.abs(first) < COORD_LIMIT && Math.abs(last) < COORD_LIMIT;
+    }
+}
@@ -0,0 +1,118 @@
+package com.yousefonweb.noise;
+
+import java.lang.foreign.MemorySegment;
+
+/**
+ * Shared argument checks for the bulk and multi-value evaluation methods in
+ * {@link PerlinNoise} and {@link SimplexNoise}.
+ */
+final class GridUtil {
+
+    private GridUtil() {
+    }
+
+    /**
+     * Validates grid dimensions against the output array and returns the sample count.
+     *
+     * @param outLength Length of the caller-supplied output array.
+     * @param width     Samples along x.
+     * @param height    Samples along y.
+     * @param depth     Samples along z (1 for 2D grids).
+     * @return width * height * depth
+     */
+    static int checkGrid(int outLength, int width, int height, int depth) {
+        if (width < 0 || height < 0 || depth < 0) {
+            throw new IllegalArgumentException("Grid dimensions must not be negative.");
+        }
+        long samples = (long) width * height * depth;
+        if (samples > outLength) {
+            throw new IllegalArgumentException(
+                    "Output array of length " + outLength + " cannot hold " + samples + " samples.");
+        }
+        return (int) samples;
+    }
+
+    /**
+     * Validates that {@code count} values fit in an output array of length {@code outLength} at {@code offset}.
+     */
+    static void checkOffset(int outLength, int offset, int count) {
+        if (offset < 0 || offset > outLength - count) {
+            throw new IllegalArgumentException("Output array of length " + outLength + " cannot hold "
+                    + count + " values at offset " + offset + ".");
+        }
+    }
+
+    /**
+     * Validates the channel arrays of a multi-channel evaluation and returns the channel count.
+     */
+    static int checkChannels(int[] bases, PermutationTable[] tables) {
+        if (bases == null || tables == null || bases.length == 0 || bases.length != tables.length) {
+            throw new IllegalArgumentException("Channels need one base and one permutation table each.");
+        }
+        for (PermutationTable table : tables) {
+            if (table == null) {
+                throw new IllegalArgumentException("Channel permutation tables must not be null.");
+            }
+        }
+        return bases.length;
+    }
+
+    /**
+     * Like {@link #checkGrid}, for samples of {@code channels} values placed {@code stride} apart.
+     */
+    static int checkStridedGrid(int outLength, int width, int height, int depth, int stride, int channels) {
+        if (width < 0 || height < 0 || depth < 0) {
+            throw new IllegalArgumentException("Grid dimensions must not be negative.");
+        }
+        if (stride < channels) {
+            throw new IllegalArgumentException(
+                    "Stride " + stride + " is smaller than the channel count " + channels + ".");
+        }
+        long samples = (long) width * height * depth;
+        long required = samples == 0 ? 0 : (samples - 1) * stride + channels;
+        if (required > outLength) {
+            throw new IllegalArgumentException("Output array of length " + outLength + " cannot hold " + samples
+                    + " samples of stride " + stride + ".");
+        }
+        return (int) samples;
+    }
+
+    /**
+     * Validates a grid of {@code bytesPerSample}-byte samples placed {@code stride} bytes apart
+     * from byte {@code offset} of {@code out}, and returns the sample count.
+     */
+    static long checkSegmentGrid(MemorySegment out, long offset, long stride, int bytesPerSample, int width,
+            int height, int depth) {
+        if (out == null) {
+            throw new IllegalArgumentException("Output segment must not be null.");
+        }
+        if (out.isReadOnly()) {
+            throw new IllegalArgumentException("Output segment is read-only.");
+        }
+        if (width < 0 || height < 0 || depth < 0) {
+            throw new IllegalArgumentException("Grid dimensions must not be negative.");
+        }
+        if (stride < bytesPerSample) {
+            throw new IllegalArgumentException(
+                    "Stride " + stride + " is smaller than the sample size " + bytesPerSample + ".");
+        }
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative.");
+        }
+        // width * height always fits in a long; the products with depth and stride may not.
+        long samples = (long) width * height;
+        long required;
+        try {
+            samples = Math.multiplyExact(samples, (long) depth);
+            required = samples == 0 ? 0 : Math.addExact(Math.multiplyExact(samples - 1, stride), bytesPerSample);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(width + "x" + height + "x" + depth + " samples of stride " + stride
+                    + " exceed the addressable range.");
+        }
+        if (required > out.byteSize() - offset) {
+            throw new IllegalArgumentException("Output segment of " + out.byteSize() + " bytes cannot hold "
+                    + samples + " samples of stride " + stride + " at offset " + offset + ".");
+        }
+        return samples;
+    }
+}
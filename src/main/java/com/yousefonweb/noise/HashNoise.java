@@ -0,0 +1,1193 @@
+package com.yousefonweb.noise;
+
+import static com.yousefonweb.noise.NoiseConstants.F2;
+import static com.yousefonweb.noise.NoiseConstants.F3;
+import static com.yousefonweb.noise.NoiseConstants.F4;
+import static com.yousefonweb.noise.NoiseConstants.G2;
+import static com.yousefonweb.noise.NoiseConstants.G3;
+import static com.yousefonweb.noise.NoiseConstants.G4;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_X;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_Y;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_Z;
+import static com.yousefonweb.noise.NoiseConstants.fade;
+import static com.yousefonweb.noise.NoiseConstants.fadeDerivative;
+import static com.yousefonweb.noise.NoiseConstants.grad4Dot;
+import static com.yousefonweb.noise.NoiseConstants.gradDot;
+import static com.yousefonweb.noise.NoiseConstants.lerp;
+
+import java.util.Arrays;
+
+/**
+ * Seeded Perlin and simplex noise without a permutation table.
+ *
+ * These are the algorithms of {@link PerlinNoise} ({@code pnoise1/2/3}) and {@link SimplexNoise}
+ * ({@code snoise2/3/4}), but the gradient of each lattice corner is picked by mixing the
+ * corner's coordinates with a {@code long} seed instead of by chained {@link PermutationTable}
+ * lookups. That gives:
+ * <ul>
+ * <li>no repetition: lattice coordinates are hashed as {@code long}, so the pattern does not
+ * repeat every {@code period} units. Coordinates are limited only by double precision.</li>
+ * <li>no table memory and no setup: any {@code long} is a seed, and switching seeds costs
+ * nothing.</li>
+ * </ul>
+ * The output has the same character and range as the table-backed functions but is a
+ * different pattern; a seed does not reproduce any {@code PermutationTable}. All octaves of a
+ * call use the same seed, as all octaves of the table-backed functions use the same table.
+ *
+ * Besides the point functions there are analytic derivatives ({@code pnoise2Deriv} and friends)
+ * and bulk {@code fillGrid2D/3D} row kernels, each bit-identical to the point functions. A
+ * {@link NoiseGenerator} built with {@link NoiseGenerator.Builder#seed(long)} evaluates through
+ * these, so {@link NoiseRegionGenerator}, {@link NoiseChunkCache} and {@link NoiseWindow} work
+ * with seeded noise as well.
+ */
+public final class HashNoise {
+
+    private static final double DEFAULT_PERSISTENCE = 0.5;
+    private static final double DEFAULT_LACUNARITY = 2.0;
+
+    // Odd 64-bit multipliers, one per axis, so a step along any axis changes the mixed key.
+    private static final long PRIME_X = 0x9E3779B97F4A7C15L;
+    private static final long PRIME_Y = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_Z = 0x165667B19E3779F9L;
+    private static final long PRIME_W = 0xD6E8FEB86659FD93L;
+
+    private HashNoise() {
+    }
+
+    // MurmurHash3's 64-bit finalizer: every input bit affects every output bit.
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    // Index into the 16 GRAD3 gradients (12 directions, 4 repeated as in Improved Noise) and
+    // the 32 GRAD4 gradients, from the top bits of a corner key.
+    private static int grad3(long key) {
+        return (int) (mix(key) >>> 60);
+    }
+
+    private static int grad4(long key) {
+        return (int) (mix(key) >>> 59);
+    }
+
+    // --- Perlin ---
+    // 'seed' below is the already mixed seed; X, Y, Z are the corner coordinates times PRIME_*.
+
+    static double perlin(double x, long seed) {
+        double fx = Math.floor(x);
+        long X = (long) fx * PRIME_X;
+        x -= fx;
+        return lerp(fade(x), GRAD3_X[grad3(seed ^ X)] * x, GRAD3_X[grad3(seed ^ (X + PRIME_X))] * (x - 1));
+    }
+
+    static double perlin(double x, double y, long seed) {
+        double fx = Math.floor(x);
+        double fy = Math.floor(y);
+        long X0 = seed ^ (long) fx * PRIME_X;
+        long X1 = seed ^ ((long) fx + 1) * PRIME_X;
+        long Y0 = (long) fy * PRIME_Y;
+        long Y1 = Y0 + PRIME_Y;
+        x -= fx;
+        y -= fy;
+        double u = fade(x);
+
+        return lerp(fade(y), lerp(u, gradDot(grad3(X0 ^ Y0), x, y), gradDot(grad3(X1 ^ Y0), x - 1, y)),
+                lerp(u, gradDot(grad3(X0 ^ Y1), x, y - 1), gradDot(grad3(X1 ^ Y1), x - 1, y - 1)));
+    }
+
+    static double perlin(double x, double y, double z, long seed) {
+        double fx = Math.floor(x);
+        double fy = Math.floor(y);
+        double fz = Math.floor(z);
+        long X0 = seed ^ (long) fx * PRIME_X;
+        long X1 = seed ^ ((long) fx + 1) * PRIME_X;
+        long Y0 = (long) fy * PRIME_Y;
+        long Y1 = Y0 + PRIME_Y;
+        long Z0 = (long) fz * PRIME_Z;
+        long Z1 = Z0 + PRIME_Z;
+        x -= fx;
+        y -= fy;
+        z -= fz;
+        double u = fade(x);
+        double v = fade(y);
+
+        return lerp(fade(z), lerp(v, lerp(u, gradDot(grad3(X0 ^ Y0 ^ Z0), x, y, z),
+                gradDot(grad3(X1 ^ Y0 ^ Z0), x - 1, y, z)),
+                lerp(u, gradDot(grad3(X0 ^ Y1 ^ Z0), x, y - 1, z),
+                        gradDot(grad3(X1 ^ Y1 ^ Z0), x - 1, y - 1, z))),
+                lerp(v, lerp(u, gradDot(grad3(X0 ^ Y0 ^ Z1), x, y, z - 1),
+                        gradDot(grad3(X1 ^ Y0 ^ Z1), x - 1, y, z - 1)),
+                        lerp(u, gradDot(grad3(X0 ^ Y1 ^ Z1), x, y - 1, z - 1),
+                                gradDot(grad3(X1 ^ Y1 ^ Z1), x - 1, y - 1, z - 1))));
+    }
+
+    public static double pnoise1(double x, int octaves, double persistence, double lacunarity, long seed) {
+        long s = mix(seed);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += perlin(x * frequency, s) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static double pnoise1(double x, int octaves, long seed) {
+        return pnoise1(x, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed);
+    }
+
+    public static double pnoise1(double x, long seed) {
+        return pnoise1(x, 1, seed);
+    }
+
+    public static double pnoise2(double x, double y, int octaves, double persistence, double lacunarity,
+            long seed) {
+        long s = mix(seed);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += perlin(x * frequency, y * frequency, s) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static double pnoise2(double x, double y, int octaves, long seed) {
+        return pnoise2(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed);
+    }
+
+    public static double pnoise2(double x, double y, long seed) {
+        return pnoise2(x, y, 1, seed);
+    }
+
+    public static double pnoise3(double x, double y, double z, int octaves, double persistence, double lacunarity,
+            long seed) {
+        long s = mix(seed);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += perlin(x * frequency, y * frequency, z * frequency, s) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static double pnoise3(double x, double y, double z, int octaves, long seed) {
+        return pnoise3(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed);
+    }
+
+    public static double pnoise3(double x, double y, double z, long seed) {
+        return pnoise3(x, y, z, 1, seed);
+    }
+
+    // --- Simplex ---
+
+    static double simplex(double x, double y, long seed) {
+        double n = 0.0;
+        double s = (x + y) * F2;
+        double fi = Math.floor(x + s);
+        double fj = Math.floor(y + s);
+        double t = (fi + fj) * G2;
+        double x0 = x - (fi - t);
+        double y0 = y - (fj - t);
+
+        int i1, j1;
+        if (x0 > y0) {
+            i1 = 1; j1 = 0;
+        } else {
+            i1 = 0; j1 = 1;
+        }
+
+        double x1 = x0 - i1 + G2;
+        double y1 = y0 - j1 + G2;
+        double x2 = x0 - 1.0 + 2.0 * G2;
+        double y2 = y0 - 1.0 + 2.0 * G2;
+
+        long I = (long) fi * PRIME_X;
+        long J = (long) fj * PRIME_Y;
+
+        double t0 = 0.5 - x0 * x0 - y0 * y0;
+        if (t0 > 0) {
+            t0 *= t0;
+            n += t0 * t0 * gradDot(grad3(seed ^ I ^ J), x0, y0);
+        }
+
+        double t1 = 0.5 - x1 * x1 - y1 * y1;
+        if (t1 > 0) {
+            t1 *= t1;
+            n += t1 * t1 * gradDot(grad3(seed ^ (I + i1 * PRIME_X) ^ (J + j1 * PRIME_Y)), x1, y1);
+        }
+
+        double t2 = 0.5 - x2 * x2 - y2 * y2;
+        if (t2 > 0) {
+            t2 *= t2;
+            n += t2 * t2 * gradDot(grad3(seed ^ (I + PRIME_X) ^ (J + PRIME_Y)), x2, y2);
+        }
+        return 70.0 * n;
+    }
+
+    static double simplex(double x, double y, double z, long seed) {
+        double n = 0.0;
+        double s = (x + y + z) * F3;
+        double fi = Math.floor(x + s);
+        double fj = Math.floor(y + s);
+        double fk = Math.floor(z + s);
+        double t = (fi + fj + fk) * G3;
+        double x0 = x - (fi - t);
+        double y0 = y - (fj - t);
+        double z0 = z - (fk - t);
+
+        int i1, j1, k1;
+        int i2, j2, k2;
+
+        if (x0 >= y0) {
+            if (y0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+            else if (x0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1; }
+            else { i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1; }
+        } else { // x0 < y0
+            if (y0 < z0) { i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1; }
+            else if (x0 < z0) { i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1; }
+            else { i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+        }
+
+        double x1 = x0 - i1 + G3;
+        double y1 = y0 - j1 + G3;
+        double z1 = z0 - k1 + G3;
+        double x2 = x0 - i2 + 2.0 * G3;
+        double y2 = y0 - j2 + 2.0 * G3;
+        double z2 = z0 - k2 + 2.0 * G3;
+        double x3 = x0 - 1.0 + 3.0 * G3;
+        double y3 = y0 - 1.0 + 3.0 * G3;
+        double z3 = z0 - 1.0 + 3.0 * G3;
+
+        long I = (long) fi * PRIME_X;
+        long J = (long) fj * PRIME_Y;
+        long K = (long) fk * PRIME_Z;
+
+        double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0;
+        if (t0 > 0) {
+            t0 *= t0;
+            n += t0 * t0 * gradDot(grad3(seed ^ I ^ J ^ K), x0, y0, z0);
+        }
+        double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
+        if (t1 > 0) {
+            t1 *= t1;
+            n += t1 * t1 * gradDot(grad3(seed ^ (I + i1 * PRIME_X) ^ (J + j1 * PRIME_Y) ^ (K + k1 * PRIME_Z)),
+                    x1, y1, z1);
+        }
+        double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
+        if (t2 > 0) {
+            t2 *= t2;
+            n += t2 * t2 * gradDot(grad3(seed ^ (I + i2 * PRIME_X) ^ (J + j2 * PRIME_Y) ^ (K + k2 * PRIME_Z)),
+                    x2, y2, z2);
+        }
+        double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
+        if (t3 > 0) {
+            t3 *= t3;
+            n += t3 * t3 * gradDot(grad3(seed ^ (I + PRIME_X) ^ (J + PRIME_Y) ^ (K + PRIME_Z)), x3, y3, z3);
+        }
+        return 32.0 * n;
+    }
+
+    static double simplex(double x, double y, double z, double w, long seed) {
+        double s = (x + y + z + w) * F4;
+        double fi = Math.floor(x + s);
+        double fj = Math.floor(y + s);
+        double fk = Math.floor(z + s);
+        double fl = Math.floor(w + s);
+        double t = (fi + fj + fk + fl) * G4;
+        double x0 = x - (fi - t);
+        double y0 = y - (fj - t);
+        double z0 = z - (fk - t);
+        double w0 = w - (fl - t);
+
+        // Coordinate ranks, counted as in SimplexNoise.noise4
+        int xy = x0 > y0 ? 1 : 0;
+        int xz = x0 > z0 ? 1 : 0;
+        int yz = y0 > z0 ? 1 : 0;
+        int xw = x0 > w0 ? 1 : 0;
+        int yw = y0 > w0 ? 1 : 0;
+        int zw = z0 > w0 ? 1 : 0;
+        int rankX = xy + xz + xw;
+        int rankY = (1 - xy) + yz + yw;
+        int rankZ = (1 - xz) + (1 - yz) + zw;
+        int rankW = (1 - xw) + (1 - yw) + (1 - zw);
+
+        long I = (long) fi * PRIME_X;
+        long J = (long) fj * PRIME_Y;
+        long K = (long) fk * PRIME_Z;
+        long L = (long) fl * PRIME_W;
+
+        double n = 0.0;
+        // Corner c (0..4) is offset by 1 along each axis whose rank is at least 4 - c, which
+        // reproduces i1..l3 of SimplexNoise and gives the origin and the (1, 1, 1, 1) corner.
+        for (int c = 0; c <= 4; c++) {
+            int i = (rankX + c) >> 2;
+            int j = (rankY + c) >> 2;
+            int k = (rankZ + c) >> 2;
+            int l = (rankW + c) >> 2;
+            double xc = x0 - i + c * G4;
+            double yc = y0 - j + c * G4;
+            double zc = z0 - k + c * G4;
+            double wc = w0 - l + c * G4;
+            double tc = Math.max(0.6 - xc * xc - yc * yc - zc * zc - wc * wc, 0.0);
+            tc *= tc;
+            n += tc * tc * grad4Dot(grad4(seed ^ (I + i * PRIME_X) ^ (J + j * PRIME_Y) ^ (K + k * PRIME_Z)
+                    ^ (L + l * PRIME_W)), xc, yc, zc, wc);
+        }
+        return 27.0 * n;
+    }
+
+    public static double snoise2(double x, double y, int octaves, double persistence, double lacunarity,
+            long seed) {
+        long s = mix(seed);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += simplex(x * frequency, y * frequency, s) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static double snoise2(double x, double y, int octaves, long seed) {
+        return snoise2(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed);
+    }
+
+    public static double snoise2(double x, double y, long seed) {
+        return snoise2(x, y, 1, seed);
+    }
+
+    public static double snoise3(double x, double y, double z, int octaves, double persistence, double lacunarity,
+            long seed) {
+        long s = mix(seed);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += simplex(x * frequency, y * frequency, z * frequency, s) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static double snoise3(double x, double y, double z, int octaves, long seed) {
+        return snoise3(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed);
+    }
+
+    public static double snoise3(double x, double y, double z, long seed) {
+        return snoise3(x, y, z, 1, seed);
+    }
+
+    public static double snoise4(double x, double y, double z, double w, int octaves, double persistence,
+            double lacunarity, long seed) {
+        long s = mix(seed);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += simplex(x * frequency, y * frequency, z * frequency, w * frequency, s) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static double snoise4(double x, double y, double z, double w, int octaves, long seed) {
+        return snoise4(x, y, z, w, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed);
+    }
+
+    public static double snoise4(double x, double y, double z, double w, long seed) {
+        return snoise4(x, y, z, w, 1, seed);
+    }
+
+    // --- Derivatives ---
+    // As PerlinNoise.pnoise2Deriv and SimplexNoise.snoise2Deriv and their 3D forms, with the
+    // hashed gradients. The value is accumulated as in pnoise2/pnoise3/snoise2/snoise3, so it is
+    // bit-identical to those calls; octave i contributes amplitude * frequency * gradient.
+
+    /**
+     * Evaluates 2D Perlin fBm and its gradient at one point: {@code out[offset]} receives
+     * {@code pnoise2(x, y, octaves, persistence, lacunarity, seed)}, and {@code out[offset + 1]}
+     * and {@code out[offset + 2]} its partial derivatives in x and y.
+     */
+    public static void pnoise2Deriv(double x, double y, int octaves, double persistence, double lacunarity,
+            long seed, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 3);
+        long s = mix(seed);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        out[offset] = out[offset + 1] = out[offset + 2] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            addPerlinDeriv(x * frequency, y * frequency, s, amplitude, amplitude * frequency, out, offset);
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        out[offset] /= maxValue;
+        out[offset + 1] /= maxValue;
+        out[offset + 2] /= maxValue;
+    }
+
+    public static void pnoise2Deriv(double x, double y, int octaves, long seed, double[] out, int offset) {
+        pnoise2Deriv(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed, out, offset);
+    }
+
+    /**
+     * Evaluates 3D Perlin fBm and its gradient at one point: {@code out[offset]} receives
+     * {@code pnoise3(x, y, z, octaves, persistence, lacunarity, seed)}, and
+     * {@code out[offset + 1..3]} its partial derivatives in x, y and z.
+     */
+    public static void pnoise3Deriv(double x, double y, double z, int octaves, double persistence,
+            double lacunarity, long seed, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 4);
+        long s = mix(seed);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        out[offset] = out[offset + 1] = out[offset + 2] = out[offset + 3] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            addPerlinDeriv(x * frequency, y * frequency, z * frequency, s, amplitude, amplitude * frequency, out,
+                    offset);
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int c = 0; c < 4; c++) {
+            out[offset + c] /= maxValue;
+        }
+    }
+
+    public static void pnoise3Deriv(double x, double y, double z, int octaves, long seed, double[] out,
+            int offset) {
+        pnoise3Deriv(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed, out, offset);
+    }
+
+    /**
+     * Evaluates 2D simplex fBm and its gradient at one point: {@code out[offset]} receives
+     * {@code snoise2(x, y, octaves, persistence, lacunarity, seed)}, and {@code out[offset + 1]}
+     * and {@code out[offset + 2]} its partial derivatives in x and y.
+     */
+    public static void snoise2Deriv(double x, double y, int octaves, double persistence, double lacunarity,
+            long seed, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 3);
+        long s = mix(seed);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        out[offset] = out[offset + 1] = out[offset + 2] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            addSimplexDeriv(x * frequency, y * frequency, s, amplitude, amplitude * frequency, out, offset);
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        out[offset] /= maxValue;
+        out[offset + 1] /= maxValue;
+        out[offset + 2] /= maxValue;
+    }
+
+    public static void snoise2Deriv(double x, double y, int octaves, long seed, double[] out, int offset) {
+        snoise2Deriv(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed, out, offset);
+    }
+
+    /**
+     * Evaluates 3D simplex fBm and its gradient at one point: {@code out[offset]} receives
+     * {@code snoise3(x, y, z, octaves, persistence, lacunarity, seed)}, and
+     * {@code out[offset + 1..3]} its partial derivatives in x, y and z.
+     */
+    public static void snoise3Deriv(double x, double y, double z, int octaves, double persistence,
+            double lacunarity, long seed, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 4);
+        long s = mix(seed);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        out[offset] = out[offset + 1] = out[offset + 2] = out[offset + 3] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            addSimplexDeriv(x * frequency, y * frequency, z * frequency, s, amplitude, amplitude * frequency, out,
+                    offset);
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int c = 0; c < 4; c++) {
+            out[offset + c] /= maxValue;
+        }
+    }
+
+    public static void snoise3Deriv(double x, double y, double z, int octaves, long seed, double[] out,
+            int offset) {
+        snoise3Deriv(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, seed, out, offset);
+    }
+
+    // Adds amplitude * perlin(x, y, seed) to dst[offset] and gradientScale * its gradient to dst[offset + 1..2].
+    static void addPerlinDeriv(double x, double y, long seed, double amplitude, double gradientScale,
+            double[] dst, int offset) {
+        double fx = Math.floor(x);
+        double fy = Math.floor(y);
+        long X0 = seed ^ (long) fx * PRIME_X;
+        long X1 = seed ^ ((long) fx + 1) * PRIME_X;
+        long Y0 = (long) fy * PRIME_Y;
+        long Y1 = Y0 + PRIME_Y;
+        x -= fx;
+        y -= fy;
+        double u = fade(x);
+        double v = fade(y);
+        double du = fadeDerivative(x);
+        double dv = fadeDerivative(y);
+
+        int g00 = grad3(X0 ^ Y0);
+        int g10 = grad3(X1 ^ Y0);
+        int g01 = grad3(X0 ^ Y1);
+        int g11 = grad3(X1 ^ Y1);
+        double n00 = gradDot(g00, x, y);
+        double n10 = gradDot(g10, x - 1, y);
+        double n01 = gradDot(g01, x, y - 1);
+        double n11 = gradDot(g11, x - 1, y - 1);
+
+        double a = lerp(u, n00, n10);
+        double b = lerp(u, n01, n11);
+        double ax = lerp(u, GRAD3_X[g00], GRAD3_X[g10]) + du * (n10 - n00);
+        double bx = lerp(u, GRAD3_X[g01], GRAD3_X[g11]) + du * (n11 - n01);
+        double ay = lerp(u, GRAD3_Y[g00], GRAD3_Y[g10]);
+        double by = lerp(u, GRAD3_Y[g01], GRAD3_Y[g11]);
+
+        dst[offset] += lerp(v, a, b) * amplitude;
+        dst[offset + 1] += lerp(v, ax, bx) * gradientScale;
+        dst[offset + 2] += (lerp(v, ay, by) + dv * (b - a)) * gradientScale;
+    }
+
+    // Adds amplitude * perlin(x, y, z, seed) to dst[offset] and gradientScale * its gradient to
+    // dst[offset + 1..3].
+    static void addPerlinDeriv(double x, double y, double z, long seed, double amplitude, double gradientScale,
+            double[] dst, int offset) {
+        double fx = Math.floor(x);
+        double fy = Math.floor(y);
+        double fz = Math.floor(z);
+        long X0 = seed ^ (long) fx * PRIME_X;
+        long X1 = seed ^ ((long) fx + 1) * PRIME_X;
+        long Y0 = (long) fy * PRIME_Y;
+        long Y1 = Y0 + PRIME_Y;
+        long Z0 = (long) fz * PRIME_Z;
+        long Z1 = Z0 + PRIME_Z;
+        x -= fx;
+        y -= fy;
+        z -= fz;
+        double u = fade(x);
+        double v = fade(y);
+        double w = fade(z);
+        double du = fadeDerivative(x);
+        double dv = fadeDerivative(y);
+        double dw = fadeDerivative(z);
+
+        int g000 = grad3(X0 ^ Y0 ^ Z0);
+        int g100 = grad3(X1 ^ Y0 ^ Z0);
+        int g010 = grad3(X0 ^ Y1 ^ Z0);
+        int g110 = grad3(X1 ^ Y1 ^ Z0);
+        int g001 = grad3(X0 ^ Y0 ^ Z1);
+        int g101 = grad3(X1 ^ Y0 ^ Z1);
+        int g011 = grad3(X0 ^ Y1 ^ Z1);
+        int g111 = grad3(X1 ^ Y1 ^ Z1);
+        double n000 = gradDot(g000, x, y, z);
+        double n100 = gradDot(g100, x - 1, y, z);
+        double n010 = gradDot(g010, x, y - 1, z);
+        double n110 = gradDot(g110, x - 1, y - 1, z);
+        double n001 = gradDot(g001, x, y, z - 1);
+        double n101 = gradDot(g101, x - 1, y, z - 1);
+        double n011 = gradDot(g011, x, y - 1, z - 1);
+        double n111 = gradDot(g111, x - 1, y - 1, z - 1);
+
+        // Blend along x, then y, then z, as perlin(x, y, z, seed) does.
+        double a00 = lerp(u, n000, n100);
+        double a10 = lerp(u, n010, n110);
+        double a01 = lerp(u, n001, n101);
+        double a11 = lerp(u, n011, n111);
+        double b0 = lerp(v, a00, a10);
+        double b1 = lerp(v, a01, a11);
+
+        double dx = lerp(w,
+                lerp(v, lerp(u, GRAD3_X[g000], GRAD3_X[g100]) + du * (n100 - n000),
+                        lerp(u, GRAD3_X[g010], GRAD3_X[g110]) + du * (n110 - n010)),
+                lerp(v, lerp(u, GRAD3_X[g001], GRAD3_X[g101]) + du * (n101 - n001),
+                        lerp(u, GRAD3_X[g011], GRAD3_X[g111]) + du * (n111 - n011)));
+        double dy = lerp(w,
+                lerp(v, lerp(u, GRAD3_Y[g000], GRAD3_Y[g100]), lerp(u, GRAD3_Y[g010], GRAD3_Y[g110]))
+                        + dv * (a10 - a00),
+                lerp(v, lerp(u, GRAD3_Y[g001], GRAD3_Y[g101]), lerp(u, GRAD3_Y[g011], GRAD3_Y[g111]))
+                        + dv * (a11 - a01));
+        double dz = lerp(w,
+                lerp(v, lerp(u, GRAD3_Z[g000], GRAD3_Z[g100]), lerp(u, GRAD3_Z[g010], GRAD3_Z[g110])),
+                lerp(v, lerp(u, GRAD3_Z[g001], GRAD3_Z[g101]), lerp(u, GRAD3_Z[g011], GRAD3_Z[g111])))
+                + dw * (b1 - b0);
+
+        dst[offset] += lerp(w, b0, b1) * amplitude;
+        dst[offset + 1] += dx * gradientScale;
+        dst[offset + 2] += dy * gradientScale;
+        dst[offset + 3] += dz * gradientScale;
+    }
+
+    // Adds amplitude * simplex(x, y, seed) to dst[offset] and gradientScale * its gradient to
+    // dst[offset + 1..2].
+    static void addSimplexDeriv(double x, double y, long seed, double amplitude, double gradientScale,
+            double[] dst, int offset) {
+        double s = (x + y) * F2;
+        double fi = Math.floor(x + s);
+        double fj = Math.floor(y + s);
+        double t = (fi + fj) * G2;
+        double x0 = x - (fi - t);
+        double y0 = y - (fj - t);
+
+        int i1 = x0 > y0 ? 1 : 0;
+        int j1 = 1 - i1;
+
+        double x1 = x0 - i1 + G2;
+        double y1 = y0 - j1 + G2;
+        double x2 = x0 - 1.0 + 2.0 * G2;
+        double y2 = y0 - 1.0 + 2.0 * G2;
+
+        long I = (long) fi * PRIME_X;
+        long J = (long) fj * PRIME_Y;
+        int gi0 = grad3(seed ^ I ^ J);
+        int gi1 = grad3(seed ^ (I + i1 * PRIME_X) ^ (J + j1 * PRIME_Y));
+        int gi2 = grad3(seed ^ (I + PRIME_X) ^ (J + PRIME_Y));
+
+        double n = 0.0, dx = 0.0, dy = 0.0;
+        double t0 = 0.5 - x0 * x0 - y0 * y0;
+        if (t0 > 0) {
+            double t02 = t0 * t0;
+            double t04 = t02 * t02;
+            double dot = gradDot(gi0, x0, y0);
+            double c = 8.0 * t02 * t0 * dot;
+            n += t04 * dot;
+            dx += t04 * GRAD3_X[gi0] - c * x0;
+            dy += t04 * GRAD3_Y[gi0] - c * y0;
+        }
+        double t1 = 0.5 - x1 * x1 - y1 * y1;
+        if (t1 > 0) {
+            double t12 = t1 * t1;
+            double t14 = t12 * t12;
+            double dot = gradDot(gi1, x1, y1);
+            double c = 8.0 * t12 * t1 * dot;
+            n += t14 * dot;
+            dx += t14 * GRAD3_X[gi1] - c * x1;
+            dy += t14 * GRAD3_Y[gi1] - c * y1;
+        }
+        double t2 = 0.5 - x2 * x2 - y2 * y2;
+        if (t2 > 0) {
+            double t22 = t2 * t2;
+            double t24 = t22 * t22;
+            double dot = gradDot(gi2, x2, y2);
+            double c = 8.0 * t22 * t2 * dot;
+            n += t24 * dot;
+            dx += t24 * GRAD3_X[gi2] - c * x2;
+            dy += t24 * GRAD3_Y[gi2] - c * y2;
+        }
+        dst[offset] += 70.0 * n * amplitude;
+        dst[offset + 1] += 70.0 * dx * gradientScale;
+        dst[offset + 2] += 70.0 * dy * gradientScale;
+    }
+
+    // Adds amplitude * simplex(x, y, z, seed) to dst[offset] and gradientScale * its gradient to
+    // dst[offset + 1..3].
+    static void addSimplexDeriv(double x, double y, double z, long seed, double amplitude, double gradientScale,
+            double[] dst, int offset) {
+        double s = (x + y + z) * F3;
+        double fi = Math.floor(x + s);
+        double fj = Math.floor(y + s);
+        double fk = Math.floor(z + s);
+        double t = (fi + fj + fk) * G3;
+        double x0 = x - (fi - t);
+        double y0 = y - (fj - t);
+        double z0 = z - (fk - t);
+
+        int i1, j1, k1;
+        int i2, j2, k2;
+        if (x0 >= y0) {
+            if (y0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+            else if (x0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1; }
+            else { i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1; }
+        } else { // x0 < y0
+            if (y0 < z0) { i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1; }
+            else if (x0 < z0) { i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1; }
+            else { i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+        }
+
+        double x1 = x0 - i1 + G3;
+        double y1 = y0 - j1 + G3;
+        double z1 = z0 - k1 + G3;
+        double x2 = x0 - i2 + 2.0 * G3;
+        double y2 = y0 - j2 + 2.0 * G3;
+        double z2 = z0 - k2 + 2.0 * G3;
+        double x3 = x0 - 1.0 + 3.0 * G3;
+        double y3 = y0 - 1.0 + 3.0 * G3;
+        double z3 = z0 - 1.0 + 3.0 * G3;
+
+        long I = (long) fi * PRIME_X;
+        long J = (long) fj * PRIME_Y;
+        long K = (long) fk * PRIME_Z;
+        int gi0 = grad3(seed ^ I ^ J ^ K);
+        int gi1 = grad3(seed ^ (I + i1 * PRIME_X) ^ (J + j1 * PRIME_Y) ^ (K + k1 * PRIME_Z));
+        int gi2 = grad3(seed ^ (I + i2 * PRIME_X) ^ (J + j2 * PRIME_Y) ^ (K + k2 * PRIME_Z));
+        int gi3 = grad3(seed ^ (I + PRIME_X) ^ (J + PRIME_Y) ^ (K + PRIME_Z));
+
+        double n = 0.0, dx = 0.0, dy = 0.0, dz = 0.0;
+        double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0;
+        if (t0 > 0) {
+            double t02 = t0 * t0;
+            double t04 = t02 * t02;
+            double dot = gradDot(gi0, x0, y0, z0);
+            double c = 8.0 * t02 * t0 * dot;
+            n += t04 * dot;
+            dx += t04 * GRAD3_X[gi0] - c * x0;
+            dy += t04 * GRAD3_Y[gi0] - c * y0;
+            dz += t04 * GRAD3_Z[gi0] - c * z0;
+        }
+        double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
+        if (t1 > 0) {
+            double t12 = t1 * t1;
+            double t14 = t12 * t12;
+            double dot = gradDot(gi1, x1, y1, z1);
+            double c = 8.0 * t12 * t1 * dot;
+            n += t14 * dot;
+            dx += t14 * GRAD3_X[gi1] - c * x1;
+            dy += t14 * GRAD3_Y[gi1] - c * y1;
+            dz += t14 * GRAD3_Z[gi1] - c * z1;
+        }
+        double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
+        if (t2 > 0) {
+            double t22 = t2 * t2;
+            double t24 = t22 * t22;
+            double dot = gradDot(gi2, x2, y2, z2);
+            double c = 8.0 * t22 * t2 * dot;
+            n += t24 * dot;
+            dx += t24 * GRAD3_X[gi2] - c * x2;
+            dy += t24 * GRAD3_Y[gi2] - c * y2;
+            dz += t24 * GRAD3_Z[gi2] - c * z2;
+        }
+        double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
+        if (t3 > 0) {
+            double t32 = t3 * t3;
+            double t34 = t32 * t32;
+            double dot = gradDot(gi3, x3, y3, z3);
+            double c = 8.0 * t32 * t3 * dot;
+            n += t34 * dot;
+            dx += t34 * GRAD3_X[gi3] - c * x3;
+            dy += t34 * GRAD3_Y[gi3] - c * y3;
+            dz += t34 * GRAD3_Z[gi3] - c * z3;
+        }
+        dst[offset] += 32.0 * n * amplitude;
+        dst[offset + 1] += 32.0 * dx * gradientScale;
+        dst[offset + 2] += 32.0 * dy * gradientScale;
+        dst[offset + 3] += 32.0 * dz * gradientScale;
+    }
+
+    // --- Bulk grid evaluation ---
+    // Sample (ix, iy[, iz]) is taken at x = originX + ix * stepX (likewise for y and z), so every
+    // value is bit-identical to the corresponding pnoise2/pnoise3/snoise2/snoise3 call. As in
+    // the table-backed fillGrid methods, rows are walked one octave at a time and the corner
+    // gradients of the current cell are reused while consecutive samples stay in it, which
+    // skips most of the hashing when samples are closer than a lattice cell.
+
+    /**
+     * Fills {@code out} with 2D Perlin or simplex fBm sampled on a regular grid, row-major
+     * ({@code out[iy * width + ix]}). Each value equals
+     * {@code pnoise2(originX + ix * stepX, originY + iy * stepY, octaves, persistence, lacunarity, seed)},
+     * or {@code snoise2} with the same arguments for {@link NoiseType#SIMPLEX}.
+     *
+     * @param out Destination array, at least {@code width * height} long.
+     */
+    public static void fillGrid2D(double[] out, NoiseType type, double originX, double originY, double stepX,
+            double stepY, int width, int height, int octaves, double persistence, double lacunarity, long seed) {
+        checkType(type);
+        GridUtil.checkGrid(out.length, width, height, 1);
+        for (int iy = 0; iy < height; iy++) {
+            fbmRow2D(type, out, iy * width, originX, stepX, 0, width, originY + iy * stepY, octaves, persistence,
+                    lacunarity, seed, 0.0);
+        }
+    }
+
+    /**
+     * Single-precision output variant of
+     * {@link #fillGrid2D(double[], NoiseType, double, double, double, double, int, int, int, double, double, long)}.
+     * Values are computed in double precision and narrowed on store.
+     */
+    public static void fillGrid2D(float[] out, NoiseType type, double originX, double originY, double stepX,
+            double stepY, int width, int height, int octaves, double persistence, double lacunarity, long seed) {
+        checkType(type);
+        GridUtil.checkGrid(out.length, width, height, 1);
+        double[] row = new double[width];
+        for (int iy = 0; iy < height; iy++) {
+            fbmRow2D(type, row, 0, originX, stepX, 0, width, originY + iy * stepY, octaves, persistence,
+                    lacunarity, seed, 0.0);
+            int offset = iy * width;
+            for (int ix = 0; ix < width; ix++) {
+                out[offset + ix] = (float) row[ix];
+            }
+        }
+    }
+
+    /**
+     * Fills {@code out} with 3D Perlin or simplex fBm sampled on a regular grid
+     * ({@code out[(iz * height + iy) * width + ix]}). Each value equals
+     * {@code pnoise3(originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ, octaves,
+     * persistence, lacunarity, seed)}, or {@code snoise3} with the same arguments for
+     * {@link NoiseType#SIMPLEX}.
+     *
+     * @param out Destination array, at least {@code width * height * depth} long.
+     */
+    public static void fillGrid3D(double[] out, NoiseType type, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth, int octaves,
+            double persistence, double lacunarity, long seed) {
+        checkType(type);
+        GridUtil.checkGrid(out.length, width, height, depth);
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                fbmRow3D(type, out, (iz * height + iy) * width, originX, stepX, 0, width, originY + iy * stepY, z,
+                        octaves, persistence, lacunarity, seed, 0.0);
+            }
+        }
+    }
+
+    /**
+     * Single-precision output variant of
+     * {@link #fillGrid3D(double[], NoiseType, double, double, double, double, double, double, int, int, int, int, double, double, long)}.
+     */
+    public static void fillGrid3D(float[] out, NoiseType type, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth, int octaves,
+            double persistence, double lacunarity, long seed) {
+        checkType(type);
+        GridUtil.checkGrid(out.length, width, height, depth);
+        double[] row = new double[width];
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                fbmRow3D(type, row, 0, originX, stepX, 0, width, originY + iy * stepY, z, octaves, persistence,
+                        lacunarity, seed, 0.0);
+                int offset = (iz * height + iy) * width;
+                for (int ix = 0; ix < width; ix++) {
+                    out[offset + ix] = (float) row[ix];
+                }
+            }
+        }
+    }
+
+    private static void checkType(NoiseType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Noise type must not be null.");
+        }
+    }
+
+    // fBm over 'count' samples of one row starting at column ix0, written to dst[offset..], with
+    // the octaves weighted for a sampling footprint (OctaveLod); 'seed' is not yet mixed.
+    static void fbmRow2D(NoiseType type, double[] dst, int offset, double originX, double stepX, int ix0,
+            int count, double y, int octaves, double persistence, double lacunarity, long seed, double footprint) {
+        Arrays.fill(dst, offset, offset + count, 0.0);
+        long s = mix(seed);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weighted = amplitude * OctaveLod.weight(frequency, footprint);
+            // Culled octaves are skipped but still count in the normalization.
+            if (weighted != 0) {
+                if (type == NoiseType.PERLIN) {
+                    addPerlinRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, weighted, s);
+                } else {
+                    addSimplexRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, weighted, s);
+                }
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    static void fbmRow3D(NoiseType type, double[] dst, int offset, double originX, double stepX, int ix0,
+            int count, double y, double z, int octaves, double persistence, double lacunarity, long seed,
+            double footprint) {
+        Arrays.fill(dst, offset, offset + count, 0.0);
+        long s = mix(seed);
+        int[] cellGrads = new int[8];
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weighted = amplitude * OctaveLod.weight(frequency, footprint);
+            // Culled octaves are skipped but still count in the normalization.
+            if (weighted != 0) {
+                if (type == NoiseType.PERLIN) {
+                    addPerlinRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, weighted, s, cellGrads);
+                } else {
+                    addSimplexRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, weighted, s,
+                            cellGrads);
+                }
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    // One octave of perlin(x, y, seed) along a row, scaled by amplitude and added to dst.
+    private static void addPerlinRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double frequency, double amplitude, long seed) {
+        double fy = y * frequency;
+        double floorY = Math.floor(fy);
+        long Y0 = (long) floorY * PRIME_Y;
+        long Y1 = Y0 + PRIME_Y;
+        fy -= floorY;
+        double v = fade(fy);
+
+        boolean haveCell = false;
+        long cell = 0;
+        int g00 = 0, g10 = 0, g01 = 0, g11 = 0;
+        for (int n = 0; n < count; n++) {
+            double x = (originX + (ix0 + n) * stepX) * frequency;
+            double floorX = Math.floor(x);
+            long cx = (long) floorX;
+            if (!haveCell || cx != cell) {
+                long X0 = seed ^ cx * PRIME_X;
+                long X1 = seed ^ (cx + 1) * PRIME_X;
+                g00 = grad3(X0 ^ Y0);
+                g10 = grad3(X1 ^ Y0);
+                g01 = grad3(X0 ^ Y1);
+                g11 = grad3(X1 ^ Y1);
+                cell = cx;
+                haveCell = true;
+            }
+            x -= floorX;
+            double u = fade(x);
+            dst[offset + n] += lerp(v, lerp(u, gradDot(g00, x, fy), gradDot(g10, x - 1, fy)),
+                    lerp(u, gradDot(g01, x, fy - 1), gradDot(g11, x - 1, fy - 1))) * amplitude;
+        }
+    }
+
+    // One octave of perlin(x, y, z, seed) along a row. g holds the gradient indices of the eight
+    // corners of the current cell, in the blend order of perlin(x, y, z, seed).
+    private static void addPerlinRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double z, double frequency, double amplitude, long seed, int[] g) {
+        double fy = y * frequency;
+        double fz = z * frequency;
+        double floorY = Math.floor(fy);
+        double floorZ = Math.floor(fz);
+        long Y0 = (long) floorY * PRIME_Y;
+        long Y1 = Y0 + PRIME_Y;
+        long Z0 = (long) floorZ * PRIME_Z;
+        long Z1 = Z0 + PRIME_Z;
+        fy -= floorY;
+        fz -= floorZ;
+        double v = fade(fy);
+        double w = fade(fz);
+
+        boolean haveCell = false;
+        long cell = 0;
+        for (int n = 0; n < count; n++) {
+            double x = (originX + (ix0 + n) * stepX) * frequency;
+            double floorX = Math.floor(x);
+            long cx = (long) floorX;
+            if (!haveCell || cx != cell) {
+                long X0 = seed ^ cx * PRIME_X;
+                long X1 = seed ^ (cx + 1) * PRIME_X;
+                g[0] = grad3(X0 ^ Y0 ^ Z0);
+                g[1] = grad3(X1 ^ Y0 ^ Z0);
+                g[2] = grad3(X0 ^ Y1 ^ Z0);
+                g[3] = grad3(X1 ^ Y1 ^ Z0);
+                g[4] = grad3(X0 ^ Y0 ^ Z1);
+                g[5] = grad3(X1 ^ Y0 ^ Z1);
+                g[6] = grad3(X0 ^ Y1 ^ Z1);
+                g[7] = grad3(X1 ^ Y1 ^ Z1);
+                cell = cx;
+                haveCell = true;
+            }
+            x -= floorX;
+            double u = fade(x);
+            dst[offset + n] += lerp(w, lerp(v, lerp(u, gradDot(g[0], x, fy, fz), gradDot(g[1], x - 1, fy, fz)),
+                    lerp(u, gradDot(g[2], x, fy - 1, fz), gradDot(g[3], x - 1, fy - 1, fz))),
+                    lerp(v, lerp(u, gradDot(g[4], x, fy, fz - 1), gradDot(g[5], x - 1, fy, fz - 1)),
+                            lerp(u, gradDot(g[6], x, fy - 1, fz - 1), gradDot(g[7], x - 1, fy - 1, fz - 1))))
+                    * amplitude;
+        }
+    }
+
+    // One octave of simplex(x, y, seed) along a row, scaled by amplitude and added to dst.
+    private static void addSimplexRow2D(double[] dst, int offset, double originX, double stepX, int ix0,
+            int count, double y, double frequency, double amplitude, long seed) {
+        double fy = y * frequency;
+
+        boolean haveCell = false;
+        double cellI = 0, cellJ = 0;
+        int g00 = 0, g10 = 0, g01 = 0, g11 = 0;
+        for (int c = 0; c < count; c++) {
+            double x = (originX + (ix0 + c) * stepX) * frequency;
+            double s = (x + fy) * F2;
+            double fi = Math.floor(x + s);
+            double fj = Math.floor(fy + s);
+            if (!haveCell || fi != cellI || fj != cellJ) {
+                long I = (long) fi * PRIME_X;
+                long J = (long) fj * PRIME_Y;
+                g00 = grad3(seed ^ I ^ J);
+                g10 = grad3(seed ^ (I + PRIME_X) ^ J);
+                g01 = grad3(seed ^ I ^ (J + PRIME_Y));
+                g11 = grad3(seed ^ (I + PRIME_X) ^ (J + PRIME_Y));
+                cellI = fi;
+                cellJ = fj;
+                haveCell = true;
+            }
+            double t = (fi + fj) * G2;
+            double x0 = x - (fi - t);
+            double y0 = fy - (fj - t);
+
+            int i1, j1;
+            int g1;
+            if (x0 > y0) {
+                i1 = 1; j1 = 0; g1 = g10;
+            } else {
+                i1 = 0; j1 = 1; g1 = g01;
+            }
+
+            double x1 = x0 - i1 + G2;
+            double y1 = y0 - j1 + G2;
+            double x2 = x0 - 1.0 + 2.0 * G2;
+            double y2 = y0 - 1.0 + 2.0 * G2;
+
+            double n = 0.0;
+            double t0 = 0.5 - x0 * x0 - y0 * y0;
+            if (t0 > 0) {
+                t0 *= t0;
+                n += t0 * t0 * gradDot(g00, x0, y0);
+            }
+            double t1 = 0.5 - x1 * x1 - y1 * y1;
+            if (t1 > 0) {
+                t1 *= t1;
+                n += t1 * t1 * gradDot(g1, x1, y1);
+            }
+            double t2 = 0.5 - x2 * x2 - y2 * y2;
+            if (t2 > 0) {
+                t2 *= t2;
+                n += t2 * t2 * gradDot(g11, x2, y2);
+            }
+            dst[offset + c] += 70.0 * n * amplitude;
+        }
+    }
+
+    // One octave of simplex(x, y, z, seed) along a row. cellGrads holds the gradient indices of
+    // the eight corners of the current cell, indexed by (di << 2) | (dj << 1) | dk.
+    private static void addSimplexRow3D(double[] dst, int offset, double originX, double stepX, int ix0,
+            int count, double y, double z, double frequency, double amplitude, long seed, int[] cellGrads) {
+        double fy = y * frequency;
+        double fz = z * frequency;
+
+        boolean haveCell = false;
+        double cellI = 0, cellJ = 0, cellK = 0;
+        for (int c = 0; c < count; c++) {
+            double x = (originX + (ix0 + c) * stepX) * frequency;
+            double s = (x + fy + fz) * F3;
+            double fi = Math.floor(x + s);
+            double fj = Math.floor(fy + s);
+            double fk = Math.floor(fz + s);
+            if (!haveCell || fi != cellI || fj != cellJ || fk != cellK) {
+                long I = (long) fi * PRIME_X;
+                long J = (long) fj * PRIME_Y;
+                long K = (long) fk * PRIME_Z;
+                for (int corner = 0; corner < 8; corner++) {
+                    long di = corner >> 2, dj = (corner >> 1) & 1, dk = corner & 1;
+                    cellGrads[corner] = grad3(seed ^ (I + di * PRIME_X) ^ (J + dj * PRIME_Y) ^ (K + dk * PRIME_Z));
+                }
+                cellI = fi;
+                cellJ = fj;
+                cellK = fk;
+                haveCell = true;
+            }
+            double t = (fi + fj + fk) * G3;
+            double x0 = x - (fi - t);
+            double y0 = fy - (fj - t);
+            double z0 = fz - (fk - t);
+
+            int i1, j1, k1;
+            int i2, j2, k2;
+            if (x0 >= y0) {
+                if (y0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+                else if (x0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1; }
+                else { i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1; }
+            } else { // x0 < y0
+                if (y0 < z0) { i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1; }
+                else if (x0 < z0) { i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1; }
+                else { i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+            }
+
+            double x1 = x0 - i1 + G3;
+            double y1 = y0 - j1 + G3;
+            double z1 = z0 - k1 + G3;
+            double x2 = x0 - i2 + 2.0 * G3;
+            double y2 = y0 - j2 + 2.0 * G3;
+            double z2 = z0 - k2 + 2.0 * G3;
+            double x3 = x0 - 1.0 + 3.0 * G3;
+            double y3 = y0 - 1.0 + 3.0 * G3;
+            double z3 = z0 - 1.0 + 3.0 * G3;
+
+            double n = 0.0;
+            double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0;
+            if (t0 > 0) {
+                t0 *= t0;
+                n += t0 * t0 * gradDot(cellGrads[0], x0, y0, z0);
+            }
+            double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
+            if (t1 > 0) {
+                t1 *= t1;
+                n += t1 * t1 * gradDot(cellGrads[(i1 << 2) | (j1 << 1) | k1], x1, y1, z1);
+            }
+            double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
+            if (t2 > 0) {
+                t2 *= t2;
+                n += t2 * t2 * gradDot(cellGrads[(i2 << 2) | (j2 << 1) | k2], x2, y2, z2);
+            }
+            double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
+            if (t3 > 0) {
+                t3 *= t3;
+                n += t3 * t3 * gradDot(cellGrads[7], x3, y3, z3);
+            }
+            dst[offset + c] += 32.0 * n * amplitude;
+        }
+    }
+}
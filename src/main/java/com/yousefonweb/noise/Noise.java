@@ -25,6 +25,11 @@ public class Noise {
     public static double snoise2(double x, double y, int octaves) {
         return SimplexNoise.snoise2(x, y, octaves, 0.5, 2.0, defaultPermutationTable);
     }
+
+    // Seamless version: periodic with repeatX in x and repeatY in y
+    public static double snoise2Tileable(double x, double y, double repeatX, double repeatY) {
+        return SimplexNoise.snoise2Tileable(x, y, repeatX, repeatY, 1, 0.5, 2.0, defaultPermutationTable);
+    }
     // more overloads to be added if custom persistence, lacunarity, or perm_table is needed
     // at this level
 
@@ -77,6 +82,11 @@ public class Noise {
         return PerlinNoise.pnoise2(x, y, octaves, persistence, lacunarity, base, defaultPermutationTable);
     }
 
+    // Tiling version: periodic with repeatX in x and repeatY in y
+    public static double pnoise2(double x, double y, int repeatX, int repeatY, int base) {
+        return PerlinNoise.pnoise2(x, y, 1, 0.5, 2.0, base, defaultPermutationTable, repeatX, repeatY);
+    }
+
     public static double pnoise3(double x, double y, double z) {
         return PerlinNoise.pnoise3(x, y, z, 1, 0.5, 2.0, 0, defaultPermutationTable, 0, 0, 0);
     }
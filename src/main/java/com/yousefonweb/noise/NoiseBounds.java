@@ -0,0 +1,400 @@
+package com.yousefonweb.noise;
+
+import static com.yousefonweb.noise.NoiseConstants.F3;
+import static com.yousefonweb.noise.NoiseConstants.G3;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_X;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_Y;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_Z;
+import static com.yousefonweb.noise.NoiseConstants.fade;
+
+/**
+ * Conservative bounds of 3D fBm over an axis-aligned box, for skipping regions whose noise
+ * cannot cross a threshold, such as the voxel chunks of a density terrain that are entirely
+ * air or entirely solid.
+ *
+ * Each octave is bounded on its own and the bounds are summed with the octave amplitudes and
+ * divided by the fBm normalization. An octave whose box, in that octave's lattice coordinates,
+ * reaches only a few lattice cells is bounded from the gradients at their corners: the
+ * gradient dot products are linear over the box, so their ranges are exact, and the fade
+ * curves are monotone, so interval arithmetic over the corner blend bounds the octave. That
+ * overestimates in proportion to the box, so boxes of up to a cell are bounded in up to 64
+ * parts and the part bounds joined. Octaves whose box spans more of the lattice, typically
+ * the fine ones, fall back to the range of the noise function itself, which the octave's small
+ * amplitude keeps narrow.
+ *
+ * The bounds are conservative: every value the fBm takes in the box, faces included, lies in
+ * the returned range. They are not tight, so a range that straddles a threshold does not mean
+ * the box actually crosses it. Simplex bounds are looser than Perlin ones, as every lattice
+ * point within the kernel radius of the box is counted. A bound of a chunk costs about as much
+ * as evaluating a few hundred to a few thousand of its voxels.
+ */
+public final class NoiseBounds {
+
+    /**
+     * A closed range {@code [min, max]} of fBm values.
+     */
+    public record Range(double min, double max) {
+
+        /**
+         * Whether every value in the range is greater than {@code threshold}.
+         */
+        public boolean isAbove(double threshold) {
+            return min > threshold;
+        }
+
+        /**
+         * Whether every value in the range is less than {@code threshold}.
+         */
+        public boolean isBelow(double threshold) {
+            return max < threshold;
+        }
+
+        public boolean contains(double value) {
+            return value >= min && value <= max;
+        }
+    }
+
+    // Largest |PerlinNoise.noise| over a cell with every corner's gradient chosen to maximize
+    // it, about 1.036 (the largest |g . d| over the 12 edge gradients is the sum of the two
+    // largest |d| components); rounded up.
+    static final double PERLIN3_RANGE = 1.05;
+    // The same for SimplexNoise.noise3, about 0.979.
+    static final double SIMPLEX3_RANGE = 1.0;
+    // noise3 sums the kernels of the four corners of the simplex only, but with a kernel radius
+    // of sqrt(0.6) up to two other lattice points, each at least sqrt(0.5) away, are within
+    // reach. Bounding the sum of all kernels in reach can miss their share, at most
+    // 32 * 0.1^4 * sqrt(1.2) each.
+    static final double SIMPLEX3_SKIPPED = 0.0071;
+    private static final double KERNEL_RADIUS = Math.sqrt(0.6);
+    // Octaves touching more cells (Perlin) or lattice points (simplex) use the function range.
+    private static final int MAX_PERLIN_CELLS = 64;
+    private static final int MAX_SIMPLEX_POINTS = 512;
+    private static final int MAX_PARTS = 4;
+    private static final double PART_SIZE = 1.0 / 16;
+    // Keeps lattice coordinates within int range.
+    private static final double LATTICE_LIMIT = 1 << 30;
+    // Covers the rounding of the fBm and of the bound itself.
+    private static final double SLACK = 1e-9;
+
+    private NoiseBounds() {
+    }
+
+    /**
+     * Bounds non-tileable {@code PerlinNoise.pnoise3(x, y, z, octaves, persistence, lacunarity, base,
+     * permTable, 0, 0, 0)} over the box {@code [minX, maxX] x [minY, maxY] x [minZ, maxZ]}.
+     *
+     * @throws IllegalArgumentException if a coordinate is not finite or a minimum exceeds its
+     *         maximum.
+     */
+    public static Range pnoise3(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        checkBox(minX, minY, minZ, maxX, maxY, maxZ);
+        return fbm3(NoiseType.PERLIN, true, minX, minY, minZ, maxX, maxY, maxZ, frequencies(octaves, lacunarity),
+                amplitudes(octaves, persistence), permTable.shifted(base));
+    }
+
+    /**
+     * Bounds {@code SimplexNoise.snoise3(x, y, z, octaves, persistence, lacunarity, permTable)} over
+     * the box {@code [minX, maxX] x [minY, maxY] x [minZ, maxZ]}.
+     *
+     * @throws IllegalArgumentException if a coordinate is not finite or a minimum exceeds its
+     *         maximum.
+     */
+    public static Range snoise3(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        checkBox(minX, minY, minZ, maxX, maxY, maxZ);
+        return fbm3(NoiseType.SIMPLEX, true, minX, minY, minZ, maxX, maxY, maxZ, frequencies(octaves, lacunarity),
+                amplitudes(octaves, persistence), permTable);
+    }
+
+    // Sums the octave bounds. Without 'lattice' (the tileable Perlin lattice, whose hashing is
+    // not mirrored here) every octave is bounded by the function range. Perlin octaves are
+    // evaluated with base 0 on 'permTable', so it must already be shifted.
+    static Range fbm3(NoiseType type, boolean lattice, double minX, double minY, double minZ, double maxX,
+            double maxY, double maxZ, double[] frequencies, double[] amplitudes, PermutationTable permTable) {
+        Scratch scratch = new Scratch();
+        double range = type == NoiseType.PERLIN ? PERLIN3_RANGE : SIMPLEX3_RANGE;
+        double min = 0;
+        double max = 0;
+        double maxValue = 0;
+        for (int i = 0; i < frequencies.length; i++) {
+            double f = frequencies[i];
+            double octaveMin = -range;
+            double octaveMax = range;
+            if (lattice) {
+                octaveMin = Double.POSITIVE_INFINITY;
+                octaveMax = Double.NEGATIVE_INFINITY;
+                double ax = minX * f;
+                double ay = minY * f;
+                double az = minZ * f;
+                double bx = maxX * f;
+                double by = maxY * f;
+                double bz = maxZ * f;
+                int partsX = parts(bx - ax);
+                int partsY = parts(by - ay);
+                int partsZ = parts(bz - az);
+                for (int pz = 0; pz < partsZ; pz++) {
+                    for (int py = 0; py < partsY; py++) {
+                        for (int px = 0; px < partsX; px++) {
+                            scratch.min = -range;
+                            scratch.max = range;
+                            double x0 = split(ax, bx, px, partsX);
+                            double y0 = split(ay, by, py, partsY);
+                            double z0 = split(az, bz, pz, partsZ);
+                            double x1 = split(ax, bx, px + 1, partsX);
+                            double y1 = split(ay, by, py + 1, partsY);
+                            double z1 = split(az, bz, pz + 1, partsZ);
+                            if (type == NoiseType.PERLIN) {
+                                perlinOctave(x0, y0, z0, x1, y1, z1, permTable, scratch);
+                            } else {
+                                simplexOctave(x0, y0, z0, x1, y1, z1, permTable, scratch);
+                            }
+                            octaveMin = Math.min(octaveMin, scratch.min);
+                            octaveMax = Math.max(octaveMax, scratch.max);
+                        }
+                    }
+                }
+            }
+            double a = amplitudes[i];
+            min += Math.min(a * octaveMin, a * octaveMax);
+            max += Math.max(a * octaveMin, a * octaveMax);
+            maxValue += a;
+        }
+        double low = min / maxValue;
+        double high = max / maxValue;
+        return new Range(Math.min(low, high) - SLACK, Math.max(low, high) + SLACK);
+    }
+
+    // The interval forms overestimate in proportion to the box, so an octave box of up to a cell per
+    // side is bounded in parts no wider than PART_SIZE; larger boxes are mostly bounded by the
+    // function range anyway.
+    private static int parts(double side) {
+        side = Math.abs(side);
+        return side > 1 ? 1 : Math.max(1, Math.min(MAX_PARTS, (int) Math.ceil(side / PART_SIZE)));
+    }
+
+    // Boundary 'part' of 'parts' between a and b; the last one is b itself, so the parts cover
+    // the box without gaps.
+    private static double split(double a, double b, int part, int parts) {
+        return part == parts ? b : a + (b - a) * part / parts;
+    }
+
+    static void checkBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        if (!(minX <= maxX && minY <= maxY && minZ <= maxZ) || Double.isInfinite(minX) || Double.isInfinite(maxX)
+                || Double.isInfinite(minY) || Double.isInfinite(maxY) || Double.isInfinite(minZ)
+                || Double.isInfinite(maxZ)) {
+            throw new IllegalArgumentException("Box must be finite with each minimum at most its maximum.");
+        }
+    }
+
+    // Narrows scratch.min/max to a bound of PerlinNoise.noise(x, y, z, 0, permTable) over the box
+    // between the two corners (in either order), cell by cell.
+    private static void perlinOctave(double ax, double ay, double az, double bx, double by, double bz,
+            PermutationTable permTable, Scratch scratch) {
+        double x0 = Math.min(ax, bx);
+        double y0 = Math.min(ay, by);
+        double z0 = Math.min(az, bz);
+        double x1 = Math.max(ax, bx);
+        double y1 = Math.max(ay, by);
+        double z1 = Math.max(az, bz);
+        double cellX0 = Math.floor(x0);
+        double cellY0 = Math.floor(y0);
+        double cellZ0 = Math.floor(z0);
+        double cellX1 = Math.floor(x1);
+        double cellY1 = Math.floor(y1);
+        double cellZ1 = Math.floor(z1);
+        double cells = (cellX1 - cellX0 + 1) * (cellY1 - cellY0 + 1) * (cellZ1 - cellZ0 + 1);
+        if (!(cells <= MAX_PERLIN_CELLS) || !withinLattice(x0, y0, z0, x1, y1, z1)) {
+            return;
+        }
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double[] low = scratch.low;
+        double[] high = scratch.high;
+        for (double cz = cellZ0; cz <= cellZ1; cz++) {
+            low[2] = Math.max(z0 - cz, 0);
+            high[2] = Math.min(z1 - cz, 1);
+            for (double cy = cellY0; cy <= cellY1; cy++) {
+                low[1] = Math.max(y0 - cy, 0);
+                high[1] = Math.min(y1 - cy, 1);
+                for (double cx = cellX0; cx <= cellX1; cx++) {
+                    low[0] = Math.max(x0 - cx, 0);
+                    high[0] = Math.min(x1 - cx, 1);
+                    PerlinNoise.cornerGradients((int) cx, (int) cy, (int) cz, permTable, scratch.gradients);
+                    perlinCell(scratch);
+                    min = Math.min(min, scratch.cellMin);
+                    max = Math.max(max, scratch.cellMax);
+                }
+            }
+        }
+        scratch.min = Math.max(scratch.min, min);
+        scratch.max = Math.min(scratch.max, max);
+    }
+
+    // Interval form over one cell's part of the box, scratch.low/high in cell coordinates:
+    // corner c's dot product g . (p - c) is linear, so its range is exact, and the blend of
+    // PerlinNoise.corners is then evaluated on ranges.
+    private static void perlinCell(Scratch scratch) {
+        double[] lo = scratch.lo;
+        double[] hi = scratch.hi;
+        for (int c = 0; c < 8; c++) {
+            int g = scratch.gradients[c];
+            lo[c] = 0;
+            hi[c] = 0;
+            for (int axis = 0; axis < 3; axis++) {
+                double offset = c >> axis & 1;
+                lo[c] += dotMin(gradient(g, axis), scratch.low[axis] - offset, scratch.high[axis] - offset);
+                hi[c] += dotMax(gradient(g, axis), scratch.low[axis] - offset, scratch.high[axis] - offset);
+            }
+        }
+        for (int axis = 0; axis < 3; axis++) {
+            blend(lo, hi, 1 << axis, fade(scratch.low[axis]), fade(scratch.high[axis]));
+        }
+        scratch.cellMin = lo[0];
+        scratch.cellMax = hi[0];
+    }
+
+    // Interval lerp of corners c and c + stride into c for every c at this level: with t in
+    // [t0, t1] inside [0, 1], a + t * (b - a) is smallest at the low ends of a and b and at
+    // one end of t.
+    private static void blend(double[] lo, double[] hi, int stride, double t0, double t1) {
+        for (int c = 0; c < 8; c += 2 * stride) {
+            double a = lo[c];
+            double b = lo[c + stride];
+            lo[c] = Math.min(a + t0 * (b - a), a + t1 * (b - a));
+            a = hi[c];
+            b = hi[c + stride];
+            hi[c] = Math.max(a + t0 * (b - a), a + t1 * (b - a));
+        }
+    }
+
+    // Narrows scratch.min/max to a bound of SimplexNoise.noise3(x, y, z, permTable) over the box
+    // between the two corners (in either order): the kernels of every lattice point within reach
+    // of the box, plus the share noise3 may leave out.
+    private static void simplexOctave(double ax, double ay, double az, double bx, double by, double bz,
+            PermutationTable permTable, Scratch scratch) {
+        double x0 = Math.min(ax, bx);
+        double y0 = Math.min(ay, by);
+        double z0 = Math.min(az, bz);
+        double x1 = Math.max(ax, bx);
+        double y1 = Math.max(ay, by);
+        double z1 = Math.max(az, bz);
+        if (!withinLattice(x0, y0, z0, x1, y1, z1)) {
+            return;
+        }
+        // A lattice point in reach lies in the box grown by the kernel radius, and skewing is
+        // increasing in every coordinate, so its skewed coordinates lie between those of the
+        // grown box's corners.
+        double r = KERNEL_RADIUS;
+        double skewLow = (x0 + y0 + z0 - 3 * r) * F3;
+        double skewHigh = (x1 + y1 + z1 + 3 * r) * F3;
+        double i0 = Math.ceil(x0 - r + skewLow);
+        double j0 = Math.ceil(y0 - r + skewLow);
+        double k0 = Math.ceil(z0 - r + skewLow);
+        double i1 = Math.floor(x1 + r + skewHigh);
+        double j1 = Math.floor(y1 + r + skewHigh);
+        double k1 = Math.floor(z1 + r + skewHigh);
+        double points = (i1 - i0 + 1) * (j1 - j0 + 1) * (k1 - k0 + 1);
+        if (!(points <= MAX_SIMPLEX_POINTS)) {
+            return;
+        }
+        double min = 0;
+        double max = 0;
+        for (int k = (int) k0; k <= k1; k++) {
+            for (int j = (int) j0; j <= j1; j++) {
+                for (int i = (int) i0; i <= i1; i++) {
+                    double t = (i + j + k) * G3;
+                    // Offsets from the unskewed lattice point to the box.
+                    double dx0 = x0 - (i - t);
+                    double dx1 = x1 - (i - t);
+                    double dy0 = y0 - (j - t);
+                    double dy1 = y1 - (j - t);
+                    double dz0 = z0 - (k - t);
+                    double dz1 = z1 - (k - t);
+                    double nearest = squaredDistance(dx0, dx1) + squaredDistance(dy0, dy1)
+                            + squaredDistance(dz0, dz1);
+                    if (nearest >= 0.6) {
+                        continue;
+                    }
+                    double farthest = Math.max(dx0 * dx0, dx1 * dx1) + Math.max(dy0 * dy0, dy1 * dy1)
+                            + Math.max(dz0 * dz0, dz1 * dz1);
+                    double kernelMax = 0.6 - nearest;
+                    kernelMax *= kernelMax;
+                    kernelMax *= kernelMax;
+                    double kernelMin = Math.max(0.6 - farthest, 0);
+                    kernelMin *= kernelMin;
+                    kernelMin *= kernelMin;
+                    int g = SimplexNoise.gradient3(i, j, k, permTable);
+                    double dotLow = dotMin(GRAD3_X[g], dx0, dx1) + dotMin(GRAD3_Y[g], dy0, dy1)
+                            + dotMin(GRAD3_Z[g], dz0, dz1);
+                    double dotHigh = dotMax(GRAD3_X[g], dx0, dx1) + dotMax(GRAD3_Y[g], dy0, dy1)
+                            + dotMax(GRAD3_Z[g], dz0, dz1);
+                    // The kernel is not negative, so the extremes are at the dot product's ends.
+                    min += Math.min(kernelMin * dotLow, kernelMax * dotLow);
+                    max += Math.max(kernelMin * dotHigh, kernelMax * dotHigh);
+                }
+            }
+        }
+        scratch.min = Math.max(scratch.min, 32 * min - SIMPLEX3_SKIPPED);
+        scratch.max = Math.min(scratch.max, 32 * max + SIMPLEX3_SKIPPED);
+    }
+
+    // Range of g * d for d in [d0, d1].
+    private static double dotMin(double g, double d0, double d1) {
+        return g >= 0 ? g * d0 : g * d1;
+    }
+
+    private static double dotMax(double g, double d0, double d1) {
+        return g >= 0 ? g * d1 : g * d0;
+    }
+
+    private static double gradient(int g, int axis) {
+        return axis == 0 ? GRAD3_X[g] : axis == 1 ? GRAD3_Y[g] : GRAD3_Z[g];
+    }
+
+    // Smallest d * d for d in [d0, d1].
+    private static double squaredDistance(double d0, double d1) {
+        if (d0 > 0) {
+            return d0 * d0;
+        }
+        return d1 < 0 ? d1 * d1 : 0;
+    }
+
+    private static boolean withinLattice(double x0, double y0, double z0, double x1, double y1, double z1) {
+        return Math.max(Math.max(-x0, x1), Math.max(Math.max(-y0, y1), Math.max(-z0, z1))) < LATTICE_LIMIT;
+    }
+
+    private static double[] frequencies(int octaves, double lacunarity) {
+        double[] frequencies = new double[Math.max(octaves, 0)];
+        double frequency = 1;
+        for (int i = 0; i < frequencies.length; i++) {
+            frequencies[i] = frequency;
+            frequency *= lacunarity;
+        }
+        return frequencies;
+    }
+
+    private static double[] amplitudes(int octaves, double persistence) {
+        double[] amplitudes = new double[Math.max(octaves, 0)];
+        double amplitude = 1;
+        for (int i = 0; i < amplitudes.length; i++) {
+            amplitudes[i] = amplitude;
+            amplitude *= persistence;
+        }
+        return amplitudes;
+    }
+
+    // Per-call working state: the running octave bound, the box part being bounded and the
+    // corner ranges of a cell.
+    private static final class Scratch {
+        final int[] gradients = new int[8];
+        final double[] lo = new double[8];
+        final double[] hi = new double[8];
+        final double[] low = new double[3];
+        final double[] high = new double[3];
+        double min;
+        double max;
+        double cellMin;
+        double cellMax;
+    }
+}
@@ -0,0 +1,68 @@
+package com.yousefonweb.noise;
+
+/**
+ * A square block of 2D noise samples handed out by {@link NoiseChunkCache}.
+ *
+ * Chunks are read-only: the samples are only reachable through {@link #get} and
+ * {@link #copyTo}, so one instance can be returned to every caller and thread that asks for
+ * the same chunk.
+ */
+public final class NoiseChunk {
+
+    private final int chunkX;
+    private final int chunkY;
+    private final int size;
+    private final float[] samples;
+
+    // Takes ownership of 'samples', which must hold size * size values in row-major order.
+    NoiseChunk(int chunkX, int chunkY, int size, float[] samples) {
+        this.chunkX = chunkX;
+        this.chunkY = chunkY;
+        this.size = size;
+        this.samples = samples;
+    }
+
+    /**
+     * Returns sample {@code (ix, iy)}, with {@code 0 <= ix, iy < size}.
+     *
+     * @throws IndexOutOfBoundsException if the sample is outside the chunk.
+     */
+    public float get(int ix, int iy) {
+        if (ix < 0 || ix >= size || iy < 0 || iy >= size) {
+            throw new IndexOutOfBoundsException("Sample (" + ix + ", " + iy + ") outside a chunk of size " + size);
+        }
+        return samples[iy * size + ix];
+    }
+
+    /**
+     * Copies the {@code size * size} samples, row-major, to {@code dst} starting at {@code offset}.
+     */
+    public void copyTo(float[] dst, int offset) {
+        System.arraycopy(samples, 0, dst, offset, samples.length);
+    }
+
+    /**
+     * Copies row {@code iy} to {@code dst} starting at {@code offset}.
+     */
+    public void copyRowTo(int iy, float[] dst, int offset) {
+        if (iy < 0 || iy >= size) {
+            throw new IndexOutOfBoundsException("Row " + iy + " outside a chunk of size " + size);
+        }
+        System.arraycopy(samples, iy * size, dst, offset, size);
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkY() {
+        return chunkY;
+    }
+
+    /**
+     * Samples per side.
+     */
+    public int getSize() {
+        return size;
+    }
+}
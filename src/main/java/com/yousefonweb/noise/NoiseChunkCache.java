@@ -0,0 +1,547 @@
+package com.yousefonweb.noise;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of square 2D noise chunks for worlds that are generated around a moving
+ * viewer, so revisited chunks are not evaluated again.
+ *
+ * Chunk {@code (chunkX, chunkY)} of a generator holds the {@code size x size} samples
+ * {@code generator.fillGrid2D(out, chunkX * size * spacing, chunkY * size * spacing, spacing, spacing, size, size)}
+ * would produce. Entries are keyed by the chunk coordinates and
+ * {@link NoiseGenerator#fingerprint()}, so one cache can serve several generators, and
+ * generators built separately with the same configuration share entries. A generator built
+ * with the same octaves, persistence, lacunarity, base and table gives the values of the
+ * matching {@link Noise} functions, e.g. {@code Noise.pnoise2(x, y, octaves, base)}.
+ *
+ * The cache keeps at most {@code maximumChunks} chunks and evicts the least recently used one
+ * when it is full. With {@link Builder#softReferences(boolean) soft references} enabled, evicted
+ * chunks stay reachable through {@link SoftReference}s until the garbage collector needs the
+ * memory, and a lookup that finds one moves it back into the LRU order.
+ *
+ * Keys are spread over independently locked stripes, each with its own hash table and LRU
+ * order, so threads working on different chunks rarely contend. A lookup that hits walks the
+ * stripe's intrusive table with the primitive key and returns the shared, read-only
+ * {@link NoiseChunk}; it allocates nothing. Misses compute the chunk outside the lock, and
+ * concurrent misses on the same chunk are coalesced by a {@link SingleFlight}: one thread
+ * computes the chunk and the others wait for it. {@link #getAsync} computes misses on the
+ * cache's executor; a computation whose callers have all cancelled their futures before it
+ * started is skipped.
+ *
+ * Instances may be shared between threads.
+ */
+public final class NoiseChunkCache {
+
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+    public static final int DEFAULT_MAXIMUM_CHUNKS = 1024;
+    public static final int DEFAULT_STRIPES = 16;
+
+    /**
+     * Counters since the cache was created. {@code hits + softHits + misses} is the number of
+     * {@link #get} calls that have completed.
+     *
+     * @param hits      Chunks found in the LRU order.
+     * @param softHits  Evicted chunks recovered from the soft-reference tier.
+     * @param misses    Chunks that had to be computed.
+     * @param evictions Chunks pushed out of the LRU order.
+     * @param coalesced Misses that waited for a computation already running for the same chunk
+     *                  instead of starting their own.
+     */
+    public record Stats(long hits, long softHits, long misses, long evictions, long coalesced) {
+
+        public double hitRate() {
+            long requests = hits + softHits + misses;
+            return requests == 0 ? 0.0 : (double) (hits + softHits) / requests;
+        }
+    }
+
+    private final int chunkSize;
+    private final double spacing;
+    private final int maximumChunks;
+    private final boolean softReferences;
+    private final Stripe[] stripes;
+    private final SingleFlight<ChunkKey, NoiseChunk> inFlight;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder softHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private NoiseChunkCache(Builder builder) {
+        this.chunkSize = builder.chunkSize;
+        this.spacing = builder.spacing;
+        this.maximumChunks = builder.maximumChunks;
+        this.softReferences = builder.softReferences;
+        this.inFlight = new SingleFlight<>(builder.executor);
+        // A power of two, and no more stripes than chunks so every stripe can hold one.
+        int count = Integer.highestOneBit(Math.min(builder.stripes, maximumChunks));
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(maximumChunks / count + (i < maximumChunks % count ? 1 : 0));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns chunk {@code (chunkX, chunkY)} of {@code generator}, computing it on a miss, or
+     * waiting for the thread that is already computing it.
+     */
+    public NoiseChunk get(NoiseGenerator generator, int chunkX, int chunkY) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Generator must not be null.");
+        }
+        long fingerprint = generator.fingerprint();
+        int hash = hash(fingerprint, chunkX, chunkY);
+        Stripe stripe = stripes[hash & (stripes.length - 1)];
+        NoiseChunk chunk = stripe.lookup(fingerprint, chunkX, chunkY, hash, true);
+        if (chunk != null) {
+            return chunk;
+        }
+        misses.increment();
+        return inFlight.run(new ChunkKey(fingerprint, chunkX, chunkY),
+                () -> load(generator, fingerprint, chunkX, chunkY, hash, stripe));
+    }
+
+    /**
+     * Returns chunk {@code (chunkX, chunkY)} of {@code generator} as a future: completed at once on
+     * a hit, otherwise completed by a computation on the cache's executor that concurrent
+     * requests for the chunk share. Cancelling the future detaches this caller; the computation
+     * is skipped if every caller cancels before it starts.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the executor rejects the computation.
+     */
+    public CompletableFuture<NoiseChunk> getAsync(NoiseGenerator generator, int chunkX, int chunkY) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Generator must not be null.");
+        }
+        long fingerprint = generator.fingerprint();
+        int hash = hash(fingerprint, chunkX, chunkY);
+        Stripe stripe = stripes[hash & (stripes.length - 1)];
+        NoiseChunk chunk = stripe.lookup(fingerprint, chunkX, chunkY, hash, true);
+        if (chunk != null) {
+            return CompletableFuture.completedFuture(chunk);
+        }
+        misses.increment();
+        return inFlight.submit(new ChunkKey(fingerprint, chunkX, chunkY),
+                () -> load(generator, fingerprint, chunkX, chunkY, hash, stripe));
+    }
+
+    /**
+     * Returns chunk {@code (chunkX, chunkY)} of {@code generator} if it is cached, or null. Counts as
+     * a hit when found; nothing is counted otherwise.
+     */
+    public NoiseChunk getIfPresent(NoiseGenerator generator, int chunkX, int chunkY) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Generator must not be null.");
+        }
+        long fingerprint = generator.fingerprint();
+        int hash = hash(fingerprint, chunkX, chunkY);
+        return stripes[hash & (stripes.length - 1)].lookup(fingerprint, chunkX, chunkY, hash, true);
+    }
+
+    /**
+     * Drops every chunk, including the soft-reference tier. Counters are kept.
+     */
+    public void invalidateAll() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    /**
+     * Number of chunks in the LRU order, at most {@link #getMaximumChunks()}; chunks held only by
+     * the soft-reference tier are not counted.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.strongCount();
+        }
+        return size;
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), softHits.sum(), misses.sum(), evictions.sum(), inFlight.coalescedCount());
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public double getSpacing() {
+        return spacing;
+    }
+
+    public int getMaximumChunks() {
+        return maximumChunks;
+    }
+
+    public boolean hasSoftReferences() {
+        return softReferences;
+    }
+
+    // Computes and stores a chunk for the single flight of its key. A flight that finished just
+    // before this one started may have stored the chunk already.
+    private NoiseChunk load(NoiseGenerator generator, long fingerprint, int chunkX, int chunkY, int hash,
+            Stripe stripe) {
+        NoiseChunk chunk = stripe.lookup(fingerprint, chunkX, chunkY, hash, false);
+        if (chunk != null) {
+            return chunk;
+        }
+        float[] samples = new float[chunkSize * chunkSize];
+        generator.fillGrid2D(samples, (double) chunkX * chunkSize * spacing, (double) chunkY * chunkSize * spacing,
+                spacing, spacing, chunkSize, chunkSize);
+        return stripe.insert(fingerprint, chunkX, chunkY, hash, new NoiseChunk(chunkX, chunkY, chunkSize, samples));
+    }
+
+    private record ChunkKey(long fingerprint, int chunkX, int chunkY) {
+    }
+
+    // 32 well-mixed bits of the key: the low bits pick the stripe, the high bits the bucket.
+    private static int hash(long fingerprint, int chunkX, int chunkY) {
+        long h = fingerprint ^ (chunkX * 0x9e3779b97f4a7c15L) ^ (chunkY * 0xc2b2ae3d27d4eb4fL);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    // An entry, linked into its bucket chain and, while 'chunk' is set, into the LRU order.
+    // Entries in the soft tier have 'chunk' null and 'soft' set.
+    private static final class Node {
+        final long fingerprint;
+        final int chunkX;
+        final int chunkY;
+        final int hash;
+        Node nextInBucket;
+        Node newer;
+        Node older;
+        NoiseChunk chunk;
+        SoftChunk soft;
+
+        Node(long fingerprint, int chunkX, int chunkY, int hash, NoiseChunk chunk) {
+            this.fingerprint = fingerprint;
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.hash = hash;
+            this.chunk = chunk;
+        }
+    }
+
+    // Remembers its node so the stripe can drop the entry once the collector has cleared it.
+    private static final class SoftChunk extends SoftReference<NoiseChunk> {
+        final Node node;
+
+        SoftChunk(NoiseChunk chunk, Node node, ReferenceQueue<NoiseChunk> queue) {
+            super(chunk, queue);
+            this.node = node;
+        }
+    }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ReferenceQueue<NoiseChunk> cleared = new ReferenceQueue<>();
+        private final int capacity;
+        private Node[] buckets;
+        private int nodeCount;
+        private int strongCount;
+        // Most and least recently used entries of the LRU order.
+        private Node newest;
+        private Node oldest;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            this.buckets = new Node[Math.max(2, Integer.highestOneBit(capacity * 2 - 1) * 2)];
+        }
+
+        // 'count' is false for the re-check of a miss, which is already counted.
+        NoiseChunk lookup(long fingerprint, int chunkX, int chunkY, int hash, boolean count) {
+            lock.lock();
+            try {
+                expungeCleared();
+                Node node = find(fingerprint, chunkX, chunkY, hash);
+                if (node == null) {
+                    return null;
+                }
+                if (node.chunk != null) {
+                    moveToNewest(node);
+                    if (count) {
+                        hits.increment();
+                    }
+                    return node.chunk;
+                }
+                NoiseChunk chunk = node.soft.get();
+                if (chunk == null) {
+                    // Cleared but not enqueued yet.
+                    remove(node);
+                    return null;
+                }
+                promote(node, chunk);
+                if (count) {
+                    softHits.increment();
+                }
+                return chunk;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        NoiseChunk insert(long fingerprint, int chunkX, int chunkY, int hash, NoiseChunk chunk) {
+            lock.lock();
+            try {
+                expungeCleared();
+                Node node = find(fingerprint, chunkX, chunkY, hash);
+                if (node == null) {
+                    node = new Node(fingerprint, chunkX, chunkY, hash, chunk);
+                    addToTable(node);
+                    linkNewest(node);
+                    strongCount++;
+                    evictOverflow();
+                    return chunk;
+                }
+                // Another thread stored the chunk while this one computed it; keep theirs.
+                if (node.chunk != null) {
+                    moveToNewest(node);
+                    return node.chunk;
+                }
+                NoiseChunk existing = node.soft.get();
+                promote(node, existing != null ? existing : chunk);
+                return node.chunk;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int strongCount() {
+            lock.lock();
+            try {
+                return strongCount;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                Arrays.fill(buckets, null);
+                nodeCount = 0;
+                strongCount = 0;
+                newest = null;
+                oldest = null;
+                while (cleared.poll() != null) {
+                    // Nodes are gone already.
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Node find(long fingerprint, int chunkX, int chunkY, int hash) {
+            Node node = buckets[(hash >>> 16) & (buckets.length - 1)];
+            while (node != null && (node.hash != hash || node.fingerprint != fingerprint || node.chunkX != chunkX
+                    || node.chunkY != chunkY)) {
+                node = node.nextInBucket;
+            }
+            return node;
+        }
+
+        private void addToTable(Node node) {
+            if (++nodeCount > buckets.length * 3 / 4) {
+                Node[] old = buckets;
+                buckets = new Node[old.length * 2];
+                for (Node head : old) {
+                    while (head != null) {
+                        Node next = head.nextInBucket;
+                        int index = (head.hash >>> 16) & (buckets.length - 1);
+                        head.nextInBucket = buckets[index];
+                        buckets[index] = head;
+                        head = next;
+                    }
+                }
+            }
+            int index = (node.hash >>> 16) & (buckets.length - 1);
+            node.nextInBucket = buckets[index];
+            buckets[index] = node;
+        }
+
+        private void remove(Node node) {
+            int index = (node.hash >>> 16) & (buckets.length - 1);
+            Node previous = null;
+            for (Node n = buckets[index]; n != null; previous = n, n = n.nextInBucket) {
+                if (n == node) {
+                    if (previous == null) {
+                        buckets[index] = n.nextInBucket;
+                    } else {
+                        previous.nextInBucket = n.nextInBucket;
+                    }
+                    nodeCount--;
+                    return;
+                }
+            }
+        }
+
+        // Moves a soft-tier entry back into the LRU order.
+        private void promote(Node node, NoiseChunk chunk) {
+            node.soft.clear();
+            node.soft = null;
+            node.chunk = chunk;
+            linkNewest(node);
+            strongCount++;
+            evictOverflow();
+        }
+
+        private void evictOverflow() {
+            while (strongCount > capacity) {
+                Node victim = oldest;
+                unlink(victim);
+                strongCount--;
+                evictions.increment();
+                if (softReferences) {
+                    victim.soft = new SoftChunk(victim.chunk, victim, cleared);
+                    victim.chunk = null;
+                } else {
+                    remove(victim);
+                }
+            }
+        }
+
+        private void expungeCleared() {
+            Reference<? extends NoiseChunk> reference;
+            while ((reference = cleared.poll()) != null) {
+                Node node = ((SoftChunk) reference).node;
+                // Skip references of entries that were promoted or removed since.
+                if (node.soft == reference) {
+                    remove(node);
+                }
+            }
+        }
+
+        private void moveToNewest(Node node) {
+            if (node != newest) {
+                unlink(node);
+                linkNewest(node);
+            }
+        }
+
+        private void linkNewest(Node node) {
+            node.older = newest;
+            node.newer = null;
+            if (newest != null) {
+                newest.newer = node;
+            } else {
+                oldest = node;
+            }
+            newest = node;
+        }
+
+        private void unlink(Node node) {
+            if (node.newer != null) {
+                node.newer.older = node.older;
+            } else {
+                newest = node.older;
+            }
+            if (node.older != null) {
+                node.older.newer = node.newer;
+            } else {
+                oldest = node.newer;
+            }
+            node.newer = null;
+            node.older = null;
+        }
+    }
+
+    /**
+     * Collects a {@link NoiseChunkCache} configuration. Defaults: {@value #DEFAULT_CHUNK_SIZE}
+     * samples per side, spacing 1 / {@value #DEFAULT_CHUNK_SIZE} (one noise unit per chunk),
+     * {@value #DEFAULT_MAXIMUM_CHUNKS} chunks, no soft-reference tier and
+     * {@value #DEFAULT_STRIPES} stripes, with asynchronous misses on the common fork/join pool.
+     */
+    public static final class Builder {
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private double spacing = 1.0 / DEFAULT_CHUNK_SIZE;
+        private int maximumChunks = DEFAULT_MAXIMUM_CHUNKS;
+        private boolean softReferences;
+        private int stripes = DEFAULT_STRIPES;
+        private Executor executor = ForkJoinPool.commonPool();
+
+        private Builder() {
+        }
+
+        /**
+         * Samples per chunk side.
+         */
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Distance between neighbouring samples in noise coordinates.
+         */
+        public Builder spacing(double spacing) {
+            this.spacing = spacing;
+            return this;
+        }
+
+        /**
+         * Chunks kept in the LRU order; evicted chunks beyond this are only softly reachable or gone.
+         */
+        public Builder maximumChunks(int maximumChunks) {
+            this.maximumChunks = maximumChunks;
+            return this;
+        }
+
+        public Builder softReferences(boolean softReferences) {
+            this.softReferences = softReferences;
+            return this;
+        }
+
+        /**
+         * Number of independently locked stripes, rounded down to a power of two and to at most
+         * {@code maximumChunks}. The LRU order is kept per stripe, so eviction is exact only with
+         * one stripe.
+         */
+        public Builder stripes(int stripes) {
+            this.stripes = stripes;
+            return this;
+        }
+
+        /**
+         * Runs the chunk computations started by {@link #getAsync}.
+         */
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the configuration is invalid.
+         */
+        public NoiseChunkCache build() {
+            if (chunkSize <= 0 || (long) chunkSize * chunkSize > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Chunk size must be positive and fit one array.");
+            }
+            if (!(spacing > 0.0) || Double.isInfinite(spacing)) {
+                throw new IllegalArgumentException("Spacing must be positive and finite.");
+            }
+            if (maximumChunks <= 0 || stripes <= 0) {
+                throw new IllegalArgumentException("Maximum chunks and stripes must be positive.");
+            }
+            if (executor == null) {
+                throw new IllegalArgumentException("Executor must not be null.");
+            }
+            return new NoiseChunkCache(this);
+        }
+    }
+}
@@ -34,7 +34,9 @@ public class NoiseConstants {
             {-1,1,1,0}, {-1,1,-1,0}, {-1,-1,1,0}, {-1,-1,-1,0}
     }; // 32 vectors
 
-    // Simplex table (for 4D, though not used in its SimplexNoise class)
+    // 4D simplex traversal table: the entry indexed by the six pairwise comparisons of the
+    // in-cell offsets holds each axis's rank. No code reads it; SimplexNoise.noise4 counts the
+    // same ranks directly. Kept only for reference and for existing users of this public field.
     public static final int[][] SIMPLEX = {
             {0,1,2,3},{0,1,3,2},{0,0,0,0},{0,2,3,1},{0,0,0,0},{0,0,0,0},{0,0,0,0},{1,2,3,0},
             {0,2,1,3},{0,0,0,0},{0,3,1,2},{0,3,2,1},{0,0,0,0},{0,0,0,0},{0,0,0,0},{1,3,2,0},
@@ -46,6 +48,24 @@ public class NoiseConstants {
             {2,1,0,3},{0,0,0,0},{0,0,0,0},{0,0,0,0},{3,1,0,2},{0,0,0,0},{3,2,0,1},{3,2,1,0}
     }; // 64 entries
 
+    // GRAD3 and GRAD4 split into one double[] per component, indexed like the jagged tables
+    // (GRAD3_X[g] == GRAD3[g][0]). Used with PermutationTable.getPermMod12/getPermMod32.
+    public static final double[] GRAD3_X = column(GRAD3, 0);
+    public static final double[] GRAD3_Y = column(GRAD3, 1);
+    public static final double[] GRAD3_Z = column(GRAD3, 2);
+    public static final double[] GRAD4_X = column(GRAD4, 0);
+    public static final double[] GRAD4_Y = column(GRAD4, 1);
+    public static final double[] GRAD4_Z = column(GRAD4, 2);
+    public static final double[] GRAD4_W = column(GRAD4, 3);
+
+    private static double[] column(int[][] grads, int component) {
+        double[] c = new double[grads.length];
+        for (int i = 0; i < grads.length; i++) {
+            c[i] = grads[i][component];
+        }
+        return c;
+    }
+
     public static double dot(int[] grad, double x, double y) {
         return grad[0] * x + grad[1] * y;
     }
@@ -58,13 +78,48 @@ public class NoiseConstants {
         return grad[0] * x + grad[1] * y + grad[2] * z + grad[3] * w;
     }
 
+    // Same as dot(GRAD3[g], ...) and dot(GRAD4[g], ...), read from the component tables.
+    public static double gradDot(int g, double x, double y) {
+        return GRAD3_X[g] * x + GRAD3_Y[g] * y;
+    }
+
+    public static double gradDot(int g, double x, double y, double z) {
+        return GRAD3_X[g] * x + GRAD3_Y[g] * y + GRAD3_Z[g] * z;
+    }
+
+    public static double grad4Dot(int g, double x, double y, double z, double w) {
+        return GRAD4_X[g] * x + GRAD4_Y[g] * y + GRAD4_Z[g] * z + GRAD4_W[g] * w;
+    }
+
     // Fade function for Perlin Improved Noise
     public static double fade(double t) {
         return t * t * t * (t * (t * 6 - 15) + 10);
     }
 
+    // Derivative of fade: 30 t^2 (t - 1)^2
+    public static double fadeDerivative(double t) {
+        return 30 * t * t * (t * (t - 2) + 1);
+    }
+
     // Linear interpolation
     public static double lerp(double t, double a, double b) {
         return a + t * (b - a);
     }
+
+    // Single-precision versions of the helpers above, used by FloatNoise.
+    public static float dot(int[] grad, float x, float y) {
+        return grad[0] * x + grad[1] * y;
+    }
+
+    public static float dot(int[] grad, float x, float y, float z) {
+        return grad[0] * x + grad[1] * y + grad[2] * z;
+    }
+
+    public static float fade(float t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    public static float lerp(float t, float a, float b) {
+        return a + t * (b - a);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,762 @@
+package com.yousefonweb.noise;
+
+/**
+ * An immutable fBm noise configuration: algorithm, octaves, persistence, lacunarity, base,
+ * permutation table and (for tileable 3D Perlin noise) repeat periods, fixed when the generator
+ * is {@link #builder() built}.
+ *
+ * Everything that depends only on the configuration is computed once: the per-octave
+ * frequencies and amplitudes, the normalization factor, the per-octave repeat periods and a
+ * private copy of the permutation table with the Perlin {@code base} already applied, so
+ * samples neither repeat that work nor take the modulo of the base shift. Results are
+ * bit-identical to the static {@link PerlinNoise} and {@link SimplexNoise} functions with the
+ * same arguments. The table is copied when the generator is built, so later changes to it
+ * (e.g. {@link PermutationTable#randomize}) do not affect the generator.
+ *
+ * A generator built with {@link Builder#seed(long)} hashes the lattice corners with the seed as
+ * {@link HashNoise} does instead of using a table, so its noise does not repeat with the table
+ * period; it is then bit-identical to the {@code HashNoise} functions with that seed.
+ *
+ * Instances may be shared between threads.
+ */
+public final class NoiseGenerator {
+
+    private final NoiseType type;
+    private final int octaves;
+    private final double persistence;
+    private final double lacunarity;
+    private final int base;
+    private final int repeatX;
+    private final int repeatY;
+    private final int repeatZ;
+
+    private final double[] frequencies;
+    private final double[] amplitudes;
+    private final double maxValue;
+    // Per-octave repeat periods of the tileable path: (int) (repeat / frequency).
+    private final int[] octaveRepeatX;
+    private final int[] octaveRepeatY;
+    private final int[] octaveRepeatZ;
+    // The configured table; with the base applied for the non-tileable Perlin paths, which
+    // then run with base 0. The tileable path shifts by base modulo the repeat instead.
+    private final PermutationTable table;
+    private final PermutationTable shiftedTable;
+    // Seeded generators hash the lattice corners instead and leave the tables unused.
+    private final boolean seeded;
+    private final long seed;
+    private final long hashSeed; // HashNoise.mix(seed), as the HashNoise point kernels take it
+    private final long fingerprint;
+
+    private NoiseGenerator(Builder builder) {
+        this.type = builder.type;
+        this.octaves = builder.octaves;
+        this.persistence = builder.persistence;
+        this.lacunarity = builder.lacunarity;
+        this.seeded = builder.seeded;
+        this.seed = builder.seeded ? builder.seed : 0;
+        this.hashSeed = HashNoise.mix(seed);
+        this.base = type == NoiseType.PERLIN && !seeded ? builder.base : 0;
+        this.repeatX = builder.repeatX;
+        this.repeatY = builder.repeatY;
+        this.repeatZ = builder.repeatZ;
+
+        // Same sequences as the loops in the static functions, so the products match bit for bit.
+        frequencies = new double[octaves];
+        amplitudes = new double[octaves];
+        octaveRepeatX = new int[octaves];
+        octaveRepeatY = new int[octaves];
+        octaveRepeatZ = new int[octaves];
+        double frequency = 1;
+        double amplitude = 1;
+        double max = 0;
+        for (int i = 0; i < octaves; i++) {
+            frequencies[i] = frequency;
+            amplitudes[i] = amplitude;
+            octaveRepeatX[i] = (int) (repeatX / frequency);
+            octaveRepeatY[i] = (int) (repeatY / frequency);
+            octaveRepeatZ[i] = (int) (repeatZ / frequency);
+            max += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        maxValue = max;
+
+        // Derived tables are never modified, so the shared shifted table is a snapshot as well.
+        this.table = builder.table.withBase(0);
+        PermutationTable shifted = builder.table.shifted(base);
+        this.shiftedTable = shifted == builder.table ? table : shifted;
+        this.fingerprint = computeFingerprint();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a builder preset to this generator's configuration.
+     */
+    public Builder toBuilder() {
+        Builder builder = new Builder().type(type).octaves(octaves).persistence(persistence)
+                .lacunarity(lacunarity).base(base).permutationTable(table).repeat(repeatX, repeatY, repeatZ);
+        return seeded ? builder.seed(seed) : builder;
+    }
+
+    // --- Point evaluation ---
+
+    /**
+     * 1D Perlin fBm; equals {@code PerlinNoise.pnoise1(x, octaves, persistence, lacunarity, base, table)}.
+     *
+     * @throws UnsupportedOperationException for simplex generators.
+     */
+    public double noise1(double x) {
+        requirePerlin("1D");
+        double total = 0;
+        for (int i = 0; i < octaves; i++) {
+            total += octave1(x * frequencies[i]) * amplitudes[i];
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * 2D fBm; equals {@code PerlinNoise.pnoise2} or {@code SimplexNoise.snoise2} with this configuration.
+     */
+    public double noise2(double x, double y) {
+        double total = 0;
+        for (int i = 0; i < octaves; i++) {
+            total += octave2(x * frequencies[i], y * frequencies[i]) * amplitudes[i];
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * 3D fBm; equals {@code PerlinNoise.pnoise3} (tileable if repeat periods are set) or
+     * {@code SimplexNoise.snoise3} with this configuration.
+     */
+    public double noise3(double x, double y, double z) {
+        double total = 0;
+        for (int i = 0; i < octaves; i++) {
+            double f = frequencies[i];
+            total += octave3(i, x * f, y * f, z * f) * amplitudes[i];
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * 4D simplex fBm; equals {@code SimplexNoise.snoise4} with this configuration.
+     *
+     * @throws UnsupportedOperationException for Perlin generators.
+     */
+    public double noise4(double x, double y, double z, double w) {
+        if (type != NoiseType.SIMPLEX) {
+            throw new UnsupportedOperationException("4D noise is only available for simplex generators.");
+        }
+        double total = 0;
+        for (int i = 0; i < octaves; i++) {
+            double f = frequencies[i];
+            total += octave4(x * f, y * f, z * f, w * f) * amplitudes[i];
+        }
+        return total / maxValue;
+    }
+
+    // Single octaves at scaled coordinates; octave3 takes the octave index for its repeat periods.
+
+    private double octave1(double x) {
+        return seeded ? HashNoise.perlin(x, hashSeed) : PerlinNoise.noise(x, 0, shiftedTable);
+    }
+
+    private double octave2(double x, double y) {
+        if (type == NoiseType.PERLIN) {
+            return seeded ? HashNoise.perlin(x, y, hashSeed) : PerlinNoise.noise(x, y, 0, shiftedTable);
+        }
+        return seeded ? HashNoise.simplex(x, y, hashSeed) : SimplexNoise.noise2(x, y, table);
+    }
+
+    private double octave3(int i, double x, double y, double z) {
+        if (type == NoiseType.SIMPLEX) {
+            return seeded ? HashNoise.simplex(x, y, z, hashSeed) : SimplexNoise.noise3(x, y, z, table);
+        }
+        if (seeded) {
+            return HashNoise.perlin(x, y, z, hashSeed);
+        }
+        if (isTileable()) {
+            return PerlinNoise.noise3Tileable(x, y, z, octaveRepeatX[i], octaveRepeatY[i], octaveRepeatZ[i], base,
+                    table);
+        }
+        return PerlinNoise.noise(x, y, z, 0, shiftedTable);
+    }
+
+    private double octave4(double x, double y, double z, double w) {
+        return seeded ? HashNoise.simplex(x, y, z, w, hashSeed) : SimplexNoise.noise4(x, y, z, w, table);
+    }
+
+    // --- Level of detail ---
+    // Octave weights as in PerlinNoise.pnoise2(..., footprint): octaves aliasing at the footprint
+    // fade out and are skipped, the normalization stays that of all octaves. A footprint of 0
+    // gives the plain values exactly.
+
+    /**
+     * {@link #noise1(double)} for a result sampled every {@code footprint} units, with the octaves
+     * too fine for that spacing culled.
+     */
+    public double noise1(double x, double footprint) {
+        requirePerlin("1D");
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequencies[i], footprint);
+            if (weight > 0) {
+                total += octave1(x * frequencies[i]) * (amplitudes[i] * weight);
+            }
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * {@link #noise2(double, double)} for a result sampled every {@code footprint} units, with the
+     * octaves too fine for that spacing culled.
+     */
+    public double noise2(double x, double y, double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequencies[i], footprint);
+            if (weight > 0) {
+                double f = frequencies[i];
+                total += octave2(x * f, y * f) * (amplitudes[i] * weight);
+            }
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * {@link #noise3(double, double, double)} for a result sampled every {@code footprint} units,
+     * with the octaves too fine for that spacing culled.
+     */
+    public double noise3(double x, double y, double z, double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequencies[i], footprint);
+            if (weight > 0) {
+                double f = frequencies[i];
+                total += octave3(i, x * f, y * f, z * f) * (amplitudes[i] * weight);
+            }
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * {@link #noise4(double, double, double, double)} for a result sampled every {@code footprint}
+     * units, with the octaves too fine for that spacing culled.
+     */
+    public double noise4(double x, double y, double z, double w, double footprint) {
+        if (type != NoiseType.SIMPLEX) {
+            throw new UnsupportedOperationException("4D noise is only available for simplex generators.");
+        }
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequencies[i], footprint);
+            if (weight > 0) {
+                double f = frequencies[i];
+                total += octave4(x * f, y * f, z * f, w * f) * (amplitudes[i] * weight);
+            }
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * Number of octaves evaluated at {@code footprint}, including one that is fading out.
+     */
+    public int activeOctaves(double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        int active = 0;
+        for (int i = 0; i < octaves; i++) {
+            if (OctaveLod.weight(frequencies[i], footprint) > 0) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * {@link #fillGrid2D(double[], double, double, double, double, int, int)} with the octaves
+     * culled for the grid's own footprint, {@code max(|stepX|, |stepY|)}: each value equals
+     * {@code noise2(originX + ix * stepX, originY + iy * stepY, footprint)}. A coarse grid, such
+     * as a distant terrain LOD, then costs only the octaves it can resolve.
+     */
+    public void fillGrid2DFiltered(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        double footprint = footprint(stepX, stepY, 0);
+        for (int iy = 0; iy < height; iy++) {
+            fillRow2D(out, iy * width, originX, stepX, 0, width, originY + iy * stepY, footprint);
+        }
+    }
+
+    /**
+     * Single-precision variant of
+     * {@link #fillGrid2DFiltered(double[], double, double, double, double, int, int)}.
+     */
+    public void fillGrid2DFiltered(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        double footprint = footprint(stepX, stepY, 0);
+        double[] row = new double[width];
+        for (int iy = 0; iy < height; iy++) {
+            fillRow2D(row, 0, originX, stepX, 0, width, originY + iy * stepY, footprint);
+            int offset = iy * width;
+            for (int ix = 0; ix < width; ix++) {
+                out[offset + ix] = (float) row[ix];
+            }
+        }
+    }
+
+    /**
+     * {@link #fillGrid3D(double[], double, double, double, double, double, double, int, int, int)}
+     * with the octaves culled for the grid's own footprint, {@code max(|stepX|, |stepY|, |stepZ|)}:
+     * each value equals {@code noise3(originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ,
+     * footprint)}.
+     */
+    public void fillGrid3DFiltered(double[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        double footprint = footprint(stepX, stepY, stepZ);
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                fillRow3D(out, (iz * height + iy) * width, originX, stepX, 0, width, originY + iy * stepY, z,
+                        footprint);
+            }
+        }
+    }
+
+    /**
+     * Single-precision variant of
+     * {@link #fillGrid3DFiltered(double[], double, double, double, double, double, double, int, int, int)}.
+     */
+    public void fillGrid3DFiltered(float[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        double footprint = footprint(stepX, stepY, stepZ);
+        double[] row = new double[width];
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                fillRow3D(row, 0, originX, stepX, 0, width, originY + iy * stepY, z, footprint);
+                int offset = (iz * height + iy) * width;
+                for (int ix = 0; ix < width; ix++) {
+                    out[offset + ix] = (float) row[ix];
+                }
+            }
+        }
+    }
+
+    private static double footprint(double stepX, double stepY, double stepZ) {
+        double footprint = Math.max(Math.abs(stepX), Math.max(Math.abs(stepY), Math.abs(stepZ)));
+        OctaveLod.checkFootprint(footprint);
+        return footprint;
+    }
+
+    // --- Bounds ---
+
+    /**
+     * Conservative range of {@link #noise3(double, double, double)} over the box
+     * {@code [minX, maxX] x [minY, maxY] x [minZ, maxZ]}, as computed by {@link NoiseBounds}: no
+     * value in the box lies outside it. A chunk whose range is entirely above or below an
+     * iso-threshold can be filled without evaluating its samples. Tileable and seeded generators
+     * bound each octave by the range of the noise function only.
+     *
+     * @throws IllegalArgumentException if a coordinate is not finite or a minimum exceeds its
+     *         maximum.
+     */
+    public NoiseBounds.Range bound3(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        NoiseBounds.checkBox(minX, minY, minZ, maxX, maxY, maxZ);
+        return NoiseBounds.fbm3(type, !isTileable() && !seeded, minX, minY, minZ, maxX, maxY, maxZ, frequencies, amplitudes,
+                type == NoiseType.PERLIN ? shiftedTable : table);
+    }
+
+    // --- Derivatives ---
+
+    /**
+     * Writes the 2D fBm value and its x and y derivatives to {@code out[offset..offset + 2]}, as
+     * {@code PerlinNoise.pnoise2Deriv} or {@code SimplexNoise.snoise2Deriv} do.
+     */
+    public void noise2Deriv(double x, double y, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 3);
+        out[offset] = out[offset + 1] = out[offset + 2] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            double f = frequencies[i];
+            double a = amplitudes[i];
+            if (seeded) {
+                if (type == NoiseType.PERLIN) {
+                    HashNoise.addPerlinDeriv(x * f, y * f, hashSeed, a, a * f, out, offset);
+                } else {
+                    HashNoise.addSimplexDeriv(x * f, y * f, hashSeed, a, a * f, out, offset);
+                }
+            } else if (type == NoiseType.PERLIN) {
+                PerlinNoise.addNoiseDeriv(x * f, y * f, 0, shiftedTable, a, a * f, out, offset);
+            } else {
+                SimplexNoise.addNoise2Deriv(x * f, y * f, table, a, a * f, out, offset);
+            }
+        }
+        out[offset] /= maxValue;
+        out[offset + 1] /= maxValue;
+        out[offset + 2] /= maxValue;
+    }
+
+    /**
+     * Writes the 3D fBm value and its x, y and z derivatives to {@code out[offset..offset + 3]}, as
+     * {@code PerlinNoise.pnoise3Deriv} or {@code SimplexNoise.snoise3Deriv} do.
+     *
+     * @throws UnsupportedOperationException for tileable generators.
+     */
+    public void noise3Deriv(double x, double y, double z, double[] out, int offset) {
+        if (isTileable()) {
+            throw new UnsupportedOperationException("Derivatives of tileable noise are not supported.");
+        }
+        GridUtil.checkOffset(out.length, offset, 4);
+        out[offset] = out[offset + 1] = out[offset + 2] = out[offset + 3] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            double f = frequencies[i];
+            double a = amplitudes[i];
+            if (seeded) {
+                if (type == NoiseType.PERLIN) {
+                    HashNoise.addPerlinDeriv(x * f, y * f, z * f, hashSeed, a, a * f, out, offset);
+                } else {
+                    HashNoise.addSimplexDeriv(x * f, y * f, z * f, hashSeed, a, a * f, out, offset);
+                }
+            } else if (type == NoiseType.PERLIN) {
+                PerlinNoise.addNoiseDeriv(x * f, y * f, z * f, 0, shiftedTable, a, a * f, out, offset);
+            } else {
+                SimplexNoise.addNoise3Deriv(x * f, y * f, z * f, table, a, a * f, out, offset);
+            }
+        }
+        for (int c = 0; c < 4; c++) {
+            out[offset + c] /= maxValue;
+        }
+    }
+
+    // --- Bulk grid evaluation ---
+    // Delegates to the fillGrid methods, whose row kernels compute the octave series once per row.
+
+    /**
+     * Fills {@code out[iy * width + ix]} with {@code noise2(originX + ix * stepX, originY + iy * stepY)}.
+     */
+    public void fillGrid2D(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height) {
+        if (seeded) {
+            HashNoise.fillGrid2D(out, type, originX, originY, stepX, stepY, width, height, octaves, persistence,
+                    lacunarity, seed);
+        } else if (type == NoiseType.PERLIN) {
+            PerlinNoise.fillGrid2D(out, originX, originY, stepX, stepY, width, height, octaves, persistence,
+                    lacunarity, 0, shiftedTable);
+        } else {
+            SimplexNoise.fillGrid2D(out, originX, originY, stepX, stepY, width, height, octaves, persistence,
+                    lacunarity, table);
+        }
+    }
+
+    /**
+     * Single-precision variant of {@link #fillGrid2D(double[], double, double, double, double, int, int)}.
+     */
+    public void fillGrid2D(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height) {
+        if (seeded) {
+            HashNoise.fillGrid2D(out, type, originX, originY, stepX, stepY, width, height, octaves, persistence,
+                    lacunarity, seed);
+        } else if (type == NoiseType.PERLIN) {
+            PerlinNoise.fillGrid2D(out, originX, originY, stepX, stepY, width, height, octaves, persistence,
+                    lacunarity, 0, shiftedTable);
+        } else {
+            SimplexNoise.fillGrid2D(out, originX, originY, stepX, stepY, width, height, octaves, persistence,
+                    lacunarity, table);
+        }
+    }
+
+    /**
+     * Fills {@code out[(iz * height + iy) * width + ix]} with
+     * {@code noise3(originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ)}.
+     */
+    public void fillGrid3D(double[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth) {
+        if (seeded) {
+            HashNoise.fillGrid3D(out, type, originX, originY, originZ, stepX, stepY, stepZ, width, height, depth,
+                    octaves, persistence, lacunarity, seed);
+        } else if (type == NoiseType.SIMPLEX) {
+            SimplexNoise.fillGrid3D(out, originX, originY, originZ, stepX, stepY, stepZ, width, height, depth,
+                    octaves, persistence, lacunarity, table);
+        } else if (isTileable()) {
+            PerlinNoise.fillGrid3DChannels(out, 1, originX, originY, originZ, stepX, stepY, stepZ, width, height,
+                    depth, octaves, persistence, lacunarity, new int[] { base }, new PermutationTable[] { table },
+                    repeatX, repeatY, repeatZ);
+        } else {
+            PerlinNoise.fillGrid3D(out, originX, originY, originZ, stepX, stepY, stepZ, width, height, depth,
+                    octaves, persistence, lacunarity, 0, shiftedTable);
+        }
+    }
+
+    /**
+     * Single-precision variant of
+     * {@link #fillGrid3D(double[], double, double, double, double, double, double, int, int, int)}.
+     */
+    public void fillGrid3D(float[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth) {
+        if (seeded) {
+            HashNoise.fillGrid3D(out, type, originX, originY, originZ, stepX, stepY, stepZ, width, height, depth,
+                    octaves, persistence, lacunarity, seed);
+        } else if (type == NoiseType.SIMPLEX) {
+            SimplexNoise.fillGrid3D(out, originX, originY, originZ, stepX, stepY, stepZ, width, height, depth,
+                    octaves, persistence, lacunarity, table);
+        } else if (isTileable()) {
+            GridUtil.checkGrid(out.length, width, height, depth);
+            // Narrow the rows as they come instead of staging the volume in doubles.
+            PerlinNoise.channelRows3D((row, maxValue, rowIndex) -> {
+                int offset = rowIndex * width;
+                for (int ix = 0; ix < width; ix++) {
+                    out[offset + ix] = (float) (row[ix] / maxValue);
+                }
+            }, originX, originY, originZ, stepX, stepY, stepZ, width, height, depth, octaves, persistence,
+                    lacunarity, new int[] { base }, new PermutationTable[] { table }, repeatX, repeatY, repeatZ);
+        } else {
+            PerlinNoise.fillGrid3D(out, originX, originY, originZ, stepX, stepY, stepZ, width, height, depth,
+                    octaves, persistence, lacunarity, 0, shiftedTable);
+        }
+    }
+
+    // Row kernel of fillGrid2D: noise2(originX + (ix0 + n) * stepX, y) for n in [0, count), written
+    // to dst[offset..]. Used where rows are filled piecewise, as by NoiseWindow.
+    void fillRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y) {
+        fillRow2D(dst, offset, originX, stepX, ix0, count, y, 0.0);
+    }
+
+    // As above with the octaves culled for 'footprint'.
+    void fillRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double footprint) {
+        if (seeded) {
+            HashNoise.fbmRow2D(type, dst, offset, originX, stepX, ix0, count, y, octaves, persistence, lacunarity,
+                    seed, footprint);
+        } else if (type == NoiseType.PERLIN) {
+            PerlinNoise.fbmRow2D(dst, offset, originX, stepX, ix0, count, y, octaves, persistence, lacunarity, 0,
+                    shiftedTable, footprint);
+        } else {
+            SimplexNoise.fbmRow2D(dst, offset, originX, stepX, ix0, count, y, octaves, persistence, lacunarity,
+                    table, footprint);
+        }
+    }
+
+    // Row kernel of fillGrid3D: noise3(originX + (ix0 + n) * stepX, y, z) for n in [0, count),
+    // written to dst[offset..]. Used where volumes are filled piecewise, as by NoiseRegionGenerator.
+    void fillRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z) {
+        fillRow3D(dst, offset, originX, stepX, ix0, count, y, z, 0.0);
+    }
+
+    // As above with the octaves culled for 'footprint'; the row kernel of fillGrid3DFiltered.
+    void fillRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, double footprint) {
+        if (seeded) {
+            HashNoise.fbmRow3D(type, dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence,
+                    lacunarity, seed, footprint);
+        } else if (type == NoiseType.SIMPLEX) {
+            SimplexNoise.fbmRow3D(dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence, lacunarity,
+                    table, footprint);
+        } else if (isTileable()) {
+            // The tileable lattice has no row kernel; evaluate the points.
+            for (int n = 0; n < count; n++) {
+                dst[offset + n] = noise3(originX + (ix0 + n) * stepX, y, z, footprint);
+            }
+        } else {
+            PerlinNoise.fbmRow3D(dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence, lacunarity,
+                    0, shiftedTable, footprint);
+        }
+    }
+
+    // --- Configuration ---
+
+    public NoiseType getType() {
+        return type;
+    }
+
+    public int getOctaves() {
+        return octaves;
+    }
+
+    public double getPersistence() {
+        return persistence;
+    }
+
+    public double getLacunarity() {
+        return lacunarity;
+    }
+
+    public int getBase() {
+        return base;
+    }
+
+    public int getRepeatX() {
+        return repeatX;
+    }
+
+    public int getRepeatY() {
+        return repeatY;
+    }
+
+    public int getRepeatZ() {
+        return repeatZ;
+    }
+
+    /**
+     * Returns true if the generator was built with {@link Builder#seed(long)}.
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * The {@link Builder#seed(long) seed}, or 0 if the generator is not seeded.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns a 64-bit hash of the configuration. Generators built with the same settings and
+     * tables of the same contents have the same fingerprint, so it identifies the noise a
+     * generator produces, e.g. as part of a cache key.
+     */
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns true if 3D Perlin noise tiles with the repeat periods.
+     */
+    public boolean isTileable() {
+        return repeatX > 0 || repeatY > 0 || repeatZ > 0;
+    }
+
+    // Same mixing as PermutationTable.fingerprint, over every setting and the table's fingerprint,
+    // or the seed for seeded generators.
+    private long computeFingerprint() {
+        long[] fields = { type.ordinal(), octaves, Double.doubleToLongBits(persistence),
+                Double.doubleToLongBits(lacunarity), base, repeatX, repeatY, repeatZ, seeded ? 1 : 0,
+                seeded ? seed : table.fingerprint() };
+        long h = 0xcbf29ce484222325L;
+        for (long field : fields) {
+            h = (h ^ field) * 0x100000001b3L;
+            h ^= h >>> 33;
+        }
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private void requirePerlin(String what) {
+        if (type != NoiseType.PERLIN) {
+            throw new UnsupportedOperationException(what + " noise is only available for Perlin generators.");
+        }
+    }
+
+    /**
+     * Collects a {@link NoiseGenerator} configuration. Defaults: Perlin, 1 octave, persistence 0.5,
+     * lacunarity 2.0, base 0, the default permutation table and no tiling.
+     */
+    public static final class Builder {
+        private NoiseType type = NoiseType.PERLIN;
+        private int octaves = 1;
+        private double persistence = 0.5;
+        private double lacunarity = 2.0;
+        private int base;
+        private PermutationTable table;
+        private int repeatX;
+        private int repeatY;
+        private int repeatZ;
+        private boolean seeded;
+        private long seed;
+
+        private Builder() {
+        }
+
+        public Builder type(NoiseType type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder octaves(int octaves) {
+            this.octaves = octaves;
+            return this;
+        }
+
+        public Builder persistence(double persistence) {
+            this.persistence = persistence;
+            return this;
+        }
+
+        public Builder lacunarity(double lacunarity) {
+            this.lacunarity = lacunarity;
+            return this;
+        }
+
+        /**
+         * Permutation base of Perlin noise; ignored for simplex noise.
+         */
+        public Builder base(int base) {
+            this.base = base;
+            return this;
+        }
+
+        public Builder permutationTable(PermutationTable table) {
+            this.table = table;
+            return this;
+        }
+
+        /**
+         * Repeat periods of tileable 3D Perlin noise, in lattice cells; 0 on all axes disables tiling.
+         */
+        public Builder repeat(int repeatX, int repeatY, int repeatZ) {
+            this.repeatX = repeatX;
+            this.repeatY = repeatY;
+            this.repeatZ = repeatZ;
+            return this;
+        }
+
+        /**
+         * Hashes the lattice corners with this seed, as {@link HashNoise} does, instead of using
+         * the permutation table. The table and base are then ignored, and repeat periods are not
+         * supported.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            this.seeded = true;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if the configuration is invalid.
+         */
+        public NoiseGenerator build() {
+            if (type == null) {
+                throw new IllegalArgumentException("Noise type must not be null.");
+            }
+            if (octaves < 1) {
+                throw new IllegalArgumentException("Octaves must be at least 1.");
+            }
+            if (repeatX < 0 || repeatY < 0 || repeatZ < 0) {
+                throw new IllegalArgumentException("Repeat periods must not be negative.");
+            }
+            boolean tileable = repeatX > 0 || repeatY > 0 || repeatZ > 0;
+            if (tileable && type != NoiseType.PERLIN) {
+                throw new IllegalArgumentException("Only Perlin noise supports repeat periods.");
+            }
+            if (tileable && seeded) {
+                throw new IllegalArgumentException("Seeded noise does not support repeat periods.");
+            }
+            if (table == null) {
+                table = new PermutationTable();
+            }
+            return new NoiseGenerator(this);
+        }
+    }
+}
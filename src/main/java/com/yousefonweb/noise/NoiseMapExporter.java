@@ -0,0 +1,264 @@
+package com.yousefonweb.noise;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32C;
+
+/**
+ * Writes 2D Perlin or simplex fBm maps that do not fit in memory straight into a memory-mapped
+ * file.
+ *
+ * The map is cut into bands of {@code tileHeight} rows and each band into
+ * {@code tileWidth}-column tiles. Bands are produced one after another: the band's part of the
+ * file is mapped, its tiles are evaluated in parallel as in {@link NoiseRegionGenerator} and
+ * encoded by {@link SegmentNoise} directly into the mapping, and the mapping is forced to disk
+ * and released before the next band starts. Resident memory is therefore about one band of
+ * the file plus a row buffer per thread, whatever the map size. Samples keep their grid
+ * coordinates, so the file holds exactly what
+ * {@link SegmentNoise#fillGrid2D(MemorySegment, long, long, SampleFormat, NoiseType, double, double, double, double, int, int, int, double, double, int, PermutationTable)}
+ * (and, for the float formats, {@code PerlinNoise/SimplexNoise.fillGrid2D}) would produce in
+ * memory, independent of the executor and tile size.
+ *
+ * After each band the header records how many bands are complete. If {@link #export} finds a
+ * file whose header describes the same export, it continues after the last complete band, so
+ * an export that was interrupted, failed or killed can be resumed by repeating the call; a file
+ * with any other content is overwritten from the start.
+ *
+ * File layout: a {@value #HEADER_BYTES}-byte header, then the samples in native byte order,
+ * either row-major ({@code (iy * width + ix) * bytesPerSample}) or {@link Layout#TILED}.
+ * Header (big-endian):
+ * <pre>
+ *   0  magic "YNOISE2D"           48  base
+ *   8  format version             52  bytes per sample
+ *  12  sample byte order (1 = LE) 56  originX, 64 originY (double)
+ *  16  layout ordinal             72  stepX, 80 stepY (double)
+ *  20  SampleFormat ordinal       88  persistence, 96 lacunarity (double)
+ *  24  NoiseType ordinal         104  permutation table fingerprint
+ *  28  width, 32 height          112  completed bands
+ *  36  tileWidth, 40 tileHeight  116  CRC32C of header bytes 0..115
+ *  44  octaves
+ * </pre>
+ *
+ * Instances are immutable and may be shared between threads; concurrent exports to the same
+ * file are not supported.
+ */
+public final class NoiseMapExporter {
+
+    /** Bump whenever the file layout or the generated noise changes. */
+    public static final int FORMAT_VERSION = 1;
+
+    public static final int HEADER_BYTES = 128;
+    public static final int DEFAULT_TILE_WIDTH = 256;
+    public static final int DEFAULT_TILE_HEIGHT = 256;
+
+    private static final byte[] MAGIC = "YNOISE2D".getBytes(StandardCharsets.US_ASCII);
+    private static final int PROGRESS_OFFSET = 112;
+    private static final int CRC_OFFSET = 116;
+
+    /** Order of the samples after the header. */
+    public enum Layout {
+        /** Sample {@code (ix, iy)} at {@code (iy * width + ix) * bytesPerSample}. */
+        ROW_MAJOR,
+        /**
+         * Tiles of {@code tileWidth x tileHeight} samples, stored row-major one after another in
+         * row-major tile order; tiles on the right and bottom edges are padded to the full tile
+         * size with zero bytes. Sample {@code (ix, iy)} is at
+         * {@code ((ty * tilesX + tx) * tileWidth * tileHeight + ry * tileWidth + rx) * bytesPerSample}
+         * with {@code (tx, rx) = (ix / tileWidth, ix % tileWidth)} and likewise for y.
+         */
+        TILED
+    }
+
+    private final Executor executor;
+    private final int tileWidth;
+    private final int tileHeight;
+
+    /**
+     * Creates an exporter running on the common fork/join pool with the default tile size.
+     */
+    public NoiseMapExporter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an exporter running on {@code executor} with the default tile size.
+     */
+    public NoiseMapExporter(Executor executor) {
+        this(executor, DEFAULT_TILE_WIDTH, DEFAULT_TILE_HEIGHT);
+    }
+
+    /**
+     * @param executor   Runs the tiles of a band. A {@link ForkJoinPool} is driven by recursive
+     *                   splitting, any other executor receives one task per tile.
+     * @param tileWidth  Samples per tile along x.
+     * @param tileHeight Rows per band, and samples per tile along y.
+     */
+    public NoiseMapExporter(Executor executor, int tileWidth, int tileHeight) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException("Tile dimensions must be positive.");
+        }
+        this.executor = executor;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+    }
+
+    /**
+     * Writes a {@code width x height} map to {@code file}, or finishes a previous, incomplete
+     * export of the same map. Sample {@code (ix, iy)} is the fBm at
+     * {@code (originX + ix * stepX, originY + iy * stepY)}.
+     *
+     * If the calling thread is interrupted, the export stops after the band in progress and
+     * throws {@link InterruptedIOException}; the file can be resumed later.
+     *
+     * @param base Permutation base for {@link NoiseType#PERLIN}; ignored for simplex.
+     * @throws IOException if the file cannot be created, mapped or written.
+     */
+    public void export(Path file, Layout layout, SampleFormat format, NoiseType type, double originX,
+            double originY, double stepX, double stepY, int width, int height, int octaves, double persistence,
+            double lacunarity, int base, PermutationTable permTable) throws IOException {
+        if (file == null || layout == null || format == null || type == null || permTable == null) {
+            throw new IllegalArgumentException(
+                    "File, layout, format, noise type and permutation table must not be null.");
+        }
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("Map dimensions must be positive.");
+        }
+        int bytes = format.bytesPerSample();
+        int tilesX = (width + tileWidth - 1) / tileWidth;
+        int bands = (height + tileHeight - 1) / tileHeight;
+        long tileBytes = (long) tileWidth * tileHeight * bytes;
+        long payloadBytes = layout == Layout.TILED ? (long) tilesX * bands * tileBytes : (long) width * height * bytes;
+        ByteBuffer header = header(layout, format, type, originX, originY, stepX, stepY, width, height, octaves,
+                persistence, lacunarity, base, permTable);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            int completed = completedBands(channel, header, HEADER_BYTES + payloadBytes, bands);
+            if (completed < 0) {
+                // Start over: a fresh header, and a sparse payload of zeros up to the full size.
+                channel.truncate(0);
+                writeProgress(channel, header, 0);
+                writeFully(channel, ByteBuffer.allocate(1), HEADER_BYTES + payloadBytes - 1);
+                channel.force(true);
+                completed = 0;
+            }
+            for (int band = completed; band < bands; band++) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException(
+                            "Export interrupted after " + band + " of " + bands + " bands.");
+                }
+                int y0 = band * tileHeight;
+                int rows = Math.min(tileHeight, height - y0);
+                long bandOffset = layout == Layout.TILED ? (long) band * tilesX * tileBytes : (long) y0 * width * bytes;
+                long bandBytes = layout == Layout.TILED ? tilesX * tileBytes : (long) rows * width * bytes;
+                try (Arena arena = Arena.ofShared()) {
+                    MemorySegment out = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + bandOffset,
+                            bandBytes, arena);
+                    TileRunner.run(executor, tilesX, tile -> {
+                        int x0 = tile * tileWidth;
+                        int count = Math.min(tileWidth, width - x0);
+                        long position = layout == Layout.TILED ? tile * tileBytes : (long) x0 * bytes;
+                        long rowPitch = (long) (layout == Layout.TILED ? tileWidth : width) * bytes;
+                        SegmentNoise.fillRows(out, position, bytes, rowPitch, format, format.quantizer(), type,
+                                originX, originY, 0.0, stepX, stepY, x0, y0, count, rows, false, octaves,
+                                persistence, lacunarity, base, permTable);
+                    });
+                    out.force();
+                }
+                // Recorded only once the band's samples are on disk.
+                writeProgress(channel, header, band + 1);
+                channel.force(false);
+            }
+        }
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    // Bands already written to 'channel' by an export with this header, or -1 if the file does
+    // not hold such an export (missing, different parameters, wrong size or corrupted header).
+    private static int completedBands(FileChannel channel, ByteBuffer expected, long fileBytes, int bands)
+            throws IOException {
+        if (channel.size() != fileBytes) {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                return -1;
+            }
+        }
+        if (!header.slice(0, PROGRESS_OFFSET).equals(expected.slice(0, PROGRESS_OFFSET))
+                || header.getInt(CRC_OFFSET) != headerCrc(header)) {
+            return -1;
+        }
+        int completed = header.getInt(PROGRESS_OFFSET);
+        return completed >= 0 && completed <= bands ? completed : -1;
+    }
+
+    // Everything but the progress and the checksum, which writeProgress fills in.
+    private ByteBuffer header(Layout layout, SampleFormat format, NoiseType type, double originX, double originY,
+            double stepX, double stepY, int width, int height, int octaves, double persistence, double lacunarity,
+            int base, PermutationTable permTable) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.put(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0)
+                .putInt(layout.ordinal())
+                .putInt(format.ordinal())
+                .putInt(type.ordinal())
+                .putInt(width)
+                .putInt(height)
+                .putInt(tileWidth)
+                .putInt(tileHeight)
+                .putInt(octaves)
+                .putInt(type == NoiseType.PERLIN ? base : 0)
+                .putInt(format.bytesPerSample())
+                .putDouble(originX)
+                .putDouble(originY)
+                .putDouble(stepX)
+                .putDouble(stepY)
+                .putDouble(persistence)
+                .putDouble(lacunarity)
+                .putLong(permTable.fingerprint());
+        return header;
+    }
+
+    private static void writeProgress(FileChannel channel, ByteBuffer header, int completedBands)
+            throws IOException {
+        header.putInt(PROGRESS_OFFSET, completedBands);
+        header.putInt(CRC_OFFSET, headerCrc(header));
+        writeFully(channel, header.duplicate().clear(), 0);
+    }
+
+    private static int headerCrc(ByteBuffer header) {
+        CRC32C crc = new CRC32C();
+        crc.update(header.slice(0, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer src, long position) throws IOException {
+        long written = 0;
+        while (src.hasRemaining()) {
+            written += channel.write(src, position + written);
+        }
+    }
+}
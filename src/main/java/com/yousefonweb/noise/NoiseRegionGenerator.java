@@ -0,0 +1,284 @@
+package com.yousefonweb.noise;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Evaluates Perlin or simplex fBm over a 2D or 3D grid in parallel, from explicit parameters or
+ * from a {@link NoiseGenerator}.
+ *
+ * The region is cut into fixed tiles of {@code tileWidth x tileHeight [x tileDepth]} samples,
+ * which are evaluated independently on a {@link ForkJoinPool} or any other {@link Executor}
+ * and written straight into the caller's output array. Tiles never overlap and every sample is
+ * computed by the same row kernels as {@code PerlinNoise.fillGrid2D/3D} and
+ * {@code SimplexNoise.fillGrid2D/3D} (or {@code NoiseGenerator.fillGrid2D/3D}), so the output
+ * is bit-identical to those methods for any executor, thread count and tile size.
+ *
+ * Grid layout and sample coordinates are the same as in the {@code fillGrid} methods:
+ * {@code out[iy * width + ix]} and {@code out[(iz * height + iy) * width + ix]}, sampled at
+ * {@code originX + ix * stepX} and likewise for y and z.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public final class NoiseRegionGenerator {
+
+    // 64 doubles per tile row keeps a tile's output (32 KB for 2D) in L1/L2 while it is built.
+    public static final int DEFAULT_TILE_WIDTH = 64;
+    public static final int DEFAULT_TILE_HEIGHT = 64;
+    public static final int DEFAULT_TILE_DEPTH = 4;
+
+    private final Executor executor;
+    private final int tileWidth;
+    private final int tileHeight;
+    private final int tileDepth;
+
+    // Computes samples [ix0, ix0 + count) of row (iy, iz) into dst[offset..].
+    private interface RowKernel {
+        void fill(double[] dst, int offset, int ix0, int count, int iy, int iz);
+    }
+
+    /**
+     * Creates a generator running on the common fork/join pool with the default tile size.
+     */
+    public NoiseRegionGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a generator running on {@code executor} with the default tile size.
+     */
+    public NoiseRegionGenerator(Executor executor) {
+        this(executor, DEFAULT_TILE_WIDTH, DEFAULT_TILE_HEIGHT, DEFAULT_TILE_DEPTH);
+    }
+
+    /**
+     * @param executor   Runs the tiles. A {@link ForkJoinPool} is driven by recursive splitting,
+     *                   any other executor receives one task per tile.
+     * @param tileWidth  Samples per tile along x.
+     * @param tileHeight Samples per tile along y.
+     * @param tileDepth  Samples per tile along z (ignored for 2D regions).
+     */
+    public NoiseRegionGenerator(Executor executor, int tileWidth, int tileHeight, int tileDepth) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
+        if (tileWidth <= 0 || tileHeight <= 0 || tileDepth <= 0) {
+            throw new IllegalArgumentException("Tile dimensions must be positive.");
+        }
+        this.executor = executor;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.tileDepth = tileDepth;
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link PerlinNoise#fillGrid2D(double[], double, double, double, double, int, int, int, double, double, int, PermutationTable)}.
+     */
+    public void perlin2D(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        generate(out, width, height, 1, (dst, offset, ix0, count, iy, iz) ->
+                PerlinNoise.fbmRow2D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        octaves, persistence, lacunarity, base, permTable));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link PerlinNoise#fillGrid2D(float[], double, double, double, double, int, int, int, double, double, int, PermutationTable)}.
+     */
+    public void perlin2D(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        generate(out, width, height, 1, (dst, offset, ix0, count, iy, iz) ->
+                PerlinNoise.fbmRow2D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        octaves, persistence, lacunarity, base, permTable));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link PerlinNoise#fillGrid3D(double[], double, double, double, double, double, double, int, int, int, int, double, double, int, PermutationTable)}.
+     */
+    public void perlin3D(double[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        generate(out, width, height, depth, (dst, offset, ix0, count, iy, iz) ->
+                PerlinNoise.fbmRow3D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        originZ + iz * stepZ, octaves, persistence, lacunarity, base, permTable));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link PerlinNoise#fillGrid3D(float[], double, double, double, double, double, double, int, int, int, int, double, double, int, PermutationTable)}.
+     */
+    public void perlin3D(float[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        generate(out, width, height, depth, (dst, offset, ix0, count, iy, iz) ->
+                PerlinNoise.fbmRow3D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        originZ + iz * stepZ, octaves, persistence, lacunarity, base, permTable));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link SimplexNoise#fillGrid2D(double[], double, double, double, double, int, int, int, double, double, PermutationTable)}.
+     */
+    public void simplex2D(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        generate(out, width, height, 1, (dst, offset, ix0, count, iy, iz) ->
+                SimplexNoise.fbmRow2D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        octaves, persistence, lacunarity, permTable));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link SimplexNoise#fillGrid2D(float[], double, double, double, double, int, int, int, double, double, PermutationTable)}.
+     */
+    public void simplex2D(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        generate(out, width, height, 1, (dst, offset, ix0, count, iy, iz) ->
+                SimplexNoise.fbmRow2D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        octaves, persistence, lacunarity, permTable));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link SimplexNoise#fillGrid3D(double[], double, double, double, double, double, double, int, int, int, int, double, double, PermutationTable)}.
+     */
+    public void simplex3D(double[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        generate(out, width, height, depth, (dst, offset, ix0, count, iy, iz) ->
+                SimplexNoise.fbmRow3D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        originZ + iz * stepZ, octaves, persistence, lacunarity, permTable));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link SimplexNoise#fillGrid3D(float[], double, double, double, double, double, double, int, int, int, int, double, double, PermutationTable)}.
+     */
+    public void simplex3D(float[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        generate(out, width, height, depth, (dst, offset, ix0, count, iy, iz) ->
+                SimplexNoise.fbmRow3D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        originZ + iz * stepZ, octaves, persistence, lacunarity, permTable));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link NoiseGenerator#fillGrid2D(double[], double, double, double, double, int, int)}, for
+     * any generator configuration including {@link NoiseGenerator.Builder#seed(long) seeded} ones.
+     */
+    public void noise2D(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, NoiseGenerator generator) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        generate(out, width, height, 1, (dst, offset, ix0, count, iy, iz) ->
+                generator.fillRow2D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link NoiseGenerator#fillGrid2D(float[], double, double, double, double, int, int)}.
+     */
+    public void noise2D(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, NoiseGenerator generator) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        generate(out, width, height, 1, (dst, offset, ix0, count, iy, iz) ->
+                generator.fillRow2D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link NoiseGenerator#fillGrid3D(double[], double, double, double, double, double, double, int, int, int)}.
+     */
+    public void noise3D(double[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth, NoiseGenerator generator) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        generate(out, width, height, depth, (dst, offset, ix0, count, iy, iz) ->
+                generator.fillRow3D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        originZ + iz * stepZ));
+    }
+
+    /**
+     * Parallel equivalent of
+     * {@link NoiseGenerator#fillGrid3D(float[], double, double, double, double, double, double, int, int, int)}.
+     */
+    public void noise3D(float[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth, NoiseGenerator generator) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        generate(out, width, height, depth, (dst, offset, ix0, count, iy, iz) ->
+                generator.fillRow3D(dst, offset, originX, stepX, ix0, count, originY + iy * stepY,
+                        originZ + iz * stepZ));
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    public int getTileDepth() {
+        return tileDepth;
+    }
+
+    // --- Tiling ---
+
+    private void generate(double[] out, int width, int height, int depth, RowKernel kernel) {
+        forEachTile(width, height, depth, false, (scratch, x0, count, iy, iz) ->
+                kernel.fill(out, (iz * height + iy) * width + x0, x0, count, iy, iz));
+    }
+
+    // Row segments are computed in double precision and narrowed on store, as in the float
+    // fillGrid methods, through one buffer per tile.
+    private void generate(float[] out, int width, int height, int depth, RowKernel kernel) {
+        forEachTile(width, height, depth, true, (row, x0, count, iy, iz) -> {
+            kernel.fill(row, 0, x0, count, iy, iz);
+            int offset = (iz * height + iy) * width + x0;
+            for (int n = 0; n < count; n++) {
+                out[offset + n] = (float) row[n];
+            }
+        });
+    }
+
+    // One row segment of a tile: samples [x0, x0 + count) of row (iy, iz). 'scratch' is a
+    // count-sample buffer shared by the rows of the tile, or null if none was asked for.
+    private interface TileRow {
+        void run(double[] scratch, int x0, int count, int iy, int iz);
+    }
+
+    private void forEachTile(int width, int height, int depth, boolean scratch, TileRow row) {
+        int tilesX = (width + tileWidth - 1) / tileWidth;
+        int tilesY = (height + tileHeight - 1) / tileHeight;
+        int tilesZ = (depth + tileDepth - 1) / tileDepth;
+        long tileCount = (long) tilesX * tilesY * tilesZ;
+        if (tileCount == 0) {
+            return;
+        }
+        // tileCount <= width * height * depth, which checkGrid has bounded by an array length.
+        TileRunner.run(executor, (int) tileCount, tile -> {
+            int x0 = (tile % tilesX) * tileWidth;
+            int y0 = (tile / tilesX % tilesY) * tileHeight;
+            int z0 = (tile / tilesX / tilesY) * tileDepth;
+            int count = Math.min(tileWidth, width - x0);
+            int y1 = Math.min(y0 + tileHeight, height);
+            int z1 = Math.min(z0 + tileDepth, depth);
+            double[] buffer = scratch ? new double[count] : null;
+            for (int iz = z0; iz < z1; iz++) {
+                for (int iy = y0; iy < y1; iy++) {
+                    row.run(buffer, x0, count, iy, iz);
+                }
+            }
+        });
+    }
+}
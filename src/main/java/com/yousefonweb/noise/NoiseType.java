@@ -0,0 +1,11 @@
+package com.yousefonweb.noise;
+
+/**
+ * Noise algorithm selector for classes that can run either algorithm.
+ */
+public enum NoiseType {
+    /** Improved Perlin noise, as computed by {@link PerlinNoise}. */
+    PERLIN,
+    /** Simplex noise, as computed by {@link SimplexNoise}. */
+    SIMPLEX
+}
@@ -0,0 +1,240 @@
+package com.yousefonweb.noise;
+
+import java.nio.DoubleBuffer;
+
+/**
+ * A fixed-size window onto an unbounded 2D fBm field that can be moved around without
+ * regenerating the samples it already holds.
+ *
+ * The field is sampled on the lattice {@code (originX + gx * stepX, originY + gy * stepY)} for
+ * integer grid coordinates {@code (gx, gy)}; the window covers
+ * {@code windowX <= gx < windowX + width} and {@code windowY <= gy < windowY + height}. Samples
+ * live in a ring buffer: when the window moves, the columns and rows that scroll out are
+ * overwritten in place by the ones that scroll in, and only those are evaluated (with the
+ * generator's row kernels), so a pan by {@code dx} columns costs {@code dx * height} samples
+ * instead of {@code width * height}. A move of at least a full window regenerates everything.
+ * Each sample is computed from its grid coordinates alone, so the contents are exactly
+ * {@code generator.noise2(originX + gx * stepX, originY + gy * stepY)} however the window got
+ * there.
+ *
+ * The samples can be read with window coordinates through {@link #get} and {@link #copyTo}, or
+ * without copying through {@link #ringBuffer()}: window sample {@code (ix, iy)} is ring sample
+ * {@code ((ringY + iy) mod height, (ringX + ix) mod width)}. That is the layout a renderer
+ * wants for a texture sampled with wrap-around addressing, where moving the window only
+ * shifts texture coordinates by {@code (ringX / width, ringY / height)}.
+ *
+ * Instances are not thread-safe.
+ */
+public final class NoiseWindow {
+
+    private final NoiseGenerator generator;
+    private final double originX;
+    private final double originY;
+    private final double stepX;
+    private final double stepY;
+    private final int width;
+    private final int height;
+    private final double[] ring;
+    private final DoubleBuffer ringView;
+    private int windowX;
+    private int windowY;
+    // Ring position of window sample (0, 0).
+    private int ringX;
+    private int ringY;
+    private long samplesComputed;
+
+    /**
+     * Creates a window at grid position {@code (windowX, windowY)} and fills it.
+     *
+     * @param generator Noise type, octaves, persistence, lacunarity, base and table of the field.
+     * @param originX   x of grid column 0.
+     * @param originY   y of grid row 0.
+     * @param stepX     Distance between neighbouring columns.
+     * @param stepY     Distance between neighbouring rows.
+     */
+    public NoiseWindow(NoiseGenerator generator, double originX, double originY, double stepX, double stepY,
+            int width, int height, int windowX, int windowY) {
+        if (generator == null) {
+            throw new IllegalArgumentException("Generator must not be null.");
+        }
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Window dimensions must be positive and fit one array.");
+        }
+        checkPosition(windowX, windowY, width, height);
+        this.generator = generator;
+        this.originX = originX;
+        this.originY = originY;
+        this.stepX = stepX;
+        this.stepY = stepY;
+        this.width = width;
+        this.height = height;
+        this.ring = new double[width * height];
+        this.ringView = DoubleBuffer.wrap(ring).asReadOnlyBuffer();
+        this.windowX = windowX;
+        this.windowY = windowY;
+        for (int iy = 0; iy < height; iy++) {
+            fillRow(iy, 0, width);
+        }
+    }
+
+    /**
+     * Moves the window by {@code (dx, dy)} grid cells.
+     *
+     * @throws IllegalArgumentException if the window would extend past the int grid range.
+     */
+    public void scroll(int dx, int dy) {
+        long x = (long) windowX + dx;
+        long y = (long) windowY + dy;
+        if (x != (int) x || y != (int) y) {
+            throw new IllegalArgumentException("Window extends past the int grid range.");
+        }
+        moveTo((int) x, (int) y);
+    }
+
+    /**
+     * Moves the window so that its first sample is grid point {@code (windowX, windowY)}, evaluating
+     * only the samples that were not in the window before.
+     *
+     * @throws IllegalArgumentException if the window would extend past the int grid range.
+     */
+    public void moveTo(int windowX, int windowY) {
+        checkPosition(windowX, windowY, width, height);
+        long dx = (long) windowX - this.windowX;
+        long dy = (long) windowY - this.windowY;
+        if (dx == 0 && dy == 0) {
+            return;
+        }
+        boolean keepColumns = Math.abs(dx) < width;
+        boolean keepRows = Math.abs(dy) < height;
+        this.windowX = windowX;
+        this.windowY = windowY;
+        if (!keepColumns || !keepRows) {
+            // Nothing carries over; restart the ring at index 0.
+            ringX = 0;
+            ringY = 0;
+            for (int iy = 0; iy < height; iy++) {
+                fillRow(iy, 0, width);
+            }
+            return;
+        }
+        ringX = Math.floorMod(ringX + (int) dx, width);
+        ringY = Math.floorMod(ringY + (int) dy, height);
+        // Rows that scrolled in are new across the full width; the rows that stayed only gain
+        // the columns that scrolled in.
+        int newRowsFrom = dy > 0 ? height - (int) dy : 0;
+        int newRowsTo = dy > 0 ? height : (int) -dy;
+        int newColumnsFrom = dx > 0 ? width - (int) dx : 0;
+        int newColumnsTo = dx > 0 ? width : (int) -dx;
+        for (int iy = 0; iy < height; iy++) {
+            if (iy >= newRowsFrom && iy < newRowsTo) {
+                fillRow(iy, 0, width);
+            } else if (newColumnsFrom < newColumnsTo) {
+                fillRow(iy, newColumnsFrom, newColumnsTo);
+            }
+        }
+    }
+
+    /**
+     * Returns window sample {@code (ix, iy)}, i.e. the field at grid point
+     * {@code (windowX + ix, windowY + iy)}.
+     *
+     * @throws IndexOutOfBoundsException if the sample is outside the window.
+     */
+    public double get(int ix, int iy) {
+        if (ix < 0 || ix >= width || iy < 0 || iy >= height) {
+            throw new IndexOutOfBoundsException("Sample (" + ix + ", " + iy + ") outside a " + width + "x" + height
+                    + " window");
+        }
+        return ring[ringIndex(ix, iy)];
+    }
+
+    /**
+     * Copies the window row-major ({@code dst[offset + iy * width + ix]}) in window order, the
+     * same layout as {@link NoiseGenerator#fillGrid2D} of the window's region.
+     */
+    public void copyTo(double[] dst, int offset) {
+        if (dst.length - (long) offset < (long) width * height || offset < 0) {
+            throw new IllegalArgumentException("Destination too small: need " + (long) width * height
+                    + " values after offset " + offset + ", have " + dst.length + ".");
+        }
+        int head = width - ringX;
+        for (int iy = 0; iy < height; iy++) {
+            int row = Math.floorMod(ringY + iy, height) * width;
+            int at = offset + iy * width;
+            System.arraycopy(ring, row + ringX, dst, at, head);
+            System.arraycopy(ring, row, dst, at + head, ringX);
+        }
+    }
+
+    /**
+     * Returns a read-only view of the ring buffer, {@code width * height} samples row-major in
+     * ring order; see the class description for the mapping to window coordinates. The view is
+     * shared and reflects later moves.
+     */
+    public DoubleBuffer ringBuffer() {
+        return ringView.duplicate();
+    }
+
+    /**
+     * Ring column of window column 0.
+     */
+    public int getRingX() {
+        return ringX;
+    }
+
+    /**
+     * Ring row of window row 0.
+     */
+    public int getRingY() {
+        return ringY;
+    }
+
+    public int getWindowX() {
+        return windowX;
+    }
+
+    public int getWindowY() {
+        return windowY;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Total number of samples evaluated since the window was created.
+     */
+    public long getSamplesComputed() {
+        return samplesComputed;
+    }
+
+    private int ringIndex(int ix, int iy) {
+        int rx = ringX + ix;
+        int ry = ringY + iy;
+        return (ry < height ? ry : ry - height) * width + (rx < width ? rx : rx - width);
+    }
+
+    // Evaluates window columns [from, to) of window row iy into the ring. The span is split
+    // where it wraps around the ring's right edge; the pieces keep their grid columns.
+    private void fillRow(int iy, int from, int to) {
+        int row = Math.floorMod(ringY + iy, height) * width;
+        double y = originY + ((long) windowY + iy) * stepY;
+        int ringFrom = Math.floorMod(ringX + from, width);
+        int first = Math.min(to - from, width - ringFrom);
+        generator.fillRow2D(ring, row + ringFrom, originX, stepX, windowX + from, first, y);
+        if (first < to - from) {
+            generator.fillRow2D(ring, row, originX, stepX, windowX + from + first, to - from - first, y);
+        }
+        samplesComputed += to - from;
+    }
+
+    private static void checkPosition(int windowX, int windowY, int width, int height) {
+        if ((long) windowX + width - 1 > Integer.MAX_VALUE || (long) windowY + height - 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window extends past the int grid range.");
+        }
+    }
+}
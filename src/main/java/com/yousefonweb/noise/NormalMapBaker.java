@@ -0,0 +1,201 @@
+package com.yousefonweb.noise;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Bakes height and tangent-space normal maps of 2D Perlin or simplex fBm straight into a
+ * {@link ByteBuffer} ready for GL upload.
+ *
+ * Texel {@code (ix, iy)} samples the noise at {@code (originX + ix * stepX, originY + iy * stepY)}
+ * and is written at byte {@code out.position() + (iy * width + ix) * format.bytesPerTexel()}.
+ * The height is the fBm value in [-1, 1] and the normal is that of the surface
+ * {@code z = heightScale * noise(x, y)}, computed from the analytic gradient
+ * ({@link PerlinNoise#pnoise2Deriv}, {@link SimplexNoise#snoise2Deriv}) rather than from
+ * neighbouring samples, so no height array is kept and tile borders need no overlap. Its z
+ * component is the cosine of the slope angle, which makes it usable as a slope map as well.
+ *
+ * The region is cut into {@code tileWidth x tileHeight} tiles that are baked in parallel, as
+ * in {@link NoiseRegionGenerator}; the output does not depend on the executor or tile size.
+ *
+ * Instances are immutable and may be shared between threads.
+ */
+public final class NormalMapBaker {
+
+    public static final int DEFAULT_TILE_WIDTH = 64;
+    public static final int DEFAULT_TILE_HEIGHT = 64;
+
+    private static final Quantizer UNORM8 = Quantizer.unsigned8();
+
+    /**
+     * Texel layouts. Float components are written in the byte order of the output buffer,
+     * which should be {@link ByteOrder#nativeOrder()} for GL upload.
+     */
+    public enum Format {
+        /** Normal x, y, z as floats in [-1, 1] ({@code GL_RGB32F}); no height. */
+        RGB_FLOAT(12),
+        /** Normal x, y, z and height as floats in [-1, 1] ({@code GL_RGBA32F}). */
+        RGBA_FLOAT(16),
+        /** Normal x, y, z and height mapped from [-1, 1] to unsigned bytes ({@code GL_RGBA8}). */
+        RGBA8(4);
+
+        private final int bytesPerTexel;
+
+        Format(int bytesPerTexel) {
+            this.bytesPerTexel = bytesPerTexel;
+        }
+
+        public int bytesPerTexel() {
+            return bytesPerTexel;
+        }
+    }
+
+    private final Executor executor;
+    private final int tileWidth;
+    private final int tileHeight;
+
+    /**
+     * Creates a baker running on the common fork/join pool with the default tile size.
+     */
+    public NormalMapBaker() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a baker running on {@code executor} with the default tile size.
+     */
+    public NormalMapBaker(Executor executor) {
+        this(executor, DEFAULT_TILE_WIDTH, DEFAULT_TILE_HEIGHT);
+    }
+
+    /**
+     * @param executor   Runs the tiles. A {@link ForkJoinPool} is driven by recursive splitting,
+     *                   any other executor receives one task per tile.
+     * @param tileWidth  Texels per tile along x.
+     * @param tileHeight Texels per tile along y.
+     */
+    public NormalMapBaker(Executor executor, int tileWidth, int tileHeight) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
+        if (tileWidth <= 0 || tileHeight <= 0) {
+            throw new IllegalArgumentException("Tile dimensions must be positive.");
+        }
+        this.executor = executor;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+    }
+
+    /**
+     * Bakes a {@code width x height} map into {@code out} starting at its position, which is
+     * left unchanged.
+     *
+     * @param base        Permutation base for {@link NoiseType#PERLIN}; ignored for simplex.
+     * @param heightScale Height of the surface per unit of noise, in the same units as the
+     *                    sample coordinates; larger values give steeper normals.
+     */
+    public void bake(ByteBuffer out, Format format, NoiseType type, double originX, double originY,
+            double stepX, double stepY, int width, int height, int octaves, double persistence, double lacunarity,
+            int base, PermutationTable permTable, double heightScale) {
+        if (out == null || format == null || type == null || permTable == null) {
+            throw new IllegalArgumentException("Output, format, noise type and permutation table must not be null.");
+        }
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Map dimensions must not be negative.");
+        }
+        long bytes = (long) width * height * format.bytesPerTexel();
+        if (bytes > out.remaining()) {
+            throw new IllegalArgumentException("Output buffer with " + out.remaining() + " bytes remaining cannot hold "
+                    + width + "x" + height + " " + format + " texels.");
+        }
+        int tilesX = (width + tileWidth - 1) / tileWidth;
+        int tilesY = (height + tileHeight - 1) / tileHeight;
+        if (tilesX == 0 || tilesY == 0) {
+            return;
+        }
+        int start = out.position();
+        // tilesX * tilesY <= width * height, which fits in an int since the bytes fit in the buffer.
+        TileRunner.run(executor, tilesX * tilesY, tile -> {
+            int x0 = (tile % tilesX) * tileWidth;
+            int y0 = (tile / tilesX) * tileHeight;
+            int x1 = Math.min(x0 + tileWidth, width);
+            int y1 = Math.min(y0 + tileHeight, height);
+            double[] sample = new double[3];
+            for (int iy = y0; iy < y1; iy++) {
+                double y = originY + iy * stepY;
+                int index = start + (iy * width + x0) * format.bytesPerTexel();
+                for (int ix = x0; ix < x1; ix++) {
+                    double x = originX + ix * stepX;
+                    if (type == NoiseType.PERLIN) {
+                        PerlinNoise.pnoise2Deriv(x, y, octaves, persistence, lacunarity, base, permTable, sample, 0);
+                    } else {
+                        SimplexNoise.snoise2Deriv(x, y, octaves, persistence, lacunarity, permTable, sample, 0);
+                    }
+                    putTexel(out, index, format, sample, heightScale);
+                    index += format.bytesPerTexel();
+                }
+            }
+        });
+    }
+
+    /**
+     * Bakes a map into a new direct buffer in native byte order, positioned at 0.
+     *
+     * @see #bake(ByteBuffer, Format, NoiseType, double, double, double, double, int, int, int, double, double, int, PermutationTable, double)
+     */
+    public ByteBuffer bake(Format format, NoiseType type, double originX, double originY, double stepX,
+            double stepY, int width, int height, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable, double heightScale) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format must not be null.");
+        }
+        long bytes = (long) Math.max(width, 0) * Math.max(height, 0) * format.bytesPerTexel();
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(width + "x" + height + " " + format + " texels exceed a ByteBuffer.");
+        }
+        ByteBuffer out = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+        bake(out, format, type, originX, originY, stepX, stepY, width, height, octaves, persistence, lacunarity,
+                base, permTable, heightScale);
+        return out;
+    }
+
+    public int getTileWidth() {
+        return tileWidth;
+    }
+
+    public int getTileHeight() {
+        return tileHeight;
+    }
+
+    // sample holds the height and its x and y derivatives; the surface normal is
+    // normalize(-heightScale * dh/dx, -heightScale * dh/dy, 1).
+    private static void putTexel(ByteBuffer out, int index, Format format, double[] sample, double heightScale) {
+        double nx = -heightScale * sample[1];
+        double ny = -heightScale * sample[2];
+        double inverseLength = 1.0 / Math.sqrt(nx * nx + ny * ny + 1.0);
+        nx *= inverseLength;
+        ny *= inverseLength;
+        double nz = inverseLength;
+        switch (format) {
+            case RGB_FLOAT -> {
+                out.putFloat(index, (float) nx);
+                out.putFloat(index + 4, (float) ny);
+                out.putFloat(index + 8, (float) nz);
+            }
+            case RGBA_FLOAT -> {
+                out.putFloat(index, (float) nx);
+                out.putFloat(index + 4, (float) ny);
+                out.putFloat(index + 8, (float) nz);
+                out.putFloat(index + 12, (float) sample[0]);
+            }
+            case RGBA8 -> {
+                out.put(index, (byte) UNORM8.quantize(nx));
+                out.put(index + 1, (byte) UNORM8.quantize(ny));
+                out.put(index + 2, (byte) UNORM8.quantize(nz));
+                out.put(index + 3, (byte) UNORM8.quantize(sample[0]));
+            }
+        }
+    }
+}
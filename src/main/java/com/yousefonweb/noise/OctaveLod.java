@@ -0,0 +1,42 @@
+package com.yousefonweb.noise;
+
+/**
+ * Octave weights for level-of-detail fBm: octaves whose features are too small for the
+ * sampling footprint are faded out and then skipped.
+ *
+ * An octave of frequency {@code f} has features one lattice cell ({@code 1 / f}) wide; sampled
+ * every {@code footprint} units, it aliases once {@code f * footprint} passes 0.5 (two samples
+ * per cell, the Nyquist limit). Octaves keep full weight up to {@value #FADE_START} cells per
+ * sample, fade with a smoothstep to zero at {@value #CUTOFF} and are not evaluated beyond, so
+ * with lacunarity 2 the octave below the cutoff is the one that fades. The fBm is still divided
+ * by the total amplitude of all octaves, so culling removes detail without changing the
+ * contrast of what remains; a footprint of 0 keeps every octave and gives exactly the plain fBm.
+ */
+final class OctaveLod {
+
+    static final double FADE_START = 0.25;
+    static final double CUTOFF = 0.5;
+
+    private OctaveLod() {
+    }
+
+    // Weight of an octave of 'frequency' at 'footprint'; exactly 1.0 while below the fade, so
+    // 'amplitude * weight' is then bit-identical to 'amplitude'.
+    static double weight(double frequency, double footprint) {
+        double cells = frequency * footprint;
+        if (cells <= FADE_START) {
+            return 1.0;
+        }
+        if (cells >= CUTOFF) {
+            return 0.0;
+        }
+        double t = (CUTOFF - cells) / (CUTOFF - FADE_START);
+        return t * t * (3 - 2 * t);
+    }
+
+    static void checkFootprint(double footprint) {
+        if (!(footprint >= 0.0) || Double.isInfinite(footprint)) {
+            throw new IllegalArgumentException("Footprint must be finite and not negative.");
+        }
+    }
+}
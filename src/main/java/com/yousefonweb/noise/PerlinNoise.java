@@ -2,39 +2,43 @@ package com.yousefonweb.noise;
 
 import static com.yousefonweb.noise.NoiseConstants.*;
 
+import java.util.Arrays;
+
 public class PerlinNoise {
 
     private static final PermutationTable DEFAULT_PERMUTATION_TABLE = new PermutationTable();
     private static final double DEFAULT_PERSISTENCE = 0.5;
     private static final double DEFAULT_LACUNARITY = 2.0;
 
-    // Helper for 1D, 2D, 3D Improved Perlin Noise (single octave)
-    private static double noise(double x, double y, double z, int base, PermutationTable permTable) {
-        int X = (int) Math.floor(x) & (permTable.getPeriod() - 1); // &255 if period is 256
-        int Y = (int) Math.floor(y) & (permTable.getPeriod() - 1);
-        int Z = (int) Math.floor(z) & (permTable.getPeriod() - 1);
-
+    // Masks a floored coordinate into the permutation period and applies the 'base' shift.
+    static int latticeIndex(int cell, int base, int period) {
+        int index = cell & (period - 1);
         if (base != 0) {
-            X = (X + base) % permTable.getPeriod();
-            Y = (Y + base) % permTable.getPeriod();
-            Z = (Z + base) % permTable.getPeriod();
+            index = (index + base) % period;
             // Ensure positive result for modulo
-            if (X < 0)
-                X += permTable.getPeriod();
-            if (Y < 0)
-                Y += permTable.getPeriod();
-            if (Z < 0)
-                Z += permTable.getPeriod();
+            if (index < 0)
+                index += period;
         }
+        return index;
+    }
+
+    // Helper for 1D, 2D, 3D Improved Perlin Noise (single octave)
+    static double noise(double x, double y, double z, int base, PermutationTable permTable) {
+        int X = latticeIndex((int) Math.floor(x), base, permTable.getPeriod()); // &255 if period is 256
+        int Y = latticeIndex((int) Math.floor(y), base, permTable.getPeriod());
+        int Z = latticeIndex((int) Math.floor(z), base, permTable.getPeriod());
 
         x -= Math.floor(x);
         y -= Math.floor(y);
         z -= Math.floor(z);
 
-        double u = fade(x);
-        double v = fade(y);
-        double w = fade(z);
+        return corners(X, Y, Z, x, y, z, fade(x), fade(y), fade(z), permTable);
+    }
 
+    // Blends the eight corner gradients of lattice cell (X, Y, Z), already masked and
+    // base-shifted, at in-cell offsets (x, y, z) with fade weights (u, v, w).
+    private static double corners(int X, int Y, int Z, double x, double y, double z, double u, double v, double w,
+            PermutationTable permTable) {
         int A = permTable.getPerm(X) + Y;
         int AA = permTable.getPerm(A) + Z;
         int AB = permTable.getPerm(A + 1) + Z;
@@ -50,24 +54,41 @@ public class PerlinNoise {
         // Let's use % 12 with the first 12 entries of GRAD3 for standard Perlin.
         // For tileable part, we will adapt.
 
-        return lerp(w, lerp(v, lerp(u, dot(GRAD3[permTable.getPerm(AA) % 12], x, y, z),
-                dot(GRAD3[permTable.getPerm(BA) % 12], x - 1, y, z)),
-                lerp(u, dot(GRAD3[permTable.getPerm(AB) % 12], x, y - 1, z),
-                        dot(GRAD3[permTable.getPerm(BB) % 12], x - 1, y - 1, z))),
-                lerp(v, lerp(u, dot(GRAD3[permTable.getPerm(AA + 1) % 12], x, y, z - 1),
-                        dot(GRAD3[permTable.getPerm(BA + 1) % 12], x - 1, y, z - 1)),
-                        lerp(u, dot(GRAD3[permTable.getPerm(AB + 1) % 12], x, y - 1, z - 1),
-                                dot(GRAD3[permTable.getPerm(BB + 1) % 12], x - 1, y - 1, z - 1))));
+        return lerp(w, lerp(v, lerp(u, gradDot(permTable.getPermMod12(AA), x, y, z),
+                gradDot(permTable.getPermMod12(BA), x - 1, y, z)),
+                lerp(u, gradDot(permTable.getPermMod12(AB), x, y - 1, z),
+                        gradDot(permTable.getPermMod12(BB), x - 1, y - 1, z))),
+                lerp(v, lerp(u, gradDot(permTable.getPermMod12(AA + 1), x, y, z - 1),
+                        gradDot(permTable.getPermMod12(BA + 1), x - 1, y, z - 1)),
+                        lerp(u, gradDot(permTable.getPermMod12(AB + 1), x, y - 1, z - 1),
+                                gradDot(permTable.getPermMod12(BB + 1), x - 1, y - 1, z - 1))));
+    }
+
+    // GRAD3 indices of the eight corners of lattice cell (cellX, cellY, cellZ) as noise() with
+    // base 0 picks them; corner c is (cellX + (c & 1), cellY + (c >> 1 & 1), cellZ + (c >> 2)).
+    static void cornerGradients(int cellX, int cellY, int cellZ, PermutationTable permTable, int[] out) {
+        int X = latticeIndex(cellX, 0, permTable.getPeriod());
+        int Y = latticeIndex(cellY, 0, permTable.getPeriod());
+        int Z = latticeIndex(cellZ, 0, permTable.getPeriod());
+        int A = permTable.getPerm(X) + Y;
+        int AA = permTable.getPerm(A) + Z;
+        int AB = permTable.getPerm(A + 1) + Z;
+        int B = permTable.getPerm(X + 1) + Y;
+        int BA = permTable.getPerm(B) + Z;
+        int BB = permTable.getPerm(B + 1) + Z;
+        out[0] = permTable.getPermMod12(AA);
+        out[1] = permTable.getPermMod12(BA);
+        out[2] = permTable.getPermMod12(AB);
+        out[3] = permTable.getPermMod12(BB);
+        out[4] = permTable.getPermMod12(AA + 1);
+        out[5] = permTable.getPermMod12(BA + 1);
+        out[6] = permTable.getPermMod12(AB + 1);
+        out[7] = permTable.getPermMod12(BB + 1);
     }
 
     // Noise1D (adapted from 3D)
-    private static double noise(double x, int base, PermutationTable permTable) {
-        int X = (int) Math.floor(x) & (permTable.getPeriod() - 1);
-        if (base != 0) {
-            X = (X + base) % permTable.getPeriod();
-            if (X < 0)
-                X += permTable.getPeriod();
-        }
+    static double noise(double x, int base, PermutationTable permTable) {
+        int X = latticeIndex((int) Math.floor(x), base, permTable.getPeriod());
         x -= Math.floor(x);
         double u = fade(x);
 
@@ -76,22 +97,14 @@ public class PerlinNoise {
         // Typically for 1D, gradients are just -1, 1.
         // Here, we can use a component of GRAD3 for consistency or use dedicated 1D grads.
         // We will use the x component of GRAD3 vectors for simplicity:
-        return lerp(u, GRAD3[permTable.getPerm(X) % 12][0] * x,
-                GRAD3[permTable.getPerm(X + 1) % 12][0] * (x - 1));
+        return lerp(u, GRAD3_X[permTable.getPermMod12(X)] * x,
+                GRAD3_X[permTable.getPermMod12(X + 1)] * (x - 1));
     }
 
     // Noise2D (adapted from 3D)
-    private static double noise(double x, double y, int base, PermutationTable permTable) {
-        int X = (int) Math.floor(x) & (permTable.getPeriod() - 1);
-        int Y = (int) Math.floor(y) & (permTable.getPeriod() - 1);
-        if (base != 0) {
-            X = (X + base) % permTable.getPeriod();
-            Y = (Y + base) % permTable.getPeriod();
-            if (X < 0)
-                X += permTable.getPeriod();
-            if (Y < 0)
-                Y += permTable.getPeriod();
-        }
+    static double noise(double x, double y, int base, PermutationTable permTable) {
+        int X = latticeIndex((int) Math.floor(x), base, permTable.getPeriod());
+        int Y = latticeIndex((int) Math.floor(y), base, permTable.getPeriod());
 
         x -= Math.floor(x);
         y -= Math.floor(y);
@@ -101,10 +114,10 @@ public class PerlinNoise {
         int A = permTable.getPerm(X) + Y;
         int B = permTable.getPerm(X + 1) + Y;
 
-        return lerp(v, lerp(u, dot(GRAD3[permTable.getPerm(A) % 12], x, y),
-                dot(GRAD3[permTable.getPerm(B) % 12], x - 1, y)),
-                lerp(u, dot(GRAD3[permTable.getPerm(A + 1) % 12], x, y - 1),
-                        dot(GRAD3[permTable.getPerm(B + 1) % 12], x - 1, y - 1)));
+        return lerp(v, lerp(u, gradDot(permTable.getPermMod12(A), x, y),
+                gradDot(permTable.getPermMod12(B), x - 1, y)),
+                lerp(u, gradDot(permTable.getPermMod12(A + 1), x, y - 1),
+                        gradDot(permTable.getPermMod12(B + 1), x - 1, y - 1)));
     }
 
     // Public Perlin noise functions.
@@ -114,9 +127,37 @@ public class PerlinNoise {
         double frequency = 1;
         double amplitude = 1;
         double maxValue = 0; // Used for normalizing result to [-1,1]
+        PermutationTable shifted = permTable.shifted(base);
 
         for (int i = 0; i < octaves; i++) {
-            total += noise(x * frequency, base, permTable) * amplitude;
+            total += noise(x * frequency, 0, shifted) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * Level-of-detail variant of
+     * {@link #pnoise1(double, int, double, double, int, PermutationTable)} for a result sampled every
+     * {@code footprint} units; octaves are culled as in
+     * {@link #pnoise2(double, double, int, double, double, int, PermutationTable, double)}.
+     */
+    public static double pnoise1(double x, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable, double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
+
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequency, footprint);
+            if (weight > 0) {
+                total += noise(x * frequency, 0, shifted) * (amplitude * weight);
+            }
             maxValue += amplitude;
             amplitude *= persistence;
             frequency *= lacunarity;
@@ -146,9 +187,41 @@ public class PerlinNoise {
         double frequency = 1;
         double amplitude = 1;
         double maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
 
         for (int i = 0; i < octaves; i++) {
-            total += noise(x * frequency, y * frequency, base, permTable) * amplitude;
+            total += noise(x * frequency, y * frequency, 0, shifted) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    /**
+     * Level-of-detail variant of
+     * {@link #pnoise2(double, double, int, double, double, int, PermutationTable)} for a result
+     * sampled every {@code footprint} units, e.g. the grid spacing of a distant terrain tile.
+     * Octave {@code i} has features {@code 1 / frequency} wide and aliases once
+     * {@code frequency * footprint} passes 0.5 (the Nyquist limit); its amplitude fades with a
+     * smoothstep from 0.25 to 0.5 and it is not evaluated beyond. The sum is still divided by the
+     * total amplitude of all octaves, so culling drops detail without changing the contrast. A
+     * footprint of 0 gives exactly the plain fBm.
+     */
+    public static double pnoise2(double x, double y, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable, double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
+
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequency, footprint);
+            if (weight > 0) {
+                total += noise(x * frequency, y * frequency, 0, shifted) * (amplitude * weight);
+            }
             maxValue += amplitude;
             amplitude *= persistence;
             frequency *= lacunarity;
@@ -172,15 +245,92 @@ public class PerlinNoise {
         return pnoise2(x, y, octaves, persistence, lacunarity, base, DEFAULT_PERMUTATION_TABLE);
     }
 
+    // Tileable 2D Perlin noise.
+    // Octave i is periodic with (int) (repeat * frequency) lattice cells, so for integer
+    // lacunarity every octave, and therefore the fBm sum, repeats every repeatX units in x and
+    // repeatY units in y. Wrapped lattice indices are reduced modulo the table period before
+    // hashing, so periods may exceed it.
+
+    /**
+     * Tileable 2D Perlin fBm: {@code pnoise2(x + repeatX, y) == pnoise2(x, y + repeatY) == pnoise2(x, y)}
+     * when {@code lacunarity} is an integer (the octave periods {@code repeat * lacunarity^i} are
+     * then whole lattice cells). {@code base} shifts the lattice within the period.
+     *
+     * @param repeatX Period in x, in lattice cells of the first octave; at least 1.
+     * @param repeatY Period in y; at least 1.
+     */
+    public static double pnoise2(double x, double y, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable, int repeatX, int repeatY) {
+        checkRepeat(repeatX, repeatY);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            total += noise2Tileable(x * frequency, y * frequency, octavePeriod(repeatX, frequency),
+                    octavePeriod(repeatY, frequency), base, permTable) * amplitude;
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
+    public static double pnoise2(double x, double y, int repeatX, int repeatY, int base) {
+        return pnoise2(x, y, 1, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, base, DEFAULT_PERMUTATION_TABLE, repeatX,
+                repeatY);
+    }
+
+    static void checkRepeat(int repeatX, int repeatY) {
+        if (repeatX < 1 || repeatY < 1) {
+            throw new IllegalArgumentException("Repeat periods must be at least 1.");
+        }
+    }
+
+    // Lattice period of the octave at this frequency; at least one cell.
+    static int octavePeriod(int repeat, double frequency) {
+        return Math.max(1, (int) (repeat * frequency));
+    }
+
+    // Lattice index of cell (after the base shift, wrapped into the period) reduced into the table.
+    static int tileIndex(long cell, int base, int period, int tablePeriod) {
+        return (int) Math.floorMod(cell + base, (long) period) % tablePeriod;
+    }
+
+    // Single octave of tileable 2D noise with lattice periods periodX and periodY.
+    static double noise2Tileable(double x, double y, int periodX, int periodY, int base,
+            PermutationTable permTable) {
+        int tablePeriod = permTable.getPeriod();
+        double floorX = Math.floor(x);
+        double floorY = Math.floor(y);
+        long cellX = (long) floorX;
+        long cellY = (long) floorY;
+        int A = permTable.getPerm(tileIndex(cellX, base, periodX, tablePeriod));
+        int B = permTable.getPerm(tileIndex(cellX + 1, base, periodX, tablePeriod));
+        int Y0 = tileIndex(cellY, base, periodY, tablePeriod);
+        int Y1 = tileIndex(cellY + 1, base, periodY, tablePeriod);
+
+        x -= floorX;
+        y -= floorY;
+        double u = fade(x);
+        double v = fade(y);
+
+        return lerp(v, lerp(u, gradDot(permTable.getPermMod12(A + Y0), x, y),
+                gradDot(permTable.getPermMod12(B + Y0), x - 1, y)),
+                lerp(u, gradDot(permTable.getPermMod12(A + Y1), x, y - 1),
+                        gradDot(permTable.getPermMod12(B + Y1), x - 1, y - 1)));
+    }
+
     // Special grad3 for tileable noise.
     private static double tileableGrad(int hash, double x, double y, double z, PermutationTable permTable) {
         // Uses GRAD3 with hash % 16
-        int h = permTable.getPerm(hash) % 16; // permTable.getPerm(hash) IS the hash for grad selection
-        return dot(GRAD3[h], x, y, z);
+        int h = permTable.getPerm(hash) & 15; // permTable.getPerm(hash) IS the hash for grad selection
+        return gradDot(h, x, y, z);
     }
 
     // Tileable 3D Perlin noise
-    private static double noise3Tileable(double x, double y, double z, int repeatX, int repeatY, int repeatZ, int base,
+    static double noise3Tileable(double x, double y, double z, int repeatX, int repeatY, int repeatZ, int base,
             PermutationTable permTable) {
         // Ensure coordinates are positive
         double fx = x % repeatX;
@@ -293,6 +443,13 @@ public class PerlinNoise {
         // 64,
         // and period is 256.
 
+        return tileableCorners(p_i, p_j, p_k, p_ii, p_jj, p_kk, relX, relY, relZ, sx, sy, sz, permTable);
+    }
+
+    // Blends the eight corner gradients of a tileable cell, given its wrapped (and base-shifted)
+    // lattice indices, in-cell offsets and fade weights.
+    private static double tileableCorners(int p_i, int p_j, int p_k, int p_ii, int p_jj, int p_kk,
+            double relX, double relY, double relZ, double sx, double sy, double sz, PermutationTable permTable) {
         int A = permTable.getPerm(p_i);
         int AA = permTable.getPerm(A + p_j);
         int AB = permTable.getPerm(A + p_jj);
@@ -321,22 +478,14 @@ public class PerlinNoise {
         double amplitude = 1;
         double maxValue = 0;
 
-        PermutationTable currentPermTable = permTable;
-        if (base != 0 && permTable == DEFAULT_PERMUTATION_TABLE) {
-            // If a base is specified and we are using the default table,
-            // we should ideally use a permutation table shifted by 'base'.
-            // This requires a mechanism to get differently seeded/based PermutationTables.
-            // For now, we'll assume 'base' in the non-tileable 'noise' function handles
-            // this shift,
-            // or the 'base' for tiling is used within tileableNoise3.
-            // The pnoise3 tests use 'base' without 'repeat'. ShaderNoiseTexture uses 'base'
-            // with 'repeat'.
-            // This suggests 'base' is a general permutation offset parameter.
-        }
+        // The tileable path wraps base modulo the repeat periods and needs the original table;
+        // otherwise the base is folded into a cached shifted table.
+        boolean tileable = repeatX > 0 || repeatY > 0 || repeatZ > 0;
+        PermutationTable shifted = tileable ? permTable : permTable.shifted(base);
 
         for (int i = 0; i < octaves; i++) {
             double val;
-            if (repeatX > 0 || repeatY > 0 || repeatZ > 0) { // Tiling enabled
+            if (tileable) {
                 // The 'base' for tileableNoise3 refers to the internal offset.
                 // The 'base' for pnoise3 (permutation shift) can be handled by providing a
                 // different permTable.
@@ -345,9 +494,9 @@ public class PerlinNoise {
                 val = noise3Tileable(x * frequency, y * frequency, z * frequency,
                         (int) (repeatX / frequency), (int) (repeatY / frequency), (int) (repeatZ / frequency),
                         base,
-                        currentPermTable);
+                        permTable);
             } else { // Non-tileable
-                val = noise(x * frequency, y * frequency, z * frequency, base, currentPermTable);
+                val = noise(x * frequency, y * frequency, z * frequency, 0, shifted);
             }
             total += val * amplitude;
             maxValue += amplitude;
@@ -357,6 +506,32 @@ public class PerlinNoise {
         return total / maxValue;
     }
 
+    /**
+     * Level-of-detail variant of non-tileable {@code pnoise3} for a result sampled every
+     * {@code footprint} units; octaves are culled as in
+     * {@link #pnoise2(double, double, int, double, double, int, PermutationTable, double)}.
+     */
+    public static double pnoise3(double x, double y, double z, int octaves, double persistence, double lacunarity,
+            int base, PermutationTable permTable, double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
+
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequency, footprint);
+            if (weight > 0) {
+                total += noise(x * frequency, y * frequency, z * frequency, 0, shifted) * (amplitude * weight);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
     // Public overloads for pnoise3
     public static double pnoise3(double x, double y, double z, int octaves, int base) {
         return pnoise3(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, base, DEFAULT_PERMUTATION_TABLE, 0, 0,
@@ -389,4 +564,679 @@ public class PerlinNoise {
         return pnoise3(x, y, z, octaves, persistence, lacunarity, base, DEFAULT_PERMUTATION_TABLE, 0, 0, 0);
     }
 
-}
\ No newline at end of file
+    // Analytic derivatives.
+    // The value is blended exactly as in pnoise2/pnoise3, so it is bit-identical to those calls.
+    // The partial derivatives come from the same corner gradients: each lerp contributes the
+    // lerp of its inputs' derivatives, plus fadeDerivative times the difference of its inputs
+    // along the lerp's own axis. Octave i contributes amplitude * frequency * gradient.
+
+    /**
+     * Evaluates 2D Perlin fBm and its gradient at one point: {@code out[offset]} receives
+     * {@code pnoise2(x, y, octaves, persistence, lacunarity, base, permTable)}, and
+     * {@code out[offset + 1]} and {@code out[offset + 2]} its partial derivatives in x and y.
+     */
+    public static void pnoise2Deriv(double x, double y, int octaves, double persistence, double lacunarity,
+            int base, PermutationTable permTable, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 3);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
+        out[offset] = out[offset + 1] = out[offset + 2] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            addNoiseDeriv(x * frequency, y * frequency, 0, shifted, amplitude, amplitude * frequency, out,
+                    offset);
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        out[offset] /= maxValue;
+        out[offset + 1] /= maxValue;
+        out[offset + 2] /= maxValue;
+    }
+
+    public static void pnoise2Deriv(double x, double y, int octaves, double[] out, int offset) {
+        pnoise2Deriv(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, 0, DEFAULT_PERMUTATION_TABLE, out,
+                offset);
+    }
+
+    /**
+     * Evaluates 3D Perlin fBm and its gradient at one point: {@code out[offset]} receives
+     * {@code pnoise3(x, y, z, octaves, persistence, lacunarity, base, permTable, 0, 0, 0)}, and
+     * {@code out[offset + 1..3]} its partial derivatives in x, y and z.
+     */
+    public static void pnoise3Deriv(double x, double y, double z, int octaves, double persistence,
+            double lacunarity, int base, PermutationTable permTable, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 4);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        PermutationTable shifted = permTable.shifted(base);
+        out[offset] = out[offset + 1] = out[offset + 2] = out[offset + 3] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            addNoiseDeriv(x * frequency, y * frequency, z * frequency, 0, shifted, amplitude,
+                    amplitude * frequency, out, offset);
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int c = 0; c < 4; c++) {
+            out[offset + c] /= maxValue;
+        }
+    }
+
+    public static void pnoise3Deriv(double x, double y, double z, int octaves, double[] out, int offset) {
+        pnoise3Deriv(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, 0, DEFAULT_PERMUTATION_TABLE, out,
+                offset);
+    }
+
+    // Adds amplitude * noise(x, y) to dst[offset] and gradientScale * its gradient to dst[offset + 1..2].
+    static void addNoiseDeriv(double x, double y, int base, PermutationTable permTable, double amplitude,
+            double gradientScale, double[] dst, int offset) {
+        int X = latticeIndex((int) Math.floor(x), base, permTable.getPeriod());
+        int Y = latticeIndex((int) Math.floor(y), base, permTable.getPeriod());
+
+        x -= Math.floor(x);
+        y -= Math.floor(y);
+        double u = fade(x);
+        double v = fade(y);
+        double du = fadeDerivative(x);
+        double dv = fadeDerivative(y);
+
+        int A = permTable.getPerm(X) + Y;
+        int B = permTable.getPerm(X + 1) + Y;
+        int g00 = permTable.getPermMod12(A);
+        int g10 = permTable.getPermMod12(B);
+        int g01 = permTable.getPermMod12(A + 1);
+        int g11 = permTable.getPermMod12(B + 1);
+        double n00 = gradDot(g00, x, y);
+        double n10 = gradDot(g10, x - 1, y);
+        double n01 = gradDot(g01, x, y - 1);
+        double n11 = gradDot(g11, x - 1, y - 1);
+
+        double a = lerp(u, n00, n10);
+        double b = lerp(u, n01, n11);
+        double ax = lerp(u, GRAD3_X[g00], GRAD3_X[g10]) + du * (n10 - n00);
+        double bx = lerp(u, GRAD3_X[g01], GRAD3_X[g11]) + du * (n11 - n01);
+        double ay = lerp(u, GRAD3_Y[g00], GRAD3_Y[g10]);
+        double by = lerp(u, GRAD3_Y[g01], GRAD3_Y[g11]);
+
+        dst[offset] += lerp(v, a, b) * amplitude;
+        dst[offset + 1] += lerp(v, ax, bx) * gradientScale;
+        dst[offset + 2] += (lerp(v, ay, by) + dv * (b - a)) * gradientScale;
+    }
+
+    // Adds amplitude * noise(x, y, z) to dst[offset] and gradientScale * its gradient to dst[offset + 1..3].
+    static void addNoiseDeriv(double x, double y, double z, int base, PermutationTable permTable,
+            double amplitude, double gradientScale, double[] dst, int offset) {
+        int X = latticeIndex((int) Math.floor(x), base, permTable.getPeriod());
+        int Y = latticeIndex((int) Math.floor(y), base, permTable.getPeriod());
+        int Z = latticeIndex((int) Math.floor(z), base, permTable.getPeriod());
+
+        x -= Math.floor(x);
+        y -= Math.floor(y);
+        z -= Math.floor(z);
+        double u = fade(x);
+        double v = fade(y);
+        double w = fade(z);
+        double du = fadeDerivative(x);
+        double dv = fadeDerivative(y);
+        double dw = fadeDerivative(z);
+
+        int A = permTable.getPerm(X) + Y;
+        int AA = permTable.getPerm(A) + Z;
+        int AB = permTable.getPerm(A + 1) + Z;
+        int B = permTable.getPerm(X + 1) + Y;
+        int BA = permTable.getPerm(B) + Z;
+        int BB = permTable.getPerm(B + 1) + Z;
+        int g000 = permTable.getPermMod12(AA);
+        int g100 = permTable.getPermMod12(BA);
+        int g010 = permTable.getPermMod12(AB);
+        int g110 = permTable.getPermMod12(BB);
+        int g001 = permTable.getPermMod12(AA + 1);
+        int g101 = permTable.getPermMod12(BA + 1);
+        int g011 = permTable.getPermMod12(AB + 1);
+        int g111 = permTable.getPermMod12(BB + 1);
+        double n000 = gradDot(g000, x, y, z);
+        double n100 = gradDot(g100, x - 1, y, z);
+        double n010 = gradDot(g010, x, y - 1, z);
+        double n110 = gradDot(g110, x - 1, y - 1, z);
+        double n001 = gradDot(g001, x, y, z - 1);
+        double n101 = gradDot(g101, x - 1, y, z - 1);
+        double n011 = gradDot(g011, x, y - 1, z - 1);
+        double n111 = gradDot(g111, x - 1, y - 1, z - 1);
+
+        // Blend along x, then y, then z, as corners() does.
+        double a00 = lerp(u, n000, n100);
+        double a10 = lerp(u, n010, n110);
+        double a01 = lerp(u, n001, n101);
+        double a11 = lerp(u, n011, n111);
+        double b0 = lerp(v, a00, a10);
+        double b1 = lerp(v, a01, a11);
+
+        double dx = lerp(w,
+                lerp(v, lerp(u, GRAD3_X[g000], GRAD3_X[g100]) + du * (n100 - n000),
+                        lerp(u, GRAD3_X[g010], GRAD3_X[g110]) + du * (n110 - n010)),
+                lerp(v, lerp(u, GRAD3_X[g001], GRAD3_X[g101]) + du * (n101 - n001),
+                        lerp(u, GRAD3_X[g011], GRAD3_X[g111]) + du * (n111 - n011)));
+        double dy = lerp(w,
+                lerp(v, lerp(u, GRAD3_Y[g000], GRAD3_Y[g100]), lerp(u, GRAD3_Y[g010], GRAD3_Y[g110]))
+                        + dv * (a10 - a00),
+                lerp(v, lerp(u, GRAD3_Y[g001], GRAD3_Y[g101]), lerp(u, GRAD3_Y[g011], GRAD3_Y[g111]))
+                        + dv * (a11 - a01));
+        double dz = lerp(w,
+                lerp(v, lerp(u, GRAD3_Z[g000], GRAD3_Z[g100]), lerp(u, GRAD3_Z[g010], GRAD3_Z[g110])),
+                lerp(v, lerp(u, GRAD3_Z[g001], GRAD3_Z[g101]), lerp(u, GRAD3_Z[g011], GRAD3_Z[g111])))
+                + dw * (b1 - b0);
+
+        dst[offset] += lerp(w, b0, b1) * amplitude;
+        dst[offset + 1] += dx * gradientScale;
+        dst[offset + 2] += dy * gradientScale;
+        dst[offset + 3] += dz * gradientScale;
+    }
+
+    // Multi-channel evaluation.
+    // A channel is a (base, permutation table) pair. All channels of a point share the octave
+    // loop, the coordinate wrapping, the floors and the fade weights; only the base shift and
+    // the permutation lookups run per channel. Each channel value is bit-identical to the
+    // corresponding single-channel pnoise3 call.
+
+    /**
+     * Evaluates 3D Perlin fBm for several channels at one point, writing channel {@code c} to
+     * {@code out[offset + c]}. Each value equals
+     * {@code pnoise3(x, y, z, octaves, persistence, lacunarity, bases[c], tables[c], repeatX, repeatY, repeatZ)}.
+     *
+     * @param bases  Permutation base of each channel.
+     * @param tables Permutation table of each channel, the same length as {@code bases}.
+     */
+    public static void pnoise3Channels(double x, double y, double z, int octaves, double persistence,
+            double lacunarity, int[] bases, PermutationTable[] tables, int repeatX, int repeatY, int repeatZ,
+            double[] out, int offset) {
+        int channels = GridUtil.checkChannels(bases, tables);
+        GridUtil.checkOffset(out.length, offset, channels);
+        fbmChannels3D(out, offset, x, y, z, octaves, persistence, lacunarity, bases, tables,
+                shiftedTables(bases, tables), repeatX, repeatY, repeatZ);
+    }
+
+    /**
+     * Channel variant of {@link #pnoise3Channels(double, double, double, int, double, double, int[], PermutationTable[], int, int, int, double[], int)}
+     * with the default table for every channel.
+     */
+    public static void pnoise3Channels(double x, double y, double z, int octaves, double persistence,
+            double lacunarity, int[] bases, int repeatX, int repeatY, int repeatZ, double[] out, int offset) {
+        pnoise3Channels(x, y, z, octaves, persistence, lacunarity, bases, defaultTables(bases.length),
+                repeatX, repeatY, repeatZ, out, offset);
+    }
+
+    /**
+     * Fills {@code out} with multi-channel 3D Perlin fBm sampled on a regular grid, channels
+     * interleaved: channel {@code c} of sample {@code (ix, iy, iz)} is stored at
+     * {@code out[((iz * height + iy) * width + ix) * stride + c]}, and equals
+     * {@code pnoise3(originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ, octaves,
+     * persistence, lacunarity, bases[c], tables[c], repeatX, repeatY, repeatZ)}. Elements
+     * between the last channel and the next sample are left untouched.
+     *
+     * @param out    Destination array.
+     * @param stride Elements per sample, at least {@code bases.length} (e.g. 4 for RGBA).
+     */
+    public static void fillGrid3DChannels(double[] out, int stride, double originX, double originY,
+            double originZ, double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, int[] bases, PermutationTable[] tables,
+            int repeatX, int repeatY, int repeatZ) {
+        int channels = GridUtil.checkChannels(bases, tables);
+        GridUtil.checkStridedGrid(out.length, width, height, depth, stride, channels);
+        channelRows3D((row, maxValue, rowIndex) -> {
+            int offset = rowIndex * width * stride;
+            for (int ix = 0; ix < width; ix++) {
+                for (int c = 0; c < channels; c++) {
+                    out[offset + ix * stride + c] = row[ix * channels + c] / maxValue;
+                }
+            }
+        }, originX, originY, originZ, stepX, stepY, stepZ, width, height, depth, octaves, persistence, lacunarity,
+                bases, tables, repeatX, repeatY, repeatZ);
+    }
+
+    // Receives the rows of a multi-channel grid in order: channel c of column ix of row
+    // rowIndex = iz * height + iy is row[ix * channels + c] / maxValue. The row array is reused
+    // for the next row once accept returns.
+    interface ChannelRowSink {
+        void accept(double[] row, double maxValue, int rowIndex);
+    }
+
+    // The rows of fillGrid3DChannels, for any output encoding; arguments are already validated.
+    static void channelRows3D(ChannelRowSink sink, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth, int octaves,
+            double persistence, double lacunarity, int[] bases, PermutationTable[] tables,
+            int repeatX, int repeatY, int repeatZ) {
+        if ((repeatX > 0 || repeatY > 0 || repeatZ > 0)
+                && TileableKernels.fillGrid3DChannels(sink, originX, originY, originZ, stepX, stepY, stepZ,
+                        width, height, depth, octaves, persistence, lacunarity, bases, tables,
+                        repeatX, repeatY, repeatZ)) {
+            return;
+        }
+        int channels = bases.length;
+        PermutationTable[] shifted = shiftedTables(bases, tables);
+        double[] row = new double[width * channels];
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                double y = originY + iy * stepY;
+                for (int ix = 0; ix < width; ix++) {
+                    fbmChannels3D(row, ix * channels, originX + ix * stepX, y, z, octaves, persistence,
+                            lacunarity, bases, tables, shifted, repeatX, repeatY, repeatZ);
+                }
+                // fbmChannels3D has already normalized, and dividing by 1 is exact.
+                sink.accept(row, 1.0, iz * height + iy);
+            }
+        }
+    }
+
+    private static PermutationTable[] defaultTables(int channels) {
+        PermutationTable[] tables = new PermutationTable[channels];
+        Arrays.fill(tables, DEFAULT_PERMUTATION_TABLE);
+        return tables;
+    }
+
+    // tables[c] shifted by bases[c], for the non-tileable path.
+    private static PermutationTable[] shiftedTables(int[] bases, PermutationTable[] tables) {
+        PermutationTable[] shifted = new PermutationTable[tables.length];
+        for (int c = 0; c < tables.length; c++) {
+            shifted[c] = tables[c].shifted(bases[c]);
+        }
+        return shifted;
+    }
+
+    // The octave loop of pnoise3, for every channel at once, into dst[offset + c]. The tileable
+    // path uses bases and tables, the other one the matching shifted tables.
+    private static void fbmChannels3D(double[] dst, int offset, double x, double y, double z, int octaves,
+            double persistence, double lacunarity, int[] bases, PermutationTable[] tables,
+            PermutationTable[] shiftedTables, int repeatX, int repeatY, int repeatZ) {
+        int channels = bases.length;
+        Arrays.fill(dst, offset, offset + channels, 0.0);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        for (int i = 0; i < octaves; i++) {
+            if (repeatX > 0 || repeatY > 0 || repeatZ > 0) {
+                noise3TileableChannels(x * frequency, y * frequency, z * frequency,
+                        (int) (repeatX / frequency), (int) (repeatY / frequency), (int) (repeatZ / frequency),
+                        bases, tables, amplitude, dst, offset);
+            } else {
+                noiseChannels(x * frequency, y * frequency, z * frequency, shiftedTables, amplitude, dst, offset);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int c = 0; c < channels; c++) {
+            dst[offset + c] /= maxValue;
+        }
+    }
+
+    // noise(x, y, z, 0, tables[c]) * amplitude added to dst[offset + c] for each channel.
+    private static void noiseChannels(double x, double y, double z, PermutationTable[] tables,
+            double amplitude, double[] dst, int offset) {
+        int cellX = (int) Math.floor(x);
+        int cellY = (int) Math.floor(y);
+        int cellZ = (int) Math.floor(z);
+        x -= Math.floor(x);
+        y -= Math.floor(y);
+        z -= Math.floor(z);
+        double u = fade(x);
+        double v = fade(y);
+        double w = fade(z);
+        for (int c = 0; c < tables.length; c++) {
+            PermutationTable permTable = tables[c];
+            int mask = permTable.getPeriod() - 1;
+            dst[offset + c] += corners(cellX & mask, cellY & mask, cellZ & mask, x, y, z, u, v, w, permTable)
+                    * amplitude;
+        }
+    }
+
+    // noise3Tileable(x, y, z, repeatX, repeatY, repeatZ, base, permTable) * amplitude added to
+    // dst[offset + c] for each channel.
+    private static void noise3TileableChannels(double x, double y, double z, int repeatX, int repeatY, int repeatZ,
+            int[] bases, PermutationTable[] tables, double amplitude, double[] dst, int offset) {
+        double fx = x % repeatX;
+        if (fx < 0)
+            fx += repeatX;
+        double fy = y % repeatY;
+        if (fy < 0)
+            fy += repeatY;
+        double fz = z % repeatZ;
+        if (fz < 0)
+            fz += repeatZ;
+
+        int i = (int) Math.floor(fx);
+        int j = (int) Math.floor(fy);
+        int k = (int) Math.floor(fz);
+        int ii = (i + 1) % repeatX;
+        int jj = (j + 1) % repeatY;
+        int kk = (k + 1) % repeatZ;
+
+        double relX = fx - Math.floor(fx);
+        double relY = fy - Math.floor(fy);
+        double relZ = fz - Math.floor(fz);
+        double sx = fade(relX);
+        double sy = fade(relY);
+        double sz = fade(relZ);
+
+        for (int c = 0; c < bases.length; c++) {
+            int base = bases[c];
+            double value;
+            if (base != 0) {
+                value = tileableCorners((i + base) % repeatX, (j + base) % repeatY, (k + base) % repeatZ,
+                        (ii + base) % repeatX, (jj + base) % repeatY, (kk + base) % repeatZ,
+                        relX, relY, relZ, sx, sy, sz, tables[c]);
+            } else {
+                value = tileableCorners(i, j, k, ii, jj, kk, relX, relY, relZ, sx, sy, sz, tables[c]);
+            }
+            dst[offset + c] += value * amplitude;
+        }
+    }
+
+    // Bulk grid evaluation.
+    // Sample (ix, iy[, iz]) is taken at x = originX + ix * stepX (likewise for y and z), so
+    // every value is bit-identical to the corresponding pnoise2/pnoise3 call at that point.
+    // Rows are walked one octave at a time and lattice hashes are reused while consecutive
+    // samples stay in the same cell. With jdk.incubator.vector enabled, rows go through
+    // VectorKernels instead (see SimdSupport).
+
+    /**
+     * Fills {@code out} with 2D Perlin fBm sampled on a regular grid, row-major
+     * ({@code out[iy * width + ix]}). Each value equals
+     * {@code pnoise2(originX + ix * stepX, originY + iy * stepY, octaves, persistence, lacunarity, base, permTable)}.
+     *
+     * @param out Destination array, at least {@code width * height} long.
+     */
+    public static void fillGrid2D(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        for (int iy = 0; iy < height; iy++) {
+            fbmRow2D(out, iy * width, originX, stepX, 0, width, originY + iy * stepY,
+                    octaves, persistence, lacunarity, base, permTable);
+        }
+    }
+
+    /**
+     * Single-precision output variant of
+     * {@link #fillGrid2D(double[], double, double, double, double, int, int, int, double, double, int, PermutationTable)}.
+     * Values are computed in double precision and narrowed on store.
+     */
+    public static void fillGrid2D(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        double[] row = new double[width];
+        for (int iy = 0; iy < height; iy++) {
+            fbmRow2D(row, 0, originX, stepX, 0, width, originY + iy * stepY,
+                    octaves, persistence, lacunarity, base, permTable);
+            int offset = iy * width;
+            for (int ix = 0; ix < width; ix++) {
+                out[offset + ix] = (float) row[ix];
+            }
+        }
+    }
+
+    /**
+     * Fills {@code out} with tileable 2D Perlin fBm sampled on a regular grid, row-major
+     * ({@code out[iy * width + ix]}). Each value equals
+     * {@code pnoise2(originX + ix * stepX, originY + iy * stepY, octaves, persistence, lacunarity, base,
+     * permTable, repeatX, repeatY)}. The x lattice work of every column is computed once per
+     * octave and shared by all rows, so a seamless tile costs about as much as
+     * {@link #fillGrid2D(double[], double, double, double, double, int, int, int, double, double, int, PermutationTable)}.
+     *
+     * @param out Destination array, at least {@code width * height} long.
+     */
+    public static void fillGrid2D(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable, int repeatX, int repeatY) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        checkRepeat(repeatX, repeatY);
+        TileableKernels.fillGrid2D(out, null, originX, originY, stepX, stepY, width, height, octaves, persistence,
+                lacunarity, base, permTable, repeatX, repeatY);
+    }
+
+    /**
+     * Single-precision output variant of
+     * {@link #fillGrid2D(double[], double, double, double, double, int, int, int, double, double, int, PermutationTable, int, int)}.
+     */
+    public static void fillGrid2D(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable, int repeatX, int repeatY) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        checkRepeat(repeatX, repeatY);
+        TileableKernels.fillGrid2D(null, out, originX, originY, stepX, stepY, width, height, octaves, persistence,
+                lacunarity, base, permTable, repeatX, repeatY);
+    }
+
+    /**
+     * Fills {@code out} with non-tiling 3D Perlin fBm sampled on a regular grid
+     * ({@code out[(iz * height + iy) * width + ix]}). Each value equals
+     * {@code pnoise3(originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ,
+     * octaves, persistence, lacunarity, base, permTable, 0, 0, 0)}.
+     *
+     * @param out Destination array, at least {@code width * height * depth} long.
+     */
+    public static void fillGrid3D(double[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                fbmRow3D(out, (iz * height + iy) * width, originX, stepX, 0, width, originY + iy * stepY, z,
+                        octaves, persistence, lacunarity, base, permTable);
+            }
+        }
+    }
+
+    /**
+     * Single-precision output variant of
+     * {@link #fillGrid3D(double[], double, double, double, double, double, double, int, int, int, int, double, double, int, PermutationTable)}.
+     */
+    public static void fillGrid3D(float[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        double[] row = new double[width];
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                fbmRow3D(row, 0, originX, stepX, 0, width, originY + iy * stepY, z,
+                        octaves, persistence, lacunarity, base, permTable);
+                int offset = (iz * height + iy) * width;
+                for (int ix = 0; ix < width; ix++) {
+                    out[offset + ix] = (float) row[ix];
+                }
+            }
+        }
+    }
+
+    // fBm over 'count' samples of one row starting at column ix0, written to dst[offset..].
+    static void fbmRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        fbmRow2D(dst, offset, originX, stepX, ix0, count, y, octaves, persistence, lacunarity, base, permTable, 0.0);
+    }
+
+    // As above with the octaves weighted for a sampling footprint (OctaveLod).
+    static void fbmRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable,
+            double footprint) {
+        double maxValue = octaveSumRow2D(dst, offset, originX, stepX, ix0, count, y, octaves, persistence,
+                lacunarity, base, permTable, footprint);
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    // The octave sum of fbmRow2D, not yet divided by the returned total amplitude, so callers
+    // can fold the normalization into their own store loop.
+    static double octaveSumRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        return octaveSumRow2D(dst, offset, originX, stepX, ix0, count, y, octaves, persistence, lacunarity, base,
+                permTable, 0.0);
+    }
+
+    static double octaveSumRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            int octaves, double persistence, double lacunarity, int base, PermutationTable permTable,
+            double footprint) {
+        Arrays.fill(dst, offset, offset + count, 0.0);
+        PermutationTable shifted = permTable.shifted(base);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weighted = amplitude * OctaveLod.weight(frequency, footprint);
+            // Culled octaves are skipped but still count in the normalization.
+            if (weighted != 0) {
+                if (SimdSupport.ENABLED) {
+                    VectorKernels.addPerlinRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, weighted, 0,
+                            shifted);
+                } else {
+                    addNoiseRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, weighted, 0, shifted);
+                }
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return maxValue;
+    }
+
+    static void fbmRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        fbmRow3D(dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence, lacunarity, base, permTable,
+                0.0);
+    }
+
+    static void fbmRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, int octaves, double persistence, double lacunarity, int base, PermutationTable permTable,
+            double footprint) {
+        double maxValue = octaveSumRow3D(dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence,
+                lacunarity, base, permTable, footprint);
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    // As octaveSumRow2D, for fbmRow3D.
+    static double octaveSumRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, int octaves, double persistence, double lacunarity, int base, PermutationTable permTable) {
+        return octaveSumRow3D(dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence, lacunarity, base,
+                permTable, 0.0);
+    }
+
+    static double octaveSumRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, int octaves, double persistence, double lacunarity, int base, PermutationTable permTable,
+            double footprint) {
+        Arrays.fill(dst, offset, offset + count, 0.0);
+        PermutationTable shifted = permTable.shifted(base);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weighted = amplitude * OctaveLod.weight(frequency, footprint);
+            // Culled octaves are skipped but still count in the normalization.
+            if (weighted != 0) {
+                if (SimdSupport.ENABLED) {
+                    VectorKernels.addPerlinRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, weighted,
+                            0, shifted);
+                } else {
+                    addNoiseRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, weighted, 0, shifted);
+                }
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return maxValue;
+    }
+
+    // One octave of noise(x, y, base, permTable) along a row, scaled by amplitude and added to dst.
+    static void addNoiseRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double frequency, double amplitude, int base, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        double fy = y * frequency;
+        int Y = latticeIndex((int) Math.floor(fy), base, period);
+        fy -= Math.floor(fy);
+        double v = fade(fy);
+
+        boolean haveCell = false;
+        int cell = 0;
+        int gA = 0, gB = 0, gA1 = 0, gB1 = 0;
+        for (int n = 0; n < count; n++) {
+            double x = (originX + (ix0 + n) * stepX) * frequency;
+            double floorX = Math.floor(x);
+            int cx = (int) floorX;
+            if (!haveCell || cx != cell) {
+                int X = latticeIndex(cx, base, period);
+                int A = permTable.getPerm(X) + Y;
+                int B = permTable.getPerm(X + 1) + Y;
+                gA = permTable.getPermMod12(A);
+                gB = permTable.getPermMod12(B);
+                gA1 = permTable.getPermMod12(A + 1);
+                gB1 = permTable.getPermMod12(B + 1);
+                cell = cx;
+                haveCell = true;
+            }
+            x -= floorX;
+            double u = fade(x);
+            dst[offset + n] += lerp(v, lerp(u, gradDot(gA, x, fy), gradDot(gB, x - 1, fy)),
+                    lerp(u, gradDot(gA1, x, fy - 1), gradDot(gB1, x - 1, fy - 1))) * amplitude;
+        }
+    }
+
+    static void addNoiseRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double z, double frequency, double amplitude, int base, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        double fy = y * frequency;
+        double fz = z * frequency;
+        int Y = latticeIndex((int) Math.floor(fy), base, period);
+        int Z = latticeIndex((int) Math.floor(fz), base, period);
+        fy -= Math.floor(fy);
+        fz -= Math.floor(fz);
+        double v = fade(fy);
+        double w = fade(fz);
+
+        boolean haveCell = false;
+        int cell = 0;
+        int gAA = 0, gBA = 0, gAB = 0, gBB = 0;
+        int gAA1 = 0, gBA1 = 0, gAB1 = 0, gBB1 = 0;
+        for (int n = 0; n < count; n++) {
+            double x = (originX + (ix0 + n) * stepX) * frequency;
+            double floorX = Math.floor(x);
+            int cx = (int) floorX;
+            if (!haveCell || cx != cell) {
+                int X = latticeIndex(cx, base, period);
+                int A = permTable.getPerm(X) + Y;
+                int AA = permTable.getPerm(A) + Z;
+                int AB = permTable.getPerm(A + 1) + Z;
+                int B = permTable.getPerm(X + 1) + Y;
+                int BA = permTable.getPerm(B) + Z;
+                int BB = permTable.getPerm(B + 1) + Z;
+                gAA = permTable.getPermMod12(AA);
+                gBA = permTable.getPermMod12(BA);
+                gAB = permTable.getPermMod12(AB);
+                gBB = permTable.getPermMod12(BB);
+                gAA1 = permTable.getPermMod12(AA + 1);
+                gBA1 = permTable.getPermMod12(BA + 1);
+                gAB1 = permTable.getPermMod12(AB + 1);
+                gBB1 = permTable.getPermMod12(BB + 1);
+                cell = cx;
+                haveCell = true;
+            }
+            x -= floorX;
+            double u = fade(x);
+            dst[offset + n] += lerp(w, lerp(v, lerp(u, gradDot(gAA, x, fy, fz), gradDot(gBA, x - 1, fy, fz)),
+                    lerp(u, gradDot(gAB, x, fy - 1, fz), gradDot(gBB, x - 1, fy - 1, fz))),
+                    lerp(v, lerp(u, gradDot(gAA1, x, fy, fz - 1), gradDot(gBA1, x - 1, fy, fz - 1)),
+                            lerp(u, gradDot(gAB1, x, fy - 1, fz - 1), gradDot(gBB1, x - 1, fy - 1, fz - 1))))
+                    * amplitude;
+        }
+    }
+
+}
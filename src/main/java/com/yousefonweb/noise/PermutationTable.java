@@ -5,11 +5,25 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class PermutationTable {
     private int[] p; // Doubled permutation array
+    private int[] pMod12; // p[i] % 12, the GRAD3 index used by Perlin and 2D/3D simplex
+    private int[] pMod32; // p[i] % 32, the GRAD4 index used by 4D simplex
     private int period;
 
+    // Tables derived by shifted(base), in SHIFT_CACHE_SETS sets of SHIFT_CACHE_WAYS entries chosen
+    // by the base reduced modulo the period; each set is ordered from most to least recently used.
+    // Each entry remembers the p array it was built from, so randomize() invalidates it.
+    static final int SHIFT_CACHE_SETS = 16;
+    static final int SHIFT_CACHE_WAYS = 4;
+    private final AtomicReferenceArray<ShiftedTable> shiftCache =
+            new AtomicReferenceArray<>(SHIFT_CACHE_SETS * SHIFT_CACHE_WAYS);
+
+    private record ShiftedTable(int[] source, int shift, PermutationTable table) {
+    }
+
     private static final int[] DEFAULT_PERMUTATION_TABLE = {
             151, 160, 137, 91, 90, 15, 131, 13, 201, 95, 96, 53, 194, 233, 7, 225, 140, 36, 103, 30, 69, 142, 8, 99, 37,
             240, 21, 10, 23,
@@ -54,6 +68,7 @@ public class PermutationTable {
             this.p[i] = permutationTable[i];
             this.p[i + this.period] = permutationTable[i];
         }
+        computeGradientIndices();
     }
 
     public void randomize(int newPeriod, Random random) {
@@ -73,6 +88,17 @@ public class PermutationTable {
             this.p[i] = permList.get(i);
             this.p[i + this.period] = permList.get(i);
         }
+        computeGradientIndices();
+    }
+
+    // Precomputes the gradient indices so lookups need no division; rebuilt with p.
+    private void computeGradientIndices() {
+        this.pMod12 = new int[p.length];
+        this.pMod32 = new int[p.length];
+        for (int i = 0; i < p.length; i++) {
+            this.pMod12[i] = p[i] % 12;
+            this.pMod32[i] = p[i] % 32;
+        }
     }
 
     public int getPeriod() {
@@ -106,10 +132,109 @@ public class PermutationTable {
         return p[i];
     }
 
+    /**
+     * Returns {@code getPerm(i) % 12}, the index into the first 12
+     * {@link NoiseConstants#GRAD3} gradients, from a precomputed table.
+     */
+    public int getPermMod12(int i) {
+        return pMod12[i];
+    }
+
+    /**
+     * Returns {@code getPerm(i) % 32}, the index into {@link NoiseConstants#GRAD4},
+     * from a precomputed table.
+     */
+    public int getPermMod32(int i) {
+        return pMod32[i];
+    }
+
     public int getPermModPeriod(int i) {
         return p[i % period]; // If we need to ensure index is within the first half
     }
 
+    /**
+     * Returns a new table that gives, with base 0, the same Perlin noise as this table with
+     * {@code base}: its permutation is this one rotated by {@code base}. Every lattice lookup
+     * shifts the cell by base modulo the period, and the shift carries through the nested
+     * lookups (the doubled array repeats with the period), so all hashes agree.
+     */
+    PermutationTable withBase(int base) {
+        int[] rotated = new int[period];
+        for (int i = 0; i < period; i++) {
+            rotated[i] = p[Math.floorMod(i + base, period)];
+        }
+        return new PermutationTable(rotated);
+    }
+
+    /**
+     * Returns a table that gives, with base 0, the same Perlin noise as this table with
+     * {@code base} (see {@link #withBase(int)}), so callers can drop the per-lookup base shift.
+     * Returns this table if the base is a multiple of the period.
+     *
+     * Derived tables are cached per base in a set-associative cache: bases with the same
+     * {@code floorMod(base, period) % SHIFT_CACHE_SETS} share a set of {@link #SHIFT_CACHE_WAYS}
+     * entries, and a new base evicts the least recently used one, so a few colliding bases do
+     * not rebuild their tables on every call. The cache is safe for concurrent readers; a race
+     * only builds a table twice or reorders a set. Randomizing this table discards the cached
+     * tables.
+     */
+    PermutationTable shifted(int base) {
+        int[] source = p;
+        int shift = Math.floorMod(base, period);
+        if (shift == 0) {
+            return this;
+        }
+        int first = (shift & (SHIFT_CACHE_SETS - 1)) * SHIFT_CACHE_WAYS;
+        for (int way = 0; way < SHIFT_CACHE_WAYS; way++) {
+            ShiftedTable cached = shiftCache.get(first + way);
+            if (cached != null && cached.shift == shift && cached.source == source) {
+                if (way > 0) {
+                    moveToFront(first, way, cached);
+                }
+                return cached.table;
+            }
+        }
+        PermutationTable table = withBase(shift);
+        moveToFront(first, SHIFT_CACHE_WAYS - 1, new ShiftedTable(source, shift, table));
+        return table;
+    }
+
+    // Puts entry first in the set starting at 'first', moving the entries before 'way' down one;
+    // the entry at 'way' is overwritten, which on a miss evicts the least recently used table.
+    private void moveToFront(int first, int way, ShiftedTable entry) {
+        for (int w = way; w > 0; w--) {
+            shiftCache.set(first + w, shiftCache.get(first + w - 1));
+        }
+        shiftCache.set(first, entry);
+    }
+
+    // Uncopied view of the doubled array for the bulk kernels; callers must not modify it.
+    int[] permArray() {
+        return p;
+    }
+
+    // Uncopied view of the doubled p[i] % 12 table, likewise.
+    int[] permMod12Array() {
+        return pMod12;
+    }
+
+    /**
+     * Returns a 64-bit hash of the current period and permutation. Tables with the same
+     * contents have the same fingerprint, so it identifies the noise a table produces, e.g. as
+     * part of a cache key; it changes when the table is {@link #randomize(int, Random) randomized}.
+     */
+    public long fingerprint() {
+        long h = 0xcbf29ce484222325L ^ period; // FNV-1a over the period and the first copy of p
+        for (int i = 0; i < period; i++) {
+            h = (h ^ p[i]) * 0x100000001b3L;
+        }
+        h ^= h >>> 33; // fmix64 so small differences spread over all bits
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
     /**
      * Returns a copy of the internal permutation array (which is doubled).
      * Primarily for testing or advanced use. Modifying the returned array
@@ -0,0 +1,161 @@
+package com.yousefonweb.noise;
+
+/**
+ * Maps noise values to small integers for compact storage: unsigned normalized codes, which
+ * spread [-1, 1] over the full range of an 8 or 16 bit unsigned integer, or signed fixed-point
+ * codes with a chosen number of fraction bits.
+ *
+ * A value {@code v} becomes the code {@code round((v + 1) * (2^bits - 1) / 2)} (unsigned) or
+ * {@code round(v * 2^fractionBits)} (fixed point), where {@link Rounding} selects the rounding.
+ * With clamping (the default) codes outside the integer range saturate; without it they keep
+ * their low {@code bits} bits, as a Java narrowing cast would, which is only meant for callers
+ * that know their values are in range and want the exact legacy mapping.
+ *
+ * The bulk {@link SegmentNoise} methods taking a quantizer encode each sample as it is
+ * normalized, so no double or float grid is ever built. Instances are immutable; the
+ * {@code with} methods return modified copies.
+ */
+public final class Quantizer {
+
+    /** How a scaled value is turned into an integer code. */
+    public enum Rounding {
+        /** To the nearest code, ties towards positive infinity ({@link Math#round(double)}). */
+        NEAREST,
+        /** Towards negative infinity. */
+        FLOOR,
+        /** Towards zero, like a Java cast. */
+        TRUNCATE
+    }
+
+    private final int bits;
+    private final boolean signed;
+    private final int fractionBits;
+    private final Rounding rounding;
+    private final boolean clamping;
+    // code = round((v + bias) * scale), limited to [minCode, maxCode].
+    private final double bias;
+    private final double scale;
+    private final long minCode;
+    private final long maxCode;
+
+    private Quantizer(int bits, boolean signed, int fractionBits, Rounding rounding, boolean clamping) {
+        this.bits = bits;
+        this.signed = signed;
+        this.fractionBits = fractionBits;
+        this.rounding = rounding;
+        this.clamping = clamping;
+        if (signed) {
+            this.bias = 0.0;
+            this.scale = Math.scalb(1.0, fractionBits);
+            this.minCode = -(1L << (bits - 1));
+            this.maxCode = (1L << (bits - 1)) - 1;
+        } else {
+            this.bias = 1.0;
+            this.scale = ((1L << bits) - 1) / 2.0;
+            this.minCode = 0;
+            this.maxCode = (1L << bits) - 1;
+        }
+    }
+
+    /**
+     * [-1, 1] to unsigned bytes 0..255 ({@code GL_R8}), rounding to nearest and clamping.
+     */
+    public static Quantizer unsigned8() {
+        return new Quantizer(8, false, 0, Rounding.NEAREST, true);
+    }
+
+    /**
+     * [-1, 1] to unsigned shorts 0..65535 ({@code GL_R16}), rounding to nearest and clamping.
+     */
+    public static Quantizer unsigned16() {
+        return new Quantizer(16, false, 0, Rounding.NEAREST, true);
+    }
+
+    /**
+     * Signed two's complement fixed point, rounding to nearest and clamping: {@code v} is stored
+     * as {@code round(v * 2^fractionBits)}. For example {@code fixedPoint(16, 14)} is Q1.14 and
+     * holds [-2, 2) in steps of 2^-14.
+     *
+     * @param bits         Code width: 8, 16 or 32.
+     * @param fractionBits Bits after the binary point, 0 to {@code bits - 1}.
+     */
+    public static Quantizer fixedPoint(int bits, int fractionBits) {
+        if (bits != 8 && bits != 16 && bits != 32) {
+            throw new IllegalArgumentException("Fixed-point codes must be 8, 16 or 32 bits wide.");
+        }
+        if (fractionBits < 0 || fractionBits >= bits) {
+            throw new IllegalArgumentException(
+                    "Fraction bits must be between 0 and " + (bits - 1) + ", not " + fractionBits + ".");
+        }
+        return new Quantizer(bits, true, fractionBits, Rounding.NEAREST, true);
+    }
+
+    public Quantizer withRounding(Rounding rounding) {
+        if (rounding == null) {
+            throw new IllegalArgumentException("Rounding must not be null.");
+        }
+        return new Quantizer(bits, signed, fractionBits, rounding, clamping);
+    }
+
+    public Quantizer withClamping(boolean clamping) {
+        return new Quantizer(bits, signed, fractionBits, rounding, clamping);
+    }
+
+    /**
+     * Returns the code of {@code value}. Unsigned codes are returned as non-negative ints
+     * (0..255 or 0..65535), signed codes sign-extended.
+     */
+    public int quantize(double value) {
+        double scaled = (value + bias) * scale;
+        long code = switch (rounding) {
+            case NEAREST -> Math.round(scaled);
+            case FLOOR -> (long) Math.floor(scaled);
+            case TRUNCATE -> (long) scaled;
+        };
+        if (clamping) {
+            return (int) Math.max(minCode, Math.min(maxCode, code));
+        }
+        return signed ? (int) (code << (64 - bits) >> (64 - bits)) : (int) (code & maxCode);
+    }
+
+    /**
+     * Returns the value a code stands for, the inverse of {@link #quantize} up to rounding.
+     * Only the low {@code bits} bits of {@code code} are used.
+     */
+    public double dequantize(int code) {
+        if (signed) {
+            return (code << (32 - bits) >> (32 - bits)) / scale;
+        }
+        return (code & maxCode) / scale - bias;
+    }
+
+    public int bits() {
+        return bits;
+    }
+
+    public int bytesPerSample() {
+        return bits / 8;
+    }
+
+    public boolean isSigned() {
+        return signed;
+    }
+
+    /** Fraction bits of a fixed-point quantizer; 0 for unsigned normalized codes. */
+    public int fractionBits() {
+        return fractionBits;
+    }
+
+    public Rounding rounding() {
+        return rounding;
+    }
+
+    public boolean isClamping() {
+        return clamping;
+    }
+
+    /** Largest difference between a value in range and its decoded code. */
+    public double maxError() {
+        return (rounding == Rounding.NEAREST ? 0.5 : 1.0) / scale;
+    }
+}
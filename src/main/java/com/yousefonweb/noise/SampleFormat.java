@@ -0,0 +1,37 @@
+package com.yousefonweb.noise;
+
+/**
+ * Encodings for noise samples written to off-heap memory by {@link SegmentNoise}.
+ *
+ * All multi-byte values are stored in native byte order, which is what GL uploads and native
+ * code expect. The unsigned formats map the fBm range [-1, 1] linearly onto the full integer
+ * range, rounding to nearest and clamping ({@link Quantizer#unsigned16()},
+ * {@link Quantizer#unsigned8()}), the same mapping {@link NormalMapBaker} uses for its byte texels.
+ */
+public enum SampleFormat {
+    /** IEEE single precision, narrowed from the double result ({@code GL_FLOAT}). */
+    FLOAT32(4, null),
+    /** IEEE double precision, the exact value of the scalar functions. */
+    FLOAT64(8, null),
+    /** [-1, 1] mapped to 0..65535 ({@code GL_UNSIGNED_SHORT}, {@code GL_R16}). */
+    UINT16(2, Quantizer.unsigned16()),
+    /** [-1, 1] mapped to 0..255 ({@code GL_UNSIGNED_BYTE}, {@code GL_R8}). */
+    UINT8(1, Quantizer.unsigned8());
+
+    private final int bytesPerSample;
+    private final Quantizer quantizer;
+
+    SampleFormat(int bytesPerSample, Quantizer quantizer) {
+        this.bytesPerSample = bytesPerSample;
+        this.quantizer = quantizer;
+    }
+
+    public int bytesPerSample() {
+        return bytesPerSample;
+    }
+
+    // The encoding of the unsigned formats; null for the float formats.
+    Quantizer quantizer() {
+        return quantizer;
+    }
+}
@@ -0,0 +1,232 @@
+package com.yousefonweb.noise;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Bulk Perlin and simplex fBm written straight into a {@link MemorySegment}, so large fields can
+ * live off-heap (an {@link java.lang.foreign.Arena} allocation, a mapped file, memory owned by
+ * native code) and be handed to GL without an intermediate copy.
+ *
+ * Samples are laid out row-major like the array {@code fillGrid} methods: sample
+ * {@code (ix, iy[, iz])} has index {@code n = (iz * height + iy) * width + ix} and is written
+ * as one {@link SampleFormat} value, or one {@link Quantizer} code of
+ * {@code quantizer.bytesPerSample()} bytes, at byte {@code offset + n * stride}. All values are
+ * in native byte order. A stride larger than the sample size leaves the bytes in between
+ * untouched, which allows interleaving several fields (one channel each) in the same segment.
+ * Neither the offset nor the stride needs to be aligned. On-heap arrays can be filled through
+ * {@link MemorySegment#ofArray(short[])} and its siblings.
+ *
+ * Values are computed one row at a time by the same row kernels as
+ * {@code PerlinNoise.fillGrid2D/3D} and {@code SimplexNoise.fillGrid2D/3D}, and each sample is
+ * normalized and encoded in a single pass over the row, so {@code FLOAT64} samples are
+ * bit-identical to those methods, {@code FLOAT32} samples to their float variants, and integer
+ * codes to quantizing those values. Only a row of {@code width} doubles (times the channel count)
+ * is held on the heap, whatever the grid size.
+ */
+public final class SegmentNoise {
+
+    private static final ValueLayout.OfFloat FLOAT_LAYOUT = ValueLayout.JAVA_FLOAT_UNALIGNED;
+    private static final ValueLayout.OfDouble DOUBLE_LAYOUT = ValueLayout.JAVA_DOUBLE_UNALIGNED;
+    private static final ValueLayout.OfShort SHORT_LAYOUT = ValueLayout.JAVA_SHORT_UNALIGNED;
+    private static final ValueLayout.OfInt INT_LAYOUT = ValueLayout.JAVA_INT_UNALIGNED;
+
+    private SegmentNoise() {
+    }
+
+    /**
+     * Fills {@code out} with 2D fBm sampled at
+     * {@code (originX + ix * stepX, originY + iy * stepY)}.
+     *
+     * @param out    Writable destination segment.
+     * @param offset Byte offset of the first sample.
+     * @param stride Bytes between consecutive samples, at least {@code format.bytesPerSample()}.
+     * @param base   Permutation base for {@link NoiseType#PERLIN}; ignored for simplex.
+     */
+    public static void fillGrid2D(MemorySegment out, long offset, long stride, SampleFormat format, NoiseType type,
+            double originX, double originY, double stepX, double stepY, int width, int height, int octaves,
+            double persistence, double lacunarity, int base, PermutationTable permTable) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format must not be null.");
+        }
+        fill(out, offset, stride, format, format.quantizer(), type, originX, originY, 0.0, stepX, stepY, 0.0,
+                width, height, 1, false, octaves, persistence, lacunarity, base, permTable);
+    }
+
+    /**
+     * Quantized variant of
+     * {@link #fillGrid2D(MemorySegment, long, long, SampleFormat, NoiseType, double, double, double, double, int, int, int, double, double, int, PermutationTable)}:
+     * each sample is stored as {@code quantizer.quantize(value)} in
+     * {@code quantizer.bytesPerSample()} bytes.
+     */
+    public static void fillGrid2D(MemorySegment out, long offset, long stride, Quantizer quantizer, NoiseType type,
+            double originX, double originY, double stepX, double stepY, int width, int height, int octaves,
+            double persistence, double lacunarity, int base, PermutationTable permTable) {
+        checkQuantizer(quantizer);
+        fill(out, offset, stride, null, quantizer, type, originX, originY, 0.0, stepX, stepY, 0.0,
+                width, height, 1, false, octaves, persistence, lacunarity, base, permTable);
+    }
+
+    /**
+     * Fills {@code out} with 3D fBm sampled at
+     * {@code (originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ)}; Perlin samples
+     * are non-tiling ({@code pnoise3} with zero repeats).
+     *
+     * @see #fillGrid2D(MemorySegment, long, long, SampleFormat, NoiseType, double, double, double, double, int, int, int, double, double, int, PermutationTable)
+     */
+    public static void fillGrid3D(MemorySegment out, long offset, long stride, SampleFormat format, NoiseType type,
+            double originX, double originY, double originZ, double stepX, double stepY, double stepZ, int width,
+            int height, int depth, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format must not be null.");
+        }
+        fill(out, offset, stride, format, format.quantizer(), type, originX, originY, originZ, stepX, stepY, stepZ,
+                width, height, depth, true, octaves, persistence, lacunarity, base, permTable);
+    }
+
+    /**
+     * Quantized variant of
+     * {@link #fillGrid3D(MemorySegment, long, long, SampleFormat, NoiseType, double, double, double, double, double, double, int, int, int, int, double, double, int, PermutationTable)}.
+     */
+    public static void fillGrid3D(MemorySegment out, long offset, long stride, Quantizer quantizer, NoiseType type,
+            double originX, double originY, double originZ, double stepX, double stepY, double stepZ, int width,
+            int height, int depth, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable) {
+        checkQuantizer(quantizer);
+        fill(out, offset, stride, null, quantizer, type, originX, originY, originZ, stepX, stepY, stepZ,
+                width, height, depth, true, octaves, persistence, lacunarity, base, permTable);
+    }
+
+    /**
+     * Quantized multi-channel 3D Perlin fBm, the segment counterpart of
+     * {@link PerlinNoise#fillGrid3DChannels}: the code of channel {@code c} of sample {@code n} is
+     * stored at byte {@code offset + n * stride + c * quantizer.bytesPerSample()} and equals
+     * {@code quantizer.quantize(pnoise3(..., bases[c], tables[c], repeatX, repeatY, repeatZ))}.
+     * Tileable grids go through the same wrap-table row engine as the array method.
+     *
+     * @param stride Bytes per sample, at least {@code bases.length * quantizer.bytesPerSample()}.
+     */
+    public static void fillGrid3DChannels(MemorySegment out, long offset, long stride, Quantizer quantizer,
+            double originX, double originY, double originZ, double stepX, double stepY, double stepZ, int width,
+            int height, int depth, int octaves, double persistence, double lacunarity, int[] bases,
+            PermutationTable[] tables, int repeatX, int repeatY, int repeatZ) {
+        checkQuantizer(quantizer);
+        int channels = GridUtil.checkChannels(bases, tables);
+        int bytes = quantizer.bytesPerSample();
+        GridUtil.checkSegmentGrid(out, offset, stride, channels * bytes, width, height, depth);
+        PerlinNoise.channelRows3D((row, maxValue, rowIndex) ->
+                storeRow(out, offset + (long) rowIndex * width * stride, stride, null, quantizer, row, width, channels,
+                        maxValue),
+                originX, originY, originZ, stepX, stepY, stepZ, width, height, depth, octaves, persistence,
+                lacunarity, bases, tables, repeatX, repeatY, repeatZ);
+    }
+
+    private static void checkQuantizer(Quantizer quantizer) {
+        if (quantizer == null) {
+            throw new IllegalArgumentException("Quantizer must not be null.");
+        }
+    }
+
+    // Shared body of the single-channel methods. 'format' selects a float encoding and is
+    // ignored when 'quantizer' is set.
+    private static void fill(MemorySegment out, long offset, long stride, SampleFormat format, Quantizer quantizer,
+            NoiseType type, double originX, double originY, double originZ, double stepX, double stepY,
+            double stepZ, int width, int height, int depth, boolean is3D, int octaves, double persistence,
+            double lacunarity, int base, PermutationTable permTable) {
+        if (type == null || permTable == null) {
+            throw new IllegalArgumentException("Noise type and permutation table must not be null.");
+        }
+        int bytes = quantizer != null ? quantizer.bytesPerSample() : format.bytesPerSample();
+        GridUtil.checkSegmentGrid(out, offset, stride, bytes, width, height, depth);
+        long position = offset;
+        for (int iz = 0; iz < depth; iz++) {
+            fillRows(out, position, stride, width * stride, format, quantizer, type, originX, originY,
+                    originZ + iz * stepZ, stepX, stepY, 0, 0, width, height, is3D, octaves, persistence, lacunarity,
+                    base, permTable);
+            position += (long) height * width * stride;
+        }
+    }
+
+    /**
+     * Fills the rectangle of columns {@code [ix0, ix0 + count)} and rows {@code [iy0, iy0 + rows)}
+     * of the 2D grid of
+     * {@link #fillGrid2D(MemorySegment, long, long, SampleFormat, NoiseType, double, double, double, double, int, int, int, double, double, int, PermutationTable)}
+     * (one plane at {@code z} of the 3D grid if {@code is3D}), with sample {@code (ix0, iy0)} at
+     * byte {@code position} and consecutive rows {@code rowPitch} bytes apart. Samples keep
+     * their grid coordinates, so a grid assembled from such rectangles is bit-identical to one
+     * filled in a single call. Arguments are not validated beyond the segment's bounds checks.
+     */
+    static void fillRows(MemorySegment out, long position, long stride, long rowPitch, SampleFormat format,
+            Quantizer quantizer, NoiseType type, double originX, double originY, double z, double stepX,
+            double stepY, int ix0, int iy0, int count, int rows, boolean is3D, int octaves, double persistence,
+            double lacunarity, int base, PermutationTable permTable) {
+        double[] row = new double[count];
+        for (int iy = iy0; iy < iy0 + rows; iy++) {
+            double y = originY + iy * stepY;
+            double maxValue;
+            if (type == NoiseType.PERLIN) {
+                maxValue = is3D
+                        ? PerlinNoise.octaveSumRow3D(row, 0, originX, stepX, ix0, count, y, z, octaves,
+                                persistence, lacunarity, base, permTable)
+                        : PerlinNoise.octaveSumRow2D(row, 0, originX, stepX, ix0, count, y, octaves,
+                                persistence, lacunarity, base, permTable);
+            } else {
+                maxValue = is3D
+                        ? SimplexNoise.octaveSumRow3D(row, 0, originX, stepX, ix0, count, y, z, octaves,
+                                persistence, lacunarity, permTable)
+                        : SimplexNoise.octaveSumRow2D(row, 0, originX, stepX, ix0, count, y, octaves,
+                                persistence, lacunarity, permTable);
+            }
+            storeRow(out, position, stride, format, quantizer, row, count, 1, maxValue);
+            position += rowPitch;
+        }
+    }
+
+    // Normalizes and encodes 'count' samples of 'channels' values each, row[n * channels + c] /
+    // maxValue, to byte position + n * stride + c * sampleBytes. The switch sits outside the
+    // loops so each encoding gets its own tight store loop.
+    private static void storeRow(MemorySegment out, long position, long stride, SampleFormat format,
+            Quantizer quantizer, double[] row, int count, int channels, double maxValue) {
+        int k = 0;
+        if (quantizer == null) {
+            if (format == SampleFormat.FLOAT32) {
+                for (int n = 0; n < count; n++, position += stride) {
+                    for (int c = 0; c < channels; c++) {
+                        out.set(FLOAT_LAYOUT, position + c * 4L, (float) (row[k++] / maxValue));
+                    }
+                }
+            } else {
+                for (int n = 0; n < count; n++, position += stride) {
+                    for (int c = 0; c < channels; c++) {
+                        out.set(DOUBLE_LAYOUT, position + c * 8L, row[k++] / maxValue);
+                    }
+                }
+            }
+            return;
+        }
+        switch (quantizer.bytesPerSample()) {
+            case 1 -> {
+                for (int n = 0; n < count; n++, position += stride) {
+                    for (int c = 0; c < channels; c++) {
+                        out.set(ValueLayout.JAVA_BYTE, position + c, (byte) quantizer.quantize(row[k++] / maxValue));
+                    }
+                }
+            }
+            case 2 -> {
+                for (int n = 0; n < count; n++, position += stride) {
+                    for (int c = 0; c < channels; c++) {
+                        out.set(SHORT_LAYOUT, position + c * 2L, (short) quantizer.quantize(row[k++] / maxValue));
+                    }
+                }
+            }
+            default -> {
+                for (int n = 0; n < count; n++, position += stride) {
+                    for (int c = 0; c < channels; c++) {
+                        out.set(INT_LAYOUT, position + c * 4L, quantizer.quantize(row[k++] / maxValue));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.yousefonweb.noise;
+
+/**
+ * Decides once per JVM whether the bulk grid methods may use {@link VectorKernels} and
+ * {@link FloatVectorKernels}.
+ *
+ * The vector path needs the incubating {@code jdk.incubator.vector} module, which is only
+ * resolved when the application is started with {@code --add-modules jdk.incubator.vector}.
+ * When it is missing, or when {@code -Dcom.yousefonweb.noise.simd=false} is set, the scalar
+ * kernels are used and neither kernel class is loaded.
+ */
+final class SimdSupport {
+
+    static final String PROPERTY = "com.yousefonweb.noise.simd";
+
+    static final boolean ENABLED = detect();
+
+    private SimdSupport() {
+    }
+
+    private static boolean detect() {
+        if (!Boolean.parseBoolean(System.getProperty(PROPERTY, "true"))) {
+            return false;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorKernels.isUsable() && FloatVectorKernels.isUsable();
+        } catch (LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -2,14 +2,17 @@ package com.yousefonweb.noise;
 
 import static com.yousefonweb.noise.NoiseConstants.*;
 
+import java.util.Arrays;
+
 public class SimplexNoise {
 
     private static final PermutationTable DEFAULT_PERMUTATION_TABLE = new PermutationTable();
     private static final double DEFAULT_PERSISTENCE = 0.5;
     private static final double DEFAULT_LACUNARITY = 2.0;
+    private static final double TWO_PI = 2 * Math.PI;
 
     // Simplex noise 2D
-    private static double noise2(double x, double y, PermutationTable permTable) {
+    static double noise2(double x, double y, PermutationTable permTable) {
         double n = 0.0;
         double s = (x + y) * F2;
         int i = (int) Math.floor(x + s);
@@ -33,32 +36,32 @@ public class SimplexNoise {
         int ii = i % permTable.getPeriod(); if (ii < 0) ii += permTable.getPeriod();
         int jj = j % permTable.getPeriod(); if (jj < 0) jj += permTable.getPeriod();
 
-        int gi0 = permTable.getPerm(ii + permTable.getPerm(jj)) % 12;
-        int gi1 = permTable.getPerm(ii + i1 + permTable.getPerm(jj + j1)) % 12;
-        int gi2 = permTable.getPerm(ii + 1 + permTable.getPerm(jj + 1)) % 12;
+        int gi0 = permTable.getPermMod12(ii + permTable.getPerm(jj));
+        int gi1 = permTable.getPermMod12(ii + i1 + permTable.getPerm(jj + j1));
+        int gi2 = permTable.getPermMod12(ii + 1 + permTable.getPerm(jj + 1));
         
         double t0 = 0.5 - x0 * x0 - y0 * y0;
         if (t0 > 0) {
             t0 *= t0;
-            n += t0 * t0 * dot(GRAD3[gi0], x0, y0);
+            n += t0 * t0 * gradDot(gi0, x0, y0);
         }
 
         double t1 = 0.5 - x1 * x1 - y1 * y1;
         if (t1 > 0) {
             t1 *= t1;
-            n += t1 * t1 * dot(GRAD3[gi1], x1, y1);
+            n += t1 * t1 * gradDot(gi1, x1, y1);
         }
 
         double t2 = 0.5 - x2 * x2 - y2 * y2;
         if (t2 > 0) {
             t2 *= t2;
-            n += t2 * t2 * dot(GRAD3[gi2], x2, y2);
+            n += t2 * t2 * gradDot(gi2, x2, y2);
         }
         return 70.0 * n; // Scale to cover [-1, 1]
     }
 
     // Simplex noise 3D
-    private static double noise3(double x, double y, double z, PermutationTable permTable) {
+    static double noise3(double x, double y, double z, PermutationTable permTable) {
         double n = 0.0;
         double s = (x + y + z) * F3;
         int i = (int) Math.floor(x + s);
@@ -96,38 +99,45 @@ public class SimplexNoise {
         int jj = j % permTable.getPeriod(); if (jj < 0) jj += permTable.getPeriod();
         int kk = k % permTable.getPeriod(); if (kk < 0) kk += permTable.getPeriod();
         
-        int gi0 = permTable.getPerm(ii + permTable.getPerm(jj + permTable.getPerm(kk))) % 12;
-        int gi1 = permTable.getPerm(ii + i1 + permTable.getPerm(jj + j1 + permTable.getPerm(kk + k1))) % 12;
-        int gi2 = permTable.getPerm(ii + i2 + permTable.getPerm(jj + j2 + permTable.getPerm(kk + k2))) % 12;
-        int gi3 = permTable.getPerm(ii + 1 + permTable.getPerm(jj + 1 + permTable.getPerm(kk + 1))) % 12;
+        int gi0 = permTable.getPermMod12(ii + permTable.getPerm(jj + permTable.getPerm(kk)));
+        int gi1 = permTable.getPermMod12(ii + i1 + permTable.getPerm(jj + j1 + permTable.getPerm(kk + k1)));
+        int gi2 = permTable.getPermMod12(ii + i2 + permTable.getPerm(jj + j2 + permTable.getPerm(kk + k2)));
+        int gi3 = permTable.getPermMod12(ii + 1 + permTable.getPerm(jj + 1 + permTable.getPerm(kk + 1)));
 
         double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0;
         if (t0 > 0) {
             t0 *= t0;
-            n += t0 * t0 * dot(GRAD3[gi0], x0, y0, z0);
+            n += t0 * t0 * gradDot(gi0, x0, y0, z0);
         }
         double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
         if (t1 > 0) {
             t1 *= t1;
-            n += t1 * t1 * dot(GRAD3[gi1], x1, y1, z1);
+            n += t1 * t1 * gradDot(gi1, x1, y1, z1);
         }
         double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
         if (t2 > 0) {
             t2 *= t2;
-            n += t2 * t2 * dot(GRAD3[gi2], x2, y2, z2);
+            n += t2 * t2 * gradDot(gi2, x2, y2, z2);
         }
         double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
         if (t3 > 0) {
             t3 *= t3;
-            n += t3 * t3 * dot(GRAD3[gi3], x3, y3, z3);
+            n += t3 * t3 * gradDot(gi3, x3, y3, z3);
         }
         return 32.0 * n; // Scale to cover [-1, 1]
     }
 
-    // Simplex noise 4D (standard algorithm, constants F4, G4, GRAD4, SIMPLEX)
-    private static double noise4(double x, double y, double z, double w, PermutationTable permTable) {
-        double n0, n1, n2, n3, n4; // Noise contributions from five corners
-        
+    // GRAD3 index noise3 uses for the corner at skewed lattice point (i, j, k).
+    static int gradient3(int i, int j, int k, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        int ii = Math.floorMod(i, period);
+        int jj = Math.floorMod(j, period);
+        int kk = Math.floorMod(k, period);
+        return permTable.getPermMod12(ii + permTable.getPerm(jj + permTable.getPerm(kk)));
+    }
+
+    // Simplex noise 4D (standard algorithm, constants F4, G4, GRAD4)
+    static double noise4(double x, double y, double z, double w, PermutationTable permTable) {
         // Skew the (x,y,z,w) space to determine which cell of 24 simplices we're in
         double s = (x + y + z + w) * F4; // Factor for 4D skewing
         int i = (int)Math.floor(x + s);
@@ -147,31 +157,36 @@ public class SimplexNoise {
         double w0 = w - W0;
         
         // For the 4D case, the simplex is a 4D shape called a pentachoron.
-        // It has 5 vertices. Identify the 4 simplices surrounding the input point.
-        // Determine which simplex we are in.
-        int c = (x0 > y0 ? 32 : 0) + (x0 > z0 ? 16 : 0) + (y0 > z0 ? 8 : 0) + (x0 > w0 ? 4 : 0) + (y0 > w0 ? 2 : 0) + (z0 > w0 ? 1 : 0);
+        // It has 5 vertices. Determine which simplex we are in by ranking the coordinates:
+        // each rank (0-3) counts the other coordinates it exceeds, which is exactly the
+        // NoiseConstants.SIMPLEX entry selected by the same six comparisons. Counting avoids
+        // the table lookup and keeps the comparisons as flags rather than branches.
+        int xy = x0 > y0 ? 1 : 0;
+        int xz = x0 > z0 ? 1 : 0;
+        int yz = y0 > z0 ? 1 : 0;
+        int xw = x0 > w0 ? 1 : 0;
+        int yw = y0 > w0 ? 1 : 0;
+        int zw = z0 > w0 ? 1 : 0;
+        int rankX = xy + xz + xw;
+        int rankY = (1 - xy) + yz + yw;
+        int rankZ = (1 - xz) + (1 - yz) + zw;
+        int rankW = (1 - xw) + (1 - yw) + (1 - zw);
         
-        int i1 = SIMPLEX[c][0] >= 3 ? 1 : 0; 
-        int j1 = SIMPLEX[c][1] >= 3 ? 1 : 0; 
-        int k1 = SIMPLEX[c][2] >= 3 ? 1 : 0; 
-        int l1 = SIMPLEX[c][3] >= 3 ? 1 : 0;
+        // The second, third and fourth vertices step along the axes ranked >= 3, >= 2 and >= 1.
+        int i1 = (rankX + 1) >> 2;
+        int j1 = (rankY + 1) >> 2;
+        int k1 = (rankZ + 1) >> 2;
+        int l1 = (rankW + 1) >> 2;
         
-        int i2 = SIMPLEX[c][0] >= 2 ? 1 : 0; 
-        int j2 = SIMPLEX[c][1] >= 2 ? 1 : 0; 
-        int k2 = SIMPLEX[c][2] >= 2 ? 1 : 0; 
-        int l2 = SIMPLEX[c][3] >= 2 ? 1 : 0;
+        int i2 = (rankX + 2) >> 2;
+        int j2 = (rankY + 2) >> 2;
+        int k2 = (rankZ + 2) >> 2;
+        int l2 = (rankW + 2) >> 2;
         
-        int i3 = SIMPLEX[c][0] >= 1 ? 1 : 0; 
-        int j3 = SIMPLEX[c][1] >= 1 ? 1 : 0; 
-        int k3 = SIMPLEX[c][2] >= 1 ? 1 : 0; 
-        int l3 = SIMPLEX[c][3] >= 1 ? 1 : 0;
-        
-        // simplex[c] is a 4-vector with values in 0,1,2,3 indicating the order of axes.
-        // For example, if simplex[c] = (2,3,1,0), then x_offset_order = (k,l,j,i)
-        // The code above (i1,j1...i3,j3...) is a common way to determine offsets for the other 4 vertices.
-        // This specific mapping might need verification against a known working 4D simplex source.
-        // A more direct interpretation:
-        // int c1 = simplex[c][0]; int c2 = simplex[c][1]; int c3 = simplex[c][2]; int c4 = simplex[c][3];
+        int i3 = (rankX + 3) >> 2;
+        int j3 = (rankY + 3) >> 2;
+        int k3 = (rankZ + 3) >> 2;
+        int l3 = (rankW + 3) >> 2;
 
         double x1 = x0 - i1 + G4;
         double y1 = y0 - j1 + G4;
@@ -196,50 +211,37 @@ public class SimplexNoise {
         int kk = k % permTable.getPeriod(); if (kk < 0) kk += permTable.getPeriod();
         int ll = l % permTable.getPeriod(); if (ll < 0) ll += permTable.getPeriod();
         
-        int gi0 = permTable.getPerm(ii + permTable.getPerm(jj + permTable.getPerm(kk + permTable.getPerm(ll)))) % 32;
-        int gi1 = permTable.getPerm(ii + i1 + permTable.getPerm(jj + j1 + permTable.getPerm(kk + k1 + permTable.getPerm(ll + l1)))) % 32;
-        int gi2 = permTable.getPerm(ii + i2 + permTable.getPerm(jj + j2 + permTable.getPerm(kk + k2 + permTable.getPerm(ll + l2)))) % 32;
-        int gi3 = permTable.getPerm(ii + i3 + permTable.getPerm(jj + j3 + permTable.getPerm(kk + k3 + permTable.getPerm(ll + l3)))) % 32;
-        int gi4 = permTable.getPerm(ii + 1 + permTable.getPerm(jj + 1 + permTable.getPerm(kk + 1 + permTable.getPerm(ll + 1)))) % 32;
+        int gi0 = permTable.getPermMod32(ii + permTable.getPerm(jj + permTable.getPerm(kk + permTable.getPerm(ll))));
+        int gi1 = permTable.getPermMod32(ii + i1 + permTable.getPerm(jj + j1 + permTable.getPerm(kk + k1 + permTable.getPerm(ll + l1))));
+        int gi2 = permTable.getPermMod32(ii + i2 + permTable.getPerm(jj + j2 + permTable.getPerm(kk + k2 + permTable.getPerm(ll + l2))));
+        int gi3 = permTable.getPermMod32(ii + i3 + permTable.getPerm(jj + j3 + permTable.getPerm(kk + k3 + permTable.getPerm(ll + l3))));
+        int gi4 = permTable.getPermMod32(ii + 1 + permTable.getPerm(jj + 1 + permTable.getPerm(kk + 1 + permTable.getPerm(ll + 1))));
         
-        // Calculate the contribution from the five corners
-        double t0 = 0.6 - x0*x0 - y0*y0 - z0*z0 - w0*w0;
-        if (t0 < 0) n0 = 0.0;
-        else {
-            t0 *= t0;
-            n0 = t0 * t0 * dot(GRAD4[gi0], x0, y0, z0, w0);
-        }
+        // Calculate the contribution from the five corners. A corner outside the kernel radius
+        // is clamped to zero weight instead of skipped: whether it is skipped depends on where
+        // the point falls, so the branch would be taken at random.
+        double n = 0.0;
+        double t0 = Math.max(0.6 - x0*x0 - y0*y0 - z0*z0 - w0*w0, 0.0);
+        t0 *= t0;
+        n += t0 * t0 * grad4Dot(gi0, x0, y0, z0, w0);
         
-        double t1 = 0.6 - x1*x1 - y1*y1 - z1*z1 - w1*w1;
-        if (t1 < 0) n1 = 0.0;
-        else {
-            t1 *= t1;
-            n1 = t1 * t1 * dot(GRAD4[gi1], x1, y1, z1, w1);
-        }
+        double t1 = Math.max(0.6 - x1*x1 - y1*y1 - z1*z1 - w1*w1, 0.0);
+        t1 *= t1;
+        n += t1 * t1 * grad4Dot(gi1, x1, y1, z1, w1);
         
-        double t2 = 0.6 - x2*x2 - y2*y2 - z2*z2 - w2*w2;
-        if (t2 < 0) n2 = 0.0;
-        else {
-            t2 *= t2;
-            n2 = t2 * t2 * dot(GRAD4[gi2], x2, y2, z2, w2);
-        }
+        double t2 = Math.max(0.6 - x2*x2 - y2*y2 - z2*z2 - w2*w2, 0.0);
+        t2 *= t2;
+        n += t2 * t2 * grad4Dot(gi2, x2, y2, z2, w2);
         
-        double t3 = 0.6 - x3*x3 - y3*y3 - z3*z3 - w3*w3;
-        if (t3 < 0) n3 = 0.0;
-        else {
-            t3 *= t3;
-            n3 = t3 * t3 * dot(GRAD4[gi3], x3, y3, z3, w3);
-        }
+        double t3 = Math.max(0.6 - x3*x3 - y3*y3 - z3*z3 - w3*w3, 0.0);
+        t3 *= t3;
+        n += t3 * t3 * grad4Dot(gi3, x3, y3, z3, w3);
         
-        double t4 = 0.6 - x4*x4 - y4*y4 - z4*z4 - w4*w4;
-        if (t4 < 0) n4 = 0.0;
-        else {
-            t4 *= t4;
-            n4 = t4 * t4 * dot(GRAD4[gi4], x4, y4, z4, w4);
-        }
+        double t4 = Math.max(0.6 - x4*x4 - y4*y4 - z4*z4 - w4*w4, 0.0);
+        t4 *= t4;
+        n += t4 * t4 * grad4Dot(gi4, x4, y4, z4, w4);
         
-        // Sum contributions from the five corners
-        return 27.0 * (n0 + n1 + n2 + n3 + n4); // Arbitrary scaling factor. May need adjustment for [-1,1]
+        return 27.0 * n; // Arbitrary scaling factor. May need adjustment for [-1,1]
     }
 
 
@@ -260,6 +262,33 @@ public class SimplexNoise {
         // The fBm sum might exceed this. Normalization by maxValue ensures it.
         return total / maxValue;
     }
+
+    /**
+     * Level-of-detail variant of
+     * {@link #snoise2(double, double, int, double, double, PermutationTable)}
+     * for a result sampled every {@code footprint} units; octaves are culled as in
+     * {@link PerlinNoise#pnoise2(double, double, int, double, double, int, PermutationTable, double)}.
+     */
+    public static double snoise2(double x, double y, int octaves, double persistence, double lacunarity,
+            PermutationTable permTable, double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequency, footprint);
+            if (weight > 0) {
+                total += noise2(x * frequency, y * frequency, permTable) * (amplitude * weight);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
     public static double snoise2(double x, double y, int octaves) {
         return snoise2(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, DEFAULT_PERMUTATION_TABLE);
     }
@@ -267,6 +296,43 @@ public class SimplexNoise {
         return snoise2(x,y,1);
     }
 
+    // Seamless 2D simplex noise.
+    // The plane is wrapped onto a torus in 4D: x goes round a circle of circumference repeatX in
+    // the first two coordinates and y round one of circumference repeatY in the last two, and
+    // snoise4 is sampled there. The result is periodic for any lacunarity, with features about
+    // the size of snoise2's.
+
+    /**
+     * Seamless 2D simplex fBm, periodic with {@code repeatX} in x and {@code repeatY} in y: equals
+     * {@code snoise4(rx * cos(ax), rx * sin(ax), ry * cos(ay), ry * sin(ay), octaves, persistence,
+     * lacunarity, permTable)} with {@code ax = x * (2 * PI / repeatX)}, {@code rx = repeatX / (2 * PI)},
+     * and likewise for y.
+     *
+     * @param repeatX Period in x; positive.
+     * @param repeatY Period in y; positive.
+     */
+    public static double snoise2Tileable(double x, double y, double repeatX, double repeatY, int octaves,
+            double persistence, double lacunarity, PermutationTable permTable) {
+        checkRepeat(repeatX, repeatY);
+        double ax = x * (TWO_PI / repeatX);
+        double ay = y * (TWO_PI / repeatY);
+        double rx = repeatX / TWO_PI;
+        double ry = repeatY / TWO_PI;
+        return snoise4(rx * Math.cos(ax), rx * Math.sin(ax), ry * Math.cos(ay), ry * Math.sin(ay), octaves,
+                persistence, lacunarity, permTable);
+    }
+
+    public static double snoise2Tileable(double x, double y, double repeatX, double repeatY) {
+        return snoise2Tileable(x, y, repeatX, repeatY, 1, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY,
+                DEFAULT_PERMUTATION_TABLE);
+    }
+
+    private static void checkRepeat(double repeatX, double repeatY) {
+        if (!(repeatX > 0) || !(repeatY > 0) || Double.isInfinite(repeatX) || Double.isInfinite(repeatY)) {
+            throw new IllegalArgumentException("Repeat periods must be positive and finite.");
+        }
+    }
+
 
     public static double snoise3(double x, double y, double z, int octaves, double persistence, double lacunarity, PermutationTable permTable) {
         double total = 0;
@@ -282,6 +348,33 @@ public class SimplexNoise {
         }
         return total / maxValue;
     }
+
+    /**
+     * Level-of-detail variant of
+     * {@link #snoise3(double, double, double, int, double, double, PermutationTable)}
+     * for a result sampled every {@code footprint} units; octaves are culled as in
+     * {@link PerlinNoise#pnoise2(double, double, int, double, double, int, PermutationTable, double)}.
+     */
+    public static double snoise3(double x, double y, double z, int octaves, double persistence, double lacunarity,
+            PermutationTable permTable, double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequency, footprint);
+            if (weight > 0) {
+                total += noise3(x * frequency, y * frequency, z * frequency, permTable) * (amplitude * weight);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
     public static double snoise3(double x, double y, double z, int octaves) {
         return snoise3(x,y,z,octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, DEFAULT_PERMUTATION_TABLE);
     }
@@ -303,10 +396,658 @@ public class SimplexNoise {
         }
         return total / maxValue;
     }
+
+    /**
+     * Level-of-detail variant of
+     * {@link #snoise4(double, double, double, double, int, double, double, PermutationTable)}
+     * for a result sampled every {@code footprint} units; octaves are culled as in
+     * {@link PerlinNoise#pnoise2(double, double, int, double, double, int, PermutationTable, double)}.
+     */
+    public static double snoise4(double x, double y, double z, double w, int octaves, double persistence,
+            double lacunarity, PermutationTable permTable, double footprint) {
+        OctaveLod.checkFootprint(footprint);
+        double total = 0;
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weight = OctaveLod.weight(frequency, footprint);
+            if (weight > 0) {
+                total += noise4(x * frequency, y * frequency, z * frequency, w * frequency, permTable)
+                        * (amplitude * weight);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return total / maxValue;
+    }
+
      public static double snoise4(double x, double y, double z, double w, int octaves) {
         return snoise4(x,y,z,w,octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, DEFAULT_PERMUTATION_TABLE);
     }
     public static double snoise4(double x, double y, double z, double w) {
         return snoise4(x,y,z,w,1);
     }
-}
\ No newline at end of file
+
+    // Analytic derivatives.
+    // Corner i contributes t_i^4 * (g_i . d_i) with t_i = r^2 - |d_i|^2, whose gradient is
+    // t_i^4 * g_i - 8 * t_i^3 * (g_i . d_i) * d_i. The value is accumulated exactly as in
+    // snoise2/snoise3, so it is bit-identical to those calls. Octave i contributes
+    // amplitude * frequency * gradient.
+
+    /**
+     * Evaluates 2D simplex fBm and its gradient at one point: {@code out[offset]} receives
+     * {@code snoise2(x, y, octaves, persistence, lacunarity, permTable)}, and
+     * {@code out[offset + 1]} and {@code out[offset + 2]} its partial derivatives in x and y.
+     */
+    public static void snoise2Deriv(double x, double y, int octaves, double persistence, double lacunarity,
+            PermutationTable permTable, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 3);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        out[offset] = out[offset + 1] = out[offset + 2] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            addNoise2Deriv(x * frequency, y * frequency, permTable, amplitude, amplitude * frequency, out, offset);
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        out[offset] /= maxValue;
+        out[offset + 1] /= maxValue;
+        out[offset + 2] /= maxValue;
+    }
+
+    public static void snoise2Deriv(double x, double y, int octaves, double[] out, int offset) {
+        snoise2Deriv(x, y, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, DEFAULT_PERMUTATION_TABLE, out, offset);
+    }
+
+    /**
+     * Evaluates 3D simplex fBm and its gradient at one point: {@code out[offset]} receives
+     * {@code snoise3(x, y, z, octaves, persistence, lacunarity, permTable)}, and
+     * {@code out[offset + 1..3]} its partial derivatives in x, y and z.
+     */
+    public static void snoise3Deriv(double x, double y, double z, int octaves, double persistence,
+            double lacunarity, PermutationTable permTable, double[] out, int offset) {
+        GridUtil.checkOffset(out.length, offset, 4);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        out[offset] = out[offset + 1] = out[offset + 2] = out[offset + 3] = 0.0;
+        for (int i = 0; i < octaves; i++) {
+            addNoise3Deriv(x * frequency, y * frequency, z * frequency, permTable, amplitude, amplitude * frequency,
+                    out, offset);
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        for (int c = 0; c < 4; c++) {
+            out[offset + c] /= maxValue;
+        }
+    }
+
+    public static void snoise3Deriv(double x, double y, double z, int octaves, double[] out, int offset) {
+        snoise3Deriv(x, y, z, octaves, DEFAULT_PERSISTENCE, DEFAULT_LACUNARITY, DEFAULT_PERMUTATION_TABLE, out,
+                offset);
+    }
+
+    // Adds amplitude * noise2(x, y) to dst[offset] and gradientScale * its gradient to dst[offset + 1..2].
+    static void addNoise2Deriv(double x, double y, PermutationTable permTable, double amplitude,
+            double gradientScale, double[] dst, int offset) {
+        double s = (x + y) * F2;
+        int i = (int) Math.floor(x + s);
+        int j = (int) Math.floor(y + s);
+        double t = (i + j) * G2;
+        double x0 = x - (i - t);
+        double y0 = y - (j - t);
+
+        int i1 = x0 > y0 ? 1 : 0;
+        int j1 = 1 - i1;
+
+        double x1 = x0 - i1 + G2;
+        double y1 = y0 - j1 + G2;
+        double x2 = x0 - 1.0 + 2.0 * G2;
+        double y2 = y0 - 1.0 + 2.0 * G2;
+
+        int ii = i % permTable.getPeriod(); if (ii < 0) ii += permTable.getPeriod();
+        int jj = j % permTable.getPeriod(); if (jj < 0) jj += permTable.getPeriod();
+
+        int gi0 = permTable.getPermMod12(ii + permTable.getPerm(jj));
+        int gi1 = permTable.getPermMod12(ii + i1 + permTable.getPerm(jj + j1));
+        int gi2 = permTable.getPermMod12(ii + 1 + permTable.getPerm(jj + 1));
+
+        double n = 0.0, dx = 0.0, dy = 0.0;
+        double t0 = 0.5 - x0 * x0 - y0 * y0;
+        if (t0 > 0) {
+            double t02 = t0 * t0;
+            double t04 = t02 * t02;
+            double dot = gradDot(gi0, x0, y0);
+            double c = 8.0 * t02 * t0 * dot;
+            n += t04 * dot;
+            dx += t04 * GRAD3_X[gi0] - c * x0;
+            dy += t04 * GRAD3_Y[gi0] - c * y0;
+        }
+        double t1 = 0.5 - x1 * x1 - y1 * y1;
+        if (t1 > 0) {
+            double t12 = t1 * t1;
+            double t14 = t12 * t12;
+            double dot = gradDot(gi1, x1, y1);
+            double c = 8.0 * t12 * t1 * dot;
+            n += t14 * dot;
+            dx += t14 * GRAD3_X[gi1] - c * x1;
+            dy += t14 * GRAD3_Y[gi1] - c * y1;
+        }
+        double t2 = 0.5 - x2 * x2 - y2 * y2;
+        if (t2 > 0) {
+            double t22 = t2 * t2;
+            double t24 = t22 * t22;
+            double dot = gradDot(gi2, x2, y2);
+            double c = 8.0 * t22 * t2 * dot;
+            n += t24 * dot;
+            dx += t24 * GRAD3_X[gi2] - c * x2;
+            dy += t24 * GRAD3_Y[gi2] - c * y2;
+        }
+        dst[offset] += 70.0 * n * amplitude;
+        dst[offset + 1] += 70.0 * dx * gradientScale;
+        dst[offset + 2] += 70.0 * dy * gradientScale;
+    }
+
+    // Adds amplitude * noise3(x, y, z) to dst[offset] and gradientScale * its gradient to dst[offset + 1..3].
+    static void addNoise3Deriv(double x, double y, double z, PermutationTable permTable, double amplitude,
+            double gradientScale, double[] dst, int offset) {
+        double s = (x + y + z) * F3;
+        int i = (int) Math.floor(x + s);
+        int j = (int) Math.floor(y + s);
+        int k = (int) Math.floor(z + s);
+        double t = (i + j + k) * G3;
+        double x0 = x - (i - t);
+        double y0 = y - (j - t);
+        double z0 = z - (k - t);
+
+        int i1, j1, k1;
+        int i2, j2, k2;
+        if (x0 >= y0) {
+            if (y0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+            else if (x0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1; }
+            else { i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1; }
+        } else { // x0 < y0
+            if (y0 < z0) { i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1; }
+            else if (x0 < z0) { i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1; }
+            else { i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+        }
+
+        double x1 = x0 - i1 + G3;
+        double y1 = y0 - j1 + G3;
+        double z1 = z0 - k1 + G3;
+        double x2 = x0 - i2 + 2.0 * G3;
+        double y2 = y0 - j2 + 2.0 * G3;
+        double z2 = z0 - k2 + 2.0 * G3;
+        double x3 = x0 - 1.0 + 3.0 * G3;
+        double y3 = y0 - 1.0 + 3.0 * G3;
+        double z3 = z0 - 1.0 + 3.0 * G3;
+
+        int ii = i % permTable.getPeriod(); if (ii < 0) ii += permTable.getPeriod();
+        int jj = j % permTable.getPeriod(); if (jj < 0) jj += permTable.getPeriod();
+        int kk = k % permTable.getPeriod(); if (kk < 0) kk += permTable.getPeriod();
+
+        int gi0 = permTable.getPermMod12(ii + permTable.getPerm(jj + permTable.getPerm(kk)));
+        int gi1 = permTable.getPermMod12(ii + i1 + permTable.getPerm(jj + j1 + permTable.getPerm(kk + k1)));
+        int gi2 = permTable.getPermMod12(ii + i2 + permTable.getPerm(jj + j2 + permTable.getPerm(kk + k2)));
+        int gi3 = permTable.getPermMod12(ii + 1 + permTable.getPerm(jj + 1 + permTable.getPerm(kk + 1)));
+
+        double n = 0.0, dx = 0.0, dy = 0.0, dz = 0.0;
+        double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0;
+        if (t0 > 0) {
+            double t02 = t0 * t0;
+            double t04 = t02 * t02;
+            double dot = gradDot(gi0, x0, y0, z0);
+            double c = 8.0 * t02 * t0 * dot;
+            n += t04 * dot;
+            dx += t04 * GRAD3_X[gi0] - c * x0;
+            dy += t04 * GRAD3_Y[gi0] - c * y0;
+            dz += t04 * GRAD3_Z[gi0] - c * z0;
+        }
+        double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
+        if (t1 > 0) {
+            double t12 = t1 * t1;
+            double t14 = t12 * t12;
+            double dot = gradDot(gi1, x1, y1, z1);
+            double c = 8.0 * t12 * t1 * dot;
+            n += t14 * dot;
+            dx += t14 * GRAD3_X[gi1] - c * x1;
+            dy += t14 * GRAD3_Y[gi1] - c * y1;
+            dz += t14 * GRAD3_Z[gi1] - c * z1;
+        }
+        double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
+        if (t2 > 0) {
+            double t22 = t2 * t2;
+            double t24 = t22 * t22;
+            double dot = gradDot(gi2, x2, y2, z2);
+            double c = 8.0 * t22 * t2 * dot;
+            n += t24 * dot;
+            dx += t24 * GRAD3_X[gi2] - c * x2;
+            dy += t24 * GRAD3_Y[gi2] - c * y2;
+            dz += t24 * GRAD3_Z[gi2] - c * z2;
+        }
+        double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
+        if (t3 > 0) {
+            double t32 = t3 * t3;
+            double t34 = t32 * t32;
+            double dot = gradDot(gi3, x3, y3, z3);
+            double c = 8.0 * t32 * t3 * dot;
+            n += t34 * dot;
+            dx += t34 * GRAD3_X[gi3] - c * x3;
+            dy += t34 * GRAD3_Y[gi3] - c * y3;
+            dz += t34 * GRAD3_Z[gi3] - c * z3;
+        }
+        dst[offset] += 32.0 * n * amplitude;
+        dst[offset + 1] += 32.0 * dx * gradientScale;
+        dst[offset + 2] += 32.0 * dy * gradientScale;
+        dst[offset + 3] += 32.0 * dz * gradientScale;
+    }
+
+    // Bulk grid evaluation.
+    // Sample (ix, iy[, iz]) is taken at x = originX + ix * stepX (likewise for y and z), so
+    // every value is bit-identical to the corresponding snoise2/snoise3 call at that point.
+    // Gradients of all corners of the current skewed cell are cached and reused while
+    // consecutive samples stay in that cell. With jdk.incubator.vector enabled, rows go
+    // through VectorKernels instead (see SimdSupport).
+
+    /**
+     * Fills {@code out} with 2D simplex fBm sampled on a regular grid, row-major
+     * ({@code out[iy * width + ix]}). Each value equals
+     * {@code snoise2(originX + ix * stepX, originY + iy * stepY, octaves, persistence, lacunarity, permTable)}.
+     *
+     * @param out Destination array, at least {@code width * height} long.
+     */
+    public static void fillGrid2D(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        for (int iy = 0; iy < height; iy++) {
+            fbmRow2D(out, iy * width, originX, stepX, 0, width, originY + iy * stepY,
+                    octaves, persistence, lacunarity, permTable);
+        }
+    }
+
+    /**
+     * Single-precision output variant of
+     * {@link #fillGrid2D(double[], double, double, double, double, int, int, int, double, double, PermutationTable)}.
+     * Values are computed in double precision and narrowed on store.
+     */
+    public static void fillGrid2D(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        double[] row = new double[width];
+        for (int iy = 0; iy < height; iy++) {
+            fbmRow2D(row, 0, originX, stepX, 0, width, originY + iy * stepY,
+                    octaves, persistence, lacunarity, permTable);
+            int offset = iy * width;
+            for (int ix = 0; ix < width; ix++) {
+                out[offset + ix] = (float) row[ix];
+            }
+        }
+    }
+
+    /**
+     * Fills {@code out} with seamless 2D simplex fBm sampled on a regular grid, row-major
+     * ({@code out[iy * width + ix]}). Each value equals
+     * {@code snoise2Tileable(originX + ix * stepX, originY + iy * stepY, repeatX, repeatY, octaves,
+     * persistence, lacunarity, permTable)}; the torus coordinates (two sine/cosine pairs per
+     * sample) are computed once per column and once per row instead of per sample.
+     *
+     * @param out Destination array, at least {@code width * height} long.
+     */
+    public static void fillGrid2D(double[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, PermutationTable permTable,
+            double repeatX, double repeatY) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        checkRepeat(repeatX, repeatY);
+        fillTorus2D(out, null, originX, originY, stepX, stepY, width, height, octaves, persistence, lacunarity,
+                permTable, repeatX, repeatY);
+    }
+
+    /**
+     * Single-precision output variant of
+     * {@link #fillGrid2D(double[], double, double, double, double, int, int, int, double, double, PermutationTable, double, double)}.
+     */
+    public static void fillGrid2D(float[] out, double originX, double originY, double stepX, double stepY,
+            int width, int height, int octaves, double persistence, double lacunarity, PermutationTable permTable,
+            double repeatX, double repeatY) {
+        GridUtil.checkGrid(out.length, width, height, 1);
+        checkRepeat(repeatX, repeatY);
+        fillTorus2D(null, out, originX, originY, stepX, stepY, width, height, octaves, persistence, lacunarity,
+                permTable, repeatX, repeatY);
+    }
+
+    // Writes to outDouble, or to outFloat if that is null.
+    private static void fillTorus2D(double[] outDouble, float[] outFloat, double originX, double originY,
+            double stepX, double stepY, int width, int height, int octaves, double persistence, double lacunarity,
+            PermutationTable permTable, double repeatX, double repeatY) {
+        double rx = repeatX / TWO_PI;
+        double ry = repeatY / TWO_PI;
+        double[] cosX = new double[width];
+        double[] sinX = new double[width];
+        for (int ix = 0; ix < width; ix++) {
+            double ax = (originX + ix * stepX) * (TWO_PI / repeatX);
+            cosX[ix] = rx * Math.cos(ax);
+            sinX[ix] = rx * Math.sin(ax);
+        }
+        double[] row = new double[width];
+        for (int iy = 0; iy < height; iy++) {
+            double ay = (originY + iy * stepY) * (TWO_PI / repeatY);
+            double cosY = ry * Math.cos(ay);
+            double sinY = ry * Math.sin(ay);
+            Arrays.fill(row, 0.0);
+            double frequency = 1;
+            double amplitude = 1;
+            double maxValue = 0;
+            for (int i = 0; i < octaves; i++) {
+                double z = cosY * frequency;
+                double w = sinY * frequency;
+                for (int ix = 0; ix < width; ix++) {
+                    row[ix] += noise4(cosX[ix] * frequency, sinX[ix] * frequency, z, w, permTable) * amplitude;
+                }
+                maxValue += amplitude;
+                amplitude *= persistence;
+                frequency *= lacunarity;
+            }
+            int offset = iy * width;
+            for (int ix = 0; ix < width; ix++) {
+                double value = row[ix] / maxValue;
+                if (outDouble != null) {
+                    outDouble[offset + ix] = value;
+                } else {
+                    outFloat[offset + ix] = (float) value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills {@code out} with 3D simplex fBm sampled on a regular grid
+     * ({@code out[(iz * height + iy) * width + ix]}). Each value equals
+     * {@code snoise3(originX + ix * stepX, originY + iy * stepY, originZ + iz * stepZ,
+     * octaves, persistence, lacunarity, permTable)}.
+     *
+     * @param out Destination array, at least {@code width * height * depth} long.
+     */
+    public static void fillGrid3D(double[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                fbmRow3D(out, (iz * height + iy) * width, originX, stepX, 0, width, originY + iy * stepY, z,
+                        octaves, persistence, lacunarity, permTable);
+            }
+        }
+    }
+
+    /**
+     * Single-precision output variant of
+     * {@link #fillGrid3D(double[], double, double, double, double, double, double, int, int, int, int, double, double, PermutationTable)}.
+     */
+    public static void fillGrid3D(float[] out, double originX, double originY, double originZ,
+            double stepX, double stepY, double stepZ, int width, int height, int depth,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        GridUtil.checkGrid(out.length, width, height, depth);
+        double[] row = new double[width];
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                fbmRow3D(row, 0, originX, stepX, 0, width, originY + iy * stepY, z,
+                        octaves, persistence, lacunarity, permTable);
+                int offset = (iz * height + iy) * width;
+                for (int ix = 0; ix < width; ix++) {
+                    out[offset + ix] = (float) row[ix];
+                }
+            }
+        }
+    }
+
+    // fBm over 'count' samples of one row starting at column ix0, written to dst[offset..].
+    static void fbmRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        fbmRow2D(dst, offset, originX, stepX, ix0, count, y, octaves, persistence, lacunarity, permTable, 0.0);
+    }
+
+    // As above with the octaves weighted for a sampling footprint (OctaveLod).
+    static void fbmRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable, double footprint) {
+        double maxValue = octaveSumRow2D(dst, offset, originX, stepX, ix0, count, y, octaves, persistence,
+                lacunarity, permTable, footprint);
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    // The octave sum of fbmRow2D, not yet divided by the returned total amplitude, so callers
+    // can fold the normalization into their own store loop.
+    static double octaveSumRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        return octaveSumRow2D(dst, offset, originX, stepX, ix0, count, y, octaves, persistence, lacunarity, permTable,
+                0.0);
+    }
+
+    static double octaveSumRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            int octaves, double persistence, double lacunarity, PermutationTable permTable, double footprint) {
+        Arrays.fill(dst, offset, offset + count, 0.0);
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weighted = amplitude * OctaveLod.weight(frequency, footprint);
+            // Culled octaves are skipped but still count in the normalization.
+            if (weighted != 0) {
+                if (SimdSupport.ENABLED) {
+                    VectorKernels.addSimplexRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, weighted,
+                            permTable);
+                } else {
+                    addNoiseRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, weighted, permTable);
+                }
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return maxValue;
+    }
+
+    static void fbmRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        fbmRow3D(dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence, lacunarity, permTable, 0.0);
+    }
+
+    static void fbmRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, int octaves, double persistence, double lacunarity, PermutationTable permTable,
+            double footprint) {
+        double maxValue = octaveSumRow3D(dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence,
+                lacunarity, permTable, footprint);
+        for (int n = 0; n < count; n++) {
+            dst[offset + n] /= maxValue;
+        }
+    }
+
+    // As octaveSumRow2D, for fbmRow3D.
+    static double octaveSumRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, int octaves, double persistence, double lacunarity, PermutationTable permTable) {
+        return octaveSumRow3D(dst, offset, originX, stepX, ix0, count, y, z, octaves, persistence, lacunarity,
+                permTable, 0.0);
+    }
+
+    static double octaveSumRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count, double y,
+            double z, int octaves, double persistence, double lacunarity, PermutationTable permTable,
+            double footprint) {
+        Arrays.fill(dst, offset, offset + count, 0.0);
+        int[] cellGrads = new int[8];
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            double weighted = amplitude * OctaveLod.weight(frequency, footprint);
+            // Culled octaves are skipped but still count in the normalization.
+            if (weighted != 0) {
+                if (SimdSupport.ENABLED) {
+                    VectorKernels.addSimplexRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency,
+                            weighted, permTable);
+                } else {
+                    addNoiseRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, weighted, permTable,
+                            cellGrads);
+                }
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+        return maxValue;
+    }
+
+    // One octave of noise2(x, y, permTable) along a row, scaled by amplitude and added to dst.
+    static void addNoiseRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double frequency, double amplitude, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        double fy = y * frequency;
+
+        boolean haveCell = false;
+        int cellI = 0, cellJ = 0;
+        int g00 = 0, g10 = 0, g01 = 0, g11 = 0;
+        for (int c = 0; c < count; c++) {
+            double x = (originX + (ix0 + c) * stepX) * frequency;
+            double s = (x + fy) * F2;
+            int i = (int) Math.floor(x + s);
+            int j = (int) Math.floor(fy + s);
+            if (!haveCell || i != cellI || j != cellJ) {
+                int ii = i % period; if (ii < 0) ii += period;
+                int jj = j % period; if (jj < 0) jj += period;
+                g00 = permTable.getPermMod12(ii + permTable.getPerm(jj));
+                g10 = permTable.getPermMod12(ii + 1 + permTable.getPerm(jj));
+                g01 = permTable.getPermMod12(ii + permTable.getPerm(jj + 1));
+                g11 = permTable.getPermMod12(ii + 1 + permTable.getPerm(jj + 1));
+                cellI = i;
+                cellJ = j;
+                haveCell = true;
+            }
+            double t = (i + j) * G2;
+            double x0 = x - (i - t);
+            double y0 = fy - (j - t);
+
+            int i1, j1;
+            int g1;
+            if (x0 > y0) {
+                i1 = 1; j1 = 0; g1 = g10;
+            } else {
+                i1 = 0; j1 = 1; g1 = g01;
+            }
+
+            double x1 = x0 - i1 + G2;
+            double y1 = y0 - j1 + G2;
+            double x2 = x0 - 1.0 + 2.0 * G2;
+            double y2 = y0 - 1.0 + 2.0 * G2;
+
+            double n = 0.0;
+            double t0 = 0.5 - x0 * x0 - y0 * y0;
+            if (t0 > 0) {
+                t0 *= t0;
+                n += t0 * t0 * gradDot(g00, x0, y0);
+            }
+            double t1 = 0.5 - x1 * x1 - y1 * y1;
+            if (t1 > 0) {
+                t1 *= t1;
+                n += t1 * t1 * gradDot(g1, x1, y1);
+            }
+            double t2 = 0.5 - x2 * x2 - y2 * y2;
+            if (t2 > 0) {
+                t2 *= t2;
+                n += t2 * t2 * gradDot(g11, x2, y2);
+            }
+            dst[offset + c] += 70.0 * n * amplitude;
+        }
+    }
+
+    // One octave of noise3(x, y, z, permTable) along a row. cellGrads holds the gradient
+    // indices of the eight corners of the current cell, indexed by (di << 2) | (dj << 1) | dk.
+    static void addNoiseRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double z, double frequency, double amplitude, PermutationTable permTable, int[] cellGrads) {
+        int period = permTable.getPeriod();
+        double fy = y * frequency;
+        double fz = z * frequency;
+
+        boolean haveCell = false;
+        int cellI = 0, cellJ = 0, cellK = 0;
+        for (int c = 0; c < count; c++) {
+            double x = (originX + (ix0 + c) * stepX) * frequency;
+            double s = (x + fy + fz) * F3;
+            int i = (int) Math.floor(x + s);
+            int j = (int) Math.floor(fy + s);
+            int k = (int) Math.floor(fz + s);
+            if (!haveCell || i != cellI || j != cellJ || k != cellK) {
+                int ii = i % period; if (ii < 0) ii += period;
+                int jj = j % period; if (jj < 0) jj += period;
+                int kk = k % period; if (kk < 0) kk += period;
+                for (int corner = 0; corner < 8; corner++) {
+                    int di = corner >> 2, dj = (corner >> 1) & 1, dk = corner & 1;
+                    cellGrads[corner] = permTable.getPermMod12(ii + di
+                            + permTable.getPerm(jj + dj + permTable.getPerm(kk + dk)));
+                }
+                cellI = i;
+                cellJ = j;
+                cellK = k;
+                haveCell = true;
+            }
+            double t = (i + j + k) * G3;
+            double x0 = x - (i - t);
+            double y0 = fy - (j - t);
+            double z0 = fz - (k - t);
+
+            int i1, j1, k1;
+            int i2, j2, k2;
+            if (x0 >= y0) {
+                if (y0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+                else if (x0 >= z0) { i1 = 1; j1 = 0; k1 = 0; i2 = 1; j2 = 0; k2 = 1; }
+                else { i1 = 0; j1 = 0; k1 = 1; i2 = 1; j2 = 0; k2 = 1; }
+            } else { // x0 < y0
+                if (y0 < z0) { i1 = 0; j1 = 0; k1 = 1; i2 = 0; j2 = 1; k2 = 1; }
+                else if (x0 < z0) { i1 = 0; j1 = 1; k1 = 0; i2 = 0; j2 = 1; k2 = 1; }
+                else { i1 = 0; j1 = 1; k1 = 0; i2 = 1; j2 = 1; k2 = 0; }
+            }
+
+            double x1 = x0 - i1 + G3;
+            double y1 = y0 - j1 + G3;
+            double z1 = z0 - k1 + G3;
+            double x2 = x0 - i2 + 2.0 * G3;
+            double y2 = y0 - j2 + 2.0 * G3;
+            double z2 = z0 - k2 + 2.0 * G3;
+            double x3 = x0 - 1.0 + 3.0 * G3;
+            double y3 = y0 - 1.0 + 3.0 * G3;
+            double z3 = z0 - 1.0 + 3.0 * G3;
+
+            double n = 0.0;
+            double t0 = 0.6 - x0 * x0 - y0 * y0 - z0 * z0;
+            if (t0 > 0) {
+                t0 *= t0;
+                n += t0 * t0 * gradDot(cellGrads[0], x0, y0, z0);
+            }
+            double t1 = 0.6 - x1 * x1 - y1 * y1 - z1 * z1;
+            if (t1 > 0) {
+                t1 *= t1;
+                n += t1 * t1 * gradDot(cellGrads[(i1 << 2) | (j1 << 1) | k1], x1, y1, z1);
+            }
+            double t2 = 0.6 - x2 * x2 - y2 * y2 - z2 * z2;
+            if (t2 > 0) {
+                t2 *= t2;
+                n += t2 * t2 * gradDot(cellGrads[(i2 << 2) | (j2 << 1) | k2], x2, y2, z2);
+            }
+            double t3 = 0.6 - x3 * x3 - y3 * y3 - z3 * z3;
+            if (t3 > 0) {
+                t3 *= t3;
+                n += t3 * t3 * gradDot(cellGrads[7], x3, y3, z3);
+            }
+            dst[offset + c] += 32.0 * n * amplitude;
+        }
+    }
+}
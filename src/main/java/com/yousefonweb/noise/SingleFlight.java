@@ -0,0 +1,258 @@
+package com.yousefonweb.noise;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent requests for the same key into one computation ("single flight").
+ *
+ * While a computation for a key is in flight, further requests for that key wait for its
+ * result instead of starting their own; once it has finished, the next request starts a new
+ * one, so results are shared between overlapping requests only and nothing is cached. Used by
+ * {@link NoiseChunkCache} and {@code ShaderNoiseTextureCache} for their misses.
+ *
+ * {@link #run} computes on the calling thread if no computation is in flight and otherwise
+ * blocks until the running one finishes. {@link #submit} starts the computation on the
+ * executor and gives every caller its own future. Cancelling such a future only detaches that
+ * caller; when every caller of a flight has cancelled before it completed, the computation is
+ * cancelled as well: it does not start if it has not yet, and the thread running it is
+ * interrupted otherwise. Computations that do not check for interrupts run to completion and
+ * their result is dropped. A flight that a {@link #run} caller is waiting for, or is running,
+ * is never cancelled.
+ *
+ * Instances may be shared between threads.
+ *
+ * @param <K> Key type; keys must implement {@code equals} and {@code hashCode}.
+ * @param <V> Result type.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, Flight> flights = new ConcurrentHashMap<>();
+    private final Executor executor;
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Creates a single flight that runs submitted computations on the common fork/join pool.
+     */
+    public SingleFlight() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor Runs the computations started by {@link #submit}.
+     */
+    public SingleFlight(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the result of {@code computation} for {@code key}, computing it on this thread
+     * unless a computation for the key is already in flight, in which case that one's result
+     * is returned. Exceptions thrown by the computation are rethrown to every waiting caller,
+     * unwrapped if they are unchecked.
+     */
+    public V run(K key, Supplier<? extends V> computation) {
+        if (key == null || computation == null) {
+            throw new IllegalArgumentException("Key and computation must not be null.");
+        }
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight == null) {
+                Flight created = new Flight(key);
+                created.waiters = 1;
+                flight = flights.putIfAbsent(key, created);
+                if (flight == null) {
+                    created.runHere(computation);
+                    return join(created);
+                }
+            }
+            if (flight.attachWaiter()) {
+                coalesced.increment();
+                return join(flight);
+            }
+            // The flight was cancelled by its last caller while this one looked it up.
+        }
+    }
+
+    /**
+     * Returns a future for the result of {@code computation} for {@code key}, started on the
+     * executor unless a computation for the key is already in flight, in which case the future
+     * completes with that one's result. Each call returns its own future; see the class
+     * description for cancellation.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if a new computation is needed
+     *         and the executor rejects it.
+     */
+    public CompletableFuture<V> submit(K key, Callable<? extends V> computation) {
+        if (key == null || computation == null) {
+            throw new IllegalArgumentException("Key and computation must not be null.");
+        }
+        while (true) {
+            Flight flight = flights.get(key);
+            boolean started = false;
+            if (flight == null) {
+                Flight created = new Flight(key);
+                flight = flights.putIfAbsent(key, created);
+                if (flight == null) {
+                    flight = created;
+                    started = true;
+                }
+            }
+            CompletableFuture<V> view = flight.attachView();
+            if (view == null) {
+                continue;
+            }
+            if (!started) {
+                coalesced.increment();
+                return view;
+            }
+            Flight leader = flight;
+            try {
+                executor.execute(() -> leader.runHere(() -> {
+                    try {
+                        return computation.call();
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }));
+            } catch (RuntimeException e) {
+                leader.finish(null, e);
+                throw e;
+            }
+            return view;
+        }
+    }
+
+    /**
+     * Number of keys with a computation in flight.
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    /**
+     * Requests since creation that joined a computation already in flight instead of starting one.
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    private V join(Flight flight) {
+        try {
+            return flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // One computation and the callers waiting for it. 'waiters' counts callers that have not
+    // cancelled; it only drops for submit callers, so run callers keep the flight alive.
+    private final class Flight {
+        final K key;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        private int waiters;
+        private boolean cancelled;
+        private Thread runner;
+
+        Flight(K key) {
+            this.key = key;
+        }
+
+        synchronized boolean attachWaiter() {
+            if (cancelled) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        CompletableFuture<V> attachView() {
+            synchronized (this) {
+                if (cancelled) {
+                    return null;
+                }
+                waiters++;
+            }
+            CompletableFuture<V> view = new CompletableFuture<>();
+            result.whenComplete((value, failure) -> {
+                if (failure == null) {
+                    view.complete(value);
+                } else {
+                    view.completeExceptionally(failure instanceof CompletionException ? failure.getCause() : failure);
+                }
+            });
+            view.whenComplete((value, failure) -> {
+                if (failure instanceof CancellationException && !result.isDone()) {
+                    detach();
+                }
+            });
+            return view;
+        }
+
+        void runHere(Supplier<? extends V> computation) {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                runner = Thread.currentThread();
+            }
+            V value = null;
+            Throwable failure = null;
+            try {
+                value = computation.get();
+            } catch (Throwable t) {
+                failure = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            } finally {
+                synchronized (this) {
+                    runner = null;
+                    if (cancelled) {
+                        // Our interrupt must not leak into the executor's next task.
+                        Thread.interrupted();
+                    }
+                }
+            }
+            finish(value, failure);
+        }
+
+        void finish(V value, Throwable failure) {
+            flights.remove(key, this);
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+
+        private void detach() {
+            synchronized (this) {
+                if (--waiters > 0 || cancelled || result.isDone()) {
+                    return;
+                }
+                cancelled = true;
+                if (runner != null) {
+                    runner.interrupt();
+                }
+            }
+            flights.remove(key, this);
+            result.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.yousefonweb.noise;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs numbered tiles on an {@link Executor} and waits for all of them. Shared by
+ * {@link NoiseRegionGenerator} and {@link NormalMapBaker}.
+ */
+final class TileRunner {
+
+    private TileRunner() {
+    }
+
+    /**
+     * Calls {@code tile} once for each index in {@code [0, tileCount)}. A {@link ForkJoinPool} is
+     * driven by recursive splitting, any other executor receives one task per tile. Exceptions
+     * thrown by a tile are rethrown unwrapped.
+     */
+    static void run(Executor executor, int tileCount, IntConsumer tile) {
+        if (tileCount == 0) {
+            return;
+        }
+        if (tileCount == 1) {
+            tile.accept(0);
+            return;
+        }
+        if (executor instanceof ForkJoinPool pool) {
+            pool.invoke(new TileRange(tile, 0, tileCount));
+            return;
+        }
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[tileCount];
+        for (int t = 0; t < tileCount; t++) {
+            int index = t;
+            tasks[t] = CompletableFuture.runAsync(() -> tile.accept(index), executor);
+        }
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Splits [from, to) in halves until single tiles remain.
+    private static final class TileRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Tasks are never serialized; the field is transient only because the consumer is not
+        // serializable.
+        private final transient IntConsumer tile;
+        private final int from;
+        private final int to;
+
+        TileRange(IntConsumer tile, int from, int to) {
+            this.tile = tile;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                tile.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TileRange(tile, from, mid), new TileRange(tile, mid, to));
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.yousefonweb.noise;
+
+import static com.yousefonweb.noise.NoiseConstants.fade;
+import static com.yousefonweb.noise.NoiseConstants.gradDot;
+import static com.yousefonweb.noise.NoiseConstants.lerp;
+
+import java.util.Arrays;
+
+/**
+ * Bulk engines for tileable Perlin noise: the tileable case of
+ * {@link PerlinNoise#fillGrid3DChannels}, and the tileable 2D {@code fillGrid2D}.
+ *
+ * <h2>3D</h2>
+ *
+ * The per-sample path wraps every coordinate with {@code x % repeat}, takes {@code (i + 1) % repeat}
+ * and up to six {@code (index + base) % repeat} base shifts per channel, and recomputes the
+ * per-octave periods {@code (int) (repeat / frequency)}, for every sample. Here the periods are
+ * computed once per call, the wrapped and base-shifted x indices come from per-octave,
+ * per-channel lookup tables, the y and z wrapping is done once per row, and x is wrapped by
+ * walking the quotient {@code m} of {@code x / repeat} along the row: for {@code 0 <= x < 2^31}
+ * the remainder {@code x - m * repeat} is exact once {@code m} is right, so it equals
+ * {@code x % repeat} bit for bit, and {@code m} only has to be corrected when x crosses a period.
+ * Corner hashes are reused while consecutive samples stay in the same lattice cell. The lookup
+ * tables grow with the period, so octaves whose period is large next to the row take the
+ * per-cell modulo instead: a row visits at most {@code width} cells, however long the period.
+ *
+ * Every value is bit-identical to {@code pnoise3(..., repeatX, repeatY, repeatZ)}. Samples with x
+ * outside that range take the per-sample formulas; configurations where an octave's period is
+ * not positive are left to the per-sample path, which fails the way the scalar functions do.
+ *
+ * For 2D grids everything that depends only on the column (the wrapped, hashed x lattice indices, the
+ * in-cell offset and its fade weight) is computed once per octave for all columns, and the y
+ * lattice work once per row and octave, leaving four gradient lookups and the blend per sample.
+ * Values are bit-identical to the tileable {@code pnoise2}.
+ */
+final class TileableKernels {
+
+    // Below this the quotient times the period is exact and (int) conversion cannot overflow.
+    private static final double COORD_LIMIT = 0x1p31;
+
+    // Periods up to max(WRAP_TABLE_MIN, WRAP_TABLE_PER_SAMPLE * width) get x wrap tables.
+    private static final int WRAP_TABLE_MIN = 256;
+    private static final int WRAP_TABLE_PER_SAMPLE = 4;
+
+    private TileableKernels() {
+    }
+
+    /**
+     * Computes the rows of {@link PerlinNoise#fillGrid3DChannels} with tiling enabled and hands
+     * them to {@code sink}; arguments are already validated. Returns false, producing nothing, if
+     * some octave's period is not positive.
+     */
+    static boolean fillGrid3DChannels(PerlinNoise.ChannelRowSink sink, double originX, double originY,
+            double originZ, double stepX, double stepY, double stepZ, int width, int height, int depth, int octaves,
+            double persistence, double lacunarity, int[] bases, PermutationTable[] tables,
+            int repeatX, int repeatY, int repeatZ) {
+        int channels = bases.length;
+        double[] frequencies = new double[octaves];
+        double[] amplitudes = new double[octaves];
+        int[] periodX = new int[octaves];
+        int[] periodY = new int[octaves];
+        int[] periodZ = new int[octaves];
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        for (int o = 0; o < octaves; o++) {
+            frequencies[o] = frequency;
+            amplitudes[o] = amplitude;
+            periodX[o] = (int) (repeatX / frequency);
+            periodY[o] = (int) (repeatY / frequency);
+            periodZ[o] = (int) (repeatZ / frequency);
+            if (periodX[o] <= 0 || periodY[o] <= 0 || periodZ[o] <= 0) {
+                return false;
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+
+        // wrap[o * channels + c][i] = (i + base) % period and next[...][i] = ((i + 1) % period + base) % period,
+        // the x lattice indices of octave o and channel c for a sample in cell i. Left null for
+        // periods too long to tabulate for this row; addOctaveRow then wraps per cell.
+        int[][] wrap = new int[octaves * channels][];
+        int[][] next = new int[octaves * channels][];
+        int maxTable = Math.max(WRAP_TABLE_MIN, WRAP_TABLE_PER_SAMPLE * width);
+        for (int o = 0; o < octaves; o++) {
+            int period = periodX[o];
+            if (period > maxTable) {
+                continue;
+            }
+            for (int c = 0; c < channels; c++) {
+                int base = bases[c];
+                int[] w = new int[period];
+                int[] n = new int[period];
+                for (int i = 0; i < period; i++) {
+                    int ii = (i + 1) % period;
+                    w[i] = base != 0 ? (i + base) % period : i;
+                    n[i] = base != 0 ? (ii + base) % period : ii;
+                }
+                wrap[o * channels + c] = w;
+                next[o * channels + c] = n;
+            }
+        }
+
+        double[] row = new double[width * channels];
+        Row state = new Row(channels);
+        for (int iz = 0; iz < depth; iz++) {
+            double z = originZ + iz * stepZ;
+            for (int iy = 0; iy < height; iy++) {
+                double y = originY + iy * stepY;
+                Arrays.fill(row, 0.0);
+                for (int o = 0; o < octaves; o++) {
+                    addOctaveRow(row, channels, originX, stepX, width, y, z, frequencies[o], amplitudes[o],
+                            periodX[o], periodY[o], periodZ[o], bases, tables, wrap, next, o * channels, state);
+                }
+                sink.accept(row, maxValue, iz * height + iy);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills {@code outDouble} (or, if that is null, {@code outFloat}) as the tileable
+     * {@code PerlinNoise.fillGrid2D} does; arguments are already validated.
+     */
+    static void fillGrid2D(double[] outDouble, float[] outFloat, double originX, double originY, double stepX,
+            double stepY, int width, int height, int octaves, double persistence, double lacunarity, int base,
+            PermutationTable permTable, int repeatX, int repeatY) {
+        int tablePeriod = permTable.getPeriod();
+        int[] perm = permTable.permArray();
+        int[] permMod12 = permTable.permMod12Array();
+
+        double[] frequencies = new double[octaves];
+        double[] amplitudes = new double[octaves];
+        int[] periodY = new int[octaves];
+        // Column tables, octave-major: hashes of the cell's two x corners, in-cell offset, fade.
+        int[] hashA = new int[octaves * width];
+        int[] hashB = new int[octaves * width];
+        double[] offsetX = new double[octaves * width];
+        double[] fadeX = new double[octaves * width];
+        double frequency = 1;
+        double amplitude = 1;
+        double maxValue = 0;
+        for (int o = 0; o < octaves; o++) {
+            frequencies[o] = frequency;
+            amplitudes[o] = amplitude;
+            int periodX = PerlinNoise.octavePeriod(repeatX, frequency);
+            periodY[o] = PerlinNoise.octavePeriod(repeatY, frequency);
+            for (int ix = 0; ix < width; ix++) {
+                double x = (originX + ix * stepX) * frequency;
+                double floorX = Math.floor(x);
+                long cellX = (long) floorX;
+                int n = o * width + ix;
+                hashA[n] = perm[PerlinNoise.tileIndex(cellX, base, periodX, tablePeriod)];
+                hashB[n] = perm[PerlinNoise.tileIndex(cellX + 1, base, periodX, tablePeriod)];
+                offsetX[n] = x - floorX;
+                fadeX[n] = fade(offsetX[n]);
+            }
+            maxValue += amplitude;
+            amplitude *= persistence;
+            frequency *= lacunarity;
+        }
+
+        double[] row = new double[width];
+        for (int iy = 0; iy < height; iy++) {
+            double y0 = originY + iy * stepY;
+            Arrays.fill(row, 0.0);
+            for (int o = 0; o < octaves; o++) {
+                double y = y0 * frequencies[o];
+                double floorY = Math.floor(y);
+                long cellY = (long) floorY;
+                int Y0 = PerlinNoise.tileIndex(cellY, base, periodY[o], tablePeriod);
+                int Y1 = PerlinNoise.tileIndex(cellY + 1, base, periodY[o], tablePeriod);
+                y -= floorY;
+                double y1 = y - 1;
+                double v = fade(y);
+                double a = amplitudes[o];
+                int n = o * width;
+                for (int ix = 0; ix < width; ix++, n++) {
+                    int A = hashA[n];
+                    int B = hashB[n];
+                    double x = offsetX[n];
+                    double x1 = x - 1;
+                    double u = fadeX[n];
+                    row[ix] += lerp(v, lerp(u, gradDot(permMod12[A + Y0], x, y), gradDot(permMod12[B + Y0], x1, y)),
+                            lerp(u, gradDot(permMod12[A + Y1], x, y1), gradDot(permMod12[B + Y1], x1, y1))) * a;
+                }
+            }
+            int offset = iy * width;
+            for (int ix = 0; ix < width; ix++) {
+                double value = row[ix] / maxValue;
+                if (outDouble != null) {
+                    outDouble[offset + ix] = value;
+                } else {
+                    outFloat[offset + ix] = (float) value;
+                }
+            }
+        }
+    }
+
+    // Per-row lattice state, reused across rows: the y/z indices of each channel and the
+    // gradient indices of the current x cell.
+    private static final class Row {
+        final int[] pj, pjj, pk, pkk;
+        final int[] gradients;
+
+        Row(int channels) {
+            pj = new int[channels];
+            pjj = new int[channels];
+            pk = new int[channels];
+            pkk = new int[channels];
+            gradients = new int[channels * 8];
+        }
+    }
+
+    // One octave of noise3Tileable along a row, times amplitude, added to row[ix * channels + c].
+    private static void addOctaveRow(double[] row, int channels, double originX, double stepX, int width,
+            double y, double z, double frequency, double amplitude, int repeatX, int repeatY, int repeatZ,
+            int[] bases, PermutationTable[] tables, int[][] wrap, int[][] next, int tableOffset, Row state) {
+        // y and z, wrapped exactly as in noise3Tileable, once per row.
+        double fy = (y * frequency) % repeatY;
+        if (fy < 0)
+            fy += repeatY;
+        double fz = (z * frequency) % repeatZ;
+        if (fz < 0)
+            fz += repeatZ;
+        double floorY = Math.floor(fy);
+        double floorZ = Math.floor(fz);
+        int j = (int) floorY;
+        int k = (int) floorZ;
+        int jj = (j + 1) % repeatY;
+        int kk = (k + 1) % repeatZ;
+        double relY = fy - floorY;
+        double relZ = fz - floorZ;
+        double relY1 = relY - 1;
+        double relZ1 = relZ - 1;
+        double sy = fade(relY);
+        double sz = fade(relZ);
+        for (int c = 0; c < channels; c++) {
+            int base = bases[c];
+            state.pj[c] = base != 0 ? (j + base) % repeatY : j;
+            state.pjj[c] = base != 0 ? (jj + base) % repeatY : jj;
+            state.pk[c] = base != 0 ? (k + base) % repeatZ : k;
+            state.pkk[c] = base != 0 ? (kk + base) % repeatZ : kk;
+        }
+
+        double period = repeatX;
+        double quotient = 0;
+        int cell = -1;
+        for (int ix = 0; ix < width; ix++) {
+            double x = (originX + ix * stepX) * frequency;
+            double fx;
+            boolean fast = x >= 0 && x < COORD_LIMIT;
+            if (fast) {
+                fx = x - quotient * period;
+                if (fx >= period || fx < 0) {
+                    // Crossed into another period (or first sample): re-seed, then settle rounding.
+                    quotient = Math.floor(x / period);
+                    fx = x - quotient * period;
+                    while (fx >= period) {
+                        quotient++;
+                        fx = x - quotient * period;
+                    }
+                    while (fx < 0) {
+                        quotient--;
+                        fx = x - quotient * period;
+                    }
+                }
+            } else {
+                fx = x % repeatX;
+                if (fx < 0)
+                    fx += repeatX;
+            }
+            double floorX = Math.floor(fx);
+            int i = (int) floorX;
+            double relX = fx - floorX;
+            double relX1 = relX - 1;
+            double sx = fade(relX);
+
+            if (!fast || i != cell) {
+                for (int c = 0; c < channels; c++) {
+                    int pi, pii;
+                    if (fast && wrap[tableOffset + c] != null) {
+                        pi = wrap[tableOffset + c][i];
+                        pii = next[tableOffset + c][i];
+                    } else {
+                        int base = bases[c];
+                        int ii = (i + 1) % repeatX;
+                        pi = base != 0 ? (i + base) % repeatX : i;
+                        pii = base != 0 ? (ii + base) % repeatX : ii;
+                    }
+                    hashCell(tables[c], pi, pii, state.pj[c], state.pjj[c], state.pk[c], state.pkk[c],
+                            state.gradients, c * 8);
+                }
+                cell = fast ? i : -1;
+            }
+
+            int[] g = state.gradients;
+            for (int c = 0; c < channels; c++) {
+                int h = c * 8;
+                double value = lerp(sz,
+                        lerp(sy,
+                                lerp(sx, gradDot(g[h], relX, relY, relZ), gradDot(g[h + 1], relX1, relY, relZ)),
+                                lerp(sx, gradDot(g[h + 2], relX, relY1, relZ),
+                                        gradDot(g[h + 3], relX1, relY1, relZ))),
+                        lerp(sy,
+                                lerp(sx, gradDot(g[h + 4], relX, relY, relZ1),
+                                        gradDot(g[h + 5], relX1, relY, relZ1)),
+                                lerp(sx, gradDot(g[h + 6], relX, relY1, relZ1),
+                                        gradDot(g[h + 7], relX1, relY1, relZ1))));
+                row[ix * channels + c] += value * amplitude;
+            }
+        }
+    }
+
+    // The eight corner gradient indices of a tileable cell, in tileableCorners' blend order
+    // (AA, BA, AB, BB at k, then at kk), written to g[h..h + 7].
+    private static void hashCell(PermutationTable permTable, int pi, int pii, int pj, int pjj, int pk, int pkk,
+            int[] g, int h) {
+        int A = permTable.getPerm(pi);
+        int AA = permTable.getPerm(A + pj);
+        int AB = permTable.getPerm(A + pjj);
+        int B = permTable.getPerm(pii);
+        int BA = permTable.getPerm(B + pj);
+        int BB = permTable.getPerm(B + pjj);
+        g[h] = permTable.getPerm(AA + pk) & 15;
+        g[h + 1] = permTable.getPerm(BA + pk) & 15;
+        g[h + 2] = permTable.getPerm(AB + pk) & 15;
+        g[h + 3] = permTable.getPerm(BB + pk) & 15;
+        g[h + 4] = permTable.getPerm(AA + pkk) & 15;
+        g[h + 5] = permTable.getPerm(BA + pkk) & 15;
+        g[h + 6] = permTable.getPerm(AB + pkk) & 15;
+        g[h + 7] = permTable.getPerm(BB + pkk) & 15;
+    }
+}
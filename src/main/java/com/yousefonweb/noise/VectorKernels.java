@@ -0,0 +1,596 @@
+package com.yousefonweb.noise;
+
+import static com.yousefonweb.noise.NoiseConstants.F2;
+import static com.yousefonweb.noise.NoiseConstants.F3;
+import static com.yousefonweb.noise.NoiseConstants.G2;
+import static com.yousefonweb.noise.NoiseConstants.G3;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_X;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_Y;
+import static com.yousefonweb.noise.NoiseConstants.GRAD3_Z;
+
+import java.util.Arrays;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API versions of the per-octave row kernels used by the bulk grid methods.
+ *
+ * Each kernel runs over the row in a series of short passes: geometry (floor, fractional parts,
+ * simplex corner ordering), hashing (lane-wise gathers from the permutation table) and blending
+ * (gradient gathers, fade, lerp and the corner falloffs). Passes hand their results to each
+ * other through per-thread row scratch arrays. Every pass is a single loop of a few dozen vector
+ * operations written out in place, because C2 only intrinsifies the Vector API when everything
+ * is inlined into one compilation unit; larger loops, or helper methods taking or returning
+ * vectors, run into its inlining limits and fall back to boxed vectors that are many times
+ * slower than the scalar code.
+ *
+ * Every lane performs exactly the same IEEE operations as the scalar kernel, so results stay
+ * bit-identical. The row remainder, and rows whose coordinates do not fit the lane-wise int
+ * conversion, are handed to the scalar kernels.
+ *
+ * Only reachable through {@link SimdSupport#ENABLED}.
+ */
+final class VectorKernels {
+
+    private static final VectorSpecies<Double> DS = DoubleVector.SPECIES_PREFERRED;
+    // Same lane count as DS, so double and int lanes line up one to one.
+    private static final VectorSpecies<Integer> IS =
+            VectorSpecies.of(int.class, VectorShape.forBitSize(DS.vectorBitSize() / 2));
+
+    // Beyond this magnitude (int) Math.floor(x) no longer matches the lane-wise conversion.
+    private static final double COORD_LIMIT = 0x1p28;
+    // Largest divisor for which the double-based lane remainder stays exact.
+    private static final int MAX_EXACT_DIVISOR = 1 << 20;
+
+    private static final double[] LANE_INDEX = new double[DS.length()];
+    static {
+        for (int i = 0; i < LANE_INDEX.length; i++) {
+            LANE_INDEX[i] = i;
+        }
+    }
+
+    // Row-sized buffers passed between the passes of one kernel call.
+    private static final class Scratch {
+        double[] fx = new double[0], fy = new double[0], fz = new double[0], u = new double[0];
+        double[] cx = new double[0], cy = new double[0], cz = new double[0];
+        double[] acc = new double[0], acc2 = new double[0];
+        int[] ix = new int[0], iy = new int[0], iz = new int[0], code = new int[0], tmp = new int[0];
+        int[][] hash = new int[8][0];
+
+        Scratch ensure(int length) {
+            if (fx.length < length) {
+                fx = new double[length];
+                fy = new double[length];
+                fz = new double[length];
+                u = new double[length];
+                cx = new double[length];
+                cy = new double[length];
+                cz = new double[length];
+                acc = new double[length];
+                acc2 = new double[length];
+                ix = new int[length];
+                iy = new int[length];
+                iz = new int[length];
+                code = new int[length];
+                tmp = new int[length];
+                for (int i = 0; i < hash.length; i++) {
+                    hash[i] = new int[length];
+                }
+            }
+            return this;
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private VectorKernels() {
+    }
+
+    static boolean isUsable() {
+        return DS.length() >= 2 && IS.length() == DS.length();
+    }
+
+    // The int species of the hashing passes, which FloatVectorKernels shares.
+    static VectorSpecies<Integer> intSpecies() {
+        return IS;
+    }
+
+    // --- Perlin ---
+
+    static void addPerlinRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double frequency, double amplitude, int base, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        double fy = y * frequency;
+        int upper = DS.loopBound(count);
+        if (upper == 0 || !rowInRange(originX, stepX, ix0, upper, frequency) || !(Math.abs(fy) < COORD_LIMIT)
+                || (base != 0 && period > MAX_EXACT_DIVISOR)) {
+            PerlinNoise.addNoiseRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, amplitude, base,
+                    permTable);
+            return;
+        }
+        int[] perm = permTable.permArray();
+        int[] grad = permTable.permMod12Array();
+        int Y = PerlinNoise.latticeIndex((int) Math.floor(fy), base, period);
+        fy -= Math.floor(fy);
+        Scratch s = SCRATCH.get().ensure(upper);
+        int[][] h = s.hash;
+
+        perlinLattice(s, upper, originX, stepX, ix0, frequency, base, period);
+        fadeRow(s.fx, s.u, upper);
+        // A = perm[X] + Y and B = perm[X + 1] + Y, then the corner gradients of A, B, A + 1, B + 1
+        gatherRow(perm, s.ix, 0, Y, s.iy, upper);
+        gatherRow(perm, s.ix, 1, Y, s.iz, upper);
+        gatherRow(grad, s.iy, 0, 0, h[0], upper);
+        gatherRow(grad, s.iz, 0, 0, h[1], upper);
+        gatherRow(grad, s.iy, 1, 0, h[2], upper);
+        gatherRow(grad, s.iz, 1, 0, h[3], upper);
+        perlinEdge2D(s, h[0], h[1], fy, s.acc, upper);
+        perlinEdge2D(s, h[2], h[3], fy - 1, s.acc2, upper);
+        lerpAccumulate(s.acc, s.acc2, NoiseConstants.fade(fy), dst, offset, upper, amplitude);
+
+        if (upper < count) {
+            PerlinNoise.addNoiseRow2D(dst, offset + upper, originX, stepX, ix0 + upper, count - upper, y, frequency,
+                    amplitude, base, permTable);
+        }
+    }
+
+    static void addPerlinRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double z, double frequency, double amplitude, int base, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        double fy = y * frequency;
+        double fz = z * frequency;
+        int upper = DS.loopBound(count);
+        if (upper == 0 || !rowInRange(originX, stepX, ix0, upper, frequency) || !(Math.abs(fy) < COORD_LIMIT)
+                || !(Math.abs(fz) < COORD_LIMIT) || (base != 0 && period > MAX_EXACT_DIVISOR)) {
+            PerlinNoise.addNoiseRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, amplitude, base,
+                    permTable);
+            return;
+        }
+        int[] perm = permTable.permArray();
+        int[] grad = permTable.permMod12Array();
+        int Y = PerlinNoise.latticeIndex((int) Math.floor(fy), base, period);
+        int Z = PerlinNoise.latticeIndex((int) Math.floor(fz), base, period);
+        fy -= Math.floor(fy);
+        fz -= Math.floor(fz);
+        Scratch s = SCRATCH.get().ensure(upper);
+        int[][] h = s.hash;
+
+        perlinLattice(s, upper, originX, stepX, ix0, frequency, base, period);
+        fadeRow(s.fx, s.u, upper);
+        // A, B as in 2D, then AA, BA, AB, BB in hash[4..7]. The corner gradients are hash[0..3]
+        // at z and, replacing the lattice values in place, hash[4..7] at z + 1.
+        gatherRow(perm, s.ix, 0, Y, s.iy, upper);
+        gatherRow(perm, s.ix, 1, Y, s.iz, upper);
+        gatherRow(perm, s.iy, 0, Z, h[4], upper);
+        gatherRow(perm, s.iz, 0, Z, h[5], upper);
+        gatherRow(perm, s.iy, 1, Z, h[6], upper);
+        gatherRow(perm, s.iz, 1, Z, h[7], upper);
+        for (int c = 0; c < 4; c++) {
+            gatherRow(grad, h[4 + c], 0, 0, h[c], upper);
+            gatherRow(grad, h[4 + c], 1, 0, h[4 + c], upper);
+        }
+        double v = NoiseConstants.fade(fy);
+        perlinEdge3D(s, h[0], h[1], fy, fz, s.acc, upper);
+        perlinEdge3D(s, h[2], h[3], fy - 1, fz, s.acc2, upper);
+        lerpRow(s.acc, s.acc2, v, s.acc, upper);
+        perlinEdge3D(s, h[4], h[5], fy, fz - 1, s.acc2, upper);
+        perlinEdge3D(s, h[6], h[7], fy - 1, fz - 1, s.cx, upper);
+        lerpRow(s.acc2, s.cx, v, s.acc2, upper);
+        lerpAccumulate(s.acc, s.acc2, NoiseConstants.fade(fz), dst, offset, upper, amplitude);
+
+        if (upper < count) {
+            PerlinNoise.addNoiseRow3D(dst, offset + upper, originX, stepX, ix0 + upper, count - upper, y, z,
+                    frequency, amplitude, base, permTable);
+        }
+    }
+
+    // --- Simplex ---
+
+    static void addSimplexRow2D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double frequency, double amplitude, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        double fy = y * frequency;
+        int upper = DS.loopBound(count);
+        if (upper == 0 || !rowInRange(originX, stepX, ix0, upper, frequency) || !(Math.abs(fy) < COORD_LIMIT)
+                || period > MAX_EXACT_DIVISOR) {
+            SimplexNoise.addNoiseRow2D(dst, offset, originX, stepX, ix0, count, y, frequency, amplitude, permTable);
+            return;
+        }
+        int[] perm = permTable.permArray();
+        int[] grad = permTable.permMod12Array();
+        Scratch s = SCRATCH.get().ensure(upper);
+        int[][] h = s.hash;
+
+        simplexSkew2D(s, upper, originX, stepX, ix0, frequency, fy);
+        wrapRow(s.ix, period, upper);
+        wrapRow(s.iy, period, upper);
+        // perm[ii + di + perm[jj + dj]] for the corners (0, 0), (i1, j1) and (1, 1)
+        gatherRow(perm, s.iy, 0, 0, s.tmp, upper);
+        addRows(s.ix, s.tmp, 0, h[0], upper);
+        gatherRow(grad, h[0], 0, 0, h[0], upper);
+        simplexMiddleHash2D(perm, grad, s, h[1], upper);
+        gatherRow(perm, s.iy, 1, 0, s.tmp, upper);
+        addRows(s.ix, s.tmp, 1, h[2], upper);
+        gatherRow(grad, h[2], 0, 0, h[2], upper);
+
+        Arrays.fill(s.acc, 0, upper, 0.0);
+        simplexCorner2D(s.fx, s.fy, h[0], s.acc, upper);
+        simplexMiddleOffset2D(s, upper);
+        simplexCorner2D(s.cx, s.cy, h[1], s.acc, upper);
+        shiftRow(s.fx, 2.0 * G2, s.cx, upper);
+        shiftRow(s.fy, 2.0 * G2, s.cy, upper);
+        simplexCorner2D(s.cx, s.cy, h[2], s.acc, upper);
+        scaleAccumulate(s.acc, 70.0, dst, offset, upper, amplitude);
+
+        if (upper < count) {
+            SimplexNoise.addNoiseRow2D(dst, offset + upper, originX, stepX, ix0 + upper, count - upper, y, frequency,
+                    amplitude, permTable);
+        }
+    }
+
+    static void addSimplexRow3D(double[] dst, int offset, double originX, double stepX, int ix0, int count,
+            double y, double z, double frequency, double amplitude, PermutationTable permTable) {
+        int period = permTable.getPeriod();
+        double fy = y * frequency;
+        double fz = z * frequency;
+        int upper = DS.loopBound(count);
+        if (upper == 0 || !rowInRange(originX, stepX, ix0, upper, frequency) || !(Math.abs(fy) < COORD_LIMIT)
+                || !(Math.abs(fz) < COORD_LIMIT) || period > MAX_EXACT_DIVISOR) {
+            SimplexNoise.addNoiseRow3D(dst, offset, originX, stepX, ix0, count, y, z, frequency, amplitude,
+                    permTable, new int[8]);
+            return;
+        }
+        int[] perm = permTable.permArray();
+        int[] grad = permTable.permMod12Array();
+        Scratch s = SCRATCH.get().ensure(upper);
+        int[][] h = s.hash;
+
+        simplexSkew3D(s, upper, originX, stepX, ix0, frequency, fy, fz);
+        simplexUnskew3D(s, upper, originX, stepX, ix0, frequency, fy, fz);
+        simplexOrder3D(s, upper);
+        wrapRow(s.ix, period, upper);
+        wrapRow(s.iy, period, upper);
+        wrapRow(s.iz, period, upper);
+        simplexHash3D(perm, grad, s.code, s.ix, s.iy, s.iz, -1, 0, h[0], upper);
+        simplexHash3D(perm, grad, s.code, s.ix, s.iy, s.iz, 3, 0, h[1], upper);
+        simplexHash3D(perm, grad, s.code, s.ix, s.iy, s.iz, 0, 0, h[2], upper);
+        simplexHash3D(perm, grad, s.code, s.ix, s.iy, s.iz, -1, 1, h[3], upper);
+
+        Arrays.fill(s.acc, 0, upper, 0.0);
+        simplexCorner3D(s.fx, s.fy, s.fz, h[0], s.acc, upper);
+        simplexOffset3D(s, 3, G3, upper);
+        simplexCorner3D(s.cx, s.cy, s.cz, h[1], s.acc, upper);
+        simplexOffset3D(s, 0, 2.0 * G3, upper);
+        simplexCorner3D(s.cx, s.cy, s.cz, h[2], s.acc, upper);
+        shiftRow(s.fx, 3.0 * G3, s.cx, upper);
+        shiftRow(s.fy, 3.0 * G3, s.cy, upper);
+        shiftRow(s.fz, 3.0 * G3, s.cz, upper);
+        simplexCorner3D(s.cx, s.cy, s.cz, h[3], s.acc, upper);
+        scaleAccumulate(s.acc, 32.0, dst, offset, upper, amplitude);
+
+        if (upper < count) {
+            SimplexNoise.addNoiseRow3D(dst, offset + upper, originX, stepX, ix0 + upper, count - upper, y, z,
+                    frequency, amplitude, permTable, new int[8]);
+        }
+    }
+
+    // --- Geometry passes ---
+
+    // s.ix = latticeIndex(floor(x), base, period), s.fx = x - floor(x)
+    private static void perlinLattice(Scratch s, int upper, double originX, double stepX, int ix0,
+            double frequency, int base, int period) {
+        DoubleVector lanes = DoubleVector.fromArray(DS, LANE_INDEX, 0);
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x = lanes.add(ix0 + n).mul(stepX).add(originX).mul(frequency);
+            IntVector t = (IntVector) x.convertShape(VectorOperators.D2I, IS, 0);
+            DoubleVector td = (DoubleVector) t.convertShape(VectorOperators.I2D, DS, 0);
+            IntVector cell = t.sub(1, x.compare(VectorOperators.LT, td).cast(IS));
+            DoubleVector floor = (DoubleVector) cell.convertShape(VectorOperators.I2D, DS, 0);
+            x.sub(floor).add(0.0).intoArray(s.fx, n); // add(0.0) turns the -0.0 of x = -0.0 into 0.0
+            cell.and(period - 1).add(base).intoArray(s.ix, n);
+        }
+        if (base != 0) {
+            wrapRow(s.ix, period, upper);
+        }
+    }
+
+    // s.fx/s.fy = x0/y0 and s.ix/s.iy = the unwrapped cell i/j
+    private static void simplexSkew2D(Scratch s, int upper, double originX, double stepX, int ix0,
+            double frequency, double fy) {
+        DoubleVector lanes = DoubleVector.fromArray(DS, LANE_INDEX, 0);
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x = lanes.add(ix0 + n).mul(stepX).add(originX).mul(frequency);
+            DoubleVector sk = x.add(fy).mul(F2);
+            DoubleVector xs = x.add(sk);
+            DoubleVector ys = sk.add(fy);
+            IntVector ti = (IntVector) xs.convertShape(VectorOperators.D2I, IS, 0);
+            IntVector tj = (IntVector) ys.convertShape(VectorOperators.D2I, IS, 0);
+            IntVector i = ti.sub(1, xs.compare(VectorOperators.LT,
+                    (DoubleVector) ti.convertShape(VectorOperators.I2D, DS, 0)).cast(IS));
+            IntVector j = tj.sub(1, ys.compare(VectorOperators.LT,
+                    (DoubleVector) tj.convertShape(VectorOperators.I2D, DS, 0)).cast(IS));
+            DoubleVector t = ((DoubleVector) i.add(j).convertShape(VectorOperators.I2D, DS, 0)).mul(G2);
+            DoubleVector x0 = x.sub(((DoubleVector) i.convertShape(VectorOperators.I2D, DS, 0)).sub(t));
+            DoubleVector y0 = DoubleVector.broadcast(DS, fy)
+                    .sub(((DoubleVector) j.convertShape(VectorOperators.I2D, DS, 0)).sub(t));
+            x0.intoArray(s.fx, n);
+            y0.intoArray(s.fy, n);
+            i.intoArray(s.ix, n);
+            j.intoArray(s.iy, n);
+        }
+    }
+
+    // s.ix/s.iy/s.iz = the unwrapped cell i/j/k
+    private static void simplexSkew3D(Scratch s, int upper, double originX, double stepX, int ix0,
+            double frequency, double fy, double fz) {
+        DoubleVector lanes = DoubleVector.fromArray(DS, LANE_INDEX, 0);
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x = lanes.add(ix0 + n).mul(stepX).add(originX).mul(frequency);
+            DoubleVector sk = x.add(fy).add(fz).mul(F3);
+            DoubleVector xs = x.add(sk);
+            DoubleVector ys = sk.add(fy);
+            DoubleVector zs = sk.add(fz);
+            IntVector ti = (IntVector) xs.convertShape(VectorOperators.D2I, IS, 0);
+            IntVector tj = (IntVector) ys.convertShape(VectorOperators.D2I, IS, 0);
+            IntVector tk = (IntVector) zs.convertShape(VectorOperators.D2I, IS, 0);
+            ti.sub(1, xs.compare(VectorOperators.LT, (DoubleVector) ti.convertShape(VectorOperators.I2D, DS, 0))
+                    .cast(IS)).intoArray(s.ix, n);
+            tj.sub(1, ys.compare(VectorOperators.LT, (DoubleVector) tj.convertShape(VectorOperators.I2D, DS, 0))
+                    .cast(IS)).intoArray(s.iy, n);
+            tk.sub(1, zs.compare(VectorOperators.LT, (DoubleVector) tk.convertShape(VectorOperators.I2D, DS, 0))
+                    .cast(IS)).intoArray(s.iz, n);
+        }
+    }
+
+    // s.fx/s.fy/s.fz = x0/y0/z0 from the cells found by simplexSkew3D
+    private static void simplexUnskew3D(Scratch s, int upper, double originX, double stepX, int ix0,
+            double frequency, double fy, double fz) {
+        DoubleVector lanes = DoubleVector.fromArray(DS, LANE_INDEX, 0);
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x = lanes.add(ix0 + n).mul(stepX).add(originX).mul(frequency);
+            IntVector i = IntVector.fromArray(IS, s.ix, n);
+            IntVector j = IntVector.fromArray(IS, s.iy, n);
+            IntVector k = IntVector.fromArray(IS, s.iz, n);
+            DoubleVector t = ((DoubleVector) i.add(j).add(k).convertShape(VectorOperators.I2D, DS, 0)).mul(G3);
+            x.sub(((DoubleVector) i.convertShape(VectorOperators.I2D, DS, 0)).sub(t)).intoArray(s.fx, n);
+            DoubleVector.broadcast(DS, fy).sub(((DoubleVector) j.convertShape(VectorOperators.I2D, DS, 0)).sub(t))
+                    .intoArray(s.fy, n);
+            DoubleVector.broadcast(DS, fz).sub(((DoubleVector) k.convertShape(VectorOperators.I2D, DS, 0)).sub(t))
+                    .intoArray(s.fz, n);
+        }
+    }
+
+    // s.code = corner offset bits i1 j1 k1 i2 j2 k2 (bit 5 down to bit 0), a branch-free form of
+    // the scalar x0 >= y0 / y0 >= z0 / x0 >= z0 decision tree.
+    private static void simplexOrder3D(Scratch s, int upper) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x0 = DoubleVector.fromArray(DS, s.fx, n);
+            DoubleVector y0 = DoubleVector.fromArray(DS, s.fy, n);
+            DoubleVector z0 = DoubleVector.fromArray(DS, s.fz, n);
+            VectorMask<Integer> xy = x0.compare(VectorOperators.GE, y0).cast(IS);
+            VectorMask<Integer> yz = y0.compare(VectorOperators.GE, z0).cast(IS);
+            VectorMask<Integer> xz = x0.compare(VectorOperators.GE, z0).cast(IS);
+            IntVector.zero(IS)
+                    .add(32, xy.and(xz))
+                    .add(16, xy.not().and(yz))
+                    .add(8, xy.and(xz.not()).or(xy.not().and(yz.not())))
+                    .add(4, xy.or(xz))
+                    .add(2, xy.not().or(yz))
+                    .add(1, xy.and(yz.not()).or(xy.not().and(xz.not())))
+                    .intoArray(s.code, n);
+        }
+    }
+
+    // --- Hashing passes ---
+    // These work on int rows only and are shared with FloatVectorKernels, whose loop bound is
+    // a multiple of the same int lane count.
+
+    // out = perm[index + delta] + add; out may be index
+    static void gatherRow(int[] perm, int[] index, int delta, int add, int[] out, int upper) {
+        for (int n = 0; n < upper; n += IS.length()) {
+            if (delta != 0) {
+                IntVector.fromArray(IS, index, n).add(delta).intoArray(out, n);
+                IntVector.fromArray(IS, perm, 0, out, n).add(add).intoArray(out, n);
+            } else {
+                IntVector.fromArray(IS, perm, 0, index, n).add(add).intoArray(out, n);
+            }
+        }
+    }
+
+    // out = a + b + delta
+    static void addRows(int[] a, int[] b, int delta, int[] out, int upper) {
+        for (int n = 0; n < upper; n += IS.length()) {
+            IntVector.fromArray(IS, a, n).add(IntVector.fromArray(IS, b, n)).add(delta).intoArray(out, n);
+        }
+    }
+
+    // out = grad[ii + i1 + perm[jj + j1]], with (i1, j1) = (1, 0) where x0 > y0 and (0, 1) elsewhere
+    private static void simplexMiddleHash2D(int[] perm, int[] grad, Scratch s, int[] out, int upper) {
+        for (int n = 0; n < upper; n += IS.length()) {
+            VectorMask<Integer> lower = DoubleVector.fromArray(DS, s.fx, n)
+                    .compare(VectorOperators.GT, DoubleVector.fromArray(DS, s.fy, n)).cast(IS);
+            IntVector.fromArray(IS, s.iy, n).add(1, lower.not()).intoArray(out, n);
+            IntVector.fromArray(IS, s.ix, n).add(1, lower).add(IntVector.fromArray(IS, perm, 0, out, n))
+                    .intoArray(out, n);
+            IntVector.fromArray(IS, grad, 0, out, n).intoArray(out, n);
+        }
+    }
+
+    // out = grad[ii + di + perm[jj + dj + perm[kk + dk]]], with the offsets read from code bits
+    // (shift + 2, shift + 1, shift), or all equal to 'constant' when shift is negative.
+    static void simplexHash3D(int[] perm, int[] grad, int[] code, int[] ii, int[] jj, int[] kk, int shift,
+            int constant, int[] out, int upper) {
+        for (int n = 0; n < upper; n += IS.length()) {
+            IntVector di, dj, dk;
+            if (shift < 0) {
+                di = dj = dk = IntVector.broadcast(IS, constant);
+            } else {
+                IntVector bits = IntVector.fromArray(IS, code, n);
+                di = bits.lanewise(VectorOperators.LSHR, shift + 2).and(1);
+                dj = bits.lanewise(VectorOperators.LSHR, shift + 1).and(1);
+                dk = bits.lanewise(VectorOperators.LSHR, shift).and(1);
+            }
+            IntVector.fromArray(IS, kk, n).add(dk).intoArray(out, n);
+            IntVector.fromArray(IS, jj, n).add(dj).add(IntVector.fromArray(IS, perm, 0, out, n)).intoArray(out, n);
+            IntVector.fromArray(IS, ii, n).add(di).add(IntVector.fromArray(IS, perm, 0, out, n)).intoArray(out, n);
+            IntVector.fromArray(IS, grad, 0, out, n).intoArray(out, n);
+        }
+    }
+
+    // a = a % period, shifted into [0, period). The double quotient of two ints is never rounded
+    // across an integer while the divisor is at most MAX_EXACT_DIVISOR, so truncating it gives
+    // Java's int quotient.
+    static void wrapRow(int[] a, int period, int upper) {
+        for (int n = 0; n < upper; n += IS.length()) {
+            IntVector v = IntVector.fromArray(IS, a, n);
+            DoubleVector q = ((DoubleVector) v.convertShape(VectorOperators.I2D, DS, 0)).div(period);
+            IntVector r = v.sub(((IntVector) q.convertShape(VectorOperators.D2I, IS, 0)).mul(period));
+            r.add(period, r.compare(VectorOperators.LT, 0)).intoArray(a, n);
+        }
+    }
+
+    // --- Blending passes ---
+
+    // u = fade(t)
+    private static void fadeRow(double[] t, double[] u, int upper) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector v = DoubleVector.fromArray(DS, t, n);
+            v.mul(v).mul(v).mul(v.mul(v.mul(6.0).sub(15.0)).add(10.0)).intoArray(u, n);
+        }
+    }
+
+    // out = lerp(u, dot(gradA, x, y), dot(gradB, x - 1, y)) along one cell edge
+    private static void perlinEdge2D(Scratch s, int[] gradA, int[] gradB, double y, double[] out, int upper) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x = DoubleVector.fromArray(DS, s.fx, n);
+            DoubleVector a = DoubleVector.fromArray(DS, GRAD3_X, 0, gradA, n).mul(x)
+                    .add(DoubleVector.fromArray(DS, GRAD3_Y, 0, gradA, n).mul(y));
+            DoubleVector b = DoubleVector.fromArray(DS, GRAD3_X, 0, gradB, n).mul(x.sub(1.0))
+                    .add(DoubleVector.fromArray(DS, GRAD3_Y, 0, gradB, n).mul(y));
+            a.add(DoubleVector.fromArray(DS, s.u, n).mul(b.sub(a))).intoArray(out, n);
+        }
+    }
+
+    // out = lerp(u, dot(gradA, x, y, z), dot(gradB, x - 1, y, z)) along one cell edge
+    private static void perlinEdge3D(Scratch s, int[] gradA, int[] gradB, double y, double z, double[] out,
+            int upper) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x = DoubleVector.fromArray(DS, s.fx, n);
+            DoubleVector a = DoubleVector.fromArray(DS, GRAD3_X, 0, gradA, n).mul(x)
+                    .add(DoubleVector.fromArray(DS, GRAD3_Y, 0, gradA, n).mul(y))
+                    .add(DoubleVector.fromArray(DS, GRAD3_Z, 0, gradA, n).mul(z));
+            DoubleVector b = DoubleVector.fromArray(DS, GRAD3_X, 0, gradB, n).mul(x.sub(1.0))
+                    .add(DoubleVector.fromArray(DS, GRAD3_Y, 0, gradB, n).mul(y))
+                    .add(DoubleVector.fromArray(DS, GRAD3_Z, 0, gradB, n).mul(z));
+            a.add(DoubleVector.fromArray(DS, s.u, n).mul(b.sub(a))).intoArray(out, n);
+        }
+    }
+
+    // out = lerp(t, a, b); out may be a or b
+    private static void lerpRow(double[] a, double[] b, double t, double[] out, int upper) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector va = DoubleVector.fromArray(DS, a, n);
+            va.add(DoubleVector.fromArray(DS, b, n).sub(va).mul(t)).intoArray(out, n);
+        }
+    }
+
+    // dst += lerp(t, a, b) * amplitude
+    private static void lerpAccumulate(double[] a, double[] b, double t, double[] dst, int offset, int upper,
+            double amplitude) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector va = DoubleVector.fromArray(DS, a, n);
+            DoubleVector value = va.add(DoubleVector.fromArray(DS, b, n).sub(va).mul(t));
+            DoubleVector.fromArray(DS, dst, offset + n).add(value.mul(amplitude)).intoArray(dst, offset + n);
+        }
+    }
+
+    // dst += scale * acc * amplitude
+    private static void scaleAccumulate(double[] acc, double scale, double[] dst, int offset, int upper,
+            double amplitude) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector value = DoubleVector.fromArray(DS, acc, n).mul(scale);
+            DoubleVector.fromArray(DS, dst, offset + n).add(value.mul(amplitude)).intoArray(dst, offset + n);
+        }
+    }
+
+    // out = a - 1.0 + g, the offset of the far simplex corner
+    private static void shiftRow(double[] a, double g, double[] out, int upper) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector.fromArray(DS, a, n).sub(1.0).add(g).intoArray(out, n);
+        }
+    }
+
+    // s.cx/s.cy = x0 - i1 + G2, y0 - j1 + G2
+    private static void simplexMiddleOffset2D(Scratch s, int upper) {
+        DoubleVector one = DoubleVector.broadcast(DS, 1.0);
+        DoubleVector zero = DoubleVector.zero(DS);
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x0 = DoubleVector.fromArray(DS, s.fx, n);
+            DoubleVector y0 = DoubleVector.fromArray(DS, s.fy, n);
+            VectorMask<Double> lower = x0.compare(VectorOperators.GT, y0);
+            x0.sub(zero.blend(one, lower)).add(G2).intoArray(s.cx, n);
+            y0.sub(one.blend(zero, lower)).add(G2).intoArray(s.cy, n);
+        }
+    }
+
+    // s.cx/s.cy/s.cz = x0 - di + g, ... with the offsets from s.code bits (shift + 2 .. shift)
+    private static void simplexOffset3D(Scratch s, int shift, double g, int upper) {
+        for (int n = 0; n < upper; n += DS.length()) {
+            IntVector code = IntVector.fromArray(IS, s.code, n);
+            DoubleVector di = (DoubleVector) code.lanewise(VectorOperators.LSHR, shift + 2).and(1)
+                    .convertShape(VectorOperators.I2D, DS, 0);
+            DoubleVector dj = (DoubleVector) code.lanewise(VectorOperators.LSHR, shift + 1).and(1)
+                    .convertShape(VectorOperators.I2D, DS, 0);
+            DoubleVector dk = (DoubleVector) code.lanewise(VectorOperators.LSHR, shift).and(1)
+                    .convertShape(VectorOperators.I2D, DS, 0);
+            DoubleVector.fromArray(DS, s.fx, n).sub(di).add(g).intoArray(s.cx, n);
+            DoubleVector.fromArray(DS, s.fy, n).sub(dj).add(g).intoArray(s.cy, n);
+            DoubleVector.fromArray(DS, s.fz, n).sub(dk).add(g).intoArray(s.cz, n);
+        }
+    }
+
+    // acc += t^4 * dot(grad, x, y) in the lanes where t = 0.5 - x^2 - y^2 > 0
+    private static void simplexCorner2D(double[] xs, double[] ys, int[] grad, double[] acc, int upper) {
+        DoubleVector half = DoubleVector.broadcast(DS, 0.5);
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x = DoubleVector.fromArray(DS, xs, n);
+            DoubleVector y = DoubleVector.fromArray(DS, ys, n);
+            DoubleVector t = half.sub(x.mul(x)).sub(y.mul(y));
+            DoubleVector dot = DoubleVector.fromArray(DS, GRAD3_X, 0, grad, n).mul(x)
+                    .add(DoubleVector.fromArray(DS, GRAD3_Y, 0, grad, n).mul(y));
+            DoubleVector t2 = t.mul(t);
+            DoubleVector.fromArray(DS, acc, n).add(t2.mul(t2).mul(dot), t.compare(VectorOperators.GT, 0.0))
+                    .intoArray(acc, n);
+        }
+    }
+
+    // acc += t^4 * dot(grad, x, y, z) in the lanes where t = 0.6 - x^2 - y^2 - z^2 > 0
+    private static void simplexCorner3D(double[] xs, double[] ys, double[] zs, int[] grad, double[] acc,
+            int upper) {
+        DoubleVector limit = DoubleVector.broadcast(DS, 0.6);
+        for (int n = 0; n < upper; n += DS.length()) {
+            DoubleVector x = DoubleVector.fromArray(DS, xs, n);
+            DoubleVector y = DoubleVector.fromArray(DS, ys, n);
+            DoubleVector z = DoubleVector.fromArray(DS, zs, n);
+            DoubleVector t = limit.sub(x.mul(x)).sub(y.mul(y)).sub(z.mul(z));
+            DoubleVector dot = DoubleVector.fromArray(DS, GRAD3_X, 0, grad, n).mul(x)
+                    .add(DoubleVector.fromArray(DS, GRAD3_Y, 0, grad, n).mul(y))
+                    .add(DoubleVector.fromArray(DS, GRAD3_Z, 0, grad, n).mul(z));
+            DoubleVector t2 = t.mul(t);
+            DoubleVector.fromArray(DS, acc, n).add(t2.mul(t2).mul(dot), t.compare(VectorOperators.GT, 0.0))
+                    .intoArray(acc, n);
+        }
+    }
+
+    // Both ends of the row bound every sample, since originX + ix * stepX is monotonic in ix.
+    private static boolean rowInRange(double originX, double stepX, int ix0, int count, double frequency) {
+        double first = (originX + ix0 * stepX) * frequency;
+        double last = (originX + (ix0 + count - 1) * stepX) * frequency;
+        return Math.abs(first) < COORD_LIMIT && Math.abs(last) < COORD_LIMIT;
+    }
+}
@@ -7,6 +7,7 @@ import org.lwjgl.opengl.GL13;
 import org.lwjgl.opengl.GL20;
 import org.lwjgl.opengl.GL30; // For GL_RG16
 
+import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
@@ -49,6 +50,15 @@ public class GLUtil {
         GL12.glTexImage3D(target, level, internalFormat, width, height, depth, border, format, type, data);
     }
 
+    // Uploads straight from off-heap memory, e.g. a segment filled by SegmentNoise; the segment
+    // must be native (not heap-backed) and hold the whole image.
+    public static void glTexImage3D(int target, int level, int internalFormat, int width, int height, int depth, int border, int format, int type, MemorySegment data) {
+        if (!data.isNative()) {
+            throw new IllegalArgumentException("Texture data must be in a native memory segment.");
+        }
+        GL12.nglTexImage3D(target, level, internalFormat, width, height, depth, border, format, type, data.address());
+    }
+
     public static int glCreateShader(int shaderType) { return GL20.glCreateShader(shaderType); }
     public static void glShaderSource(int shader, CharSequence string) { GL20.glShaderSource(shader, string); }
     public static void glCompileShader(int shader) { GL20.glCompileShader(shader); }
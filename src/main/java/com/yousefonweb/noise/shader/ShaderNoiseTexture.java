@@ -1,19 +1,50 @@
 package com.yousefonweb.noise.shader;
 
-import com.yousefonweb.noise.Noise;
+import com.yousefonweb.noise.PermutationTable;
+import com.yousefonweb.noise.Quantizer;
+import com.yousefonweb.noise.SegmentNoise;
 import com.yousefonweb.noise.gl.GLUtil;
 
+import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.ShortBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.lwjgl.BufferUtils; // For allocateDirect ShortBuffer more easily
 
 public class ShaderNoiseTexture {
+    // Maps [-1,1] noise to [0, 65535] for unsigned short by truncation, the mapping existing
+    // textures and cache files were built with.
+    private static final Quantizer TEXEL_QUANTIZER = Quantizer.unsigned16()
+            .withRounding(Quantizer.Rounding.TRUNCATE).withClamping(false);
+
     private int freq;
     private int width;
     private ShortBuffer textureData; // R, G channels for two noise values
 
+    /**
+     * Builds the texture on the common fork/join pool.
+     */
     public ShaderNoiseTexture(int freq, int width) {
+        this(freq, width, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds the texture with z-slices computed in parallel on {@code executor}.
+     * The calling thread takes slices as well and returns once all of them are written,
+     * so a busy or single-threaded executor only makes the build slower, never blocks it.
+     * The texture data does not depend on the executor or on the order the slices finish.
+     */
+    public ShaderNoiseTexture(int freq, int width, Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
         this.freq = freq;
         this.width = width;
 
@@ -21,37 +52,123 @@ public class ShaderNoiseTexture {
             System.err.println("Warning: ShaderNoiseTexture width " + width + " is not a power of two. Some GL targets might prefer power-of-two textures.");
         }
         
-        double scale = (double) freq / width;
         int texelCount = width * width * width;
         // Each texel has 2 short values (R, G)
         this.textureData = BufferUtils.createShortBuffer(texelCount * 2); // LWJGL BufferUtils for direct buffer
 
-        for (int z = 0; z < width; z++) {
-            for (int y = 0; y < width; y++) {
-                for (int x = 0; x < width; x++) {
-                    // Noise channel 1 (goes to Red channel of texture)
-                    double n1_val = Noise.pnoise3(
-                        x * scale, y * scale, z * scale,
-                        freq, freq, freq, // repeatX, repeatY, repeatZ
-                        0 // base for permutation for first channel
-                    );
-                    // Noise channel 2 (goes to Green channel of texture)
-                    double n2_val = Noise.pnoise3(
-                        x * scale, y * scale, z * scale,
-                        freq, freq, freq, // repeatX, repeatY, repeatZ
-                        freq + 1 // base for permutation for second channel
-                    );
-
-                    // Map [-1,1] noise to [0, 65535] for unsigned short
-                    short r_channel = (short) ((n1_val + 1.0) * 32767.5);
-                    short g_channel = (short) ((n2_val + 1.0) * 32767.5);
-                    
-                    textureData.put(r_channel);
-                    textureData.put(g_channel);
+        // Slices are written with absolute puts, so the buffer stays at position 0 with the
+        // limit at its capacity, ready for reading.
+        PermutationTable table = channelTable();
+        SliceWork work = new SliceWork(width);
+        int helpers = Math.min(width, Runtime.getRuntime().availableProcessors()) - 1;
+        try {
+            for (int h = 0; h < helpers; h++) {
+                executor.execute(() -> work.drain(table));
+            }
+        } catch (RejectedExecutionException e) {
+            // Fewer helpers; the remaining slices are built on this thread.
+        }
+        work.drain(table);
+        work.await();
+    }
+
+    // Wraps texel data produced earlier, e.g. mapped from a ShaderNoiseTextureCache file.
+    ShaderNoiseTexture(int freq, int width, ShortBuffer textureData) {
+        this.freq = freq;
+        this.width = width;
+        this.textureData = textureData;
+    }
+
+    /**
+     * Builds a texture on the common fork/join pool without blocking the caller.
+     */
+    public static CompletableFuture<ShaderNoiseTexture> createAsync(int freq, int width) {
+        return createAsync(freq, width, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Builds a texture on {@code executor} without blocking the caller. The result has the same
+     * contents as {@code new ShaderNoiseTexture(freq, width)}; upload it with {@link #loadToGL(int)}
+     * on the GL thread once the future completes.
+     */
+    public static CompletableFuture<ShaderNoiseTexture> createAsync(int freq, int width, Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null.");
+        }
+        return CompletableFuture.supplyAsync(() -> new ShaderNoiseTexture(freq, width, executor), executor);
+    }
+
+    // Fills z-slice z of the texture.
+    private void fillSlice(int z, PermutationTable table) {
+        double scale = (double) freq / width;
+        // Both channels come from one multi-channel evaluation per texel, which shares the
+        // wrapping, floors and fade weights between them.
+        int[] bases = channelBases(freq);
+        // The whole slice is one call, so the tileable row engine sets up its wrap tables once,
+        // and texels are quantized straight into the direct buffer (4 bytes per RG texel).
+        PermutationTable[] tables = { table, table };
+        SegmentNoise.fillGrid3DChannels(MemorySegment.ofBuffer(textureData), (long) z * width * width * 4, 4,
+                TEXEL_QUANTIZER, 0.0, 0.0, z * scale, scale, scale, scale,
+                width, width, 1, 1, 0.5, 2.0, bases, tables,
+                freq, freq, freq); // repeatX, repeatY, repeatZ
+    }
+
+    // Permutation bases of the two channels: Red uses base 0, Green base freq + 1.
+    static int[] channelBases(int freq) {
+        return new int[] { 0, freq + 1 };
+    }
+
+    // Table both channels are computed from.
+    static PermutationTable channelTable() {
+        return new PermutationTable();
+    }
+
+    // Hands out z-slices to whichever thread asks next and tracks when all are written.
+    private final class SliceWork {
+        private final AtomicInteger nextSlice = new AtomicInteger();
+        private final CountDownLatch remaining;
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        SliceWork(int slices) {
+            this.remaining = new CountDownLatch(slices);
+        }
+
+        void drain(PermutationTable table) {
+            for (int z; (z = nextSlice.getAndIncrement()) < width; ) {
+                try {
+                    if (failure.get() == null) {
+                        fillSlice(z, table);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                } finally {
+                    remaining.countDown();
                 }
             }
         }
-        this.textureData.flip(); // Prepare buffer for reading
+
+        // Waits for slices still being written by other threads; unclaimed ones were taken by the caller.
+        void await() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    remaining.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable t = failure.get();
+            if (t instanceof RuntimeException e) {
+                throw e;
+            }
+            if (t instanceof Error e) {
+                throw e;
+            }
+        }
     }
 
     public void loadToGL(int textureTarget) { // e.g., GLUtil.GL_TEXTURE_3D
@@ -77,6 +194,10 @@ public class ShaderNoiseTexture {
         return textureData;
     }
 
+    public int getFreq() {
+        return freq;
+    }
+
     public int getWidth() {
         return width;
     }
@@ -0,0 +1,260 @@
+package com.yousefonweb.noise.shader;
+
+import com.yousefonweb.noise.SingleFlight;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32C;
+
+/**
+ * Keeps baked {@link ShaderNoiseTexture} data on disk so that later runs map it instead of
+ * computing it again.
+ *
+ * Each texture is one file in the cache directory holding a 64-byte header followed by the
+ * RG16 texels exactly as {@link ShaderNoiseTexture#loadToGL(int)} uploads them. A hit maps the
+ * texels with {@link FileChannel#map} and hands that buffer to the texture, so a cold start
+ * costs the page-in of the file rather than the bake.
+ *
+ * Header (big-endian):
+ * <pre>
+ *  0  magic "YNOISE3D"        36  bits per channel (16)
+ *  8  format version          40  permutation table fingerprint
+ * 12  texel byte order        48  payload length in bytes
+ * 16  freq, 20  width         56  CRC32C of the payload
+ * 24  channels (2)            60  CRC32C of header bytes 0..59
+ * 28  base of channel 1, 32  base of channel 2
+ * </pre>
+ * A file is used only if every field matches the requested texture, the platform byte order
+ * and {@link #FORMAT_VERSION}, and both checksums are correct; anything else, including a
+ * truncated or corrupted file, is treated as a miss and rewritten. Files are written to a
+ * temporary name and moved into place, so concurrent readers and writers (also in other
+ * processes) never see a partial file.
+ *
+ * Concurrent {@link #get} and {@link #getAsync} calls for the same texture share one load or
+ * bake through a {@link SingleFlight}, so a burst of identical requests costs one bake.
+ *
+ * Mapped texture data is read-only.
+ */
+public final class ShaderNoiseTextureCache {
+
+    /** Bump whenever the file layout or the generated noise changes. */
+    public static final int FORMAT_VERSION = 1;
+
+    static final int HEADER_BYTES = 64;
+    private static final byte[] MAGIC = "YNOISE3D".getBytes(StandardCharsets.US_ASCII);
+    private static final int CHANNELS = 2;
+    private static final int BITS_PER_CHANNEL = 16;
+    private static final int WRITE_CHUNK_SHORTS = 1 << 15;
+
+    private final Path directory;
+    private final SingleFlight<Long, ShaderNoiseTexture> inFlight;
+
+    /**
+     * @param directory Directory holding the cache files; created on the first write.
+     */
+    public ShaderNoiseTextureCache(Path directory) {
+        this(directory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param directory Directory holding the cache files; created on the first write.
+     * @param executor  Runs the loads and bakes started by {@link #getAsync}.
+     */
+    public ShaderNoiseTextureCache(Path directory, Executor executor) {
+        if (directory == null) {
+            throw new IllegalArgumentException("Cache directory must not be null.");
+        }
+        this.directory = directory;
+        this.inFlight = new SingleFlight<>(executor);
+    }
+
+    /**
+     * Returns the cached texture for {@code (freq, width)}, or bakes and stores it if there is no
+     * usable file yet. If another thread is already loading or baking the texture, waits for its
+     * result instead.
+     */
+    public ShaderNoiseTexture get(int freq, int width) throws IOException {
+        payloadBytes(width);
+        try {
+            return inFlight.run(key(freq, width), () -> {
+                try {
+                    return loadOrBake(freq, width);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Like {@link #get}, but loads or bakes on the executor and returns at once. Concurrent requests
+     * for the same texture share one computation. Cancelling the returned future detaches this
+     * caller; when every caller has cancelled, a bake that has not started is skipped and a
+     * running one is abandoned without storing the texture. The future fails with the
+     * {@link IOException} that {@link #get} would throw.
+     */
+    public CompletableFuture<ShaderNoiseTexture> getAsync(int freq, int width) {
+        payloadBytes(width);
+        return inFlight.submit(key(freq, width), () -> loadOrBake(freq, width));
+    }
+
+    /**
+     * Maps the cached texture for {@code (freq, width)}, or returns {@code null} if the file is
+     * missing, stale or corrupted.
+     */
+    public ShaderNoiseTexture load(int freq, int width) throws IOException {
+        long payloadBytes = payloadBytes(width);
+        Path file = path(freq, width);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + payloadBytes) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    return null;
+                }
+            }
+            ByteBuffer expected = header(freq, width, payloadBytes, header.getInt(56));
+            if (!header.flip().equals(expected)) {
+                return null;
+            }
+            MappedByteBuffer payload = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, payloadBytes);
+            CRC32C crc = new CRC32C();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != expected.getInt(56)) {
+                return null;
+            }
+            ShortBuffer texels = payload.order(ByteOrder.nativeOrder()).asShortBuffer();
+            return new ShaderNoiseTexture(freq, width, texels);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes {@code texture} to the cache, replacing any existing file for its key.
+     */
+    public void store(ShaderNoiseTexture texture) throws IOException {
+        int freq = texture.getFreq();
+        int width = texture.getWidth();
+        long payloadBytes = payloadBytes(width);
+        ShortBuffer texels = texture.getTextureData().duplicate().clear();
+        if (texels.remaining() * 2L != payloadBytes) {
+            throw new IllegalArgumentException("Texture data holds " + texels.remaining()
+                    + " values, expected " + payloadBytes / 2 + ".");
+        }
+        Files.createDirectories(directory);
+        Path file = path(freq, width);
+        Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                // Payload first, so the header can carry its checksum.
+                ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_CHUNK_SHORTS * 2).order(ByteOrder.nativeOrder());
+                CRC32C crc = new CRC32C();
+                long position = HEADER_BYTES;
+                while (texels.hasRemaining()) {
+                    int count = Math.min(WRITE_CHUNK_SHORTS, texels.remaining());
+                    chunk.clear();
+                    chunk.asShortBuffer().put(texels.slice(texels.position(), count));
+                    texels.position(texels.position() + count);
+                    chunk.limit(count * 2);
+                    crc.update(chunk.duplicate());
+                    position += writeFully(channel, chunk, position);
+                }
+                writeFully(channel, header(freq, width, payloadBytes, (int) crc.getValue()), 0);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Returns the file that holds the texture for {@code (freq, width)}.
+     */
+    public Path path(int freq, int width) {
+        int[] bases = ShaderNoiseTexture.channelBases(freq);
+        return directory.resolve(String.format("noise3d-f%d-w%d-b%d-%d-%016x.rg16", freq, width, bases[0], bases[1],
+                ShaderNoiseTexture.channelTable().fingerprint()));
+    }
+
+    private static Long key(int freq, int width) {
+        return ((long) freq << 32) | (width & 0xffffffffL);
+    }
+
+    private ShaderNoiseTexture loadOrBake(int freq, int width) throws IOException {
+        ShaderNoiseTexture texture = load(freq, width);
+        if (texture == null) {
+            texture = new ShaderNoiseTexture(freq, width);
+            // The bake cannot be stopped part-way; an interrupt from a cancelled getAsync at
+            // least saves the write.
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Texture request cancelled.");
+            }
+            store(texture);
+        }
+        return texture;
+    }
+
+    private static long payloadBytes(int width) {
+        if (width <= 0) {
+            throw new IllegalArgumentException("Width must be positive.");
+        }
+        return (long) width * width * width * CHANNELS * (BITS_PER_CHANNEL / 8);
+    }
+
+    // The header a valid file for this key has, given the payload checksum; flipped for reading.
+    private static ByteBuffer header(int freq, int width, long payloadBytes, int payloadCrc) {
+        int[] bases = ShaderNoiseTexture.channelBases(freq);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.put(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? 1 : 0)
+                .putInt(freq)
+                .putInt(width)
+                .putInt(CHANNELS)
+                .putInt(bases[0])
+                .putInt(bases[1])
+                .putInt(BITS_PER_CHANNEL)
+                .putLong(ShaderNoiseTexture.channelTable().fingerprint())
+                .putLong(payloadBytes)
+                .putInt(payloadCrc);
+        CRC32C crc = new CRC32C();
+        crc.update(Arrays.copyOf(header.array(), header.position()));
+        header.putInt((int) crc.getValue());
+        return header.flip();
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer src, long position) throws IOException {
+        int written = 0;
+        while (src.hasRemaining()) {
+            written += channel.write(src, position + written);
+        }
+        return written;
+    }
+}
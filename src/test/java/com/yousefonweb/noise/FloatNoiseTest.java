@@ -0,0 +1,179 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class FloatNoiseTest {
+
+    private static final int SAMPLES = 2000;
+    private static final float RANGE = 64.0f;
+    private static final double PERLIN_ERROR = 2e-6;
+    private static final double SIMPLEX_ERROR_PER_UNIT = 6e-7;
+
+    // --- Accuracy against the double functions ---
+    @Test
+    void testPerlinWithinErrorBound() {
+        PermutationTable pt = new PermutationTable();
+        Random random = new Random(5L);
+        for (int i = 0; i < SAMPLES; i++) {
+            float x = (random.nextFloat() * 2 - 1) * RANGE;
+            float y = (random.nextFloat() * 2 - 1) * RANGE;
+            float z = (random.nextFloat() * 2 - 1) * RANGE;
+            int octaves = 1 + i % 8;
+            assertEquals(PerlinNoise.pnoise1(x, octaves, 0.5, 2.0, 0, pt),
+                    FloatNoise.pnoise1(x, octaves, 0.5f, 2.0f, 0, pt), PERLIN_ERROR, "pnoise1 at x=" + x);
+            assertEquals(PerlinNoise.pnoise2(x, y, octaves, 0.5, 2.0, 0, pt),
+                    FloatNoise.pnoise2(x, y, octaves, 0.5f, 2.0f, 0, pt), PERLIN_ERROR,
+                    "pnoise2 at (" + x + "," + y + ")");
+            assertEquals(PerlinNoise.pnoise3(x, y, z, octaves, 0.5, 2.0, 0, pt, 0, 0, 0),
+                    FloatNoise.pnoise3(x, y, z, octaves, 0.5f, 2.0f, 0, pt), PERLIN_ERROR,
+                    "pnoise3 at (" + x + "," + y + "," + z + ")");
+        }
+    }
+
+    @Test
+    void testSimplex2DWithinErrorBound() {
+        PermutationTable pt = new PermutationTable();
+        Random random = new Random(6L);
+        for (int i = 0; i < SAMPLES; i++) {
+            float x = (random.nextFloat() * 2 - 1) * RANGE;
+            float y = (random.nextFloat() * 2 - 1) * RANGE;
+            int octaves = 1 + i % 8;
+            double bound = SIMPLEX_ERROR_PER_UNIT * Math.max(1.0, Math.max(Math.abs(x), Math.abs(y)));
+            assertEquals(SimplexNoise.snoise2(x, y, octaves, 0.5, 2.0, pt),
+                    FloatNoise.snoise2(x, y, octaves, 0.5f, 2.0f, pt), bound, "snoise2 at (" + x + "," + y + ")");
+        }
+    }
+
+    @Test
+    void testSimplex3DCloseToDouble() {
+        // snoise3 is slightly discontinuous across simplex boundaries, so single points may
+        // differ by more; most must stay within the 2D bound.
+        PermutationTable pt = new PermutationTable();
+        Random random = new Random(7L);
+        int outside = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            float x = (random.nextFloat() * 2 - 1) * RANGE;
+            float y = (random.nextFloat() * 2 - 1) * RANGE;
+            float z = (random.nextFloat() * 2 - 1) * RANGE;
+            int octaves = 1 + i % 8;
+            double error = Math.abs(SimplexNoise.snoise3(x, y, z, octaves, 0.5, 2.0, pt)
+                    - FloatNoise.snoise3(x, y, z, octaves, 0.5f, 2.0f, pt));
+            assertTrue(error < 2e-3, "snoise3 error " + error + " at (" + x + "," + y + "," + z + ")");
+            if (error > SIMPLEX_ERROR_PER_UNIT * RANGE) {
+                outside++;
+            }
+        }
+        assertTrue(outside < SAMPLES / 100, outside + " samples outside the typical bound");
+    }
+
+    @Test
+    void testDefaultOverloadsMatchFullForm() {
+        PermutationTable pt = new PermutationTable();
+        assertEquals(FloatNoise.pnoise2(1.3f, -2.7f, 4, 0.5f, 2.0f, 0, pt), FloatNoise.pnoise2(1.3f, -2.7f, 4), 0.0f);
+        assertEquals(FloatNoise.snoise3(0.3f, 4.1f, -1.9f, 3, 0.5f, 2.0f, pt),
+                FloatNoise.snoise3(0.3f, 4.1f, -1.9f, 3), 0.0f);
+    }
+
+    // --- Bulk Grid Tests ---
+    @Test
+    void testFillPerlinMatchesScalar() {
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(64) };
+        int width = 37, height = 11, depth = 3;
+        float[] out2 = new float[width * height];
+        float[] out3 = new float[width * height * depth];
+        for (PermutationTable pt : tables) {
+            for (int base : new int[] { 0, 7, -3 }) {
+                FloatNoise.fillPerlin2D(out2, -3.3f, 1.7f, 0.173f, 0.31f, width, height, 4, 0.5f, 2.0f, base, pt);
+                FloatNoise.fillPerlin3D(out3, 0.4f, -2.2f, 5.1f, 0.27f, 0.19f, 0.43f, width, height, depth,
+                        3, 0.6f, 1.9f, base, pt);
+                for (int iz = 0; iz < depth; iz++) {
+                    for (int iy = 0; iy < height; iy++) {
+                        for (int ix = 0; ix < width; ix++) {
+                            if (iz == 0) {
+                                assertEquals(FloatNoise.pnoise2(-3.3f + ix * 0.173f, 1.7f + iy * 0.31f, 4, 0.5f, 2.0f,
+                                        base, pt), out2[iy * width + ix], 0.0f,
+                                        "fillPerlin2D mismatch at (" + ix + "," + iy + "), base=" + base);
+                            }
+                            int index = (iz * height + iy) * width + ix;
+                            assertEquals(FloatNoise.pnoise3(0.4f + ix * 0.27f, -2.2f + iy * 0.19f, 5.1f + iz * 0.43f,
+                                    3, 0.6f, 1.9f, base, pt), out3[index], 0.0f,
+                                    "fillPerlin3D mismatch at index " + index + ", base=" + base);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFillSimplexMatchesScalar() {
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(64) };
+        int width = 29, height = 9, depth = 3;
+        float[] out2 = new float[width * height];
+        float[] out3 = new float[width * height * depth];
+        for (PermutationTable pt : tables) {
+            FloatNoise.fillSimplex2D(out2, 2.5f, -0.75f, 0.21f, 0.17f, width, height, 5, 0.5f, 2.0f, pt);
+            FloatNoise.fillSimplex3D(out3, -1.0f, 0.5f, 3.25f, 0.23f, 0.29f, 0.31f, width, height, depth,
+                    3, 0.5f, 2.0f, pt);
+            for (int iz = 0; iz < depth; iz++) {
+                for (int iy = 0; iy < height; iy++) {
+                    for (int ix = 0; ix < width; ix++) {
+                        if (iz == 0) {
+                            assertEquals(FloatNoise.snoise2(2.5f + ix * 0.21f, -0.75f + iy * 0.17f, 5, 0.5f, 2.0f, pt),
+                                    out2[iy * width + ix], 0.0f, "fillSimplex2D mismatch at (" + ix + "," + iy + ")");
+                        }
+                        int index = (iz * height + iy) * width + ix;
+                        assertEquals(FloatNoise.snoise3(-1.0f + ix * 0.23f, 0.5f + iy * 0.29f, 3.25f + iz * 0.31f,
+                                3, 0.5f, 2.0f, pt), out3[index], 0.0f, "fillSimplex3D mismatch at index " + index);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFillWideRowsMatchScalar() {
+        // Wide rows run through the vector kernels (when jdk.incubator.vector is enabled) plus a scalar tail.
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(100) };
+        int width = 203;
+        float[] row = new float[width];
+        for (PermutationTable pt : tables) {
+            for (float originX : new float[] { -1234.5678f, 0.0f, 98765.4321f }) {
+                FloatNoise.fillPerlin2D(row, originX, -17.25f, 0.0731f, 1.0f, width, 1, 4, 0.5f, 2.0f, 11, pt);
+                for (int ix = 0; ix < width; ix++) {
+                    assertEquals(FloatNoise.pnoise2(originX + ix * 0.0731f, -17.25f, 4, 0.5f, 2.0f, 11, pt), row[ix],
+                            0.0f, "perlin 2D mismatch at ix=" + ix + ", originX=" + originX);
+                }
+                FloatNoise.fillPerlin3D(row, originX, 3.5f, -8.125f, -0.0613f, 1.0f, 1.0f, width, 1, 1,
+                        3, 0.5f, 2.0f, 0, pt);
+                for (int ix = 0; ix < width; ix++) {
+                    assertEquals(FloatNoise.pnoise3(originX + ix * -0.0613f, 3.5f, -8.125f, 3, 0.5f, 2.0f, 0, pt),
+                            row[ix], 0.0f, "perlin 3D mismatch at ix=" + ix + ", originX=" + originX);
+                }
+                FloatNoise.fillSimplex2D(row, originX, 40.5f, 0.0917f, 1.0f, width, 1, 3, 0.5f, 2.0f, pt);
+                for (int ix = 0; ix < width; ix++) {
+                    assertEquals(FloatNoise.snoise2(originX + ix * 0.0917f, 40.5f, 3, 0.5f, 2.0f, pt), row[ix],
+                            0.0f, "simplex 2D mismatch at ix=" + ix + ", originX=" + originX);
+                }
+                FloatNoise.fillSimplex3D(row, originX, -6.0f, 0.125f, 0.0589f, 1.0f, 1.0f, width, 1, 1,
+                        3, 0.5f, 2.0f, pt);
+                for (int ix = 0; ix < width; ix++) {
+                    assertEquals(FloatNoise.snoise3(originX + ix * 0.0589f, -6.0f, 0.125f, 3, 0.5f, 2.0f, pt),
+                            row[ix], 0.0f, "simplex 3D mismatch at ix=" + ix + ", originX=" + originX);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFillRejectsShortOutput() {
+        PermutationTable pt = new PermutationTable();
+        assertThrows(IllegalArgumentException.class,
+                () -> FloatNoise.fillPerlin2D(new float[10], 0, 0, 1, 1, 4, 3, 1, 0.5f, 2.0f, 0, pt));
+        assertThrows(IllegalArgumentException.class,
+                () -> FloatNoise.fillSimplex3D(new float[10], 0, 0, 0, 1, 1, 1, 2, 2, 3, 1, 0.5f, 2.0f, pt));
+    }
+}
@@ -0,0 +1,218 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class HashNoiseTest {
+
+    private static final double DELTA = 1e-9;
+    private static final int SAMPLES = 2000;
+
+    @Test
+    void testRange() {
+        Random random = new Random(1L);
+        for (int i = 0; i < SAMPLES; i++) {
+            double x = (random.nextDouble() * 2 - 1) * 1000;
+            double y = (random.nextDouble() * 2 - 1) * 1000;
+            double z = (random.nextDouble() * 2 - 1) * 1000;
+            double w = (random.nextDouble() * 2 - 1) * 1000;
+            long seed = random.nextLong();
+            int octaves = 1 + i % 5;
+            double[] values = {
+                    HashNoise.pnoise1(x, octaves, seed),
+                    HashNoise.pnoise2(x, y, octaves, seed),
+                    HashNoise.pnoise3(x, y, z, octaves, seed),
+                    HashNoise.snoise2(x, y, octaves, seed),
+                    HashNoise.snoise3(x, y, z, octaves, seed),
+                    HashNoise.snoise4(x, y, z, w, octaves, seed) };
+            for (double n : values) {
+                assertTrue(n >= -1.0 - DELTA && n <= 1.0 + DELTA, "Value out of range [-1,1]: " + n);
+            }
+        }
+    }
+
+    @Test
+    void testPerlinZeroAtLatticePoints() {
+        for (int i = -20; i <= 20; i++) {
+            assertEquals(0.0, HashNoise.pnoise1(i, 42L), DELTA);
+            assertEquals(0.0, HashNoise.pnoise2(i, -3 * i, 42L), DELTA);
+            assertEquals(0.0, HashNoise.pnoise3(i, 7, 5 * i, 42L), DELTA);
+        }
+    }
+
+    @Test
+    void testDeterministicPerSeed() {
+        assertEquals(HashNoise.pnoise3(1.25, -7.5, 3.1, 4, 99L), HashNoise.pnoise3(1.25, -7.5, 3.1, 4, 99L), 0.0);
+        assertEquals(HashNoise.snoise2(10.3, 0.7, 3, 0.5, 2.0, -5L), HashNoise.snoise2(10.3, 0.7, 3, -5L), 0.0);
+        assertNotEquals(HashNoise.pnoise2(3.3, 4.4, 1L), HashNoise.pnoise2(3.3, 4.4, 2L));
+        assertNotEquals(HashNoise.snoise3(3.3, 4.4, 5.5, 1L), HashNoise.snoise3(3.3, 4.4, 5.5, 2L));
+        assertNotEquals(HashNoise.snoise4(3.3, 4.4, 5.5, 6.6, 1L), HashNoise.snoise4(3.3, 4.4, 5.5, 6.6, 2L));
+    }
+
+    @Test
+    void testDoesNotRepeatWithTablePeriod() {
+        // The table-backed functions repeat every 256 units; these must not.
+        int repeats = 0;
+        for (int i = 0; i < 200; i++) {
+            double x = i * 0.37 + 0.1234;
+            double y = i * 0.21 + 0.41;
+            for (double shift : new double[] { 256, 512, 65536, 1L << 32 }) {
+                if (HashNoise.pnoise2(x, y, 7L) == HashNoise.pnoise2(x + shift, y, 7L)
+                        || HashNoise.snoise2(x, y, 7L) == HashNoise.snoise2(x + shift, y + shift, 7L)) {
+                    repeats++;
+                }
+            }
+        }
+        assertEquals(0, repeats);
+    }
+
+    @Test
+    void testContinuousFarFromOrigin() {
+        double step = 1e-4;
+        for (double origin : new double[] { 0.5, 1e6 + 0.5, -3e9 + 0.25, 1e12 + 0.5 }) {
+            double previous2 = HashNoise.snoise2(origin, origin, 3L);
+            double previous3 = HashNoise.pnoise3(origin, -origin, 0.5, 3L);
+            for (int i = 1; i <= 2000; i++) {
+                double x = origin + i * step;
+                double n2 = HashNoise.snoise2(x, origin, 3L);
+                double n3 = HashNoise.pnoise3(x, -origin, 0.5, 3L);
+                assertEquals(previous2, n2, 0.01, "snoise2 jumps at x=" + x);
+                assertEquals(previous3, n3, 0.01, "pnoise3 jumps at x=" + x);
+                previous2 = n2;
+                previous3 = n3;
+            }
+        }
+    }
+
+    @Test
+    void testSimplexCornersSharedBetweenCells() {
+        // A corner shared by neighbouring simplices must get the same gradient from each,
+        // otherwise the value jumps where the walk crosses into the next simplex.
+        double step = 1e-3;
+        double previous3 = HashNoise.snoise3(0, 0, 0, 5L);
+        double previous4 = HashNoise.snoise4(0, 0, 0, 0, 5L);
+        for (int i = 1; i <= 20000; i++) {
+            double t = i * step;
+            double n3 = HashNoise.snoise3(t, 0.7 * t, -0.4 * t, 5L);
+            double n4 = HashNoise.snoise4(t, -0.3 * t, 0.6 * t, 0.2 * t, 5L);
+            assertEquals(previous3, n3, 0.02, "snoise3 jumps at t=" + t);
+            assertEquals(previous4, n4, 0.02, "snoise4 jumps at t=" + t);
+            previous3 = n3;
+            previous4 = n4;
+        }
+    }
+
+    @Test
+    void testSpreadMatchesTableNoise() {
+        // Same algorithms with different gradient choices: the value distributions should agree.
+        Random random = new Random(3L);
+        double hashSquares = 0, tableSquares = 0;
+        for (int i = 0; i < 20000; i++) {
+            double x = random.nextDouble() * 200;
+            double y = random.nextDouble() * 200;
+            double z = random.nextDouble() * 200;
+            hashSquares += square(HashNoise.pnoise3(x, y, z, 11L)) + square(HashNoise.snoise3(x, y, z, 11L));
+            tableSquares += square(PerlinNoise.pnoise3(x, y, z, 1)) + square(SimplexNoise.snoise3(x, y, z, 1));
+        }
+        assertEquals(1.0, hashSquares / tableSquares, 0.1);
+    }
+
+    @Test
+    void testGridsMatchPointFunctions() {
+        // Steps below, near and above a lattice cell, so the row kernels both reuse and refill cells.
+        int width = 23, height = 4, depth = 3;
+        for (double step : new double[] { 0.07, 0.9, 2.3 }) {
+            double[] grid2 = new double[width * height];
+            float[] grid2f = new float[grid2.length];
+            double[] grid3 = new double[width * height * depth];
+            float[] grid3f = new float[grid3.length];
+            for (NoiseType type : NoiseType.values()) {
+                HashNoise.fillGrid2D(grid2, type, -5.3, 1e9, step, 0.37, width, height, 4, 0.55, 2.1, 77L);
+                HashNoise.fillGrid2D(grid2f, type, -5.3, 1e9, step, 0.37, width, height, 4, 0.55, 2.1, 77L);
+                HashNoise.fillGrid3D(grid3, type, 2.2, -0.6, 4.1, step, 0.41, 0.29, width, height, depth, 3, 0.5,
+                        2.0, -8L);
+                HashNoise.fillGrid3D(grid3f, type, 2.2, -0.6, 4.1, step, 0.41, 0.29, width, height, depth, 3, 0.5,
+                        2.0, -8L);
+                for (int iz = 0; iz < depth; iz++) {
+                    for (int iy = 0; iy < height; iy++) {
+                        for (int ix = 0; ix < width; ix++) {
+                            String where = type + " step " + step + " at (" + ix + "," + iy + "," + iz + ")";
+                            double x = 2.2 + ix * step, y = -0.6 + iy * 0.41, z = 4.1 + iz * 0.29;
+                            double expected = type == NoiseType.PERLIN ? HashNoise.pnoise3(x, y, z, 3, 0.5, 2.0, -8L)
+                                    : HashNoise.snoise3(x, y, z, 3, 0.5, 2.0, -8L);
+                            int n = (iz * height + iy) * width + ix;
+                            assertEquals(expected, grid3[n], 0.0, where);
+                            assertEquals((float) expected, grid3f[n], 0.0f, where);
+                            if (iz > 0) {
+                                continue;
+                            }
+                            x = -5.3 + ix * step;
+                            y = 1e9 + iy * 0.37;
+                            expected = type == NoiseType.PERLIN ? HashNoise.pnoise2(x, y, 4, 0.55, 2.1, 77L)
+                                    : HashNoise.snoise2(x, y, 4, 0.55, 2.1, 77L);
+                            assertEquals(expected, grid2[iy * width + ix], 0.0, where);
+                            assertEquals((float) expected, grid2f[iy * width + ix], 0.0f, where);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testDerivativesMatchValueAndFiniteDifferences() {
+        double h = 1e-6;
+        double[] d = new double[5];
+        Random random = new Random(4L);
+        for (int i = 0; i < SAMPLES; i++) {
+            double x = random.nextDouble() * 40 - 20;
+            double y = random.nextDouble() * 40 - 20;
+            double z = random.nextDouble() * 40 - 20;
+            long seed = random.nextLong();
+            int octaves = 1 + i % 4;
+
+            HashNoise.pnoise2Deriv(x, y, octaves, seed, d, 2);
+            assertEquals(HashNoise.pnoise2(x, y, octaves, seed), d[2], DELTA);
+            assertEquals((HashNoise.pnoise2(x + h, y, octaves, seed) - HashNoise.pnoise2(x - h, y, octaves, seed))
+                    / (2 * h), d[3], 1e-4);
+            assertEquals((HashNoise.pnoise2(x, y + h, octaves, seed) - HashNoise.pnoise2(x, y - h, octaves, seed))
+                    / (2 * h), d[4], 1e-4);
+
+            HashNoise.snoise2Deriv(x, y, octaves, seed, d, 2);
+            assertEquals(HashNoise.snoise2(x, y, octaves, seed), d[2], DELTA);
+            assertEquals((HashNoise.snoise2(x + h, y, octaves, seed) - HashNoise.snoise2(x - h, y, octaves, seed))
+                    / (2 * h), d[3], 1e-4);
+            assertEquals((HashNoise.snoise2(x, y + h, octaves, seed) - HashNoise.snoise2(x, y - h, octaves, seed))
+                    / (2 * h), d[4], 1e-4);
+
+            double[][] axes = { { 1, 0, 0 }, { 0, 1, 0 }, { 0, 0, 1 } };
+            for (NoiseType type : NoiseType.values()) {
+                boolean perlin = type == NoiseType.PERLIN;
+                if (perlin) {
+                    HashNoise.pnoise3Deriv(x, y, z, octaves, seed, d, 1);
+                } else {
+                    HashNoise.snoise3Deriv(x, y, z, octaves, seed, d, 1);
+                }
+                double value = perlin ? HashNoise.pnoise3(x, y, z, octaves, seed)
+                        : HashNoise.snoise3(x, y, z, octaves, seed);
+                assertEquals(value, d[1], DELTA);
+                for (int a = 0; a < 3; a++) {
+                    double[] e = axes[a];
+                    double plus = perlin
+                            ? HashNoise.pnoise3(x + h * e[0], y + h * e[1], z + h * e[2], octaves, seed)
+                            : HashNoise.snoise3(x + h * e[0], y + h * e[1], z + h * e[2], octaves, seed);
+                    double minus = perlin
+                            ? HashNoise.pnoise3(x - h * e[0], y - h * e[1], z - h * e[2], octaves, seed)
+                            : HashNoise.snoise3(x - h * e[0], y - h * e[1], z - h * e[2], octaves, seed);
+                    assertEquals((plus - minus) / (2 * h), d[2 + a], 1e-4, type + " axis " + a);
+                }
+            }
+        }
+    }
+
+    private static double square(double v) {
+        return v * v;
+    }
+}
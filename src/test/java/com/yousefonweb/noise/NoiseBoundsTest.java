@@ -0,0 +1,132 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class NoiseBoundsTest {
+
+    private static void assertContainsSamples(NoiseGenerator generator, Random random, int boxes) {
+        for (int b = 0; b < boxes; b++) {
+            double size = Math.pow(10, -3 + 3.5 * random.nextDouble());
+            double x = random.nextDouble() * 200 - 100;
+            double y = random.nextDouble() * 40 - 20;
+            double z = random.nextDouble() * 40 - 20;
+            double sx = size * random.nextDouble();
+            double sy = size * random.nextDouble();
+            double sz = size * random.nextDouble();
+            NoiseBounds.Range range = generator.bound3(x, y, z, x + sx, y + sy, z + sz);
+            int n = 4;
+            for (int i = 0; i <= n; i++) {
+                for (int j = 0; j <= n; j++) {
+                    for (int k = 0; k <= n; k++) {
+                        double value = generator.noise3(x + sx * i / n, y + sy * j / n, z + sz * k / n);
+                        assertTrue(range.contains(value), value + " outside " + range);
+                    }
+                }
+            }
+            for (int q = 0; q < 50; q++) {
+                double value = generator.noise3(x + sx * random.nextDouble(), y + sy * random.nextDouble(),
+                        z + sz * random.nextDouble());
+                assertTrue(range.contains(value), value + " outside " + range);
+            }
+        }
+    }
+
+    @Test
+    void testBoundsContainEveryValue() {
+        Random random = new Random(25);
+        assertContainsSamples(NoiseGenerator.builder().octaves(5).base(3).build(), random, 300);
+        assertContainsSamples(NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(5).build(), random, 300);
+        assertContainsSamples(NoiseGenerator.builder().octaves(4).persistence(0.7).lacunarity(1.9).build(), random,
+                200);
+        assertContainsSamples(NoiseGenerator.builder().octaves(3).repeat(8, 8, 8).build(), random, 100);
+    }
+
+    @Test
+    void testStaticBoundsMatchGenerator() {
+        PermutationTable table = new PermutationTable();
+        NoiseGenerator perlin = NoiseGenerator.builder().octaves(4).base(7).build();
+        NoiseGenerator simplex = NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(4).build();
+        assertEquals(perlin.bound3(1.2, -0.4, 3.0, 1.45, -0.3, 3.2),
+                NoiseBounds.pnoise3(1.2, -0.4, 3.0, 1.45, -0.3, 3.2, 4, 0.5, 2.0, 7, table));
+        assertEquals(simplex.bound3(1.2, -0.4, 3.0, 1.45, -0.3, 3.2),
+                NoiseBounds.snoise3(1.2, -0.4, 3.0, 1.45, -0.3, 3.2, 4, 0.5, 2.0, table));
+        NoiseBounds.Range range = NoiseBounds.pnoise3(-2.0, 0.5, 0.5, -1.9, 0.6, 0.5, 3, 0.5, 2.0, 1, table);
+        for (double x = -2.0; x <= -1.9; x += 0.01) {
+            assertTrue(range.contains(PerlinNoise.pnoise3(x, 0.55, 0.5, 3, 0.5, 2.0, 1, table, 0, 0, 0)));
+        }
+    }
+
+    @Test
+    void testBoundsShrinkToPoints() {
+        NoiseGenerator perlin = NoiseGenerator.builder().octaves(4).build();
+        NoiseGenerator simplex = NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(4).build();
+        for (double x = 0.1; x < 5; x += 0.7) {
+            NoiseBounds.Range point = perlin.bound3(x, 0.3, -x, x + 1e-7, 0.3 + 1e-7, -x + 1e-7);
+            assertTrue(point.contains(perlin.noise3(x, 0.3, -x)));
+            assertTrue(point.max() - point.min() < 1e-5, point.toString());
+            // Simplex bounds keep the allowance for kernels noise3 leaves out.
+            point = simplex.bound3(x, 0.3, -x, x + 1e-7, 0.3 + 1e-7, -x + 1e-7);
+            assertTrue(point.contains(simplex.noise3(x, 0.3, -x)));
+            assertTrue(point.max() - point.min() < 2 * NoiseBounds.SIMPLEX3_SKIPPED + 1e-4, point.toString());
+        }
+        NoiseBounds.Range whole = perlin.bound3(0, 0, 0, 100, 100, 100);
+        assertEquals(-NoiseBounds.PERLIN3_RANGE, whole.min(), 1e-6);
+        assertEquals(NoiseBounds.PERLIN3_RANGE, whole.max(), 1e-6);
+    }
+
+    @Test
+    void testSkipsChunksAwayFromSurface() {
+        // Density fbm(p) - 0.5 * y: solid below the surface, air above. Nowhere in the column
+        // does the function range alone decide a chunk.
+        NoiseGenerator generator = NoiseGenerator.builder().octaves(5).build();
+        double size = 0.25;
+        int decided = 0;
+        int total = 0;
+        for (int cz = 0; cz < 4; cz++) {
+            for (int cy = 0; cy < 16; cy++) {
+                for (int cx = 0; cx < 4; cx++) {
+                    double x = cx * size;
+                    double y = -2 + cy * size;
+                    double z = cz * size;
+                    NoiseBounds.Range range = generator.bound3(x, y, z, x + size, y + size, z + size);
+                    boolean solid = range.isAbove(0.5 * (y + size));
+                    boolean air = range.isBelow(0.5 * y);
+                    if (solid || air) {
+                        decided++;
+                        double density = generator.noise3(x + size / 2, y + size / 2, z + size / 2) - 0.5
+                                * (y + size / 2);
+                        assertEquals(solid, density > 0);
+                    }
+                    total++;
+                }
+            }
+        }
+        assertTrue(decided >= total / 4, decided + " of " + total + " chunks decided");
+    }
+
+    @Test
+    void testRange() {
+        NoiseBounds.Range range = new NoiseBounds.Range(-0.25, 0.5);
+        assertTrue(range.isAbove(-0.3));
+        assertFalse(range.isAbove(-0.25));
+        assertTrue(range.isBelow(0.6));
+        assertFalse(range.isBelow(0.5));
+        assertTrue(range.contains(0.5));
+        assertFalse(range.contains(0.51));
+    }
+
+    @Test
+    void testRejectsBadBoxes() {
+        NoiseGenerator generator = NoiseGenerator.builder().build();
+        PermutationTable table = new PermutationTable();
+        assertThrows(IllegalArgumentException.class, () -> generator.bound3(1, 0, 0, 0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> generator.bound3(0, Double.NaN, 0, 1, 1, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> NoiseBounds.pnoise3(0, 0, Double.NEGATIVE_INFINITY, 1, 1, 1, 2, 0.5, 2.0, 0, table));
+        assertThrows(IllegalArgumentException.class,
+                () -> NoiseBounds.snoise3(0, 0, 0, 1, 1, Double.POSITIVE_INFINITY, 2, 0.5, 2.0, table));
+    }
+}
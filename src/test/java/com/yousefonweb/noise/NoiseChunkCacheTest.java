@@ -0,0 +1,181 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class NoiseChunkCacheTest {
+
+    private static final int SIZE = 16;
+    private static final double SPACING = 0.0625;
+
+    private static NoiseChunkCache.Builder builder() {
+        return NoiseChunkCache.builder().chunkSize(SIZE).spacing(SPACING);
+    }
+
+    private static void assertChunk(NoiseGenerator generator, int chunkX, int chunkY, NoiseChunk chunk) {
+        float[] expected = new float[SIZE * SIZE];
+        generator.fillGrid2D(expected, (double) chunkX * SIZE * SPACING, (double) chunkY * SIZE * SPACING, SPACING,
+                SPACING, SIZE, SIZE);
+        float[] actual = new float[SIZE * SIZE + 3];
+        chunk.copyTo(actual, 3);
+        for (int n = 0; n < expected.length; n++) {
+            assertEquals(expected[n], actual[n + 3], 0.0f, "chunk (" + chunkX + "," + chunkY + ") sample " + n);
+        }
+        assertEquals(chunkX, chunk.getChunkX());
+        assertEquals(chunkY, chunk.getChunkY());
+    }
+
+    @Test
+    void testChunksMatchGeneratorAndFacade() {
+        NoiseChunkCache cache = builder().build();
+        NoiseGenerator perlin = NoiseGenerator.builder().octaves(4).base(3).build();
+        NoiseGenerator simplex = NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(3).build();
+        NoiseGenerator seeded = NoiseGenerator.builder().octaves(4).seed(3L).build();
+        for (int chunkY = -2; chunkY <= 1; chunkY++) {
+            for (int chunkX = -1; chunkX <= 2; chunkX++) {
+                assertChunk(perlin, chunkX, chunkY, cache.get(perlin, chunkX, chunkY));
+                assertChunk(simplex, chunkX, chunkY, cache.get(simplex, chunkX, chunkY));
+                assertChunk(seeded, chunkX, chunkY, cache.get(seeded, chunkX, chunkY));
+            }
+        }
+        NoiseChunk chunk = cache.get(perlin, -1, 1);
+        for (int iy = 0; iy < SIZE; iy += 5) {
+            for (int ix = 0; ix < SIZE; ix += 3) {
+                double x = -1 * SIZE * SPACING + ix * SPACING;
+                double y = SIZE * SPACING + iy * SPACING;
+                assertEquals((float) Noise.pnoise2(x, y, 4, 3), chunk.get(ix, iy), 0.0f);
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> chunk.get(SIZE, 0));
+    }
+
+    @Test
+    void testHitsReturnSharedChunkAndCount() {
+        NoiseChunkCache cache = builder().build();
+        NoiseGenerator generator = NoiseGenerator.builder().octaves(2).build();
+        NoiseChunk first = cache.get(generator, 5, -7);
+        assertSame(first, cache.get(generator, 5, -7));
+        // A separately built generator with the same configuration shares the entry.
+        assertSame(first, cache.get(NoiseGenerator.builder().octaves(2).build(), 5, -7));
+        assertNotSame(first, cache.get(generator.toBuilder().base(1).build(), 5, -7));
+        assertSame(first, cache.getIfPresent(generator, 5, -7));
+        assertNull(cache.getIfPresent(generator, 6, -7));
+        assertEquals(new NoiseChunkCache.Stats(3, 0, 2, 0, 0), cache.stats());
+        assertEquals(2, cache.size());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertNotSame(first, cache.get(generator, 5, -7));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        NoiseChunkCache cache = builder().maximumChunks(3).stripes(1).build();
+        NoiseGenerator generator = NoiseGenerator.builder().build();
+        NoiseChunk a = cache.get(generator, 0, 0);
+        cache.get(generator, 1, 0);
+        cache.get(generator, 2, 0);
+        assertSame(a, cache.get(generator, 0, 0));
+        cache.get(generator, 3, 0);
+        assertEquals(3, cache.size());
+        assertNull(cache.getIfPresent(generator, 1, 0));
+        assertSame(a, cache.getIfPresent(generator, 0, 0));
+        assertNotNull(cache.getIfPresent(generator, 2, 0));
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void testSoftTierKeepsEvictedChunks() {
+        NoiseGenerator generator = NoiseGenerator.builder().octaves(3).build();
+        NoiseChunkCache soft = builder().maximumChunks(1).softReferences(true).build();
+        // Held here, so the collector cannot clear the soft references.
+        NoiseChunk a = soft.get(generator, 0, 0);
+        NoiseChunk b = soft.get(generator, 0, 1);
+        assertEquals(1, soft.size());
+        assertSame(a, soft.get(generator, 0, 0));
+        assertSame(b, soft.get(generator, 0, 1));
+        assertEquals(new NoiseChunkCache.Stats(0, 2, 2, 3, 0), soft.stats());
+
+        NoiseChunkCache strong = builder().maximumChunks(1).build();
+        NoiseChunk c = strong.get(generator, 0, 0);
+        strong.get(generator, 0, 1);
+        assertNotSame(c, strong.get(generator, 0, 0));
+        assertEquals(0, strong.stats().softHits());
+    }
+
+    @Test
+    void testConcurrentAccess() throws Exception {
+        NoiseChunkCache cache = builder().maximumChunks(24).softReferences(true).stripes(4).build();
+        NoiseGenerator generator = NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(2).build();
+        int threads = 4;
+        int requests = 2000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                futures.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < requests; i++) {
+                        int chunkX = random.nextInt(8);
+                        int chunkY = random.nextInt(6);
+                        NoiseChunk chunk = cache.get(generator, chunkX, chunkY);
+                        if (i % 97 == 0) {
+                            assertChunk(generator, chunkX, chunkY, chunk);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        NoiseChunkCache.Stats stats = cache.stats();
+        assertEquals((long) threads * requests, stats.hits() + stats.softHits() + stats.misses());
+        assertTrue(stats.misses() >= 48);
+        assertTrue(cache.size() <= 24);
+    }
+
+    @Test
+    void testAsyncMissesShareOneComputation() throws Exception {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        NoiseChunkCache cache = builder().executor(tasks::add).build();
+        NoiseGenerator generator = NoiseGenerator.builder().octaves(2).build();
+        CompletableFuture<NoiseChunk> a = cache.getAsync(generator, 3, 4);
+        CompletableFuture<NoiseChunk> b = cache.getAsync(generator, 3, 4);
+        CompletableFuture<NoiseChunk> abandoned = cache.getAsync(generator, 9, 9);
+        assertEquals(2, tasks.size());
+        abandoned.cancel(false);
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+        assertSame(a.get(), b.get());
+        assertChunk(generator, 3, 4, a.get());
+        assertNull(cache.getIfPresent(generator, 9, 9), "cancelled request must not compute its chunk");
+        assertSame(a.get(), cache.getAsync(generator, 3, 4).get());
+        assertEquals(new NoiseChunkCache.Stats(1, 0, 3, 0, 1), cache.stats());
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> NoiseChunkCache.builder().chunkSize(0).build());
+        assertThrows(IllegalArgumentException.class, () -> NoiseChunkCache.builder().spacing(0.0).build());
+        assertThrows(IllegalArgumentException.class, () -> NoiseChunkCache.builder().spacing(Double.NaN).build());
+        assertThrows(IllegalArgumentException.class, () -> NoiseChunkCache.builder().maximumChunks(0).build());
+        assertThrows(IllegalArgumentException.class, () -> NoiseChunkCache.builder().stripes(0).build());
+        assertThrows(IllegalArgumentException.class, () -> NoiseChunkCache.builder().executor(null).build());
+        assertThrows(IllegalArgumentException.class, () -> NoiseChunkCache.builder().build().get(null, 0, 0));
+    }
+}
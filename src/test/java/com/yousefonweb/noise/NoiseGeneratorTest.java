@@ -0,0 +1,202 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class NoiseGeneratorTest {
+
+    private static final int SAMPLES = 200;
+
+    @Test
+    void testPerlinMatchesStaticFunctions() {
+        Random random = new Random(11);
+        for (int base : new int[] { 0, 7, -3, 300 }) {
+            PermutationTable table = new PermutationTable(base == 300 ? 64 : 256);
+            table.randomize(table.getPeriod(), random);
+            NoiseGenerator generator = NoiseGenerator.builder().octaves(4).persistence(0.6).lacunarity(2.1)
+                    .base(base).permutationTable(table).build();
+            double[] expected = new double[4];
+            double[] actual = new double[4];
+            for (int i = 0; i < SAMPLES; i++) {
+                double x = (random.nextDouble() - 0.5) * 200;
+                double y = (random.nextDouble() - 0.5) * 200;
+                double z = (random.nextDouble() - 0.5) * 200;
+                String where = "base " + base + " at (" + x + "," + y + "," + z + ")";
+                assertEquals(PerlinNoise.pnoise1(x, 4, 0.6, 2.1, base, table), generator.noise1(x), 0.0, where);
+                assertEquals(PerlinNoise.pnoise2(x, y, 4, 0.6, 2.1, base, table), generator.noise2(x, y), 0.0, where);
+                assertEquals(PerlinNoise.pnoise3(x, y, z, 4, 0.6, 2.1, base, table, 0, 0, 0),
+                        generator.noise3(x, y, z), 0.0, where);
+                PerlinNoise.pnoise3Deriv(x, y, z, 4, 0.6, 2.1, base, table, expected, 0);
+                generator.noise3Deriv(x, y, z, actual, 0);
+                assertArrayEquals(expected, actual, 0.0, where);
+                PerlinNoise.pnoise2Deriv(x, y, 4, 0.6, 2.1, base, table, expected, 1);
+                generator.noise2Deriv(x, y, actual, 1);
+                assertArrayEquals(expected, actual, 0.0, where);
+            }
+        }
+    }
+
+    @Test
+    void testTileablePerlinMatchesStaticFunction() {
+        PermutationTable table = new PermutationTable();
+        NoiseGenerator generator = NoiseGenerator.builder().octaves(3).base(5).permutationTable(table)
+                .repeat(16, 8, 32).build();
+        assertTrue(generator.isTileable());
+        Random random = new Random(12);
+        for (int i = 0; i < SAMPLES; i++) {
+            double x = random.nextDouble() * 40;
+            double y = random.nextDouble() * 40;
+            double z = random.nextDouble() * 40;
+            assertEquals(PerlinNoise.pnoise3(x, y, z, 3, 0.5, 2.0, 5, table, 16, 8, 32), generator.noise3(x, y, z),
+                    0.0);
+        }
+        assertThrows(UnsupportedOperationException.class, () -> generator.noise3Deriv(0, 0, 0, new double[4], 0));
+    }
+
+    @Test
+    void testSimplexMatchesStaticFunctions() {
+        PermutationTable table = new PermutationTable(128);
+        table.randomize(128, new Random(13));
+        NoiseGenerator generator = NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(5).persistence(0.45)
+                .lacunarity(1.9).permutationTable(table).build();
+        Random random = new Random(14);
+        double[] expected = new double[4];
+        double[] actual = new double[4];
+        for (int i = 0; i < SAMPLES; i++) {
+            double x = (random.nextDouble() - 0.5) * 100;
+            double y = (random.nextDouble() - 0.5) * 100;
+            double z = (random.nextDouble() - 0.5) * 100;
+            double w = (random.nextDouble() - 0.5) * 100;
+            assertEquals(SimplexNoise.snoise2(x, y, 5, 0.45, 1.9, table), generator.noise2(x, y), 0.0);
+            assertEquals(SimplexNoise.snoise3(x, y, z, 5, 0.45, 1.9, table), generator.noise3(x, y, z), 0.0);
+            assertEquals(SimplexNoise.snoise4(x, y, z, w, 5, 0.45, 1.9, table), generator.noise4(x, y, z, w), 0.0);
+            SimplexNoise.snoise3Deriv(x, y, z, 5, 0.45, 1.9, table, expected, 0);
+            generator.noise3Deriv(x, y, z, actual, 0);
+            assertArrayEquals(expected, actual, 0.0);
+        }
+        assertThrows(UnsupportedOperationException.class, () -> generator.noise1(0.5));
+    }
+
+    @Test
+    void testSeededMatchesHashNoise() {
+        NoiseGenerator perlin = NoiseGenerator.builder().octaves(4).persistence(0.6).lacunarity(2.1).base(5)
+                .seed(-21L).build();
+        NoiseGenerator simplex = NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(3).seed(9L).build();
+        assertTrue(perlin.isSeeded());
+        assertEquals(-21L, perlin.getSeed());
+        assertEquals(0, perlin.getBase());
+        Random random = new Random(17);
+        double[] expected = new double[4];
+        double[] actual = new double[4];
+        for (int i = 0; i < SAMPLES; i++) {
+            double x = (random.nextDouble() - 0.5) * 1e6;
+            double y = (random.nextDouble() - 0.5) * 1e6;
+            double z = (random.nextDouble() - 0.5) * 1e6;
+            double w = (random.nextDouble() - 0.5) * 1e6;
+            assertEquals(HashNoise.pnoise1(x, 4, 0.6, 2.1, -21L), perlin.noise1(x), 0.0);
+            assertEquals(HashNoise.pnoise2(x, y, 4, 0.6, 2.1, -21L), perlin.noise2(x, y), 0.0);
+            assertEquals(HashNoise.pnoise3(x, y, z, 4, 0.6, 2.1, -21L), perlin.noise3(x, y, z), 0.0);
+            assertEquals(HashNoise.snoise2(x, y, 3, 9L), simplex.noise2(x, y), 0.0);
+            assertEquals(HashNoise.snoise3(x, y, z, 3, 9L), simplex.noise3(x, y, z), 0.0);
+            assertEquals(HashNoise.snoise4(x, y, z, w, 3, 9L), simplex.noise4(x, y, z, w), 0.0);
+            HashNoise.pnoise3Deriv(x, y, z, 4, 0.6, 2.1, -21L, expected, 0);
+            perlin.noise3Deriv(x, y, z, actual, 0);
+            assertArrayEquals(expected, actual, 0.0);
+            HashNoise.snoise2Deriv(x, y, 3, 9L, expected, 1);
+            simplex.noise2Deriv(x, y, actual, 1);
+            assertArrayEquals(expected, actual, 0.0);
+        }
+        NoiseBounds.Range range = perlin.bound3(0.1, 0.2, 0.3, 0.4, 0.5, 0.6);
+        assertTrue(range.min() <= perlin.noise3(0.25, 0.35, 0.45) && perlin.noise3(0.25, 0.35, 0.45) <= range.max());
+        assertEquals(perlin.noise2(3.5, -1.25), perlin.toBuilder().build().noise2(3.5, -1.25), 0.0);
+    }
+
+    @Test
+    void testGridsMatchPointEvaluation() {
+        NoiseGenerator[] generators = {
+                NoiseGenerator.builder().octaves(3).base(-9).build(),
+                NoiseGenerator.builder().octaves(2).base(4).repeat(8, 8, 8).build(),
+                NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(3).build(),
+                NoiseGenerator.builder().octaves(3).seed(4L).build(),
+                NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(2).seed(-4L).build() };
+        int width = 9, height = 5, depth = 4;
+        for (NoiseGenerator generator : generators) {
+            double[] grid3 = new double[width * height * depth];
+            float[] grid3f = new float[grid3.length];
+            generator.fillGrid3D(grid3, -1.3, 0.4, 2.2, 0.31, 0.27, 0.19, width, height, depth);
+            generator.fillGrid3D(grid3f, -1.3, 0.4, 2.2, 0.31, 0.27, 0.19, width, height, depth);
+            for (int iz = 0; iz < depth; iz++) {
+                for (int iy = 0; iy < height; iy++) {
+                    for (int ix = 0; ix < width; ix++) {
+                        int n = (iz * height + iy) * width + ix;
+                        double expected = generator.noise3(-1.3 + ix * 0.31, 0.4 + iy * 0.27, 2.2 + iz * 0.19);
+                        assertEquals(expected, grid3[n], 0.0);
+                        assertEquals((float) expected, grid3f[n], 0.0f);
+                    }
+                }
+            }
+            if (generator.isTileable()) {
+                continue;
+            }
+            double[] grid2 = new double[width * height];
+            generator.fillGrid2D(grid2, 3.5, -2.0, 0.21, 0.33, width, height);
+            for (int iy = 0; iy < height; iy++) {
+                for (int ix = 0; ix < width; ix++) {
+                    assertEquals(generator.noise2(3.5 + ix * 0.21, -2.0 + iy * 0.33), grid2[iy * width + ix], 0.0);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testIndependentOfLaterTableChanges() {
+        PermutationTable table = new PermutationTable();
+        NoiseGenerator generator = NoiseGenerator.builder().octaves(2).base(3).permutationTable(table).build();
+        double before = generator.noise3(1.7, -4.2, 0.9);
+        table.randomize(256, new Random(15));
+        assertEquals(before, generator.noise3(1.7, -4.2, 0.9), 0.0);
+        assertEquals(generator.noise3(1.7, -4.2, 0.9), generator.toBuilder().build().noise3(1.7, -4.2, 0.9), 0.0);
+    }
+
+    @Test
+    void testFingerprintIdentifiesConfiguration() {
+        PermutationTable table = new PermutationTable();
+        table.randomize(64, new Random(16));
+        PermutationTable sameContents = new PermutationTable();
+        sameContents.randomize(64, new Random(16));
+        NoiseGenerator generator = NoiseGenerator.builder().octaves(4).base(2).permutationTable(table).build();
+        assertEquals(generator.fingerprint(), generator.toBuilder().build().fingerprint());
+        assertEquals(generator.fingerprint(),
+                generator.toBuilder().permutationTable(sameContents).build().fingerprint());
+        NoiseGenerator[] variants = {
+                generator.toBuilder().octaves(5).build(),
+                generator.toBuilder().base(3).build(),
+                generator.toBuilder().persistence(0.6).build(),
+                generator.toBuilder().lacunarity(2.1).build(),
+                generator.toBuilder().repeat(4, 4, 4).build(),
+                generator.toBuilder().permutationTable(new PermutationTable()).build(),
+                generator.toBuilder().type(NoiseType.SIMPLEX).build(),
+                generator.toBuilder().seed(0L).build() };
+        for (NoiseGenerator variant : variants) {
+            assertNotEquals(generator.fingerprint(), variant.fingerprint());
+        }
+        NoiseGenerator seeded = generator.toBuilder().seed(1L).build();
+        assertEquals(seeded.fingerprint(), seeded.toBuilder().build().fingerprint());
+        assertEquals(seeded.fingerprint(), seeded.toBuilder().permutationTable(sameContents).build().fingerprint());
+        assertNotEquals(seeded.fingerprint(), seeded.toBuilder().seed(2L).build().fingerprint());
+    }
+
+    @Test
+    void testBuilderRejectsBadConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> NoiseGenerator.builder().octaves(0).build());
+        assertThrows(IllegalArgumentException.class, () -> NoiseGenerator.builder().type(null).build());
+        assertThrows(IllegalArgumentException.class, () -> NoiseGenerator.builder().repeat(-1, 4, 4).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> NoiseGenerator.builder().type(NoiseType.SIMPLEX).repeat(4, 4, 4).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> NoiseGenerator.builder().seed(1L).repeat(4, 4, 4).build());
+        assertThrows(UnsupportedOperationException.class, () -> NoiseGenerator.builder().build().noise4(0, 0, 0, 0));
+    }
+}
@@ -0,0 +1,161 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class NoiseMapExporterTest {
+
+    private static final int WIDTH = 53;
+    private static final int HEIGHT = 41;
+
+    private static ForkJoinPool fourThreadPool;
+
+    @TempDir
+    Path directory;
+
+    @BeforeAll
+    static void startPools() {
+        fourThreadPool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPools() {
+        fourThreadPool.shutdown();
+    }
+
+    private static void export(NoiseMapExporter exporter, Path file, NoiseMapExporter.Layout layout,
+            SampleFormat format, NoiseType type, PermutationTable table) throws IOException {
+        exporter.export(file, layout, format, type, -7.5, 3.25, 0.061, 0.047, WIDTH, HEIGHT, 5, 0.5, 2.0, 3, table);
+    }
+
+    private static ByteBuffer payload(Path file) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        return ByteBuffer.wrap(bytes, NoiseMapExporter.HEADER_BYTES, bytes.length - NoiseMapExporter.HEADER_BYTES)
+                .slice().order(ByteOrder.nativeOrder());
+    }
+
+    @Test
+    void testRowMajorMatchesFillGrid() throws IOException {
+        PermutationTable table = new PermutationTable();
+        Path file = directory.resolve("perlin.f32");
+        export(new NoiseMapExporter(fourThreadPool, 16, 8), file, NoiseMapExporter.Layout.ROW_MAJOR,
+                SampleFormat.FLOAT32, NoiseType.PERLIN, table);
+        float[] expected = new float[WIDTH * HEIGHT];
+        PerlinNoise.fillGrid2D(expected, -7.5, 3.25, 0.061, 0.047, WIDTH, HEIGHT, 5, 0.5, 2.0, 3, table);
+        ByteBuffer samples = payload(file);
+        assertEquals(expected.length * 4, samples.capacity());
+        for (int n = 0; n < expected.length; n++) {
+            assertEquals(expected[n], samples.getFloat(n * 4), 0.0f, "sample " + n);
+        }
+        ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(file), 0, NoiseMapExporter.HEADER_BYTES);
+        assertEquals("YNOISE2D", new String(Arrays.copyOf(header.array(), 8), "US-ASCII"));
+        assertEquals(NoiseMapExporter.FORMAT_VERSION, header.getInt(8));
+        assertEquals(WIDTH, header.getInt(28));
+        assertEquals(HEIGHT, header.getInt(32));
+        assertEquals((HEIGHT + 7) / 8, header.getInt(112), "completed bands");
+    }
+
+    @Test
+    void testTiledLayout() throws IOException {
+        PermutationTable table = new PermutationTable(64);
+        int tileWidth = 12;
+        int tileHeight = 10;
+        Path file = directory.resolve("simplex.tiles");
+        export(new NoiseMapExporter(fourThreadPool, tileWidth, tileHeight), file, NoiseMapExporter.Layout.TILED,
+                SampleFormat.UINT16, NoiseType.SIMPLEX, table);
+        MemorySegment expected = MemorySegment.ofArray(new short[WIDTH * HEIGHT]);
+        SegmentNoise.fillGrid2D(expected, 0, 2, SampleFormat.UINT16, NoiseType.SIMPLEX, -7.5, 3.25, 0.061, 0.047,
+                WIDTH, HEIGHT, 5, 0.5, 2.0, 3, table);
+        int tilesX = (WIDTH + tileWidth - 1) / tileWidth;
+        int tilesY = (HEIGHT + tileHeight - 1) / tileHeight;
+        ByteBuffer samples = payload(file);
+        assertEquals(tilesX * tilesY * tileWidth * tileHeight * 2, samples.capacity());
+        for (int ty = 0; ty < tilesY; ty++) {
+            for (int tx = 0; tx < tilesX; tx++) {
+                for (int ry = 0; ry < tileHeight; ry++) {
+                    for (int rx = 0; rx < tileWidth; rx++) {
+                        int ix = tx * tileWidth + rx;
+                        int iy = ty * tileHeight + ry;
+                        int index = ((ty * tilesX + tx) * tileWidth * tileHeight + ry * tileWidth + rx) * 2;
+                        short value = samples.getShort(index);
+                        if (ix < WIDTH && iy < HEIGHT) {
+                            assertEquals(expected.getAtIndex(ValueLayout.JAVA_SHORT, iy * WIDTH + ix), value,
+                                    "sample (" + ix + "," + iy + ")");
+                        } else {
+                            assertEquals(0, value, "padding (" + ix + "," + iy + ")");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testResumesAfterFailure() throws IOException {
+        PermutationTable table = new PermutationTable();
+        Path reference = directory.resolve("reference.u8");
+        Path file = directory.resolve("resumed.u8");
+        // 53 x 41 in 10 x 8 tiles: 6 tiles per band, 6 bands.
+        export(new NoiseMapExporter(Runnable::run, 10, 8), reference, NoiseMapExporter.Layout.ROW_MAJOR,
+                SampleFormat.UINT8, NoiseType.PERLIN, table);
+
+        AtomicInteger tiles = new AtomicInteger();
+        Executor failing = task -> {
+            if (tiles.incrementAndGet() > 15) {
+                throw new RejectedExecutionException("out of workers");
+            }
+            task.run();
+        };
+        assertThrows(RejectedExecutionException.class, () -> export(new NoiseMapExporter(failing, 10, 8), file,
+                NoiseMapExporter.Layout.ROW_MAJOR, SampleFormat.UINT8, NoiseType.PERLIN, table));
+
+        // Two bands were complete; only the remaining four are computed.
+        AtomicInteger resumedTiles = new AtomicInteger();
+        Executor counting = task -> {
+            resumedTiles.incrementAndGet();
+            task.run();
+        };
+        export(new NoiseMapExporter(counting, 10, 8), file, NoiseMapExporter.Layout.ROW_MAJOR, SampleFormat.UINT8,
+                NoiseType.PERLIN, table);
+        assertEquals(4 * 6, resumedTiles.get());
+        assertArrayEquals(Files.readAllBytes(reference), Files.readAllBytes(file));
+
+        // A finished export is not redone, a different one starts over.
+        resumedTiles.set(0);
+        export(new NoiseMapExporter(counting, 10, 8), file, NoiseMapExporter.Layout.ROW_MAJOR, SampleFormat.UINT8,
+                NoiseType.PERLIN, table);
+        assertEquals(0, resumedTiles.get());
+        export(new NoiseMapExporter(counting, 10, 8), file, NoiseMapExporter.Layout.ROW_MAJOR, SampleFormat.UINT8,
+                NoiseType.SIMPLEX, table);
+        assertEquals(6 * 6, resumedTiles.get());
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        NoiseMapExporter exporter = new NoiseMapExporter();
+        Path file = directory.resolve("bad");
+        assertThrows(IllegalArgumentException.class, () -> exporter.export(file, NoiseMapExporter.Layout.ROW_MAJOR,
+                SampleFormat.FLOAT32, NoiseType.PERLIN, 0, 0, 1, 1, 0, 4, 1, 0.5, 2.0, 0, new PermutationTable()));
+        assertThrows(IllegalArgumentException.class, () -> exporter.export(file, null, SampleFormat.FLOAT32,
+                NoiseType.PERLIN, 0, 0, 1, 1, 4, 4, 1, 0.5, 2.0, 0, new PermutationTable()));
+        assertThrows(IllegalArgumentException.class, () -> new NoiseMapExporter(null));
+        assertThrows(IllegalArgumentException.class, () -> new NoiseMapExporter(Runnable::run, 4, 0));
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,151 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+public class NoiseRegionGeneratorTest {
+
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 70;
+    private static final int DEPTH = 9;
+
+    private static ForkJoinPool singleThreadPool;
+    private static ForkJoinPool fourThreadPool;
+    private static ExecutorService fixedPool;
+
+    @BeforeAll
+    static void startPools() {
+        singleThreadPool = new ForkJoinPool(1);
+        fourThreadPool = new ForkJoinPool(4);
+        fixedPool = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterAll
+    static void stopPools() {
+        singleThreadPool.shutdown();
+        fourThreadPool.shutdown();
+        fixedPool.shutdown();
+    }
+
+    // Different executors, thread counts and tile sizes, including tiles that do not divide
+    // the region and tiles larger than it.
+    private static List<NoiseRegionGenerator> generators() {
+        List<NoiseRegionGenerator> generators = new ArrayList<>();
+        generators.add(new NoiseRegionGenerator());
+        generators.add(new NoiseRegionGenerator(singleThreadPool));
+        generators.add(new NoiseRegionGenerator(fourThreadPool, 7, 5, 3));
+        generators.add(new NoiseRegionGenerator(fixedPool, 64, 16, 2));
+        generators.add(new NoiseRegionGenerator(fourThreadPool, 1000, 1000, 1000));
+        return generators;
+    }
+
+    private static PermutationTable randomTable() {
+        PermutationTable table = new PermutationTable();
+        table.randomize(128, new Random(99L));
+        return table;
+    }
+
+    @Test
+    void testPerlin2DMatchesFillGrid() {
+        PermutationTable table = randomTable();
+        double[] expected = new double[WIDTH * HEIGHT];
+        PerlinNoise.fillGrid2D(expected, -3.7, 12.25, 0.043, 0.061, WIDTH, HEIGHT, 4, 0.5, 2.0, 3, table);
+        float[] expectedFloat = new float[WIDTH * HEIGHT];
+        PerlinNoise.fillGrid2D(expectedFloat, -3.7, 12.25, 0.043, 0.061, WIDTH, HEIGHT, 4, 0.5, 2.0, 3, table);
+
+        for (NoiseRegionGenerator generator : generators()) {
+            double[] actual = new double[WIDTH * HEIGHT];
+            generator.perlin2D(actual, -3.7, 12.25, 0.043, 0.061, WIDTH, HEIGHT, 4, 0.5, 2.0, 3, table);
+            assertArrayEquals(expected, actual, "perlin2D differs from fillGrid2D");
+
+            float[] actualFloat = new float[WIDTH * HEIGHT];
+            generator.perlin2D(actualFloat, -3.7, 12.25, 0.043, 0.061, WIDTH, HEIGHT, 4, 0.5, 2.0, 3, table);
+            assertArrayEquals(expectedFloat, actualFloat, "float perlin2D differs from fillGrid2D");
+        }
+    }
+
+    @Test
+    void testPerlin3DMatchesFillGrid() {
+        PermutationTable table = new PermutationTable();
+        double[] expected = new double[WIDTH * HEIGHT * DEPTH];
+        PerlinNoise.fillGrid3D(expected, 1.5, -2.5, 0.75, 0.05, 0.07, 0.11, WIDTH, HEIGHT, DEPTH,
+                3, 0.6, 2.1, 0, table);
+
+        for (NoiseRegionGenerator generator : generators()) {
+            double[] actual = new double[WIDTH * HEIGHT * DEPTH];
+            generator.perlin3D(actual, 1.5, -2.5, 0.75, 0.05, 0.07, 0.11, WIDTH, HEIGHT, DEPTH,
+                    3, 0.6, 2.1, 0, table);
+            assertArrayEquals(expected, actual, "perlin3D differs from fillGrid3D");
+        }
+    }
+
+    @Test
+    void testSimplexMatchesFillGrid() {
+        PermutationTable table = randomTable();
+        double[] expected2D = new double[WIDTH * HEIGHT];
+        SimplexNoise.fillGrid2D(expected2D, 40.0, -7.0, 0.031, 0.029, WIDTH, HEIGHT, 5, 0.5, 2.0, table);
+        float[] expected3D = new float[WIDTH * HEIGHT * DEPTH];
+        SimplexNoise.fillGrid3D(expected3D, 0.0, 0.0, 3.0, 0.09, 0.08, 0.07, WIDTH, HEIGHT, DEPTH,
+                2, 0.5, 2.0, table);
+
+        for (NoiseRegionGenerator generator : generators()) {
+            double[] actual2D = new double[WIDTH * HEIGHT];
+            generator.simplex2D(actual2D, 40.0, -7.0, 0.031, 0.029, WIDTH, HEIGHT, 5, 0.5, 2.0, table);
+            assertArrayEquals(expected2D, actual2D, "simplex2D differs from fillGrid2D");
+
+            float[] actual3D = new float[WIDTH * HEIGHT * DEPTH];
+            generator.simplex3D(actual3D, 0.0, 0.0, 3.0, 0.09, 0.08, 0.07, WIDTH, HEIGHT, DEPTH,
+                    2, 0.5, 2.0, table);
+            assertArrayEquals(expected3D, actual3D, "simplex3D differs from fillGrid3D");
+        }
+    }
+
+    @Test
+    void testGeneratorRegionsMatchFillGrid() {
+        NoiseGenerator[] noiseGenerators = {
+                NoiseGenerator.builder().octaves(3).base(2).permutationTable(randomTable()).build(),
+                NoiseGenerator.builder().octaves(2).repeat(8, 4, 8).build(),
+                NoiseGenerator.builder().octaves(4).seed(31L).build(),
+                NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(3).seed(-31L).build() };
+        for (NoiseGenerator noise : noiseGenerators) {
+            double[] expected2D = new double[WIDTH * HEIGHT];
+            float[] expected3D = new float[WIDTH * HEIGHT * DEPTH];
+            if (!noise.isTileable()) {
+                noise.fillGrid2D(expected2D, 1e7, -3.0, 0.037, 0.053, WIDTH, HEIGHT);
+            }
+            noise.fillGrid3D(expected3D, -2.0, 0.5, 1.0, 0.06, 0.05, 0.13, WIDTH, HEIGHT, DEPTH);
+
+            for (NoiseRegionGenerator generator : generators()) {
+                if (!noise.isTileable()) {
+                    double[] actual2D = new double[WIDTH * HEIGHT];
+                    generator.noise2D(actual2D, 1e7, -3.0, 0.037, 0.053, WIDTH, HEIGHT, noise);
+                    assertArrayEquals(expected2D, actual2D, "noise2D differs from fillGrid2D");
+                }
+                float[] actual3D = new float[WIDTH * HEIGHT * DEPTH];
+                generator.noise3D(actual3D, -2.0, 0.5, 1.0, 0.06, 0.05, 0.13, WIDTH, HEIGHT, DEPTH, noise);
+                assertArrayEquals(expected3D, actual3D, "noise3D differs from fillGrid3D");
+            }
+        }
+    }
+
+    @Test
+    void testRejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new NoiseRegionGenerator(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> new NoiseRegionGenerator(ForkJoinPool.commonPool(), 0, 8, 8));
+        NoiseRegionGenerator generator = new NoiseRegionGenerator();
+        assertThrows(IllegalArgumentException.class, () -> generator.perlin2D(new double[10], 0, 0, 1, 1,
+                4, 4, 1, 0.5, 2.0, 0, new PermutationTable()));
+        // An empty region is a no-op.
+        generator.simplex2D(new double[0], 0, 0, 1, 1, 0, 5, 1, 0.5, 2.0, new PermutationTable());
+    }
+}
@@ -0,0 +1,112 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+public class NoiseWindowTest {
+
+    private static final int WIDTH = 23;
+    private static final int HEIGHT = 17;
+    private static final double ORIGIN_X = -3.75;
+    private static final double ORIGIN_Y = 12.5;
+    private static final double STEP_X = 0.071;
+    private static final double STEP_Y = 0.093;
+
+    private static NoiseWindow window(NoiseGenerator generator, int windowX, int windowY) {
+        return new NoiseWindow(generator, ORIGIN_X, ORIGIN_Y, STEP_X, STEP_Y, WIDTH, HEIGHT, windowX, windowY);
+    }
+
+    private static void assertMatchesField(NoiseGenerator generator, NoiseWindow window) {
+        double[] values = new double[WIDTH * HEIGHT + 2];
+        window.copyTo(values, 2);
+        NoiseWindow fresh = window(generator, window.getWindowX(), window.getWindowY());
+        for (int iy = 0; iy < HEIGHT; iy++) {
+            for (int ix = 0; ix < WIDTH; ix++) {
+                double expected = generator.noise2(ORIGIN_X + (window.getWindowX() + ix) * STEP_X,
+                        ORIGIN_Y + (window.getWindowY() + iy) * STEP_Y);
+                String where = "window (" + window.getWindowX() + "," + window.getWindowY() + ") sample (" + ix
+                        + "," + iy + ")";
+                assertEquals(expected, values[2 + iy * WIDTH + ix], 0.0, where);
+                assertEquals(expected, window.get(ix, iy), 0.0, where);
+                assertEquals(fresh.get(ix, iy), window.get(ix, iy), 0.0, where);
+            }
+        }
+    }
+
+    @Test
+    void testScrollingMatchesFullRegeneration() {
+        NoiseGenerator[] generators = {
+                NoiseGenerator.builder().octaves(4).base(2).build(),
+                NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(3).persistence(0.6).build() };
+        for (NoiseGenerator generator : generators) {
+            NoiseWindow window = window(generator, -5, 8);
+            assertMatchesField(generator, window);
+            Random random = new Random(23);
+            for (int step = 0; step < 40; step++) {
+                // Mostly small pans, sometimes a jump past a whole window.
+                int range = step % 9 == 8 ? 80 : 7;
+                window.scroll(random.nextInt(2 * range + 1) - range, random.nextInt(2 * range + 1) - range);
+                assertMatchesField(generator, window);
+            }
+        }
+    }
+
+    @Test
+    void testAtGridOriginMatchesFillGrid() {
+        NoiseGenerator generator = NoiseGenerator.builder().octaves(5).build();
+        NoiseWindow window = window(generator, 0, 0);
+        window.scroll(9, 4);
+        window.scroll(-9, -4);
+        double[] expected = new double[WIDTH * HEIGHT];
+        generator.fillGrid2D(expected, ORIGIN_X, ORIGIN_Y, STEP_X, STEP_Y, WIDTH, HEIGHT);
+        double[] actual = new double[WIDTH * HEIGHT];
+        window.copyTo(actual, 0);
+        assertArrayEquals(expected, actual, 0.0);
+    }
+
+    @Test
+    void testEvaluatesOnlyExposedSamples() {
+        NoiseWindow window = window(NoiseGenerator.builder().octaves(2).build(), 100, -100);
+        long computed = WIDTH * HEIGHT;
+        assertEquals(computed, window.getSamplesComputed());
+        window.scroll(3, 0);
+        assertEquals(computed += 3 * HEIGHT, window.getSamplesComputed());
+        window.scroll(-2, 1);
+        assertEquals(computed += WIDTH + 2 * (HEIGHT - 1), window.getSamplesComputed());
+        window.scroll(0, 0);
+        assertEquals(computed, window.getSamplesComputed());
+        window.scroll(WIDTH, 0);
+        assertEquals(computed += WIDTH * HEIGHT, window.getSamplesComputed());
+    }
+
+    @Test
+    void testRingBufferView() {
+        NoiseWindow window = window(NoiseGenerator.builder().octaves(3).build(), 0, 0);
+        DoubleBuffer ring = window.ringBuffer();
+        assertTrue(ring.isReadOnly());
+        window.scroll(-7, 5);
+        for (int iy = 0; iy < HEIGHT; iy++) {
+            for (int ix = 0; ix < WIDTH; ix++) {
+                int rx = (window.getRingX() + ix) % WIDTH;
+                int ry = (window.getRingY() + iy) % HEIGHT;
+                assertEquals(window.get(ix, iy), ring.get(ry * WIDTH + rx), 0.0);
+            }
+        }
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        NoiseGenerator generator = NoiseGenerator.builder().build();
+        assertThrows(IllegalArgumentException.class, () -> window(null, 0, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new NoiseWindow(generator, 0, 0, 1, 1, 0, 4, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> window(generator, Integer.MAX_VALUE - 5, 0));
+        NoiseWindow window = window(generator, 0, 0);
+        assertThrows(IllegalArgumentException.class, () -> window.scroll(Integer.MAX_VALUE, 0));
+        assertThrows(IllegalArgumentException.class, () -> window.copyTo(new double[WIDTH * HEIGHT], 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> window.get(WIDTH, 0));
+    }
+}
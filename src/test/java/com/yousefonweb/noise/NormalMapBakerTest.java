@@ -0,0 +1,128 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+
+public class NormalMapBakerTest {
+
+    private static final int WIDTH = 45;
+    private static final int HEIGHT = 23;
+    private static final double HEIGHT_SCALE = 0.8;
+
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void startPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void stopPool() {
+        pool.shutdown();
+    }
+
+    private static ByteBuffer bake(NormalMapBaker baker, NormalMapBaker.Format format, NoiseType type,
+            PermutationTable table) {
+        return baker.bake(format, type, -3.1, 7.4, 0.137, 0.093, WIDTH, HEIGHT, 4, 0.5, 2.0, 5, table,
+                HEIGHT_SCALE);
+    }
+
+    @Test
+    void testTexelsMatchPointDerivatives() {
+        PermutationTable table = new PermutationTable(128);
+        for (NoiseType type : NoiseType.values()) {
+            ByteBuffer out = bake(new NormalMapBaker(), NormalMapBaker.Format.RGBA_FLOAT, type, table);
+            double[] sample = new double[3];
+            for (int iy = 0; iy < HEIGHT; iy++) {
+                for (int ix = 0; ix < WIDTH; ix++) {
+                    double x = -3.1 + ix * 0.137;
+                    double y = 7.4 + iy * 0.093;
+                    if (type == NoiseType.PERLIN) {
+                        PerlinNoise.pnoise2Deriv(x, y, 4, 0.5, 2.0, 5, table, sample, 0);
+                    } else {
+                        SimplexNoise.snoise2Deriv(x, y, 4, 0.5, 2.0, table, sample, 0);
+                    }
+                    double nx = -HEIGHT_SCALE * sample[1];
+                    double ny = -HEIGHT_SCALE * sample[2];
+                    double length = Math.sqrt(nx * nx + ny * ny + 1.0);
+                    int index = (iy * WIDTH + ix) * 16;
+                    String where = type + " texel (" + ix + "," + iy + ")";
+                    assertEquals(nx / length, out.getFloat(index), 1e-6, where);
+                    assertEquals(ny / length, out.getFloat(index + 4), 1e-6, where);
+                    assertEquals(1.0 / length, out.getFloat(index + 8), 1e-6, where);
+                    assertEquals((float) sample[0], out.getFloat(index + 12), 0.0f, where);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFormatsAgree() {
+        PermutationTable table = new PermutationTable();
+        NormalMapBaker baker = new NormalMapBaker();
+        ByteBuffer rgba = bake(baker, NormalMapBaker.Format.RGBA_FLOAT, NoiseType.SIMPLEX, table);
+        ByteBuffer rgb = bake(baker, NormalMapBaker.Format.RGB_FLOAT, NoiseType.SIMPLEX, table);
+        ByteBuffer bytes = bake(baker, NormalMapBaker.Format.RGBA8, NoiseType.SIMPLEX, table);
+        assertEquals(WIDTH * HEIGHT * 12, rgb.capacity());
+        assertEquals(WIDTH * HEIGHT * 4, bytes.capacity());
+        for (int t = 0; t < WIDTH * HEIGHT; t++) {
+            for (int c = 0; c < 4; c++) {
+                float value = rgba.getFloat(t * 16 + c * 4);
+                if (c < 3) {
+                    assertEquals(value, rgb.getFloat(t * 12 + c * 4), 0.0f);
+                }
+                assertEquals((value + 1.0) * 127.5, bytes.get(t * 4 + c) & 0xff, 0.5 + 1e-4,
+                        "RGBA8 channel " + c + " of texel " + t);
+            }
+        }
+    }
+
+    @Test
+    void testIndependentOfExecutorAndTiles() {
+        // The tiling itself is covered by NoiseRegionGeneratorTest; here one image-sized tile is
+        // compared with tiles that do not divide the image.
+        PermutationTable table = new PermutationTable(64);
+        ByteBuffer expected = bake(new NormalMapBaker(pool, 1000, 1000),
+                NormalMapBaker.Format.RGBA8, NoiseType.PERLIN, table);
+        NormalMapBaker[] bakers = {
+                new NormalMapBaker(),
+                new NormalMapBaker(pool, 7, 5),
+                new NormalMapBaker(pool, 16, 3) };
+        for (NormalMapBaker baker : bakers) {
+            assertEquals(expected, bake(baker, NormalMapBaker.Format.RGBA8, NoiseType.PERLIN, table),
+                    "tiles " + baker.getTileWidth() + "x" + baker.getTileHeight());
+        }
+    }
+
+    @Test
+    void testWritesFromBufferPosition() {
+        PermutationTable table = new PermutationTable();
+        ByteBuffer expected = bake(new NormalMapBaker(), NormalMapBaker.Format.RGBA8, NoiseType.PERLIN, table);
+        ByteBuffer out = ByteBuffer.allocate(expected.capacity() + 10).order(ByteOrder.nativeOrder());
+        out.position(6);
+        new NormalMapBaker().bake(out, NormalMapBaker.Format.RGBA8, NoiseType.PERLIN, -3.1, 7.4, 0.137, 0.093,
+                WIDTH, HEIGHT, 4, 0.5, 2.0, 5, table, HEIGHT_SCALE);
+        assertEquals(6, out.position());
+        assertEquals(expected, out.slice(6, expected.capacity()));
+        assertEquals(0, out.get(5));
+        assertEquals(0, out.get(6 + expected.capacity()));
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        PermutationTable table = new PermutationTable();
+        NormalMapBaker baker = new NormalMapBaker();
+        assertThrows(IllegalArgumentException.class, () -> baker.bake(ByteBuffer.allocate(10),
+                NormalMapBaker.Format.RGBA8, NoiseType.PERLIN, 0, 0, 1, 1, 2, 2, 1, 0.5, 2.0, 0, table, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> baker.bake(ByteBuffer.allocate(64),
+                NormalMapBaker.Format.RGBA8, null, 0, 0, 1, 1, 2, 2, 1, 0.5, 2.0, 0, table, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new NormalMapBaker(null));
+        assertThrows(IllegalArgumentException.class, () -> new NormalMapBaker(pool, 0, 4));
+    }
+}
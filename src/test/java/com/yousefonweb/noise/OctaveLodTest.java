@@ -0,0 +1,147 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OctaveLodTest {
+
+    @Test
+    void testWeightFadesSmoothlyToCutoff() {
+        assertEquals(1.0, OctaveLod.weight(1024.0, 0.0), 0.0);
+        assertEquals(1.0, OctaveLod.weight(1.0, OctaveLod.FADE_START), 0.0);
+        assertEquals(0.5, OctaveLod.weight(1.0, (OctaveLod.FADE_START + OctaveLod.CUTOFF) / 2), 1e-15);
+        assertEquals(0.0, OctaveLod.weight(1.0, OctaveLod.CUTOFF), 0.0);
+        assertEquals(0.0, OctaveLod.weight(8.0, 1.0), 0.0);
+        double previous = 1.0;
+        for (double footprint = 0.2; footprint <= 0.55; footprint += 0.001) {
+            double weight = OctaveLod.weight(1.0, footprint);
+            assertTrue(weight <= previous, "weight must not grow with the footprint");
+            assertTrue(previous - weight < 0.01, "weight must fade without jumps");
+            previous = weight;
+        }
+    }
+
+    @Test
+    void testZeroFootprintMatchesPlainFbm() {
+        PermutationTable table = new PermutationTable();
+        for (double x = -3.1; x < 3.0; x += 0.37) {
+            double y = 0.7 * x + 0.2;
+            double z = 1.3 - x;
+            assertEquals(PerlinNoise.pnoise1(x, 5, 0.5, 2.0, 3, table),
+                    PerlinNoise.pnoise1(x, 5, 0.5, 2.0, 3, table, 0.0), 0.0);
+            assertEquals(PerlinNoise.pnoise2(x, y, 5, 0.5, 2.0, 3, table),
+                    PerlinNoise.pnoise2(x, y, 5, 0.5, 2.0, 3, table, 0.0), 0.0);
+            assertEquals(PerlinNoise.pnoise3(x, y, z, 5, 0.5, 2.0, 3, table, 0, 0, 0),
+                    PerlinNoise.pnoise3(x, y, z, 5, 0.5, 2.0, 3, table, 0.0), 0.0);
+            assertEquals(SimplexNoise.snoise2(x, y, 5, 0.5, 2.0, table),
+                    SimplexNoise.snoise2(x, y, 5, 0.5, 2.0, table, 0.0), 0.0);
+            assertEquals(SimplexNoise.snoise3(x, y, z, 5, 0.5, 2.0, table),
+                    SimplexNoise.snoise3(x, y, z, 5, 0.5, 2.0, table, 0.0), 0.0);
+            assertEquals(SimplexNoise.snoise4(x, y, z, y, 5, 0.5, 2.0, table),
+                    SimplexNoise.snoise4(x, y, z, y, 5, 0.5, 2.0, table, 0.0), 0.0);
+        }
+        NoiseGenerator perlin = NoiseGenerator.builder().octaves(4).base(2).build();
+        NoiseGenerator tileable = perlin.toBuilder().repeat(16, 16, 16).build();
+        NoiseGenerator simplex = NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(4).build();
+        for (double x = -2.3; x < 2.0; x += 0.41) {
+            assertEquals(perlin.noise1(x), perlin.noise1(x, 0.0), 0.0);
+            assertEquals(perlin.noise2(x, 0.3 * x), perlin.noise2(x, 0.3 * x, 0.0), 0.0);
+            assertEquals(perlin.noise3(x, 1.1, -x), perlin.noise3(x, 1.1, -x, 0.0), 0.0);
+            assertEquals(tileable.noise3(x, 1.1, -x), tileable.noise3(x, 1.1, -x, 0.0), 0.0);
+            assertEquals(simplex.noise2(x, 0.3 * x), simplex.noise2(x, 0.3 * x, 0.0), 0.0);
+            assertEquals(simplex.noise3(x, 1.1, -x), simplex.noise3(x, 1.1, -x, 0.0), 0.0);
+            assertEquals(simplex.noise4(x, 1.1, -x, 0.5), simplex.noise4(x, 1.1, -x, 0.5, 0.0), 0.0);
+        }
+    }
+
+    @Test
+    void testCulledOctavesKeepNormalizationOfAll() {
+        // At a footprint of 1/16 octaves 1, 2 and 4 keep full weight, 8 has just faded out and
+        // 16 and 32 are culled: the result is the 3-octave sum over the 6-octave total amplitude.
+        PermutationTable table = new PermutationTable();
+        double footprint = 1.0 / 16;
+        double scale = (1 + 0.5 + 0.25) / (1 + 0.5 + 0.25 + 0.125 + 0.0625 + 0.03125);
+        NoiseGenerator perlin = NoiseGenerator.builder().octaves(6).build();
+        NoiseGenerator simplex = NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(6).build();
+        assertEquals(3, perlin.activeOctaves(footprint));
+        assertEquals(6, perlin.activeOctaves(0.0));
+        assertEquals(1, perlin.activeOctaves(0.3));
+        // Past every octave's cutoff only the mean of the field is left.
+        assertEquals(0, perlin.activeOctaves(10.0));
+        assertEquals(0.0, perlin.noise2(0.3, 0.7, 10.0), 0.0);
+        for (double x = -1.9; x < 2.0; x += 0.29) {
+            double y = 0.4 - 0.6 * x;
+            assertEquals(PerlinNoise.pnoise2(x, y, 3, 0.5, 2.0, 0, table) * scale,
+                    PerlinNoise.pnoise2(x, y, 6, 0.5, 2.0, 0, table, footprint), 1e-12);
+            assertEquals(SimplexNoise.snoise3(x, y, 0.8, 3, 0.5, 2.0, table) * scale,
+                    SimplexNoise.snoise3(x, y, 0.8, 6, 0.5, 2.0, table, footprint), 1e-12);
+            assertEquals(perlin.toBuilder().octaves(3).build().noise2(x, y) * scale,
+                    perlin.noise2(x, y, footprint), 1e-12);
+            assertEquals(simplex.toBuilder().octaves(3).build().noise2(x, y) * scale,
+                    simplex.noise2(x, y, footprint), 1e-12);
+        }
+    }
+
+    @Test
+    void testFilteredGridsMatchPointLod() {
+        NoiseGenerator[] generators = {
+                NoiseGenerator.builder().octaves(7).base(5).build(),
+                NoiseGenerator.builder().octaves(7).repeat(32, 32, 32).build(),
+                NoiseGenerator.builder().type(NoiseType.SIMPLEX).octaves(7).build(),
+        };
+        int width = 11;
+        int height = 6;
+        int depth = 3;
+        double stepX = 0.09;
+        double stepY = -0.13;
+        double stepZ = 0.05;
+        for (NoiseGenerator generator : generators) {
+            double[] grid3 = new double[width * height * depth];
+            float[] grid3f = new float[grid3.length];
+            generator.fillGrid3DFiltered(grid3, 0.7, 2.1, -0.4, stepX, stepY, stepZ, width, height, depth);
+            generator.fillGrid3DFiltered(grid3f, 0.7, 2.1, -0.4, stepX, stepY, stepZ, width, height, depth);
+            for (int iz = 0; iz < depth; iz++) {
+                for (int iy = 0; iy < height; iy++) {
+                    for (int ix = 0; ix < width; ix++) {
+                        int n = (iz * height + iy) * width + ix;
+                        double expected = generator.noise3(0.7 + ix * stepX, 2.1 + iy * stepY, -0.4 + iz * stepZ,
+                                0.13);
+                        assertEquals(expected, grid3[n], 0.0);
+                        assertEquals((float) expected, grid3f[n], 0.0f);
+                    }
+                }
+            }
+            double[] grid2 = new double[width * height];
+            float[] grid2f = new float[grid2.length];
+            generator.fillGrid2DFiltered(grid2, -3.0, 1.5, stepX, stepY, width, height);
+            generator.fillGrid2DFiltered(grid2f, -3.0, 1.5, stepX, stepY, width, height);
+            for (int iy = 0; iy < height; iy++) {
+                for (int ix = 0; ix < width; ix++) {
+                    double expected = generator.noise2(-3.0 + ix * stepX, 1.5 + iy * stepY, 0.13);
+                    assertEquals(expected, grid2[iy * width + ix], 0.0);
+                    assertEquals((float) expected, grid2f[iy * width + ix], 0.0f);
+                }
+            }
+        }
+        // A fine grid keeps every octave.
+        NoiseGenerator generator = generators[0];
+        double[] filtered = new double[64];
+        double[] plain = new double[64];
+        generator.fillGrid2DFiltered(filtered, 0.3, 0.2, 1e-4, 1e-4, 8, 8);
+        generator.fillGrid2D(plain, 0.3, 0.2, 1e-4, 1e-4, 8, 8);
+        assertArrayEquals(plain, filtered, 0.0);
+    }
+
+    @Test
+    void testRejectsBadFootprint() {
+        NoiseGenerator generator = NoiseGenerator.builder().build();
+        PermutationTable table = new PermutationTable();
+        assertThrows(IllegalArgumentException.class, () -> generator.noise2(0.1, 0.2, -1.0));
+        assertThrows(IllegalArgumentException.class, () -> generator.noise3(0.1, 0.2, 0.3, Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> generator.activeOctaves(Double.POSITIVE_INFINITY));
+        assertThrows(IllegalArgumentException.class,
+                () -> PerlinNoise.pnoise2(0.1, 0.2, 2, 0.5, 2.0, 0, table, -0.5));
+        assertThrows(IllegalArgumentException.class,
+                () -> generator.fillGrid2DFiltered(new double[4], 0, 0, Double.NaN, 0.1, 2, 2));
+    }
+}
@@ -287,4 +287,273 @@ public class PerlinNoiseTest {
         assertEquals(n1_diffBase, n2_diffBase_tiledX, 1e-5,
                 "Tiling should still work with a different baseForPermutation.");
     }
-}
\ No newline at end of file
+
+    // --- Bulk Grid Tests ---
+    @Test
+    void testFillGrid2DMatchesScalar() {
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(64) };
+        int width = 37, height = 11;
+        double[] out = new double[width * height];
+        float[] outF = new float[width * height];
+        for (PermutationTable pt : tables) {
+            for (int octaves = 1; octaves <= OCTAVE_COUNT_MAX; octaves += 2) {
+                for (int base : new int[] { 0, 7, -3 }) {
+                    PerlinNoise.fillGrid2D(out, -3.3, 1.7, 0.173, 0.31, width, height, octaves, 0.5, 2.0, base, pt);
+                    PerlinNoise.fillGrid2D(outF, -3.3, 1.7, 0.173, 0.31, width, height, octaves, 0.5, 2.0, base, pt);
+                    for (int iy = 0; iy < height; iy++) {
+                        for (int ix = 0; ix < width; ix++) {
+                            double expected = PerlinNoise.pnoise2(-3.3 + ix * 0.173, 1.7 + iy * 0.31, octaves, 0.5,
+                                    2.0, base, pt);
+                            assertEquals(expected, out[iy * width + ix], 0.0,
+                                    "fillGrid2D mismatch at (" + ix + "," + iy + "), octaves=" + octaves);
+                            assertEquals((float) expected, outF[iy * width + ix], 0.0f,
+                                    "float fillGrid2D mismatch at (" + ix + "," + iy + ")");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFillGrid3DMatchesScalar() {
+        PermutationTable pt = new PermutationTable();
+        int width = 13, height = 5, depth = 4;
+        double[] out = new double[width * height * depth];
+        float[] outF = new float[width * height * depth];
+        for (int octaves = 1; octaves <= OCTAVE_COUNT_MAX; octaves += 2) {
+            PerlinNoise.fillGrid3D(out, 0.4, -2.2, 5.1, 0.27, 0.19, 0.43, width, height, depth, octaves, 0.6, 1.9, 3,
+                    pt);
+            PerlinNoise.fillGrid3D(outF, 0.4, -2.2, 5.1, 0.27, 0.19, 0.43, width, height, depth, octaves, 0.6, 1.9, 3,
+                    pt);
+            for (int iz = 0; iz < depth; iz++) {
+                for (int iy = 0; iy < height; iy++) {
+                    for (int ix = 0; ix < width; ix++) {
+                        double expected = PerlinNoise.pnoise3(0.4 + ix * 0.27, -2.2 + iy * 0.19, 5.1 + iz * 0.43,
+                                octaves, 0.6, 1.9, 3, pt, 0, 0, 0);
+                        int index = (iz * height + iy) * width + ix;
+                        assertEquals(expected, out[index], 0.0, "fillGrid3D mismatch at index " + index);
+                        assertEquals((float) expected, outF[index], 0.0f, "float fillGrid3D mismatch at index " + index);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFillGridRejectsShortOutput() {
+        PermutationTable pt = new PermutationTable();
+        assertThrows(IllegalArgumentException.class,
+                () -> PerlinNoise.fillGrid2D(new double[10], 0, 0, 1, 1, 4, 3, 1, 0.5, 2.0, 0, pt));
+        assertThrows(IllegalArgumentException.class,
+                () -> PerlinNoise.fillGrid3D(new float[10], 0, 0, 0, 1, 1, 1, 2, 2, 3, 1, 0.5, 2.0, 0, pt));
+    }
+
+    @Test
+    void testFillGridWideRowsMatchScalar() {
+        // Wide rows run through the vector kernels (when jdk.incubator.vector is enabled) plus a scalar tail.
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(100) };
+        int width = 203;
+        double[] row2 = new double[width];
+        double[] row3 = new double[width];
+        for (PermutationTable pt : tables) {
+            for (double originX : new double[] { -1234.5678, 0.0, 98765.4321 }) {
+                PerlinNoise.fillGrid2D(row2, originX, -17.25, 0.0731, 1.0, width, 1, 4, 0.5, 2.0, 11, pt);
+                PerlinNoise.fillGrid3D(row3, originX, 3.5, -8.125, -0.0613, 1.0, 1.0, width, 1, 1, 3, 0.5, 2.0, 0,
+                        pt);
+                for (int ix = 0; ix < width; ix++) {
+                    assertEquals(PerlinNoise.pnoise2(originX + ix * 0.0731, -17.25, 4, 0.5, 2.0, 11, pt), row2[ix],
+                            0.0, "2D mismatch at ix=" + ix + ", originX=" + originX);
+                    assertEquals(PerlinNoise.pnoise3(originX + ix * -0.0613, 3.5, -8.125, 3, 0.5, 2.0, 0, pt, 0, 0, 0),
+                            row3[ix], 0.0, "3D mismatch at ix=" + ix + ", originX=" + originX);
+                }
+            }
+        }
+    }
+
+    // --- Multi-Channel Tests ---
+    @Test
+    void testChannelsMatchSingleCalls() {
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(64), new PermutationTable() };
+        int[] bases = { 0, 5, 12 };
+        double[] out = new double[4];
+        Random random = new Random(9L);
+        for (int i = 0; i < RANGE_CHECK_ITERATIONS_LARGE; i++) {
+            double x = random.nextDouble() * 40 - 20;
+            double y = random.nextDouble() * 40 - 20;
+            double z = random.nextDouble() * 40 - 20;
+            int octaves = 1 + i % OCTAVE_COUNT_MAX;
+            int repeat = i % 2 == 0 ? 0 : 16 + i % 7;
+            PerlinNoise.pnoise3Channels(x, y, z, octaves, 0.5, 2.0, bases, tables, repeat, repeat, repeat, out, 1);
+            for (int c = 0; c < bases.length; c++) {
+                assertEquals(PerlinNoise.pnoise3(x, y, z, octaves, 0.5, 2.0, bases[c], tables[c], repeat, repeat,
+                        repeat), out[1 + c], 0.0, "channel " + c + " mismatch, repeat=" + repeat);
+            }
+        }
+    }
+
+    @Test
+    void testFillGridChannelsMatchScalar() {
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(100) };
+        int[] bases = { 0, 9 };
+        int width = 11, height = 4, depth = 3, stride = 4;
+        double[] out = new double[width * height * depth * stride];
+        for (int repeat : new int[] { 0, 6 }) {
+            PerlinNoise.fillGrid3DChannels(out, stride, -1.3, 0.7, 2.2, 0.37, 0.41, 0.29, width, height, depth, 3,
+                    0.5, 2.0, bases, tables, repeat, repeat, repeat);
+            for (int iz = 0; iz < depth; iz++) {
+                for (int iy = 0; iy < height; iy++) {
+                    for (int ix = 0; ix < width; ix++) {
+                        int sample = (iz * height + iy) * width + ix;
+                        for (int c = 0; c < bases.length; c++) {
+                            assertEquals(PerlinNoise.pnoise3(-1.3 + ix * 0.37, 0.7 + iy * 0.41, 2.2 + iz * 0.29, 3,
+                                    0.5, 2.0, bases[c], tables[c], repeat, repeat, repeat),
+                                    out[sample * stride + c], 0.0,
+                                    "channel " + c + " mismatch at sample " + sample + ", repeat=" + repeat);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTileableRowsMatchScalar() {
+        // Rows long enough to cross many periods, starting left of 0 (per-sample wrapping) and
+        // with steps both below and above the period; bases below the smallest period.
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(64) };
+        int[] bases = { 0, 3 };
+        int width = 97;
+        double[] out = new double[width * 2 * 2];
+        double[][] rows = { { -2.5, 0.173 }, { 0.0, 1.0 / 16 }, { 3.1, 5.3 } };
+        for (double[] row : rows) {
+            for (int octaves = 1; octaves <= 3; octaves++) {
+                PerlinNoise.fillGrid3DChannels(out, 2, row[0], 0.3, 7.7, row[1], 1.9, 1.0, width, 2, 1, octaves,
+                        0.55, 1.7, bases, tables, 12, 8, 16);
+                for (int iy = 0; iy < 2; iy++) {
+                    for (int ix = 0; ix < width; ix++) {
+                        for (int c = 0; c < 2; c++) {
+                            assertEquals(PerlinNoise.pnoise3(row[0] + ix * row[1], 0.3 + iy * 1.9, 7.7, octaves, 0.55,
+                                    1.7, bases[c], tables[c], 12, 8, 16), out[(iy * width + ix) * 2 + c], 0.0,
+                                    "row " + row[0] + "+" + row[1] + ", octaves " + octaves + ", sample " + ix);
+                        }
+                    }
+                }
+            }
+        }
+        // Periods far longer than the row wrap per cell rather than through period-sized tables
+        int[] repeats = { 1 << 30, 1_000_000 };
+        for (int repeat : repeats) {
+            PerlinNoise.fillGrid3DChannels(out, 2, 1.5, 2.5, 3.5, 0.3, 1.0, 1.0, width, 2, 1, 2, 0.5, 2.0, bases,
+                    tables, repeat, 16, 16);
+            for (int iy = 0; iy < 2; iy++) {
+                for (int ix = 0; ix < width; ix++) {
+                    for (int c = 0; c < 2; c++) {
+                        assertEquals(PerlinNoise.pnoise3(1.5 + ix * 0.3, 2.5 + iy, 3.5, 2, 0.5, 2.0, bases[c],
+                                tables[c], repeat, 16, 16), out[(iy * width + ix) * 2 + c], 0.0,
+                                "repeat " + repeat + ", sample " + ix);
+                    }
+                }
+            }
+        }
+        // An octave whose period truncates to 0 fails as the scalar function does
+        assertThrows(ArithmeticException.class, () -> PerlinNoise.pnoise3(0.5, 0.5, 0.5, 4, 0.5, 2.0, 0,
+                tables[0], 4, 4, 4));
+        assertThrows(ArithmeticException.class, () -> PerlinNoise.fillGrid3DChannels(new double[4], 1, 0, 0, 0,
+                1, 1, 1, 4, 1, 1, 4, 0.5, 2.0, new int[] { 0 }, new PermutationTable[] { tables[0] }, 4, 4, 4));
+    }
+
+    @Test
+    void testTileable2DRepeats() {
+        PermutationTable small = new PermutationTable(16);
+        for (int base : new int[] { 0, 5, -7 }) {
+            for (int i = 0; i < 50; i++) {
+                double x = -6.0 + i * 0.731;
+                double y = 3.0 - i * 0.417;
+                // 40 cells exceed the 16-entry table; later octaves have 80 and 160
+                double n = PerlinNoise.pnoise2(x, y, 3, 0.5, 2.0, base, small, 40, 6);
+                assertTrue(n >= -1.0 - DELTA && n <= 1.0 + DELTA, "out of range: " + n);
+                assertEquals(n, PerlinNoise.pnoise2(x + 40, y, 3, 0.5, 2.0, base, small, 40, 6), 1e-9);
+                assertEquals(n, PerlinNoise.pnoise2(x, y - 6, 3, 0.5, 2.0, base, small, 40, 6), 1e-9);
+                assertEquals(n, PerlinNoise.pnoise2(x - 80, y + 12, 3, 0.5, 2.0, base, small, 40, 6), 1e-9);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> PerlinNoise.pnoise2(0.5, 0.5, 0, 4, 0));
+    }
+
+    @Test
+    void testFillGridTileable2DMatchesScalar() {
+        PermutationTable pt = new PermutationTable(64);
+        int width = 37, height = 9;
+        double[] out = new double[width * height];
+        float[] outF = new float[width * height];
+        for (int octaves = 1; octaves <= 4; octaves++) {
+            PerlinNoise.fillGrid2D(out, -3.3, 1.25, 0.29, 0.61, width, height, octaves, 0.6, 2.0, 3, pt, 8, 5);
+            PerlinNoise.fillGrid2D(outF, -3.3, 1.25, 0.29, 0.61, width, height, octaves, 0.6, 2.0, 3, pt, 8, 5);
+            for (int iy = 0; iy < height; iy++) {
+                for (int ix = 0; ix < width; ix++) {
+                    double expected = PerlinNoise.pnoise2(-3.3 + ix * 0.29, 1.25 + iy * 0.61, octaves, 0.6, 2.0, 3, pt,
+                            8, 5);
+                    assertEquals(expected, out[iy * width + ix], 0.0, "octaves " + octaves + " at " + ix + "," + iy);
+                    assertEquals((float) expected, outF[iy * width + ix], 0.0f);
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> PerlinNoise.fillGrid2D(out, 0, 0, 1, 1, width, height, 1, 0.5, 2.0, 0, pt, 8, 0));
+    }
+
+    @Test
+    void testChannelsRejectBadArguments() {
+        PermutationTable pt = new PermutationTable();
+        int[] bases = { 0, 1 };
+        PermutationTable[] tables = { pt, pt };
+        assertThrows(IllegalArgumentException.class, () -> PerlinNoise.pnoise3Channels(0.5, 0.5, 0.5, 1, 0.5, 2.0,
+                bases, new PermutationTable[] { pt }, 0, 0, 0, new double[2], 0));
+        assertThrows(IllegalArgumentException.class, () -> PerlinNoise.pnoise3Channels(0.5, 0.5, 0.5, 1, 0.5, 2.0,
+                new int[0], new PermutationTable[0], 0, 0, 0, new double[2], 0));
+        assertThrows(IllegalArgumentException.class, () -> PerlinNoise.pnoise3Channels(0.5, 0.5, 0.5, 1, 0.5, 2.0,
+                bases, tables, 0, 0, 0, new double[2], 1));
+        assertThrows(IllegalArgumentException.class, () -> PerlinNoise.fillGrid3DChannels(new double[16], 1, 0, 0,
+                0, 1, 1, 1, 4, 2, 1, 1, 0.5, 2.0, bases, tables, 0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> PerlinNoise.fillGrid3DChannels(new double[15], 2, 0, 0,
+                0, 1, 1, 1, 4, 2, 1, 1, 0.5, 2.0, bases, tables, 0, 0, 0));
+    }
+
+    // --- Derivative Tests ---
+    @Test
+    void testDerivativesMatchValueAndFiniteDifferences() {
+        PermutationTable pt = new PermutationTable(64);
+        double h = 1e-6;
+        double[] d = new double[5];
+        Random random = new Random(13L);
+        for (int i = 0; i < RANGE_CHECK_ITERATIONS_LARGE; i++) {
+            double x = random.nextDouble() * 40 - 20;
+            double y = random.nextDouble() * 40 - 20;
+            double z = random.nextDouble() * 40 - 20;
+            int octaves = 1 + i % OCTAVE_COUNT_MAX;
+            int base = i % 3;
+
+            PerlinNoise.pnoise2Deriv(x, y, octaves, 0.5, 2.0, base, pt, d, 2);
+            assertEquals(PerlinNoise.pnoise2(x, y, octaves, 0.5, 2.0, base, pt), d[2], 0.0);
+            assertEquals((PerlinNoise.pnoise2(x + h, y, octaves, 0.5, 2.0, base, pt)
+                    - PerlinNoise.pnoise2(x - h, y, octaves, 0.5, 2.0, base, pt)) / (2 * h), d[3], 1e-4);
+            assertEquals((PerlinNoise.pnoise2(x, y + h, octaves, 0.5, 2.0, base, pt)
+                    - PerlinNoise.pnoise2(x, y - h, octaves, 0.5, 2.0, base, pt)) / (2 * h), d[4], 1e-4);
+
+            PerlinNoise.pnoise3Deriv(x, y, z, octaves, 0.5, 2.0, base, pt, d, 1);
+            assertEquals(PerlinNoise.pnoise3(x, y, z, octaves, 0.5, 2.0, base, pt, 0, 0, 0), d[1], 0.0);
+            double[][] axes = { { 1, 0, 0 }, { 0, 1, 0 }, { 0, 0, 1 } };
+            for (int a = 0; a < 3; a++) {
+                double[] e = axes[a];
+                double plus = PerlinNoise.pnoise3(x + h * e[0], y + h * e[1], z + h * e[2], octaves, 0.5, 2.0,
+                        base, pt, 0, 0, 0);
+                double minus = PerlinNoise.pnoise3(x - h * e[0], y - h * e[1], z - h * e[2], octaves, 0.5, 2.0,
+                        base, pt, 0, 0, 0);
+                assertEquals((plus - minus) / (2 * h), d[2 + a], 1e-4, "pnoise3 derivative along axis " + a);
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> PerlinNoise.pnoise3Deriv(0.5, 0.5, 0.5, 1, new double[5], 2));
+    }
+
+}
@@ -122,4 +122,79 @@ public class PermutationTableTest {
         }
         assertTrue(changed, "Permutation should change after randomize even with same period, if new Random is used.");
     }
+
+    @Test
+    void gradientIndicesMatchPermutation() {
+        PermutationTable pt = new PermutationTable();
+        assertGradientIndices(pt);
+        pt.randomize(100, new Random(7L)); // Indices must be rebuilt along with the permutation
+        assertGradientIndices(pt);
+    }
+
+    @Test
+    void fingerprintFollowsContents() {
+        PermutationTable pt = new PermutationTable();
+        assertEquals(new PermutationTable().fingerprint(), pt.fingerprint());
+        // The doubled array repeated once more has period 512, which is different noise
+        assertNotEquals(pt.fingerprint(), new PermutationTable(pt.getPermutationArray()).fingerprint());
+        long before = pt.fingerprint();
+        pt.randomize(256, new Random(11L));
+        assertNotEquals(before, pt.fingerprint());
+        PermutationTable same = new PermutationTable(1);
+        same.randomize(256, new Random(11L));
+        assertEquals(pt.fingerprint(), same.fingerprint());
+    }
+
+    @Test
+    void shiftedTablesAreCachedPerBase() {
+        PermutationTable pt = new PermutationTable();
+        assertSame(pt, pt.shifted(0));
+        assertSame(pt, pt.shifted(-256));
+        PermutationTable shifted = pt.shifted(5);
+        assertSame(shifted, pt.shifted(5));
+        assertSame(shifted, pt.shifted(5 + 256)); // Bases are reduced modulo the period
+        assertArrayEquals(pt.withBase(5).getPermutationArray(), shifted.getPermutationArray());
+        for (int x = -20; x < 20; x++) {
+            assertEquals(PerlinNoise.noise(x * 0.37, x * -0.21, x * 0.11, 5, pt),
+                    PerlinNoise.noise(x * 0.37, x * -0.21, x * 0.11, 0, shifted), 0.0);
+        }
+        // Filling the set with newer bases evicts the least recently used one, so memory stays bounded
+        for (int way = 1; way <= PermutationTable.SHIFT_CACHE_WAYS; way++) {
+            pt.shifted(5 + way * PermutationTable.SHIFT_CACHE_SETS);
+        }
+        assertNotSame(shifted, pt.shifted(5));
+        // Randomizing invalidates the derived tables
+        PermutationTable before = pt.shifted(5);
+        pt.randomize(256, new Random(3L));
+        assertNotSame(before, pt.shifted(5));
+        assertArrayEquals(pt.withBase(5).getPermutationArray(), pt.shifted(5).getPermutationArray());
+    }
+
+    @Test
+    void collidingBasesShareASet() {
+        // Bases in the same set, used in turn as by layered noise, keep their tables.
+        PermutationTable pt = new PermutationTable();
+        int ways = PermutationTable.SHIFT_CACHE_WAYS;
+        PermutationTable[] tables = new PermutationTable[ways];
+        for (int i = 0; i < ways; i++) {
+            tables[i] = pt.shifted(1 + i * PermutationTable.SHIFT_CACHE_SETS);
+        }
+        for (int call = 0; call < 100; call++) {
+            int i = call % ways;
+            assertSame(tables[i], pt.shifted(1 + i * PermutationTable.SHIFT_CACHE_SETS), "rebuilt at call " + call);
+        }
+        PermutationTable one = pt.shifted(1);
+        PermutationTable sixtyFive = pt.shifted(65);
+        for (int call = 0; call < 100; call++) {
+            assertSame(one, pt.shifted(1));
+            assertSame(sixtyFive, pt.shifted(65));
+        }
+    }
+
+    private static void assertGradientIndices(PermutationTable pt) {
+        for (int i = 0; i < pt.getPeriod() * 2; i++) {
+            assertEquals(pt.getPerm(i) % 12, pt.getPermMod12(i), "getPermMod12 mismatch at " + i);
+            assertEquals(pt.getPerm(i) % 32, pt.getPermMod32(i), "getPermMod32 mismatch at " + i);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class QuantizerTest {
+
+    @Test
+    void testUnsignedMapping() {
+        Quantizer u8 = Quantizer.unsigned8();
+        Quantizer u16 = Quantizer.unsigned16();
+        assertEquals(0, u8.quantize(-1.0));
+        assertEquals(255, u8.quantize(1.0));
+        assertEquals(128, u8.quantize(0.0));
+        assertEquals(0, u16.quantize(-1.0));
+        assertEquals(65535, u16.quantize(1.0));
+        assertEquals(0, u16.quantize(-3.0));
+        assertEquals(65535, u16.quantize(2.5));
+        assertEquals(1, u8.bytesPerSample());
+        assertEquals(2, u16.bytesPerSample());
+        Random random = new Random(21);
+        for (int i = 0; i < 1000; i++) {
+            double v = random.nextDouble() * 2 - 1;
+            assertEquals(v, u8.dequantize(u8.quantize(v)), u8.maxError() + 1e-12);
+            assertEquals(v, u16.dequantize(u16.quantize(v)), u16.maxError() + 1e-12);
+        }
+    }
+
+    @Test
+    void testTruncatingUnclampedMatchesShortCast() {
+        Quantizer legacy = Quantizer.unsigned16().withRounding(Quantizer.Rounding.TRUNCATE).withClamping(false);
+        Random random = new Random(22);
+        for (int i = 0; i < 1000; i++) {
+            double v = random.nextDouble() * 2.4 - 1.2;
+            assertEquals((short) ((v + 1.0) * 32767.5), (short) legacy.quantize(v), "value " + v);
+        }
+    }
+
+    @Test
+    void testRoundingModes() {
+        Quantizer q = Quantizer.fixedPoint(16, 2);
+        assertEquals(-5, q.quantize(-1.2));
+        assertEquals(-5, q.withRounding(Quantizer.Rounding.FLOOR).quantize(-1.2));
+        assertEquals(-4, q.withRounding(Quantizer.Rounding.TRUNCATE).quantize(-1.2));
+        assertEquals(5, q.quantize(1.2));
+        assertEquals(4, q.withRounding(Quantizer.Rounding.FLOOR).quantize(1.2));
+        assertEquals(4, q.withRounding(Quantizer.Rounding.TRUNCATE).quantize(1.2));
+        assertEquals(Quantizer.Rounding.NEAREST, q.rounding());
+    }
+
+    @Test
+    void testFixedPointClampingAndWrapping() {
+        Quantizer q = Quantizer.fixedPoint(8, 6);
+        assertTrue(q.isSigned());
+        assertEquals(64, q.quantize(1.0));
+        assertEquals(-128, q.quantize(-2.0));
+        assertEquals(127, q.quantize(3.0));
+        assertEquals(-128, q.quantize(-3.0));
+        // 3.0 * 64 = 192 keeps its low byte, read back as -64.
+        assertEquals(-64, q.withClamping(false).quantize(3.0));
+        assertEquals(-1.0, q.dequantize(-64), 0.0);
+        assertEquals(0.5, q.dequantize(32), 0.0);
+        Quantizer wide = Quantizer.fixedPoint(32, 30);
+        assertEquals(Integer.MAX_VALUE, wide.quantize(2.0));
+        assertEquals(Integer.MIN_VALUE, wide.quantize(-2.0));
+        assertEquals(0.75, wide.dequantize(wide.quantize(0.75)), 0.0);
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> Quantizer.fixedPoint(12, 4));
+        assertThrows(IllegalArgumentException.class, () -> Quantizer.fixedPoint(16, 16));
+        assertThrows(IllegalArgumentException.class, () -> Quantizer.fixedPoint(8, -1));
+        assertThrows(IllegalArgumentException.class, () -> Quantizer.unsigned8().withRounding(null));
+    }
+}
@@ -0,0 +1,154 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+public class SegmentNoiseTest {
+
+    private static final int WIDTH = 37;
+    private static final int HEIGHT = 11;
+    private static final int DEPTH = 3;
+
+    @Test
+    void testFloatFormatsMatchArrayGrids() {
+        PermutationTable table = new PermutationTable(128);
+        double[] expected2 = new double[WIDTH * HEIGHT];
+        float[] expected2f = new float[WIDTH * HEIGHT];
+        double[] expected3 = new double[WIDTH * HEIGHT * DEPTH];
+        try (Arena arena = Arena.ofConfined()) {
+            for (NoiseType type : NoiseType.values()) {
+                MemorySegment doubles = arena.allocate(expected3.length * 8L, 8);
+                MemorySegment floats = arena.allocate(expected3.length * 4L, 4);
+                if (type == NoiseType.PERLIN) {
+                    PerlinNoise.fillGrid2D(expected2, -2.5, 1.25, 0.17, 0.29, WIDTH, HEIGHT, 4, 0.5, 2.0, 7, table);
+                    PerlinNoise.fillGrid2D(expected2f, -2.5, 1.25, 0.17, 0.29, WIDTH, HEIGHT, 4, 0.5, 2.0, 7, table);
+                    PerlinNoise.fillGrid3D(expected3, 0.5, -3.0, 9.0, 0.21, 0.13, 0.4, WIDTH, HEIGHT, DEPTH, 3, 0.6,
+                            2.0, 7, table);
+                } else {
+                    SimplexNoise.fillGrid2D(expected2, -2.5, 1.25, 0.17, 0.29, WIDTH, HEIGHT, 4, 0.5, 2.0, table);
+                    SimplexNoise.fillGrid2D(expected2f, -2.5, 1.25, 0.17, 0.29, WIDTH, HEIGHT, 4, 0.5, 2.0, table);
+                    SimplexNoise.fillGrid3D(expected3, 0.5, -3.0, 9.0, 0.21, 0.13, 0.4, WIDTH, HEIGHT, DEPTH, 3, 0.6,
+                            2.0, table);
+                }
+                SegmentNoise.fillGrid2D(doubles, 0, 8, SampleFormat.FLOAT64, type, -2.5, 1.25, 0.17, 0.29, WIDTH,
+                        HEIGHT, 4, 0.5, 2.0, 7, table);
+                SegmentNoise.fillGrid2D(floats, 0, 4, SampleFormat.FLOAT32, type, -2.5, 1.25, 0.17, 0.29, WIDTH,
+                        HEIGHT, 4, 0.5, 2.0, 7, table);
+                for (int n = 0; n < expected2.length; n++) {
+                    assertEquals(expected2[n], doubles.getAtIndex(ValueLayout.JAVA_DOUBLE, n), 0.0, type + " " + n);
+                    assertEquals(expected2f[n], floats.getAtIndex(ValueLayout.JAVA_FLOAT, n), 0.0f, type + " " + n);
+                }
+                SegmentNoise.fillGrid3D(doubles, 0, 8, SampleFormat.FLOAT64, type, 0.5, -3.0, 9.0, 0.21, 0.13, 0.4,
+                        WIDTH, HEIGHT, DEPTH, 3, 0.6, 2.0, 7, table);
+                for (int n = 0; n < expected3.length; n++) {
+                    assertEquals(expected3[n], doubles.getAtIndex(ValueLayout.JAVA_DOUBLE, n), 0.0, type + " " + n);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testStridedIntegerFormats() {
+        PermutationTable table = new PermutationTable();
+        double[] expected = new double[WIDTH * HEIGHT];
+        PerlinNoise.fillGrid2D(expected, 3.0, 4.0, 0.3, 0.3, WIDTH, HEIGHT, 5, 0.5, 2.0, 0, table);
+        // One uint16 and one uint8 channel interleaved in 3-byte texels after a 5-byte header,
+        // at unaligned addresses.
+        long offset = 5;
+        long stride = 3;
+        MemorySegment out = MemorySegment.ofArray(new byte[(int) (offset + expected.length * stride + 4)]);
+        SegmentNoise.fillGrid2D(out, offset, stride, SampleFormat.UINT16, NoiseType.PERLIN, 3.0, 4.0, 0.3, 0.3,
+                WIDTH, HEIGHT, 5, 0.5, 2.0, 0, table);
+        SegmentNoise.fillGrid2D(out, offset + 2, stride, SampleFormat.UINT8, NoiseType.PERLIN, 3.0, 4.0, 0.3, 0.3,
+                WIDTH, HEIGHT, 5, 0.5, 2.0, 0, table);
+        for (int n = 0; n < expected.length; n++) {
+            long texel = offset + n * stride;
+            int u16 = out.get(ValueLayout.JAVA_SHORT_UNALIGNED, texel) & 0xffff;
+            int u8 = out.get(ValueLayout.JAVA_BYTE, texel + 2) & 0xff;
+            assertEquals((expected[n] + 1.0) * 32767.5, u16, 0.5 + 1e-9, "uint16 sample " + n);
+            assertEquals((expected[n] + 1.0) * 127.5, u8, 0.5 + 1e-9, "uint8 sample " + n);
+        }
+        for (int b = 0; b < offset; b++) {
+            assertEquals(0, out.get(ValueLayout.JAVA_BYTE, b));
+        }
+        for (long b = offset + expected.length * stride; b < out.byteSize(); b++) {
+            assertEquals(0, out.get(ValueLayout.JAVA_BYTE, b));
+        }
+    }
+
+    @Test
+    void testQuantizedGridsMatchQuantizedValues() {
+        PermutationTable table = new PermutationTable();
+        double[] expected = new double[WIDTH * HEIGHT * DEPTH];
+        SimplexNoise.fillGrid3D(expected, 1.0, 2.0, 3.0, 0.11, 0.23, 0.37, WIDTH, HEIGHT, DEPTH, 3, 0.5, 2.0, table);
+        Quantizer[] quantizers = {
+                Quantizer.unsigned8().withRounding(Quantizer.Rounding.FLOOR),
+                Quantizer.unsigned16(),
+                Quantizer.fixedPoint(16, 14).withRounding(Quantizer.Rounding.TRUNCATE),
+                Quantizer.fixedPoint(32, 24) };
+        for (Quantizer quantizer : quantizers) {
+            int bytes = quantizer.bytesPerSample();
+            MemorySegment out = MemorySegment.ofArray(new byte[expected.length * bytes]);
+            SegmentNoise.fillGrid3D(out, 0, bytes, quantizer, NoiseType.SIMPLEX, 1.0, 2.0, 3.0, 0.11, 0.23, 0.37,
+                    WIDTH, HEIGHT, DEPTH, 3, 0.5, 2.0, 0, table);
+            for (int n = 0; n < expected.length; n++) {
+                int code = switch (bytes) {
+                    case 1 -> out.get(ValueLayout.JAVA_BYTE, n) & 0xff;
+                    case 2 -> quantizer.isSigned() ? out.get(ValueLayout.JAVA_SHORT_UNALIGNED, n * 2L)
+                            : out.get(ValueLayout.JAVA_SHORT_UNALIGNED, n * 2L) & 0xffff;
+                    default -> out.get(ValueLayout.JAVA_INT_UNALIGNED, n * 4L);
+                };
+                assertEquals(quantizer.quantize(expected[n]), code, quantizer.bits() + "-bit sample " + n);
+            }
+        }
+    }
+
+    @Test
+    void testQuantizedChannelsMatchArrayChannels() {
+        PermutationTable table = new PermutationTable(64);
+        int[] bases = { 0, 5, 9 };
+        PermutationTable[] tables = { table, table, new PermutationTable() };
+        Quantizer quantizer = Quantizer.unsigned16();
+        // Tileable and non-tileable grids take different row engines.
+        for (int repeat : new int[] { 0, 4 }) {
+            double[] expected = new double[WIDTH * HEIGHT * DEPTH * 3];
+            PerlinNoise.fillGrid3DChannels(expected, 3, 0.0, 0.0, 0.5, 0.125, 0.125, 0.25, WIDTH, HEIGHT, DEPTH, 2,
+                    0.5, 2.0, bases, tables, repeat, repeat, repeat);
+            // RGB texels padded to 8 bytes.
+            MemorySegment out = MemorySegment.ofArray(new byte[WIDTH * HEIGHT * DEPTH * 8]);
+            SegmentNoise.fillGrid3DChannels(out, 0, 8, quantizer, 0.0, 0.0, 0.5, 0.125, 0.125, 0.25, WIDTH, HEIGHT,
+                    DEPTH, 2, 0.5, 2.0, bases, tables, repeat, repeat, repeat);
+            for (int n = 0; n < WIDTH * HEIGHT * DEPTH; n++) {
+                for (int c = 0; c < 3; c++) {
+                    assertEquals(quantizer.quantize(expected[n * 3 + c]),
+                            out.get(ValueLayout.JAVA_SHORT_UNALIGNED, n * 8L + c * 2) & 0xffff,
+                            "repeat " + repeat + " sample " + n + " channel " + c);
+                }
+                assertEquals(0, out.get(ValueLayout.JAVA_SHORT_UNALIGNED, n * 8L + 6));
+            }
+        }
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        PermutationTable table = new PermutationTable();
+        MemorySegment out = MemorySegment.ofArray(new byte[64]);
+        // 4 x 4 floats need exactly 64 bytes.
+        SegmentNoise.fillGrid2D(out, 0, 4, SampleFormat.FLOAT32, NoiseType.SIMPLEX, 0, 0, 1, 1, 4, 4, 1, 0.5, 2.0, 0,
+                table);
+        assertThrows(IllegalArgumentException.class, () -> SegmentNoise.fillGrid2D(out, 1, 4, SampleFormat.FLOAT32,
+                NoiseType.SIMPLEX, 0, 0, 1, 1, 4, 4, 1, 0.5, 2.0, 0, table));
+        assertThrows(IllegalArgumentException.class, () -> SegmentNoise.fillGrid2D(out, 0, 2, SampleFormat.FLOAT32,
+                NoiseType.SIMPLEX, 0, 0, 1, 1, 2, 2, 1, 0.5, 2.0, 0, table));
+        assertThrows(IllegalArgumentException.class, () -> SegmentNoise.fillGrid2D(out.asReadOnly(), 0, 1,
+                SampleFormat.UINT8, NoiseType.PERLIN, 0, 0, 1, 1, 2, 2, 1, 0.5, 2.0, 0, table));
+        assertThrows(IllegalArgumentException.class, () -> SegmentNoise.fillGrid3D(out, 0, Long.MAX_VALUE / 2,
+                SampleFormat.UINT8, NoiseType.PERLIN, 0, 0, 0, 1, 1, 1, 2, 2, 2, 1, 0.5, 2.0, 0, table));
+        assertThrows(IllegalArgumentException.class, () -> SegmentNoise.fillGrid2D(out, 0, 1, SampleFormat.UINT8,
+                null, 0, 0, 1, 1, 2, 2, 1, 0.5, 2.0, 0, table));
+    }
+}
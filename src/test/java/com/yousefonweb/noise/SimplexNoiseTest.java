@@ -3,6 +3,9 @@ package com.yousefonweb.noise;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.Random;
+
+
 public class SimplexNoiseTest {
 
     private static final double DELTA = 1e-9; // For float comparisons
@@ -90,4 +93,159 @@ public class SimplexNoiseTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void testSimplex4DReferenceValues() {
+        // Values of the original comparison-and-branch implementation; noise4 must reproduce them exactly.
+        PermutationTable pt = new PermutationTable();
+        assertEquals(0x1.95781acb09ddbp-3, SimplexNoise.snoise4(0.3, 1.7, -2.2, 5.9, 1, 0.5, 2.0, pt), 0.0);
+        assertEquals(-0x1.11e23352817e3p-1, SimplexNoise.snoise4(12.5, -3.25, 7.75, 0.125, 1, 0.5, 2.0, pt), 0.0);
+        assertEquals(0x1.b1ba5bcf44845p-3, SimplexNoise.snoise4(-100.1, 42.42, 0.5, -0.5, 1, 0.5, 2.0, pt), 0.0);
+        assertEquals(0x1.9f2e1625de542p-1, SimplexNoise.snoise4(1.0, 1.0, 1.0, 1.0, 1, 0.5, 2.0, pt), 0.0);
+        assertEquals(0x1.6c473f2bd8c76p-3, SimplexNoise.snoise4(250.3, -17.9, 88.8, 3.3, 1, 0.5, 2.0, pt), 0.0);
+        assertEquals(0.3873068039735093, SimplexNoise.snoise4(1.0, 1.0, 1.0, 1.0, 3, 0.5, 2.0, pt), 0.0);
+    }
+
+    // --- Bulk Grid Tests ---
+    @Test
+    void testFillGrid2DMatchesScalar() {
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(64) };
+        int width = 41, height = 9;
+        double[] out = new double[width * height];
+        float[] outF = new float[width * height];
+        for (PermutationTable pt : tables) {
+            for (int o = 1; o <= OCTAVE_COUNT_MAX; o += 2) {
+                SimplexNoise.fillGrid2D(out, -4.1, 2.3, 0.137, 0.29, width, height, o, 0.5, 2.0, pt);
+                SimplexNoise.fillGrid2D(outF, -4.1, 2.3, 0.137, 0.29, width, height, o, 0.5, 2.0, pt);
+                for (int iy = 0; iy < height; iy++) {
+                    for (int ix = 0; ix < width; ix++) {
+                        double expected = SimplexNoise.snoise2(-4.1 + ix * 0.137, 2.3 + iy * 0.29, o, 0.5, 2.0, pt);
+                        assertEquals(expected, out[iy * width + ix], 0.0,
+                                "fillGrid2D mismatch at (" + ix + "," + iy + "), octaves=" + o);
+                        assertEquals((float) expected, outF[iy * width + ix], 0.0f,
+                                "float fillGrid2D mismatch at (" + ix + "," + iy + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFillGrid3DMatchesScalar() {
+        PermutationTable pt = new PermutationTable();
+        int width = 17, height = 6, depth = 5;
+        double[] out = new double[width * height * depth];
+        float[] outF = new float[width * height * depth];
+        for (int o = 1; o <= OCTAVE_COUNT_MAX; o += 2) {
+            SimplexNoise.fillGrid3D(out, 1.2, -0.7, -3.4, 0.21, 0.33, 0.17, width, height, depth, o, 0.45, 2.1, pt);
+            SimplexNoise.fillGrid3D(outF, 1.2, -0.7, -3.4, 0.21, 0.33, 0.17, width, height, depth, o, 0.45, 2.1, pt);
+            for (int iz = 0; iz < depth; iz++) {
+                for (int iy = 0; iy < height; iy++) {
+                    for (int ix = 0; ix < width; ix++) {
+                        double expected = SimplexNoise.snoise3(1.2 + ix * 0.21, -0.7 + iy * 0.33, -3.4 + iz * 0.17,
+                                o, 0.45, 2.1, pt);
+                        int index = (iz * height + iy) * width + ix;
+                        assertEquals(expected, out[index], 0.0, "fillGrid3D mismatch at index " + index);
+                        assertEquals((float) expected, outF[index], 0.0f, "float fillGrid3D mismatch at index " + index);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testFillGridWideRowsMatchScalar() {
+        // Wide rows run through the vector kernels (when jdk.incubator.vector is enabled) plus a scalar tail.
+        PermutationTable[] tables = { new PermutationTable(), new PermutationTable(100) };
+        int width = 203;
+        double[] row2 = new double[width];
+        double[] row3 = new double[width];
+        for (PermutationTable pt : tables) {
+            for (double originX : new double[] { -4321.125, 0.0, 56789.75 }) {
+                SimplexNoise.fillGrid2D(row2, originX, 12.75, 0.0517, 1.0, width, 1, 4, 0.5, 2.0, pt);
+                SimplexNoise.fillGrid3D(row3, originX, -6.5, 2.25, -0.0449, 1.0, 1.0, width, 1, 1, 3, 0.5, 2.0, pt);
+                for (int ix = 0; ix < width; ix++) {
+                    assertEquals(SimplexNoise.snoise2(originX + ix * 0.0517, 12.75, 4, 0.5, 2.0, pt), row2[ix], 0.0,
+                            "2D mismatch at ix=" + ix + ", originX=" + originX);
+                    assertEquals(SimplexNoise.snoise3(originX + ix * -0.0449, -6.5, 2.25, 3, 0.5, 2.0, pt), row3[ix],
+                            0.0, "3D mismatch at ix=" + ix + ", originX=" + originX);
+                }
+            }
+        }
+    }
+
+    // --- Derivative Tests ---
+    @Test
+    void testDerivativesMatchValueAndFiniteDifferences() {
+        PermutationTable pt = new PermutationTable();
+        double h = 1e-6;
+        double[] d = new double[4];
+        Random random = new Random(17L);
+        int mismatches3D = 0;
+        for (int i = 0; i < RANGE_CHECK_ITERATIONS_LARGE; i++) {
+            double x = random.nextDouble() * 40 - 20;
+            double y = random.nextDouble() * 40 - 20;
+            double z = random.nextDouble() * 40 - 20;
+            int octaves = 1 + i % OCTAVE_COUNT_MAX;
+
+            SimplexNoise.snoise2Deriv(x, y, octaves, 0.5, 2.0, pt, d, 1);
+            assertEquals(SimplexNoise.snoise2(x, y, octaves, 0.5, 2.0, pt), d[1], 0.0);
+            assertEquals((SimplexNoise.snoise2(x + h, y, octaves, 0.5, 2.0, pt)
+                    - SimplexNoise.snoise2(x - h, y, octaves, 0.5, 2.0, pt)) / (2 * h), d[2], 1e-4);
+            assertEquals((SimplexNoise.snoise2(x, y + h, octaves, 0.5, 2.0, pt)
+                    - SimplexNoise.snoise2(x, y - h, octaves, 0.5, 2.0, pt)) / (2 * h), d[3], 1e-4);
+
+            SimplexNoise.snoise3Deriv(x, y, z, octaves, 0.5, 2.0, pt, d, 0);
+            assertEquals(SimplexNoise.snoise3(x, y, z, octaves, 0.5, 2.0, pt), d[0], 0.0);
+            double dx = (SimplexNoise.snoise3(x + h, y, z, octaves, 0.5, 2.0, pt)
+                    - SimplexNoise.snoise3(x - h, y, z, octaves, 0.5, 2.0, pt)) / (2 * h);
+            double dy = (SimplexNoise.snoise3(x, y + h, z, octaves, 0.5, 2.0, pt)
+                    - SimplexNoise.snoise3(x, y - h, z, octaves, 0.5, 2.0, pt)) / (2 * h);
+            double dz = (SimplexNoise.snoise3(x, y, z + h, octaves, 0.5, 2.0, pt)
+                    - SimplexNoise.snoise3(x, y, z - h, octaves, 0.5, 2.0, pt)) / (2 * h);
+            // snoise3 is slightly discontinuous across simplex boundaries, where a finite
+            // difference is meaningless; count those instead of failing on them.
+            if (Math.abs(dx - d[1]) > 1e-4 || Math.abs(dy - d[2]) > 1e-4 || Math.abs(dz - d[3]) > 1e-4) {
+                mismatches3D++;
+            }
+        }
+        assertTrue(mismatches3D <= 2, mismatches3D + " snoise3 derivatives disagree with finite differences");
+        assertThrows(IllegalArgumentException.class, () -> SimplexNoise.snoise2Deriv(0.5, 0.5, 1, new double[3], 1));
+    }
+
+    @Test
+    void testTileable2DMatchesTorusAndRepeats() {
+        PermutationTable pt = new PermutationTable(128);
+        for (int i = 0; i < 60; i++) {
+            double x = -4.0 + i * 0.377;
+            double y = 9.0 - i * 0.291;
+            double n = SimplexNoise.snoise2Tileable(x, y, 7.5, 3.0, 3, 0.5, 1.8, pt);
+            double ax = x * (2 * Math.PI / 7.5);
+            double ay = y * (2 * Math.PI / 3.0);
+            double rx = 7.5 / (2 * Math.PI);
+            double ry = 3.0 / (2 * Math.PI);
+            assertEquals(SimplexNoise.snoise4(rx * Math.cos(ax), rx * Math.sin(ax), ry * Math.cos(ay),
+                    ry * Math.sin(ay), 3, 0.5, 1.8, pt), n, 0.0);
+            assertEquals(n, SimplexNoise.snoise2Tileable(x + 7.5, y - 3.0, 7.5, 3.0, 3, 0.5, 1.8, pt), 1e-9);
+        }
+        assertThrows(IllegalArgumentException.class, () -> SimplexNoise.snoise2Tileable(0, 0, 0.0, 1.0));
+    }
+
+    @Test
+    void testFillGridTileable2DMatchesScalar() {
+        PermutationTable pt = new PermutationTable();
+        int width = 23, height = 7;
+        double[] out = new double[width * height];
+        float[] outF = new float[width * height];
+        SimplexNoise.fillGrid2D(out, 0.5, -1.0, 0.25, 0.4, width, height, 4, 0.5, 2.0, pt, 5.75, 2.8);
+        SimplexNoise.fillGrid2D(outF, 0.5, -1.0, 0.25, 0.4, width, height, 4, 0.5, 2.0, pt, 5.75, 2.8);
+        for (int iy = 0; iy < height; iy++) {
+            for (int ix = 0; ix < width; ix++) {
+                double expected = SimplexNoise.snoise2Tileable(0.5 + ix * 0.25, -1.0 + iy * 0.4, 5.75, 2.8, 4, 0.5,
+                        2.0, pt);
+                assertEquals(expected, out[iy * width + ix], 0.0);
+                assertEquals((float) expected, outF[iy * width + ix], 0.0f);
+            }
+        }
+    }
+}
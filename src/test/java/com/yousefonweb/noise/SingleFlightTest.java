@@ -0,0 +1,192 @@
+package com.yousefonweb.noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    // Holds submitted tasks until the test runs them.
+    private static final class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        synchronized Runnable next() {
+            return tasks.poll();
+        }
+    }
+
+    private static void awaitCoalesced(SingleFlight<?, ?> flight, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flight.coalescedCount() < count) {
+            assertTrue(System.nanoTime() < deadline, "callers did not join the flight");
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void testRunComputesOnceForConcurrentCallers() throws Exception {
+        SingleFlight<String, Object> flight = new SingleFlight<>();
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int threads = 6;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> flight.run("chunk", () -> {
+                    computations.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return new Object();
+                })));
+            }
+            awaitCoalesced(flight, threads - 1);
+            assertEquals(1, flight.inFlight());
+            release.countDown();
+            Object first = results.get(0).get();
+            for (Future<Object> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, computations.get());
+        assertEquals(0, flight.inFlight());
+        // Nothing is cached once the flight has landed.
+        assertNotSame(flight.run("chunk", Object::new), flight.run("chunk", Object::new));
+    }
+
+    @Test
+    void testRunRethrowsToEveryCaller() {
+        SingleFlight<Integer, String> flight = new SingleFlight<>();
+        IllegalStateException failure = assertThrows(IllegalStateException.class,
+                () -> flight.run(1, () -> {
+                    throw new IllegalStateException("bake failed");
+                }));
+        assertEquals("bake failed", failure.getMessage());
+        assertEquals("ok", flight.run(1, () -> "ok"));
+    }
+
+    @Test
+    void testSubmitSharesOneComputation() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        SingleFlight<String, String> flight = new SingleFlight<>(executor);
+        AtomicInteger computations = new AtomicInteger();
+        CompletableFuture<String> a = flight.submit("key", () -> "v" + computations.incrementAndGet());
+        CompletableFuture<String> b = flight.submit("key", () -> "v" + computations.incrementAndGet());
+        CompletableFuture<String> other = flight.submit("other", () -> "w");
+        assertEquals(2, executor.tasks.size());
+        assertEquals(1, flight.coalescedCount());
+        // One caller leaving does not cancel the work for the other.
+        a.cancel(true);
+        Runnable task;
+        while ((task = executor.next()) != null) {
+            task.run();
+        }
+        assertTrue(a.isCancelled());
+        assertEquals("v1", b.get());
+        assertEquals("w", other.get());
+        assertEquals(1, computations.get());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void testCancellingEveryCallerSkipsComputation() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        SingleFlight<String, String> flight = new SingleFlight<>(executor);
+        AtomicInteger computations = new AtomicInteger();
+        CompletableFuture<String> a = flight.submit("key", () -> "v" + computations.incrementAndGet());
+        CompletableFuture<String> b = flight.submit("key", () -> "v" + computations.incrementAndGet());
+        a.cancel(false);
+        b.cancel(false);
+        assertEquals(0, flight.inFlight());
+        // A new request starts a new flight rather than joining the cancelled one.
+        CompletableFuture<String> c = flight.submit("key", () -> "v" + computations.incrementAndGet());
+        Runnable task;
+        while ((task = executor.next()) != null) {
+            task.run();
+        }
+        assertEquals("v1", c.get());
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void testCancellingEveryCallerInterruptsRunningComputation() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            SingleFlight<String, String> flight = new SingleFlight<>(pool);
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch interrupted = new CountDownLatch(1);
+            CompletableFuture<String> a = flight.submit("key", () -> {
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "late";
+            });
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            a.cancel(true);
+            assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+            // The executor's thread is not left interrupted.
+            assertFalse(pool.submit(() -> Thread.currentThread().isInterrupted()).get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRunCallerKeepsSubmittedFlightAlive() throws Exception {
+        ManualExecutor executor = new ManualExecutor();
+        SingleFlight<String, String> flight = new SingleFlight<>(executor);
+        CompletableFuture<String> a = flight.submit("key", () -> "shared");
+        CompletableFuture<String> b = CompletableFuture.supplyAsync(() -> flight.run("key", () -> "own"));
+        awaitCoalesced(flight, 1);
+        a.cancel(false);
+        executor.next().run();
+        assertEquals("shared", b.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testSubmitReportsCheckedExceptions() {
+        SingleFlight<String, String> flight = new SingleFlight<>(Runnable::run);
+        CompletableFuture<String> future = flight.submit("key", () -> {
+            throw new IOException("disk full");
+        });
+        ExecutionException failure = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(IOException.class, failure.getCause());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new SingleFlight<String, String>(null));
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        assertThrows(IllegalArgumentException.class, () -> flight.run(null, () -> "v"));
+        assertThrows(IllegalArgumentException.class, () -> flight.submit("key", null));
+    }
+}
@@ -0,0 +1,109 @@
+package com.yousefonweb.noise.shader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+public class ShaderNoiseTextureCacheTest {
+
+    private static final int FREQ = 2;
+    private static final int WIDTH = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testGetBakesThenMapsSameData() throws IOException {
+        ShaderNoiseTextureCache cache = new ShaderNoiseTextureCache(directory.resolve("nested"));
+        assertNull(cache.load(FREQ, WIDTH));
+        ShaderNoiseTexture baked = cache.get(FREQ, WIDTH);
+        assertTrue(Files.isRegularFile(cache.path(FREQ, WIDTH)));
+        ShaderNoiseTexture mapped = cache.load(FREQ, WIDTH);
+        assertNotNull(mapped);
+        assertEquals(WIDTH, mapped.getWidth());
+        assertEquals(FREQ, mapped.getFreq());
+        assertTrue(mapped.getTextureData().isDirect());
+        assertEquals(new ShaderNoiseTexture(FREQ, WIDTH).getTextureData(), baked.getTextureData());
+        assertEquals(baked.getTextureData(), mapped.getTextureData());
+        try (var files = Files.list(cache.path(FREQ, WIDTH).getParent())) {
+            assertEquals(1, files.count(), "No temporary files are left behind");
+        }
+    }
+
+    @Test
+    void testKeyIncludesFreqAndWidth() throws IOException {
+        ShaderNoiseTextureCache cache = new ShaderNoiseTextureCache(directory);
+        cache.get(FREQ, WIDTH);
+        assertNull(cache.load(FREQ + 1, WIDTH));
+        assertNull(cache.load(FREQ, WIDTH * 2));
+        assertNotEquals(cache.path(FREQ, WIDTH), cache.path(FREQ + 1, WIDTH));
+    }
+
+    @Test
+    void testCorruptedFilesAreRejectedAndRewritten() throws IOException {
+        ShaderNoiseTextureCache cache = new ShaderNoiseTextureCache(directory);
+        ShortBuffer expected = cache.get(FREQ, WIDTH).getTextureData();
+        Path file = cache.path(FREQ, WIDTH);
+        long size = Files.size(file);
+
+        // One flipped bit in the payload, in the header, and a truncated file.
+        for (long offset : new long[] { size - 3, 17 }) {
+            flipBit(file, offset);
+            assertNull(cache.load(FREQ, WIDTH), "corruption at offset " + offset + " not detected");
+            assertEquals(expected, cache.get(FREQ, WIDTH).getTextureData());
+            assertNotNull(cache.load(FREQ, WIDTH), "file should have been rewritten");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 2);
+        }
+        assertNull(cache.load(FREQ, WIDTH));
+        assertEquals(expected, cache.get(FREQ, WIDTH).getTextureData());
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    void testConcurrentRequestsShareOneBake() throws Exception {
+        Queue<Runnable> tasks = new ArrayDeque<>();
+        ShaderNoiseTextureCache cache = new ShaderNoiseTextureCache(directory, tasks::add);
+        CompletableFuture<ShaderNoiseTexture> a = cache.getAsync(FREQ, WIDTH);
+        CompletableFuture<ShaderNoiseTexture> b = cache.getAsync(FREQ, WIDTH);
+        CompletableFuture<ShaderNoiseTexture> abandoned = cache.getAsync(FREQ + 1, WIDTH);
+        assertEquals(2, tasks.size());
+        abandoned.cancel(false);
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+        assertSame(a.get(), b.get());
+        assertEquals(new ShaderNoiseTexture(FREQ, WIDTH).getTextureData(), a.get().getTextureData());
+        assertTrue(Files.isRegularFile(cache.path(FREQ, WIDTH)));
+        assertFalse(Files.exists(cache.path(FREQ + 1, WIDTH)), "cancelled request must not bake");
+    }
+
+    @Test
+    void testRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ShaderNoiseTextureCache(null));
+        ShaderNoiseTextureCache cache = new ShaderNoiseTextureCache(directory);
+        assertThrows(IllegalArgumentException.class, () -> cache.load(FREQ, 0));
+    }
+
+    private static void flipBit(Path file, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer b = ByteBuffer.allocate(1);
+            channel.read(b, offset);
+            b.put(0, (byte) (b.get(0) ^ 0x10));
+            b.rewind();
+            channel.write(b, offset);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.yousefonweb.noise.shader;
+
+import com.yousefonweb.noise.Noise;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ShortBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ShaderNoiseTextureTest {
+
+    private static final int FREQ = 4;
+    private static final int WIDTH = 16;
+
+    // The texels as the original single-threaded constructor wrote them, one pnoise3 call per
+    // channel and texel.
+    private static short[] legacyTexels(int freq, int width) {
+        double scale = (double) freq / width;
+        short[] texels = new short[width * width * width * 2];
+        int n = 0;
+        for (int z = 0; z < width; z++) {
+            for (int y = 0; y < width; y++) {
+                for (int x = 0; x < width; x++) {
+                    double red = Noise.pnoise3(x * scale, y * scale, z * scale, freq, freq, freq, 0);
+                    double green = Noise.pnoise3(x * scale, y * scale, z * scale, freq, freq, freq, freq + 1);
+                    texels[n++] = (short) ((red + 1.0) * 32767.5);
+                    texels[n++] = (short) ((green + 1.0) * 32767.5);
+                }
+            }
+        }
+        return texels;
+    }
+
+    private static void assertLegacyTexels(ShaderNoiseTexture texture) {
+        short[] expected = legacyTexels(FREQ, WIDTH);
+        ShortBuffer data = texture.getTextureData();
+        assertEquals(0, data.position());
+        assertEquals(expected.length, data.remaining());
+        for (int n = 0; n < expected.length; n++) {
+            assertEquals(expected[n], data.get(n), "texel " + n / 2 + ", channel " + n % 2);
+        }
+    }
+
+    @Test
+    void testMatchesLegacyTexelsOnDefaultPool() {
+        assertLegacyTexels(new ShaderNoiseTexture(FREQ, WIDTH));
+    }
+
+    @Test
+    void testMatchesLegacyTexelsOnSingleThread() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertLegacyTexels(new ShaderNoiseTexture(FREQ, WIDTH, executor));
+            assertLegacyTexels(ShaderNoiseTexture.createAsync(FREQ, WIDTH, executor).join());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}